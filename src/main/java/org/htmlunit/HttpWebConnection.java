@@ -731,6 +731,7 @@ public class HttpWebConnection implements WebConnection {
             headers.add(new NameValuePair(header.getName(), header.getValue()));
         }
         final WebResponseData responseData = new WebResponseData(responseBody, statusCode, statusMessage, headers);
+        responseData.setMaxInMemory(webClient_.getOptions().getMaxInMemory());
         return newWebResponseInstance(responseData, loadTime, webRequest);
     }
 
@@ -21,9 +21,12 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -32,6 +35,12 @@ import org.htmlunit.util.NameValuePair;
 
 /**
  * A fake {@link WebConnection} designed to mock out the actual HTTP connections.
+ * <p>
+ * Responses are configured for a single URL, for a URL prefix (see
+ * {@link #setPrefixResponse(String, String, int, String, String, Charset, List)}) or as default.
+ * The lookup is thread safe and does not block; one instance can serve many
+ * {@link WebClient}s concurrently.
+ * </p>
  *
  * @author <a href="mailto:mbowler@GargoyleSoftware.com">Mike Bowler</a>
  * @author Noboru Sinohara
@@ -44,12 +53,13 @@ public class MockWebConnection implements WebConnection {
 
     private static final Log LOG = LogFactory.getLog(MockWebConnection.class);
 
-    private final Map<String, IOException> throwableMap_ = new HashMap<>();
-    private final Map<String, RawResponseData> responseMap_ = new HashMap<>();
-    private RawResponseData defaultResponse_;
-    private WebRequest lastRequest_;
-    private int requestCount_;
-    private final List<URL> requestedUrls_ = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, IOException> throwableMap_ = new ConcurrentHashMap<>();
+    private final Map<String, RawResponseData> responseMap_ = new ConcurrentHashMap<>();
+    private final PrefixRoutes prefixResponses_ = new PrefixRoutes();
+    private volatile RawResponseData defaultResponse_;
+    private volatile WebRequest lastRequest_;
+    private final AtomicInteger requestCount_ = new AtomicInteger();
+    private final Queue<URL> requestedUrls_ = new ConcurrentLinkedQueue<>();
 
     /**
      * Contains the raw data configured for a response.
@@ -58,6 +68,8 @@ public class MockWebConnection implements WebConnection {
         private final List<NameValuePair> headers_;
         private final byte[] byteContent_;
         private final String stringContent_;
+        // the content as bytes, shared by all the responses
+        private final byte[] content_;
         private final int statusCode_;
         private final String statusMessage_;
         private Charset charset_;
@@ -66,6 +78,7 @@ public class MockWebConnection implements WebConnection {
                 final String contentType, final List<NameValuePair> headers) {
             byteContent_ = byteContent;
             stringContent_ = null;
+            content_ = byteContent == null ? new byte[] {} : byteContent;
             statusCode_ = statusCode;
             statusMessage_ = statusMessage;
             headers_ = compileHeaders(headers, contentType);
@@ -76,6 +89,7 @@ public class MockWebConnection implements WebConnection {
             byteContent_ = null;
             charset_ = charset;
             stringContent_ = stringContent;
+            content_ = stringContent == null ? new byte[] {} : stringContent.getBytes(charset);
             statusCode_ = statusCode;
             statusMessage_ = statusMessage;
             headers_ = compileHeaders(headers, contentType);
@@ -93,17 +107,7 @@ public class MockWebConnection implements WebConnection {
         }
 
         WebResponseData asWebResponseData() {
-            final byte[] content;
-            if (byteContent_ != null) {
-                content = byteContent_;
-            }
-            else if (stringContent_ == null) {
-                content = new byte[] {};
-            }
-            else {
-                content = stringContent_.getBytes(charset_);
-            }
-            return new WebResponseData(content, statusCode_, statusMessage_, headers_);
+            return new WebResponseData(content_, statusCode_, statusMessage_, headers_);
         }
 
         /**
@@ -178,7 +182,7 @@ public class MockWebConnection implements WebConnection {
         }
 
         lastRequest_ = request;
-        requestCount_++;
+        requestCount_.incrementAndGet();
         requestedUrls_.add(url);
 
         String urlString = url.toExternalForm();
@@ -196,6 +200,10 @@ public class MockWebConnection implements WebConnection {
                 rawResponse = responseMap_.get(urlString);
             }
 
+            if (rawResponse == null) {
+                rawResponse = prefixResponses_.find(urlString);
+            }
+
             // fall back to default
             if (rawResponse == null) {
                 rawResponse = defaultResponse_;
@@ -215,7 +223,7 @@ public class MockWebConnection implements WebConnection {
      * @return the list of relative URLs
      */
     public List<URL> getRequestedUrls() {
-        return Collections.unmodifiableList(requestedUrls_);
+        return Collections.unmodifiableList(new ArrayList<>(requestedUrls_));
     }
 
     /**
@@ -303,6 +311,10 @@ public class MockWebConnection implements WebConnection {
      * @param throwable the Throwable
      */
     public void setThrowable(final URL url, final IOException throwable) {
+        if (throwable == null) {
+            throwableMap_.remove(url.toExternalForm());
+            return;
+        }
         throwableMap_.put(url.toExternalForm(), throwable);
     }
 
@@ -324,6 +336,64 @@ public class MockWebConnection implements WebConnection {
         responseMap_.put(url.toExternalForm(), responseEntry);
     }
 
+    /**
+     * Sets the response that will be returned for all the URLs starting with the given prefix
+     * that have no response configured for the URL itself.
+     * <p>
+     * The prefix is compared path segment by path segment (the query is ignored);
+     * {@code http://localhost/api} matches {@code http://localhost/api/users?id=7} but not
+     * {@code http://localhost/apis}. A segment {@code *} of the prefix matches every segment,
+     * e.g. {@code http://localhost/users/&#42;/details}. If more than one prefix matches, the longest wins.
+     * </p>
+     * @param urlPrefix the prefix of the URLs that will return the given response
+     * @param content the content to return
+     * @param statusCode the status code to return
+     * @param statusMessage the status message to return
+     * @param contentType the content type to return
+     * @param charset the charset
+     * @param headers the response headers to return
+     */
+    public void setPrefixResponse(final String urlPrefix, final String content, final int statusCode,
+            final String statusMessage, final String contentType, final Charset charset,
+            final List<NameValuePair> headers) {
+
+        final RawResponseData responseEntry = buildRawResponseData(content, charset, statusCode, statusMessage,
+                contentType, headers);
+        prefixResponses_.put(urlPrefix, responseEntry);
+    }
+
+    /**
+     * Sets the response that will be returned for all the URLs starting with the given prefix
+     * that have no response configured for the URL itself.
+     * @param urlPrefix the prefix of the URLs that will return the given response
+     * @param content the content to return
+     * @param statusCode the status code to return
+     * @param statusMessage the status message to return
+     * @param contentType the content type to return
+     * @param headers the response headers to return
+     * @see #setPrefixResponse(String, String, int, String, String, Charset, List)
+     */
+    public void setPrefixResponse(final String urlPrefix, final byte[] content, final int statusCode,
+            final String statusMessage, final String contentType, final List<NameValuePair> headers) {
+
+        final RawResponseData responseEntry = buildRawResponseData(content, statusCode, statusMessage, contentType,
+            headers);
+        prefixResponses_.put(urlPrefix, responseEntry);
+    }
+
+    /**
+     * Convenient method that is the same as calling
+     * {@link #setPrefixResponse(String, String, int, String, String, Charset, List)} with a status
+     * of "200 OK", the ISO-8859-1 charset and no additional headers.
+     *
+     * @param urlPrefix the prefix of the URLs that will return the given response
+     * @param content the content to return
+     * @param contentType the content type to return
+     */
+    public void setPrefixResponse(final String urlPrefix, final String content, final String contentType) {
+        setPrefixResponse(urlPrefix, content, 200, "OK", contentType, ISO_8859_1, null);
+    }
+
     private static RawResponseData buildRawResponseData(final byte[] content, final int statusCode,
             final String statusMessage, final String contentType, final List<NameValuePair> headers) {
         return new RawResponseData(content, statusCode, statusMessage, contentType, headers);
@@ -509,7 +579,7 @@ public class MockWebConnection implements WebConnection {
      * @return the number of requests made to this mock web connection
      */
     public int getRequestCount() {
-        return requestCount_;
+        return requestCount_.get();
     }
 
     /**
@@ -535,9 +605,98 @@ public class MockWebConnection implements WebConnection {
     public void clear() {
         throwableMap_.clear();
         responseMap_.clear();
+        prefixResponses_.clear();
         defaultResponse_ = null;
         lastRequest_ = null;
-        requestCount_ = 0;
+        requestCount_.set(0);
         requestedUrls_.clear();
     }
+
+    /**
+     * Trie of the prefix responses with one level per path segment.
+     * Lookups are not blocking; the nodes are never removed, only the whole trie is cleared.
+     */
+    private static final class PrefixRoutes {
+        private static final String WILDCARD = "*";
+
+        private final Node root_ = new Node(0);
+
+        void put(final String urlPrefix, final RawResponseData response) {
+            final String[] segments = segments(urlPrefix);
+            int length = segments.length;
+            // 'http://localhost/api/' is the same prefix as 'http://localhost/api'
+            while (length > 0 && segments[length - 1].isEmpty()) {
+                length--;
+            }
+
+            Node node = root_;
+            for (int i = 0; i < length; i++) {
+                final int depth = i + 1;
+                node = node.children_.computeIfAbsent(segments[i], k -> new Node(depth));
+            }
+            node.response_ = response;
+        }
+
+        RawResponseData find(final String url) {
+            if (root_.children_.isEmpty()) {
+                return null;
+            }
+            final Node match = find(root_, segments(url), 0);
+            return match == null ? null : match.response_;
+        }
+
+        /**
+         * Searches the exact and the wildcard branch and returns the deepest node with a response;
+         * for the same depth the exact match wins.
+         */
+        private static Node find(final Node node, final String[] segments, final int index) {
+            Node best = node.response_ == null ? null : node;
+            if (index < segments.length) {
+                final Node child = node.children_.get(segments[index]);
+                if (child != null) {
+                    best = deeper(best, find(child, segments, index + 1));
+                }
+                final Node wildcard = node.children_.get(WILDCARD);
+                if (wildcard != null) {
+                    best = deeper(best, find(wildcard, segments, index + 1));
+                }
+            }
+            return best;
+        }
+
+        private static Node deeper(final Node current, final Node candidate) {
+            if (candidate == null) {
+                return current;
+            }
+            if (current == null || candidate.depth_ > current.depth_) {
+                return candidate;
+            }
+            return current;
+        }
+
+        void clear() {
+            root_.children_.clear();
+        }
+
+        private static String[] segments(final String url) {
+            int end = url.indexOf('?');
+            if (end == -1) {
+                end = url.indexOf('#');
+            }
+            if (end == -1) {
+                end = url.length();
+            }
+            return url.substring(0, end).split("/", -1);
+        }
+
+        private static final class Node {
+            private final int depth_;
+            private final Map<String, Node> children_ = new ConcurrentHashMap<>();
+            private volatile RawResponseData response_;
+
+            Node(final int depth) {
+                depth_ = depth;
+            }
+        }
+    }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The compiled form of the proxy bypass patterns of a {@link ProxyConfig}.
+ * <p>
+ * Checking a host does not run all the patterns one after another:
+ * </p>
+ * <ul>
+ *   <li>domain patterns like {@code ^host\.example\.com$}, {@code \.example\.com$}
+ *       or {@code (^|\.)example\.com$} are stored in a trie of the reversed host labels,</li>
+ *   <li>all other patterns are combined into one alternation that is searched in one pass,</li>
+ *   <li>the decision is cached per host.</li>
+ * </ul>
+ * Instances are immutable (apart from the cache); the {@link ProxyConfig} creates a new one
+ * whenever the bypass patterns are changed.
+ *
+ * @author Ronald Brill
+ */
+final class ProxyBypassMatcher {
+
+    private static final int MAX_CACHED_HOSTS = 1_000;
+
+    private static final String[] EXACT_OR_SUBDOMAINS_PREFIXES = {"(^|\\.)", "^(.*\\.)?", "^(?:.*\\.)?"};
+    private static final String[] SUBDOMAINS_PREFIXES = {"\\.", ".*\\.", "^.*\\."};
+
+    private final DomainNode domains_ = new DomainNode();
+    private final Pattern combined_;
+    private final List<Pattern> separate_ = new ArrayList<>();
+    private final Map<String, Boolean> decisions_ = new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param patterns the compiled bypass patterns, keyed by their source
+     */
+    ProxyBypassMatcher(final Map<String, Pattern> patterns) {
+        final List<String> combinable = new ArrayList<>();
+        for (final Map.Entry<String, Pattern> entry : patterns.entrySet()) {
+            final String pattern = entry.getKey();
+            if (addDomainPattern(pattern)) {
+                continue;
+            }
+            if (isCombinable(pattern)) {
+                combinable.add(pattern);
+            }
+            else {
+                separate_.add(entry.getValue());
+            }
+        }
+        combined_ = combine(combinable, patterns);
+    }
+
+    /**
+     * Returns {@code true} if any of the patterns matches the given host.
+     * @param hostname the name of the host to check
+     * @return {@code true} if the host should bypass the proxy
+     */
+    boolean matches(final String hostname) {
+        final Boolean cached = decisions_.get(hostname);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+
+        final boolean bypass = domains_.matches(hostname) || matchesPatterns(hostname);
+        if (decisions_.size() >= MAX_CACHED_HOSTS) {
+            decisions_.clear();
+        }
+        decisions_.put(hostname, Boolean.valueOf(bypass));
+        return bypass;
+    }
+
+    private boolean matchesPatterns(final String hostname) {
+        if (combined_ != null && combined_.matcher(hostname).find()) {
+            return true;
+        }
+        for (final Pattern p : separate_) {
+            if (p.matcher(hostname).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the pattern to the domain trie if it is a plain domain pattern.
+     * @param pattern the pattern
+     * @return {@code true} if the pattern was added
+     */
+    private boolean addDomainPattern(final String pattern) {
+        if (!pattern.endsWith("$")) {
+            return false;
+        }
+        final String body = pattern.substring(0, pattern.length() - 1);
+
+        for (final String prefix : EXACT_OR_SUBDOMAINS_PREFIXES) {
+            if (body.startsWith(prefix)) {
+                return addDomain(body.substring(prefix.length()), true, true);
+            }
+        }
+        for (final String prefix : SUBDOMAINS_PREFIXES) {
+            if (body.startsWith(prefix)) {
+                return addDomain(body.substring(prefix.length()), false, true);
+            }
+        }
+        if (body.startsWith("^")) {
+            return addDomain(body.substring(1), true, false);
+        }
+        return false;
+    }
+
+    private boolean addDomain(final String domain, final boolean exact, final boolean subdomains) {
+        final List<String> labels = parseLabels(domain);
+        if (labels == null) {
+            return false;
+        }
+
+        DomainNode node = domains_;
+        for (int i = labels.size() - 1; i >= 0; i--) {
+            node = node.children_.computeIfAbsent(labels.get(i), k -> new DomainNode());
+        }
+        node.exact_ |= exact;
+        node.subdomains_ |= subdomains;
+        return true;
+    }
+
+    /**
+     * Splits a regex like {@code www\.example\.com} into its labels.
+     * @param domain the regex
+     * @return the labels or {@code null} if the regex is not a plain domain name
+     */
+    private static List<String> parseLabels(final String domain) {
+        final List<String> labels = new ArrayList<>();
+        final StringBuilder label = new StringBuilder();
+        for (int i = 0; i < domain.length(); i++) {
+            final char c = domain.charAt(i);
+            if (c == '\\' && i + 1 < domain.length()) {
+                final char escaped = domain.charAt(++i);
+                if (escaped == '.') {
+                    if (label.length() == 0) {
+                        return null;
+                    }
+                    labels.add(label.toString());
+                    label.setLength(0);
+                }
+                else if (escaped == '-') {
+                    label.append(escaped);
+                }
+                else {
+                    return null;
+                }
+            }
+            else if (Character.isLetterOrDigit(c) || c == '-' || c == '_') {
+                label.append(c);
+            }
+            else {
+                return null;
+            }
+        }
+        if (label.length() == 0) {
+            return null;
+        }
+        labels.add(label.toString());
+        return labels;
+    }
+
+    /**
+     * Back references, named groups, comments and quotes depend on the whole pattern;
+     * patterns using them can't be part of an alternation.
+     * @param pattern the pattern
+     * @return {@code true} if the pattern can be combined with others
+     */
+    private static boolean isCombinable(final String pattern) {
+        for (int i = 0; i < pattern.length() - 1; i++) {
+            final char c = pattern.charAt(i);
+            final char next = pattern.charAt(i + 1);
+            if (c == '\\') {
+                if (Character.isDigit(next) || next == 'k' || next == 'Q') {
+                    return false;
+                }
+                i++;
+            }
+            else if (c == '(' && next == '?' && i + 2 < pattern.length()) {
+                final char kind = pattern.charAt(i + 2);
+                if (kind == '<' && i + 3 < pattern.length()
+                        && pattern.charAt(i + 3) != '=' && pattern.charAt(i + 3) != '!') {
+                    return false;
+                }
+                for (int j = i + 2; j < pattern.length() && Character.isLetter(pattern.charAt(j)); j++) {
+                    if (pattern.charAt(j) == 'x') {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private Pattern combine(final List<String> combinable, final Map<String, Pattern> patterns) {
+        if (combinable.isEmpty()) {
+            return null;
+        }
+        if (combinable.size() == 1) {
+            return patterns.get(combinable.get(0));
+        }
+
+        final StringBuilder alternation = new StringBuilder();
+        for (final String pattern : combinable) {
+            if (alternation.length() > 0) {
+                alternation.append('|');
+            }
+            alternation.append("(?:").append(pattern).append(')');
+        }
+        try {
+            return Pattern.compile(alternation.toString());
+        }
+        catch (final PatternSyntaxException e) {
+            // should not happen, fall back to the single patterns
+            for (final String pattern : combinable) {
+                separate_.add(patterns.get(pattern));
+            }
+            return null;
+        }
+    }
+
+    private static final class DomainNode {
+        private final Map<String, DomainNode> children_ = new HashMap<>();
+        private boolean exact_;
+        private boolean subdomains_;
+
+        boolean matches(final String hostname) {
+            if (children_.isEmpty()) {
+                return false;
+            }
+
+            final String[] labels = hostname.split("\\.", -1);
+            DomainNode node = this;
+            for (int i = labels.length - 1; i >= 0; i--) {
+                node = node.children_.get(labels[i]);
+                if (node == null) {
+                    return false;
+                }
+                if (node.subdomains_ && i > 0) {
+                    return true;
+                }
+            }
+            return node.exact_;
+        }
+    }
+}
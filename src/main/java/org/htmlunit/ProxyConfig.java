@@ -36,6 +36,7 @@ public class ProxyConfig implements Serializable {
     private final Map<String, Pattern> proxyBypassHosts_ = new HashMap<>();
     private String proxyAutoConfigUrl_;
     private String proxyAutoConfigContent_;
+    private transient volatile ProxyBypassMatcher proxyBypassMatcher_;
 
     /**
      * Creates a new instance.
@@ -138,8 +139,9 @@ public class ProxyConfig implements Serializable {
      *                bypass the configured proxy.
      * @see Pattern
      */
-    public void addHostsToProxyBypass(final String pattern) {
+    public synchronized void addHostsToProxyBypass(final String pattern) {
         proxyBypassHosts_.put(pattern, Pattern.compile(pattern));
+        proxyBypassMatcher_ = null;
     }
 
     /**
@@ -147,8 +149,9 @@ public class ProxyConfig implements Serializable {
      * @param pattern the previously added regular expression pattern
      * @see Pattern
      */
-    public void removeHostsFromProxyBypass(final String pattern) {
+    public synchronized void removeHostsFromProxyBypass(final String pattern) {
         proxyBypassHosts_.remove(pattern);
+        proxyBypassMatcher_ = null;
     }
 
     /**
@@ -159,14 +162,17 @@ public class ProxyConfig implements Serializable {
      *         configured proxy, {@code false} otherwise.
      */
     protected boolean shouldBypassProxy(final String hostname) {
-        boolean bypass = false;
-        for (final Pattern p : proxyBypassHosts_.values()) {
-            if (p.matcher(hostname).find()) {
-                bypass = true;
-                break;
+        ProxyBypassMatcher matcher = proxyBypassMatcher_;
+        if (matcher == null) {
+            synchronized (this) {
+                matcher = proxyBypassMatcher_;
+                if (matcher == null) {
+                    matcher = new ProxyBypassMatcher(proxyBypassHosts_);
+                    proxyBypassMatcher_ = matcher;
+                }
             }
         }
-        return bypass;
+        return matcher.matches(hostname);
     }
 
     /**
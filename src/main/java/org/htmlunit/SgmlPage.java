@@ -14,6 +14,9 @@
  */
 package org.htmlunit;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -26,12 +29,15 @@ import org.htmlunit.html.DomCDataSection;
 import org.htmlunit.html.DomComment;
 import org.htmlunit.html.DomDocumentFragment;
 import org.htmlunit.html.DomElement;
+import org.htmlunit.html.DomListenerRegistry;
 import org.htmlunit.html.DomNode;
 import org.htmlunit.html.DomNodeIterator;
 import org.htmlunit.html.DomNodeList;
 import org.htmlunit.html.DomText;
+import org.htmlunit.html.EventListenerCounter;
 import org.htmlunit.util.StringUtils;
 import org.htmlunit.util.UrlUtils;
+import org.htmlunit.xpath.XPathContext;
 import org.w3c.dom.CDATASection;
 import org.w3c.dom.Comment;
 import org.w3c.dom.DOMException;
@@ -55,8 +61,11 @@ public abstract class SgmlPage extends DomNode implements Page, Document {
     private WebWindow enclosingWindow_;
     private final WebClient webClient_;
     private boolean printing_;
-    private boolean domChangeListenerInUse_;
-    private boolean characterDataChangeListenerInUse_;
+    private final DomListenerRegistry listenerRegistry_ = new DomListenerRegistry();
+    private final EventListenerCounter eventListenerCounter_ = new EventListenerCounter();
+    private int domChangeCount_;
+    private transient volatile SoftReference<XPathContext> xpathContext_;
+    private transient int xpathContextDomChangeCount_;
 
     /**
      * Creates an instance of SgmlPage.
@@ -195,7 +204,9 @@ public abstract class SgmlPage extends DomNode implements Page, Document {
     @Override
     protected SgmlPage clone() {
         try {
-            return (SgmlPage) super.clone();
+            final SgmlPage result = (SgmlPage) super.clone();
+            result.xpathContext_ = null;
+            return result;
         }
         catch (final CloneNotSupportedException e) {
             throw new IllegalStateException("Clone not supported", e);
@@ -206,12 +217,11 @@ public abstract class SgmlPage extends DomNode implements Page, Document {
      * {@inheritDoc}
      */
     @Override
-    public String asXml() {
+    public void asXml(final Writer writer) throws IOException {
         final DomElement documentElement = getDocumentElement();
-        if (documentElement == null) {
-            return "";
+        if (documentElement != null) {
+            documentElement.asXml(writer);
         }
-        return documentElement.asXml();
     }
 
     /**
@@ -422,30 +432,114 @@ public abstract class SgmlPage extends DomNode implements Page, Document {
     }
 
     /**
-     * Informs about the use of a domChangeListener.
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return the registry of the dom change and character data change listeners of this page
      */
-    public void domChangeListenerAdded() {
-        domChangeListenerInUse_ = true;
+    public DomListenerRegistry getListenerRegistry() {
+        return listenerRegistry_;
     }
 
     /**
-     * @return true if at least one domChangeListener was registered.
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return the count of the JavaScript event listeners of this page
      */
-    public boolean isDomChangeListenerInUse() {
-        return domChangeListenerInUse_;
+    public EventListenerCounter getEventListenerCounter() {
+        return eventListenerCounter_;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Notifies the page that the dom tree (nodes, attributes or character data) was changed.
+     */
+    public void domChanged() {
+        domChangeCount_++;
+        // the dtm is a copy of the dom, don't keep it alive once outdated
+        xpathContext_ = null;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return a counter incremented for every change of the dom tree; this can be used to
+     *         detect if data derived from the dom is still valid
+     */
+    public int getDomChangeCount() {
+        return domChangeCount_;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the {@link XPathContext} stored by {@link #cacheXPathContext(XPathContext, int)}
+     * if the dom was not changed in the meantime and the garbage collector did not drop it. The context
+     * is removed from the cache; this way it is never used by two threads at the same time.
+     *
+     * @return the cached context or {@code null}
+     */
+    public synchronized XPathContext takeCachedXPathContext() {
+        final SoftReference<XPathContext> reference = xpathContext_;
+        xpathContext_ = null;
+        if (reference == null) {
+            return null;
+        }
+        final XPathContext xpathContext = reference.get();
+        if (xpathContext != null && xpathContextDomChangeCount_ == domChangeCount_) {
+            return xpathContext;
+        }
+        return null;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Stores the {@link XPathContext} (and therefore the DTM built for this page) for reuse.
+     * The DTM is about as big as the dom itself; therefore the context is only softly referenced
+     * and dropped with the next change of the dom.
+     *
+     * @param xpathContext the context
+     * @param domChangeCount the {@link #getDomChangeCount() dom change count} the context is valid for
+     */
+    public synchronized void cacheXPathContext(final XPathContext xpathContext, final int domChangeCount) {
+        if (domChangeCount == domChangeCount_) {
+            xpathContextDomChangeCount_ = domChangeCount;
+            xpathContext_ = new SoftReference<>(xpathContext);
+        }
+    }
+
+    /**
+     * Informs about the use of a domChangeListener.
+     * @deprecated as of version 4.12.0; the listeners are counted by the
+     *             {@link #getListenerRegistry() listener registry}
+     */
+    @Deprecated
+    public void domChangeListenerAdded() {
+        listenerRegistry_.markDomChangeListenerInUse();
     }
 
     /**
      * Informs about the use of a characterDataChangeListener.
+     * @deprecated as of version 4.12.0; the listeners are counted by the
+     *             {@link #getListenerRegistry() listener registry}
      */
+    @Deprecated
     public void characterDataChangeListenerAdded() {
-        characterDataChangeListenerInUse_ = true;
+        listenerRegistry_.markCharacterDataChangeListenerInUse();
+    }
+
+    /**
+     * @return true if at least one domChangeListener is registered.
+     */
+    public boolean isDomChangeListenerInUse() {
+        return listenerRegistry_.hasDomChangeListeners();
     }
 
     /**
-     * @return true if at least one characterDataChangeListener was registered.
+     * @return true if at least one characterDataChangeListener is registered.
      */
     public boolean isCharacterDataChangeListenerInUse() {
-        return characterDataChangeListenerInUse_;
+        return listenerRegistry_.hasCharacterDataChangeListeners();
     }
 }
@@ -22,6 +22,10 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.htmlunit.storage.InMemoryStorageBackend;
+import org.htmlunit.storage.IndexedDbBackend;
+import org.htmlunit.storage.StorageBackend;
+
 /**
  * Holder for different types of storages.
  * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
@@ -42,8 +46,9 @@ public class StorageHolder implements Serializable {
         SESSION_STORAGE
     }
 
-    private final Map<String, Map<String, String>> localStorage_ = new HashMap<>();
+    private StorageBackend localStorageBackend_ = new InMemoryStorageBackend();
     private transient Map<String, Map<String, String>> sessionStorage_ = new HashMap<>();
+    private transient IndexedDbBackend indexedDbBackend_ = new IndexedDbBackend();
 
     /**
      * Gets the store of the give type for the page.
@@ -70,10 +75,45 @@ public class StorageHolder implements Serializable {
      * @return the store
      */
     public Map<String, String> getLocalStorage(final URL url) {
-        synchronized (localStorage_) {
-            final String key = url.getProtocol() + "://" + url.getHost();
-            return localStorage_.computeIfAbsent(key, k -> new LinkedHashMap<>());
-        }
+        final String key = url.getProtocol() + "://" + url.getHost();
+        return localStorageBackend_.getStore(key);
+    }
+
+    /**
+     * @return the backend used for the local storage
+     */
+    public StorageBackend getLocalStorageBackend() {
+        return localStorageBackend_;
+    }
+
+    /**
+     * Sets the backend used for the local storage. This has to be done before the first page
+     * is loaded; the storages of already loaded pages are still connected to the old backend.
+     * Use e.g. a {@link org.htmlunit.storage.MappedFileStorageBackend} to make the local
+     * storage persistent and to share it with other {@link WebClient}s.
+     *
+     * @param localStorageBackend the new backend
+     */
+    public void setLocalStorageBackend(final StorageBackend localStorageBackend) {
+        localStorageBackend_ = localStorageBackend;
+    }
+
+    /**
+     * @return the backend used for window.indexedDB
+     */
+    public IndexedDbBackend getIndexedDbBackend() {
+        return indexedDbBackend_;
+    }
+
+    /**
+     * Sets the backend used for window.indexedDB. The default backend keeps all databases
+     * in memory; use {@link IndexedDbBackend#open(java.nio.file.Path)} to make the
+     * databases persistent.
+     *
+     * @param indexedDbBackend the new backend
+     */
+    public void setIndexedDbBackend(final IndexedDbBackend indexedDbBackend) {
+        indexedDbBackend_ = indexedDbBackend;
     }
 
     /**
@@ -93,5 +133,6 @@ public class StorageHolder implements Serializable {
         ois.defaultReadObject();
 
         sessionStorage_ = new HashMap<>();
+        indexedDbBackend_ = new IndexedDbBackend();
     }
 }
@@ -98,6 +98,7 @@ import org.htmlunit.util.Cookie;
 import org.htmlunit.util.HeaderUtils;
 import org.htmlunit.util.MimeType;
 import org.htmlunit.util.NameValuePair;
+import org.htmlunit.util.StringInterner;
 import org.htmlunit.util.UrlUtils;
 import org.htmlunit.websocket.JettyWebSocketAdapter.JettyWebSocketAdapterFactory;
 import org.htmlunit.websocket.WebSocketAdapter;
@@ -240,6 +241,9 @@ public class WebClient implements Serializable, AutoCloseable {
     // mini pool to save resource when parsing CSS
     private transient CSS3ParserPool css3ParserPool_ = new CSS3ParserPool();
 
+    // shared strings of the parsed pages
+    private transient StringInterner stringInterner_ = new StringInterner();
+
     /** target "_blank". */
     public static final String TARGET_BLANK = "_blank";
 
@@ -2555,6 +2559,7 @@ public class WebClient implements Serializable, AutoCloseable {
         jobManagers_ = Collections.synchronizedList(new ArrayList<>());
         loadQueue_ = new ArrayList<>();
         css3ParserPool_ = new CSS3ParserPool();
+        stringInterner_ = new StringInterner();
     }
 
     private static class LoadJob {
@@ -2929,6 +2934,22 @@ public class WebClient implements Serializable, AutoCloseable {
         return this.css3ParserPool_.get();
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the table used to share the text runs and attribute values of all the pages
+     * parsed by this client, including the statistics about the saved memory.
+     *
+     * @return the {@link StringInterner} or {@code null} if
+     *         {@link WebClientOptions#isParserStringInterningEnabled()} is disabled
+     */
+    public StringInterner getStringInterner() {
+        if (getOptions().isParserStringInterningEnabled()) {
+            return stringInterner_;
+        }
+        return null;
+    }
+
     /**
      * Our pool of CSS3Parsers. If you need a parser, get it from here and use the AutoCloseable
      * functionality with a try-with-resource block. If you don't want to do that at all, continue
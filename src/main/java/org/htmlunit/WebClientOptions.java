@@ -90,9 +90,16 @@ public class WebClientOptions implements Serializable {
     private int webSocketMaxTextMessageBufferSize_ = -1;
     private int webSocketMaxBinaryMessageSize_ = -1;
     private int webSocketMaxBinaryMessageBufferSize_ = -1;
+    private int webSocketMaxQueuedMessages_ = 10_000;
+    private boolean webSocketCoalesceMessages_;
 
     private boolean isFetchPolyfillEnabled_;
 
+    private boolean workerThreadsEnabled_;
+
+    private boolean parserStringInterningEnabled_;
+    private boolean sharedStyleSheetCacheEnabled_;
+
     /**
      * Sets the SSLContext; if this is set it is used and some other settings are ignored
      * (protocol, keyStore, keyStorePassword, trustStore, sslClientCertificateStore, sslClientCertificatePassword).
@@ -827,6 +834,48 @@ public class WebClientOptions implements Serializable {
         webSocketMaxBinaryMessageBufferSize_ = webSocketMaxBinaryMessageBufferSize;
     }
 
+    /**
+     * Returns the maximum number of received messages that are waiting for delivery to the
+     * page per WebSocket; further messages are dropped. A negative value means no limit.
+     * The default is 10000.
+     *
+     * @return the maximum number of waiting messages
+     */
+    public int getWebSocketMaxQueuedMessages() {
+        return webSocketMaxQueuedMessages_;
+    }
+
+    /**
+     * Sets the maximum number of received messages that are waiting for delivery to the
+     * page per WebSocket; further messages are dropped. A negative value means no limit.
+     *
+     * @param webSocketMaxQueuedMessages the new value
+     */
+    public void setWebSocketMaxQueuedMessages(final int webSocketMaxQueuedMessages) {
+        webSocketMaxQueuedMessages_ = webSocketMaxQueuedMessages;
+    }
+
+    /**
+     * Returns {@code true} if all the messages received by a WebSocket while the page is busy
+     * are delivered by a single job instead of one job per message.
+     * By default, this property is disabled.
+     *
+     * @return whether bursts of messages are coalesced
+     */
+    public boolean isWebSocketCoalesceMessages() {
+        return webSocketCoalesceMessages_;
+    }
+
+    /**
+     * Enables/disables the delivery of all the messages received by a WebSocket while the page
+     * is busy by a single job.
+     *
+     * @param coalesce {@code true} to coalesce bursts of messages
+     */
+    public void setWebSocketCoalesceMessages(final boolean coalesce) {
+        webSocketCoalesceMessages_ = coalesce;
+    }
+
     /**
      * Sets whether or not fetch polyfill should be used.
      * @param enabled true to enable fetch polyfill
@@ -842,6 +891,66 @@ public class WebClientOptions implements Serializable {
         return isFetchPolyfillEnabled_;
     }
 
+    /**
+     * Enables/disables the execution of Web Workers on dedicated threads. By default, this property is disabled
+     * and the worker scripts are executed by the JavaScript executor of the window that created the worker.
+     * <p>If enabled, every worker runs on its own thread with its own JavaScript context; messages
+     * are exchanged as structured clones. Worker code and page code are executed in
+     * parallel, therefore {@link WebClient#waitForBackgroundJavaScript(long)} does not wait for workers.</p>
+     *
+     * @param enabled {@code true} to run the workers on dedicated threads
+     */
+    public void setWorkerThreadsEnabled(final boolean enabled) {
+        workerThreadsEnabled_ = enabled;
+    }
+
+    /**
+     * @return {@code true} if the workers are running on dedicated threads
+     */
+    public boolean isWorkerThreadsEnabled() {
+        return workerThreadsEnabled_;
+    }
+
+    /**
+     * Enables/disables the sharing of short text runs and attribute values between all the pages
+     * parsed by this client. By default, this property is disabled.
+     * <p>Equal strings (e.g. the whitespace between the tags or repeated class names) are stored
+     * only once; this reduces the memory used by many pages kept in memory at the same time.
+     * The strings are shared using a bounded table, see {@link WebClient#getStringInterner()}.</p>
+     *
+     * @param enabled {@code true} to share the strings created by the parser
+     */
+    public void setParserStringInterningEnabled(final boolean enabled) {
+        parserStringInterningEnabled_ = enabled;
+    }
+
+    /**
+     * @return {@code true} if the strings created by the parser are shared
+     */
+    public boolean isParserStringInterningEnabled() {
+        return parserStringInterningEnabled_;
+    }
+
+    /**
+     * Enables/disables the JVM wide cache of parsed inline style sheets. By default, this property is disabled
+     * and the inline style sheets are cached in the {@link org.htmlunit.Cache} of the client.
+     * <p>If enabled the parsed sheets are shared between all the web clients using this option;
+     * sheets with parse errors or import rules are never shared. Use
+     * {@link org.htmlunit.css.SharedStyleSheetCache#clear()} to release the memory.</p>
+     *
+     * @param enabled {@code true} to share the parsed inline style sheets JVM wide
+     */
+    public void setSharedStyleSheetCacheEnabled(final boolean enabled) {
+        sharedStyleSheetCacheEnabled_ = enabled;
+    }
+
+    /**
+     * @return {@code true} if the parsed inline style sheets are shared JVM wide
+     */
+    public boolean isSharedStyleSheetCacheEnabled() {
+        return sharedStyleSheetCacheEnabled_;
+    }
+
     /**
      * Enables/disables Geolocation support. By default, this property is disabled.
      *
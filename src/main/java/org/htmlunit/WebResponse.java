@@ -21,6 +21,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.List;
@@ -59,6 +60,11 @@ public class WebResponse implements Serializable {
     private final WebResponseData responseData_;
     private final WebRequest request_;
     private boolean wasContentCharsetTentative_;
+    // the sniffed charset; null if the default of the request is used
+    private transient Charset contentCharset_;
+    private transient boolean contentCharsetKnown_;
+    private transient Charset contentAsStringCharset_;
+    private transient SoftReference<String> contentAsString_;
     private boolean wasBlocked_;
     private String blockReason_;
 
@@ -185,6 +191,42 @@ public class WebResponse implements Serializable {
      * @return the content charset for this response
      */
     public Charset getContentCharset() {
+        // the headers and the content are immutable, sniff only once
+        synchronized (this) {
+            if (contentCharsetKnown_) {
+                if (contentCharset_ == null) {
+                    return getWebRequest().getDefaultResponseContentCharset();
+                }
+                return contentCharset_;
+            }
+        }
+
+        final Charset charset;
+        try {
+            charset = sniffContentCharset();
+        }
+        catch (final IOException e) {
+            LOG.warn("Error trying to sniff encoding.", e);
+            wasContentCharsetTentative_ = true;
+            return getWebRequest().getDefaultResponseContentCharset();
+        }
+
+        synchronized (this) {
+            contentCharset_ = charset;
+            contentCharsetKnown_ = true;
+        }
+        if (charset == null) {
+            return getWebRequest().getDefaultResponseContentCharset();
+        }
+        return charset;
+    }
+
+    /**
+     * @return the charset from the BOM, the header or the content; {@code null} if the default
+     *         charset of the request has to be used
+     * @throws IOException in case of problems reading the content
+     */
+    private Charset sniffContentCharset() throws IOException {
         wasContentCharsetTentative_ = false;
 
         try (InputStream is = getContentAsStreamWithBomIfApplicable()) {
@@ -219,15 +261,8 @@ public class WebResponse implements Serializable {
                     break;
             }
 
-            if (charset != null) {
-                return charset;
-            }
-        }
-        catch (final IOException e) {
-            LOG.warn("Error trying to sniff encoding.", e);
-            wasContentCharsetTentative_ = true;
+            return charset;
         }
-        return getWebRequest().getDefaultResponseContentCharset();
     }
 
     /**
@@ -263,6 +298,29 @@ public class WebResponse implements Serializable {
      * @return the response content as a string or null if the content retrieval was failing
      */
     public String getContentAsString(final Charset encoding) {
+        synchronized (this) {
+            if (contentAsString_ != null && encoding != null && encoding.equals(contentAsStringCharset_)) {
+                final String content = contentAsString_.get();
+                if (content != null) {
+                    return content;
+                }
+            }
+        }
+
+        final String content = decodeContent(encoding);
+        if (content != null && encoding != null && responseData_ != null) {
+            final int maxInMemory = responseData_.getMaxInMemory();
+            if (maxInMemory <= 0 || content.length() <= maxInMemory) {
+                synchronized (this) {
+                    contentAsStringCharset_ = encoding;
+                    contentAsString_ = new SoftReference<>(content);
+                }
+            }
+        }
+        return content;
+    }
+
+    private String decodeContent(final Charset encoding) {
         if (responseData_ != null) {
             try (InputStream in = responseData_.getInputStreamWithBomIfApplicable(BOM_HEADERS)) {
                 if (in instanceof BOMInputStream) {
@@ -338,6 +396,9 @@ public class WebResponse implements Serializable {
      * Clean up the response data.
      */
     public void cleanUp() {
+        synchronized (this) {
+            contentAsString_ = null;
+        }
         if (responseData_ != null) {
             responseData_.cleanUp();
         }
@@ -16,9 +16,13 @@ package org.htmlunit;
 
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
 import java.util.Collections;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -47,10 +51,25 @@ import org.htmlunit.util.NameValuePair;
 public class WebResponseData implements Serializable {
     private static final Log LOG = LogFactory.getLog(WebResponseData.class);
 
+    /** The limit of the memoized decompressed content if not configured, same as {@link WebClientOptions}. */
+    static final int DEFAULT_MAX_IN_MEMORY = 500 * 1024;
+
+    private static final String ENCODING_ERROR_PAGE = "<!DOCTYPE html><html>\n"
+            + "<head><title>Problem loading page</title></head>\n"
+            + "<body>\n"
+            + "<h1>Content Encoding Error</h1>\n"
+            + "<p>The page you are trying to view cannot be shown because"
+            + " it uses an invalid or unsupported form of compression.</p>\n"
+            + "</body>\n"
+            + "</html>";
+
     private final int statusCode_;
     private final String statusMessage_;
     private final List<NameValuePair> responseHeaders_;
     private final DownloadedContent downloadedContent_;
+    private int maxInMemory_ = DEFAULT_MAX_IN_MEMORY;
+    // softly held, the cached copy must not keep the memory of all the responses (e.g. in the cache)
+    private transient volatile SoftReference<byte[]> decompressed_;
 
     /**
      * Constructs with a raw byte[] (mostly for testing).
@@ -93,9 +112,8 @@ public class WebResponseData implements Serializable {
     }
 
     private InputStream getStream(final ByteOrderMark... bomHeaders) throws IOException {
-        InputStream stream = downloadedContent_.getInputStream();
         if (downloadedContent_.isEmpty()) {
-            return stream;
+            return downloadedContent_.getInputStream();
         }
 
         final List<NameValuePair> headers = getResponseHeaders();
@@ -105,74 +123,112 @@ public class WebResponseData implements Serializable {
             if ("gzip-only-text/html".equals(encoding)) {
                 isGzip = MimeType.TEXT_HTML.equals(getHeader(headers, "content-type"));
             }
-            if (isGzip) {
-                try {
-                    stream = new GZIPInputStream(stream);
-                }
-                catch (final IOException e) {
-                    LOG.error("Reading gzip encodec content failed.", e);
-                    stream.close();
-                    stream = IOUtils.toInputStream(
-                                "<!DOCTYPE html><html>\n"
-                                 + "<head><title>Problem loading page</title></head>\n"
-                                 + "<body>\n"
-                                 + "<h1>Content Encoding Error</h1>\n"
-                                 + "<p>The page you are trying to view cannot be shown because"
-                                 + " it uses an invalid or unsupported form of compression.</p>\n"
-                                 + "</body>\n"
-                                 + "</html>", ISO_8859_1);
-                }
-                if (stream != null && bomHeaders != null) {
-                    stream = new BOMInputStream(stream, bomHeaders);
-                }
-                return stream;
-            }
+            final boolean isBrotli = !isGzip && "br".equals(encoding);
+            final boolean isDeflate = !isGzip && !isBrotli && StringUtils.contains(encoding, "deflate");
 
-            if ("br".equals(encoding)) {
-                try {
-                    stream = new BrotliInputStream(stream);
+            if (isGzip || isBrotli || isDeflate) {
+                final SoftReference<byte[]> decompressedRef = decompressed_;
+                final byte[] decompressed = decompressedRef == null ? null : decompressedRef.get();
+                InputStream stream;
+                if (decompressed == null) {
+                    stream = decompress(isGzip, isBrotli, true);
                 }
-                catch (final IOException e) {
-                    LOG.error("Reading Brotli encodec content failed.", e);
-                    stream.close();
-                    stream = IOUtils.toInputStream(
-                                "<!DOCTYPE html><html>\n"
-                                 + "<head><title>Problem loading page</title></head>\n"
-                                 + "<body>\n"
-                                 + "<h1>Content Encoding Error</h1>\n"
-                                 + "<p>The page you are trying to view cannot be shown because"
-                                 + " it uses an invalid or unsupported form of compression.</p>\n"
-                                 + "</body>\n"
-                                 + "</html>", ISO_8859_1);
+                else {
+                    stream = new ByteArrayInputStream(decompressed);
                 }
-                return stream;
-            }
 
-            if (StringUtils.contains(encoding, "deflate")) {
-                boolean zlibHeader = false;
-                if (stream.markSupported()) { // should be always the case as the content is in a byte[] or in a file
-                    stream.mark(2);
-                    final byte[] buffer = new byte[2];
-                    final int byteCount = IOUtils.read(stream, buffer, 0, 2);
-                    zlibHeader = byteCount == 2 && (((buffer[0] & 0xff) << 8) | (buffer[1] & 0xff)) == 0x789c;
-                    stream.reset();
-                }
-                if (zlibHeader) {
-                    stream = new InflaterInputStream(stream);
-                }
-                else {
-                    stream = new InflaterInputStream(stream, new Inflater(true));
+                if (isGzip && stream != null && bomHeaders != null) {
+                    stream = new BOMInputStream(stream, bomHeaders);
                 }
                 return stream;
             }
         }
 
+        InputStream stream = downloadedContent_.getInputStream();
         if (stream != null && bomHeaders != null) {
             stream = new BOMInputStream(stream, bomHeaders);
         }
         return stream;
     }
 
+    private InputStream decompress(final boolean isGzip, final boolean isBrotli,
+            final boolean memoize) throws IOException {
+        InputStream stream = downloadedContent_.getInputStream();
+        if (isGzip) {
+            try {
+                stream = new GZIPInputStream(stream);
+            }
+            catch (final IOException e) {
+                LOG.error("Reading gzip encodec content failed.", e);
+                stream.close();
+                return IOUtils.toInputStream(ENCODING_ERROR_PAGE, ISO_8859_1);
+            }
+        }
+        else if (isBrotli) {
+            try {
+                stream = new BrotliInputStream(stream);
+            }
+            catch (final IOException e) {
+                LOG.error("Reading Brotli encodec content failed.", e);
+                stream.close();
+                return IOUtils.toInputStream(ENCODING_ERROR_PAGE, ISO_8859_1);
+            }
+        }
+        else {
+            boolean zlibHeader = false;
+            if (stream.markSupported()) { // should be always the case as the content is in a byte[] or in a file
+                stream.mark(2);
+                final byte[] buffer = new byte[2];
+                final int byteCount = IOUtils.read(stream, buffer, 0, 2);
+                zlibHeader = byteCount == 2 && (((buffer[0] & 0xff) << 8) | (buffer[1] & 0xff)) == 0x789c;
+                stream.reset();
+            }
+            if (zlibHeader) {
+                stream = new InflaterInputStream(stream);
+            }
+            else {
+                stream = new InflaterInputStream(stream, new Inflater(true));
+            }
+        }
+
+        if (!memoize) {
+            return stream;
+        }
+        return memoizeDecompressed(stream, isGzip, isBrotli);
+    }
+
+    /**
+     * Inflates the content once and keeps the result softly, every following access is served from memory
+     * as long as the garbage collector did not reclaim it.
+     * Content larger than {@link #getMaxInMemory()} is not kept; the returned stream
+     * continues with the (partially consumed) decompressing stream in this case.
+     */
+    private InputStream memoizeDecompressed(final InputStream stream, final boolean isGzip,
+            final boolean isBrotli) throws IOException {
+        final int limit = maxInMemory_ > 0 ? maxInMemory_ : Integer.MAX_VALUE - 8;
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8 * 1024];
+        try {
+            int nbRead;
+            while ((nbRead = stream.read(buffer)) != -1) {
+                bos.write(buffer, 0, nbRead);
+                if (bos.size() > limit) {
+                    return new SequenceInputStream(new ByteArrayInputStream(bos.toByteArray()), stream);
+                }
+            }
+        }
+        catch (final IOException e) {
+            // broken content; let the caller see the problem while reading, like without the memoization
+            stream.close();
+            return decompress(isGzip, isBrotli, false);
+        }
+
+        stream.close();
+        final byte[] decompressed = bos.toByteArray();
+        decompressed_ = new SoftReference<>(decompressed);
+        return new ByteArrayInputStream(decompressed);
+    }
+
     private static String getHeader(final List<NameValuePair> headers, final String name) {
         for (final NameValuePair header : headers) {
             final String headerName = header.getName().trim();
@@ -247,10 +303,32 @@ public class WebResponseData implements Serializable {
         return downloadedContent_.length();
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return the maximum number of bytes of decoded content kept in memory;
+     *         zero or a negative value means no limit
+     */
+    public int getMaxInMemory() {
+        return maxInMemory_;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Sets the maximum number of bytes of decoded content kept in memory
+     * (see {@link WebClientOptions#setMaxInMemory(int)}).
+     * @param maxInMemory the maximum bytes in memory; zero or a negative value means no limit
+     */
+    public void setMaxInMemory(final int maxInMemory) {
+        maxInMemory_ = maxInMemory;
+    }
+
     /**
      * Clean up the downloaded content.
      */
     public void cleanUp() {
+        decompressed_ = null;
         downloadedContent_.cleanUp();
     }
 }
@@ -409,6 +409,7 @@ public abstract class WebWindowImpl implements WebWindow {
 
             if (webClient.getOptions().isCssEnabled()) {
                 final boolean trace = LOG.isTraceEnabled();
+                final List<CssStyleSheet> activeStyleSheets = new ArrayList<>();
                 for (final CssStyleSheet cssStyleSheet : htmlPage.getStyleSheets()) {
                     if (cssStyleSheet != null
                             && cssStyleSheet.isEnabled()
@@ -417,6 +418,16 @@ public abstract class WebWindowImpl implements WebWindow {
                             LOG.trace("modifyIfNecessary: " + cssStyleSheet
                                         + ", " + computedsStyleDeclaration + ", " + element);
                         }
+                        activeStyleSheets.add(cssStyleSheet);
+                    }
+                }
+
+                if (normalizedPseudo == null) {
+                    htmlPage.getStyleSharingCache()
+                            .modifyIfNecessary(computedsStyleDeclaration, element, activeStyleSheets);
+                }
+                else {
+                    for (final CssStyleSheet cssStyleSheet : activeStyleSheets) {
                         cssStyleSheet.modifyIfNecessary(computedsStyleDeclaration, element, normalizedPseudo);
                     }
                 }
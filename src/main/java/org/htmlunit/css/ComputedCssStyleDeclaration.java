@@ -37,11 +37,11 @@ import static org.htmlunit.css.CssStyleSheet.SCROLL;
 import static org.htmlunit.css.CssStyleSheet.STATIC;
 
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.htmlunit.BrowserVersion;
@@ -199,6 +199,24 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
     /** Denotes a value which should be returned as is. */
     public static final String EMPTY_FINAL = new String("");
 
+    private static final int PAGE_SHIFT = 5;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+    private static final int PAGE_COUNT = (StyleAttributes.getAttributeSlotCount() >>> PAGE_SHIFT) + 1;
+
+    private static final int PIXEL_MARGIN_LEFT = 0;
+    private static final int PIXEL_MARGIN_RIGHT = 1;
+    private static final int PIXEL_MARGIN_TOP = 2;
+    private static final int PIXEL_MARGIN_BOTTOM = 3;
+    private static final int PIXEL_BORDER_LEFT = 4;
+    private static final int PIXEL_BORDER_RIGHT = 5;
+    private static final int PIXEL_BORDER_TOP = 6;
+    private static final int PIXEL_BORDER_BOTTOM = 7;
+    private static final int PIXEL_PADDING_LEFT = 8;
+    private static final int PIXEL_PADDING_RIGHT = 9;
+    private static final int PIXEL_PADDING_TOP = 10;
+    private static final int PIXEL_PADDING_BOTTOM = 11;
+    private static final int PIXEL_VALUE_COUNT = 12;
+
     /** The computed, cached width of the element to which this computed style belongs (no padding, borders, etc.). */
     private Integer width_;
 
@@ -230,10 +248,18 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
     private Integer top_;
 
     /**
-     * Local modifications maintained here rather than in the element. We use a sorted
-     * map so that results are deterministic and thus easily testable.
+     * Local modifications maintained here rather than in the element, indexed by the attribute slot
+     * (see {@link StyleAttributes#getAttributeSlot(String)}). The slots are split into pages of
+     * 32 entries; only the pages in use are allocated.
      */
-    private final SortedMap<String, StyleElement> localModifications_ = new TreeMap<>();
+    private final StyleElement[][] localModifications_ = new StyleElement[PAGE_COUNT][];
+
+    /** Local modifications of attributes without a definition. */
+    private Map<String, StyleElement> otherLocalModifications_;
+
+    /** The cached pixel values of margins, borders and paddings; see {@link #getPixelValue(int, Supplier)}. */
+    private int[] pixelValues_;
+    private int pixelValuesKnown_;
 
     /** The wrapped CSSStyleDeclaration */
     private final ElementCssStyleDeclaration elementStyleDeclaration_;
@@ -269,7 +295,22 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      */
     @Override
     public String getStyleAttribute(final String name) {
-        final StyleElement element = getStyleElement(name);
+        return getStyleAttributeValue(name, getStyleElement(name));
+    }
+
+    /**
+     * Same as {@link #getStyleAttribute(String)} but avoids the name based lookup of the local modifications.
+     * @param definition the definition of the attribute
+     * @return the value or an empty string
+     */
+    private String getLocalStyleAttribute(final Definition definition) {
+        final String name = definition.getAttributeName();
+        final StyleElement existent = elementStyleDeclaration_.getStyleElement(name);
+        return getStyleAttributeValue(name,
+                resolveStyleElement(existent, getLocalModification(StyleAttributes.getAttributeSlot(definition))));
+    }
+
+    private static String getStyleAttributeValue(final String name, final StyleElement element) {
         if (element != null && element.getValue() != null) {
             final String value = element.getValue();
             if (!"content".equals(name)
@@ -312,7 +353,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
             return EMPTY_FINAL;
         }
 
-        String value = decl.getStyleAttribute(definition.getAttributeName());
+        String value = decl.getLocalStyleAttribute(definition);
         if (value.isEmpty()) {
             final DomNode parent = domElem.getParentNode();
             if (isDefInheritable && parent instanceof DomElement) {
@@ -463,35 +504,69 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
     @Override
     public StyleElement getStyleElement(final String name) {
         final StyleElement existent = elementStyleDeclaration_.getStyleElement(name);
+        return resolveStyleElement(existent, getLocalModification(name));
+    }
 
-        if (localModifications_ != null) {
-            final StyleElement localStyleMod = localModifications_.get(name);
-            if (localStyleMod == null) {
-                return existent;
-            }
+    private static StyleElement resolveStyleElement(final StyleElement existent, final StyleElement localStyleMod) {
+        if (localStyleMod == null) {
+            return existent;
+        }
 
-            if (existent == null) {
-                // Local modifications represent either default style elements or style elements
-                // defined in stylesheets; either way, they shouldn't overwrite any style
-                // elements derived directly from the HTML element's "style" attribute.
-                return localStyleMod;
-            }
+        if (existent == null) {
+            // Local modifications represent either default style elements or style elements
+            // defined in stylesheets; either way, they shouldn't overwrite any style
+            // elements derived directly from the HTML element's "style" attribute.
+            return localStyleMod;
+        }
 
-            // replace if !IMPORTANT
-            if (StyleElement.PRIORITY_IMPORTANT.equals(localStyleMod.getPriority())) {
-                if (existent.isImportant()) {
-                    if (existent.getSpecificity().compareTo(localStyleMod.getSpecificity()) < 0) {
-                        return localStyleMod;
-                    }
-                }
-                else {
+        // replace if !IMPORTANT
+        if (StyleElement.PRIORITY_IMPORTANT.equals(localStyleMod.getPriority())) {
+            if (existent.isImportant()) {
+                if (existent.getSpecificity().compareTo(localStyleMod.getSpecificity()) < 0) {
                     return localStyleMod;
                 }
             }
+            else {
+                return localStyleMod;
+            }
         }
         return existent;
     }
 
+    private StyleElement getLocalModification(final String name) {
+        final int slot = StyleAttributes.getAttributeSlot(name);
+        if (slot < 0) {
+            return otherLocalModifications_ == null ? null : otherLocalModifications_.get(name);
+        }
+        return getLocalModification(slot);
+    }
+
+    private StyleElement getLocalModification(final int slot) {
+        final StyleElement[] page = localModifications_[slot >>> PAGE_SHIFT];
+        if (page == null) {
+            return null;
+        }
+        return page[slot & PAGE_MASK];
+    }
+
+    private void putLocalModification(final String name, final StyleElement element) {
+        final int slot = StyleAttributes.getAttributeSlot(name);
+        if (slot < 0) {
+            if (otherLocalModifications_ == null) {
+                otherLocalModifications_ = new HashMap<>();
+            }
+            otherLocalModifications_.put(name, element);
+            return;
+        }
+
+        StyleElement[] page = localModifications_[slot >>> PAGE_SHIFT];
+        if (page == null) {
+            page = new StyleElement[PAGE_MASK + 1];
+            localModifications_[slot >>> PAGE_SHIFT] = page;
+        }
+        page[slot & PAGE_MASK] = element;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1232,7 +1307,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getMarginLeftValue() {
-        return CssPixelValueConverter.pixelValue(getMarginLeft());
+        return getPixelValue(PIXEL_MARGIN_LEFT, this::getMarginLeft);
     }
 
     /**
@@ -1240,7 +1315,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getMarginRightValue() {
-        return CssPixelValueConverter.pixelValue(getMarginRight());
+        return getPixelValue(PIXEL_MARGIN_RIGHT, this::getMarginRight);
     }
 
     /**
@@ -1248,7 +1323,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getMarginTopValue() {
-        return CssPixelValueConverter.pixelValue(getMarginTop());
+        return getPixelValue(PIXEL_MARGIN_TOP, this::getMarginTop);
     }
 
     /**
@@ -1256,7 +1331,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getMarginBottomValue() {
-        return CssPixelValueConverter.pixelValue(getMarginBottom());
+        return getPixelValue(PIXEL_MARGIN_BOTTOM, this::getMarginBottom);
     }
 
     /**
@@ -2133,7 +2208,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getBorderLeftValue() {
-        return CssPixelValueConverter.pixelValue(getBorderLeftWidth());
+        return getPixelValue(PIXEL_BORDER_LEFT, this::getBorderLeftWidth);
     }
 
     /**
@@ -2141,7 +2216,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getBorderRightValue() {
-        return CssPixelValueConverter.pixelValue(getBorderRightWidth());
+        return getPixelValue(PIXEL_BORDER_RIGHT, this::getBorderRightWidth);
     }
 
     /**
@@ -2149,7 +2224,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getBorderTopValue() {
-        return CssPixelValueConverter.pixelValue(getBorderTopWidth());
+        return getPixelValue(PIXEL_BORDER_TOP, this::getBorderTopWidth);
     }
 
     /**
@@ -2157,7 +2232,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getBorderBottomValue() {
-        return CssPixelValueConverter.pixelValue(getBorderBottomWidth());
+        return getPixelValue(PIXEL_BORDER_BOTTOM, this::getBorderBottomWidth);
     }
 
     private int getPaddingHorizontal() {
@@ -2185,7 +2260,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getPaddingLeftValue() {
-        return CssPixelValueConverter.pixelValue(getPaddingLeft());
+        return getPixelValue(PIXEL_PADDING_LEFT, this::getPaddingLeft);
     }
 
     /**
@@ -2193,7 +2268,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getPaddingRightValue() {
-        return CssPixelValueConverter.pixelValue(getPaddingRight());
+        return getPixelValue(PIXEL_PADDING_RIGHT, this::getPaddingRight);
     }
 
     /**
@@ -2201,7 +2276,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getPaddingTopValue() {
-        return CssPixelValueConverter.pixelValue(getPaddingTop());
+        return getPixelValue(PIXEL_PADDING_TOP, this::getPaddingTop);
     }
 
     /**
@@ -2209,7 +2284,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      * @return the value in pixels
      */
     public int getPaddingBottomValue() {
-        return CssPixelValueConverter.pixelValue(getPaddingBottom());
+        return getPixelValue(PIXEL_PADDING_BOTTOM, this::getPaddingBottom);
     }
 
     /**
@@ -2354,6 +2429,23 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
         return borderVertical;
     }
 
+    /**
+     * @param index the index of the value in {@link #pixelValues_}
+     * @param value the supplier of the value
+     * @return the pixel value, taken from the cache if already known
+     */
+    private int getPixelValue(final int index, final Supplier<String> value) {
+        final int mask = 1 << index;
+        if ((pixelValuesKnown_ & mask) == 0) {
+            if (pixelValues_ == null) {
+                pixelValues_ = new int[PIXEL_VALUE_COUNT];
+            }
+            pixelValues_[index] = CssPixelValueConverter.pixelValue(value.get());
+            pixelValuesKnown_ |= mask;
+        }
+        return pixelValues_[index];
+    }
+
     /**
      * Makes a local, "computed", modification to this CSS style.
      *
@@ -2373,7 +2465,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
     private void applyLocalStyleAttribute(final String name, final String newValue, final String priority,
             final SelectorSpecificity specificity) {
         if (!StyleElement.PRIORITY_IMPORTANT.equals(priority)) {
-            final StyleElement existingElement = localModifications_.get(name);
+            final StyleElement existingElement = getLocalModification(name);
             if (existingElement != null) {
                 if (existingElement.isImportant()) {
                     return; // can't override a !important rule by a normal rule. Ignore it!
@@ -2384,7 +2476,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
             }
         }
         final StyleElement element = new StyleElement(name, newValue, priority, specificity);
-        localModifications_.put(name, element);
+        putLocalModification(name, element);
     }
 
     /**
@@ -2397,7 +2489,7 @@ public class ComputedCssStyleDeclaration extends AbstractCssStyleDeclaration {
      */
     public void setDefaultLocalStyleAttribute(final String name, final String newValue) {
         final StyleElement element = new StyleElement(name, newValue, "", SelectorSpecificity.DEFAULT_STYLE_ATTRIBUTE);
-        localModifications_.put(name, element);
+        putLocalModification(name, element);
     }
 
     /**
@@ -85,6 +85,19 @@ public final class CssPixelValueConverter {
      * @see #pixelString(DomElement, CssValue)
      */
     public static int pixelValue(final String value) {
+        final int simplePixels = simplePixelValue(value);
+        if (simplePixels >= 0) {
+            return simplePixels;
+        }
+        return parsePixelValue(value);
+    }
+
+    /**
+     * The general (regex based) implementation of {@link #pixelValue(String)}.
+     * @param value the length string value to convert to an integer number of pixels
+     * @return the integer number of pixels corresponding to the specified length string value
+     */
+    static int parsePixelValue(final String value) {
         float i = NumberUtils.toFloat(TO_FLOAT_PATTERN.matcher(value).replaceAll("$1"), 0);
         if (value.length() < 2) {
             return Math.round(i);
@@ -120,6 +133,28 @@ public final class CssPixelValueConverter {
         return Math.round(i);
     }
 
+    /**
+     * Parses the common case of a value like {@code 12px} without the regex based parsing.
+     * @param value the value
+     * @return the number of pixels or {@code -1} if the value has a different form
+     */
+    static int simplePixelValue(final String value) {
+        final int length = value.length() - 2;
+        // up to 7 digits the result is the same as the float based parsing
+        if (length < 1 || length > 7 || value.charAt(length) != 'p' || value.charAt(length + 1) != 'x') {
+            return -1;
+        }
+        int result = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
     private static int pixelValue(final DomElement element,
             final String styleValue, final CssValue value, final boolean percentMode) {
         if (styleValue.endsWith("%") || (styleValue.isEmpty() && element instanceof HtmlHtml)) {
@@ -66,6 +66,7 @@ import org.htmlunit.cssparser.dom.Property;
 import org.htmlunit.cssparser.parser.CSSErrorHandler;
 import org.htmlunit.cssparser.parser.CSSException;
 import org.htmlunit.cssparser.parser.CSSOMParser;
+import org.htmlunit.cssparser.parser.CSSParseException;
 import org.htmlunit.cssparser.parser.InputSource;
 import org.htmlunit.cssparser.parser.LexicalUnit;
 import org.htmlunit.cssparser.parser.condition.AttributeCondition;
@@ -149,7 +150,13 @@ public class CssStyleSheet implements Serializable {
     private static final Pattern UNESCAPE_SELECTOR = Pattern.compile("\\\\([\\[\\].:])");
 
     /** The parsed stylesheet which this host object wraps. */
-    private final CSSStyleSheetImpl wrapped_;
+    private CSSStyleSheetImpl wrapped_;
+
+    /**
+     * The source of the sheet as long as {@link #wrapped_} is shared with other sheets
+     * (see {@link SharedStyleSheetCache}); {@code null} if the wrapped sheet is a private one.
+     */
+    private String sharedSource_;
 
     /** The HTML element which owns this stylesheet. */
     private final HtmlElement owner_;
@@ -165,6 +172,12 @@ public class CssStyleSheet implements Serializable {
 
     private boolean enabled_ = true;
 
+    /**
+     * The result of {@link #isActive()} for the media and the viewport it was evaluated for the last time;
+     * a single immutable value, the sheet might be checked by several threads.
+     */
+    private transient volatile ActiveState activeState_;
+
     /**
      * Set of CSS2 pseudo class names.
      */
@@ -247,14 +260,118 @@ public class CssStyleSheet implements Serializable {
         owner_ = element;
     }
 
+    /**
+     * Creates the stylesheet of an inline style; the parsed sheet is taken from (or put into)
+     * the cache of the client or - if enabled - the JVM wide cache of inline sheets.
+     * @param element the owning node
+     * @param css the content of the style element
+     * @param uri this stylesheet's URI (used to resolved contained @import rules)
+     * @return the new stylesheet
+     */
+    public static CssStyleSheet forInlineStyle(final HtmlElement element, final String css, final String uri) {
+        final WebClient webClient = element.getPage().getWebClient();
+        if (!webClient.getOptions().isSharedStyleSheetCacheEnabled()) {
+            final Cache cache = webClient.getCache();
+            final CSSStyleSheetImpl cached = cache.getCachedStyleSheet(css);
+            if (cached != null) {
+                final CssStyleSheet sheet = new CssStyleSheet(element, cached, uri);
+                sheet.sharedSource_ = css;
+                return sheet;
+            }
+
+            final CssStyleSheet sheet = new CssStyleSheet(element, css, uri);
+            if (sheet.wrapped_ != null) {
+                cache.cache(css, sheet.wrapped_);
+                sheet.sharedSource_ = css;
+            }
+            return sheet;
+        }
+
+        final BrowserVersion browserVersion = webClient.getBrowserVersion();
+        final CSSStyleSheetImpl shared = SharedStyleSheetCache.get(browserVersion, css);
+        if (shared != null) {
+            final CssStyleSheet sheet = new CssStyleSheet(element, shared, uri);
+            sheet.sharedSource_ = css;
+            return sheet;
+        }
+
+        final ErrorTrackingHandler errorHandler = new ErrorTrackingHandler(webClient.getCssErrorHandler());
+        CSSStyleSheetImpl parsed = null;
+        try (InputSource source = new InputSource(new StringReader(css))) {
+            source.setURI(uri);
+            parsed = parseCSS(source, webClient, errorHandler);
+        }
+        catch (final IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+
+        final CssStyleSheet sheet = new CssStyleSheet(element, parsed, uri);
+        if (parsed != null && !errorHandler.hasErrors() && !hasImports(parsed)) {
+            // build the index before sharing the sheet; without imports the index
+            // does not depend on the page
+            sheet.getRuleIndex();
+            SharedStyleSheetCache.put(browserVersion, css, parsed);
+            sheet.sharedSource_ = css;
+        }
+        return sheet;
+    }
+
+    /**
+     * @param sheet the sheet to check
+     * @return whether the sheet contains import rules; the imports are resolved relative
+     *         to the page, sheets with imports are therefore never shared
+     */
+    private static boolean hasImports(final CSSStyleSheetImpl sheet) {
+        for (final AbstractCSSRuleImpl rule : sheet.getCssRules().getRules()) {
+            if (rule instanceof CSSImportRuleImpl) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Has to be called if the rules of this sheet were modified (CSSOM); resets the rule index
+     * and drops the computed styles and the layout of the page.
+     */
+    public void rulesChanged() {
+        getModifiableWrappedSheet().resetRuleIndex();
+        if (owner_ != null) {
+            owner_.getPage().clearComputedStyles();
+        }
+    }
+
     /**
      * Returns the wrapped stylesheet.
+     * The returned sheet might be shared with other pages and must not be modified,
+     * use {@link #getModifiableWrappedSheet()} instead.
      * @return the wrapped stylesheet
      */
     public CSSStyleSheetImpl getWrappedSheet() {
         return wrapped_;
     }
 
+    /**
+     * Returns the wrapped stylesheet for modification; if the wrapped sheet is
+     * shared with other pages, this sheet switches to a private copy first.
+     * @return the wrapped stylesheet
+     */
+    public CSSStyleSheetImpl getModifiableWrappedSheet() {
+        if (sharedSource_ != null) {
+            try (InputSource source = new InputSource(new StringReader(sharedSource_))) {
+                source.setURI(uri_);
+                wrapped_ = parseCSS(source, owner_.getPage().getWebClient());
+            }
+            catch (final IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+            sharedSource_ = null;
+        }
+        return wrapped_;
+    }
+
     /**
      * Returns this stylesheet's URI (used to resolved contained @import rules).
      * For inline styles this is the page uri.
@@ -912,7 +1029,7 @@ public class CssStyleSheet implements Serializable {
         }
     }
 
-    private static boolean isEmpty(final DomElement element) {
+    static boolean isEmpty(final DomElement element) {
         for (DomNode n = element.getFirstChild(); n != null; n = n.getNextSibling()) {
             if (n instanceof DomElement || n instanceof DomText) {
                 return false;
@@ -968,11 +1085,15 @@ public class CssStyleSheet implements Serializable {
      * @return the stylesheet parsed from the specified input source
      */
     private static CSSStyleSheetImpl parseCSS(final InputSource source, final WebClient client) {
+        return parseCSS(source, client, client.getCssErrorHandler());
+    }
+
+    private static CSSStyleSheetImpl parseCSS(final InputSource source, final WebClient client,
+            final CSSErrorHandler errorHandler) {
         CSSStyleSheetImpl ss;
 
         // use a pooled parser, if any available to avoid expensive recreation
         try (PooledCSS3Parser pooledParser = client.getCSS3Parser()) {
-            final CSSErrorHandler errorHandler = client.getCssErrorHandler();
             final CSSOMParser parser = new CSSOMParser(pooledParser);
             parser.setErrorHandler(errorHandler);
             ss = parser.parseStyleSheet(source, null);
@@ -1190,8 +1311,27 @@ public class CssStyleSheet implements Serializable {
         }
 
         final WebWindow webWindow = owner_.getPage().getEnclosingWindow();
+        final int[] viewport = viewport(webWindow);
+        final ActiveState state = activeState_;
+        if (state != null && state.matches(media, viewport)) {
+            return state.active_;
+        }
+
         final MediaListImpl mediaList = parseMedia(media, webWindow.getWebClient());
-        return isActive(mediaList, webWindow);
+        final boolean active = isActive(mediaList, webWindow);
+        activeState_ = new ActiveState(media, viewport, active);
+        return active;
+    }
+
+    /**
+     * @param webWindow the window
+     * @return all the window properties media queries depend on
+     */
+    static int[] viewport(final WebWindow webWindow) {
+        final Page page = webWindow.getEnclosedPage();
+        final boolean printing = page instanceof SgmlPage && ((SgmlPage) page).isPrinting();
+        return new int[] {webWindow.getInnerWidth(), webWindow.getInnerHeight(),
+            webWindow.getScreen().getWidth(), webWindow.getScreen().getDeviceXDPI(), printing ? 1 : 0};
     }
 
     /**
@@ -1451,16 +1591,59 @@ public class CssStyleSheet implements Serializable {
     public void modifyIfNecessary(final ComputedCssStyleDeclaration style, final DomElement element,
             final String pseudoElement) {
 
-        final BrowserVersion browser = element.getPage().getWebClient().getBrowserVersion();
-        final List<CSSStyleSheetImpl.SelectorEntry> matchingRules =
-                selects(getRuleIndex(), browser, element, pseudoElement, false);
-        for (final CSSStyleSheetImpl.SelectorEntry entry : matchingRules) {
+        for (final CSSStyleSheetImpl.SelectorEntry entry : getMatchingRules(element, pseudoElement)) {
             final CSSStyleDeclarationImpl dec = entry.getRule().getStyle();
             style.applyStyleFromSelector(dec, entry.getSelector());
         }
     }
 
-    private CSSStyleSheetImpl.CSSStyleSheetRuleIndex getRuleIndex() {
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     * Only reads the DOM and the rule index; the index has to be built before this is called
+     * from more than one thread.
+     *
+     * @param element the element
+     * @param pseudoElement a string specifying the pseudo-element to match (may be {@code null})
+     * @return the rules of this style sheet matching the element, in the order they have to be applied
+     */
+    public List<CSSStyleSheetImpl.SelectorEntry> getMatchingRules(final DomElement element, final String pseudoElement) {
+        final BrowserVersion browser = element.getPage().getWebClient().getBrowserVersion();
+        return selects(getRuleIndex(), browser, element, pseudoElement, false);
+    }
+
+    /**
+     * Collects the selectors of all the style rules of this sheet, including the ones
+     * of media rules and imported style sheets.
+     * @param selectors the list to add the selectors to
+     */
+    void collectSelectors(final List<Selector> selectors) {
+        collectSelectors(getWrappedSheet().getCssRules(), selectors, new HashSet<>());
+    }
+
+    private void collectSelectors(final CSSRuleListImpl ruleList, final List<Selector> selectors,
+            final Set<String> alreadyProcessing) {
+        for (final AbstractCSSRuleImpl rule : ruleList.getRules()) {
+            if (rule instanceof CSSStyleRuleImpl) {
+                for (final Selector selector : ((CSSStyleRuleImpl) rule).getSelectors()) {
+                    selectors.add(selector);
+                }
+            }
+            else if (rule instanceof CSSImportRuleImpl) {
+                final CssStyleSheet sheet = getImportedStyleSheet((CSSImportRuleImpl) rule);
+                if (alreadyProcessing.add(sheet.getUri())) {
+                    collectSelectors(sheet.getWrappedSheet().getCssRules(), selectors, alreadyProcessing);
+                }
+            }
+            else if (rule instanceof CSSMediaRuleImpl) {
+                collectSelectors(((CSSMediaRuleImpl) rule).getCssRules(), selectors, alreadyProcessing);
+            }
+        }
+    }
+
+    /**
+     * @return the rule index of this sheet; the index is built if needed
+     */
+    CSSStyleSheetImpl.CSSStyleSheetRuleIndex getRuleIndex() {
         final CSSStyleSheetImpl styleSheet = getWrappedSheet();
         CSSStyleSheetImpl.CSSStyleSheetRuleIndex index = styleSheet.getRuleIndex();
 
@@ -1565,4 +1748,57 @@ public class CssStyleSheet implements Serializable {
 
         return matchingRules;
     }
+
+    /**
+     * The memo of {@link CssStyleSheet#isActive()}.
+     */
+    private static final class ActiveState {
+        private final String media_;
+        private final int[] viewport_;
+        private final boolean active_;
+
+        ActiveState(final String media, final int[] viewport, final boolean active) {
+            media_ = media;
+            viewport_ = viewport;
+            active_ = active;
+        }
+
+        boolean matches(final String media, final int[] viewport) {
+            return media_.equals(media) && Arrays.equals(viewport_, viewport);
+        }
+    }
+
+    /**
+     * Passes all the problems to the error handler of the client and remembers if there were any.
+     */
+    private static final class ErrorTrackingHandler implements CSSErrorHandler {
+        private final CSSErrorHandler delegate_;
+        private boolean errors_;
+
+        ErrorTrackingHandler(final CSSErrorHandler delegate) {
+            delegate_ = delegate;
+        }
+
+        boolean hasErrors() {
+            return errors_;
+        }
+
+        @Override
+        public void warning(final CSSParseException exception) {
+            errors_ = true;
+            delegate_.warning(exception);
+        }
+
+        @Override
+        public void error(final CSSParseException exception) {
+            errors_ = true;
+            delegate_.error(exception);
+        }
+
+        @Override
+        public void fatalError(final CSSParseException exception) {
+            errors_ = true;
+            delegate_.fatalError(exception);
+        }
+    }
 }
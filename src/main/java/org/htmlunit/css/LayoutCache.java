@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.css;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+import org.htmlunit.WebWindow;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.DomNode;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * Caches the geometry (offsets, positions and sizes) of the elements of a page.
+ * <p>
+ * Calculating e.g. the {@code offsetTop} of an element walks up the ancestors and over
+ * all the previous siblings; scripts reading the geometry of all the items of a long list
+ * (or reading the same values again and again inside a loop) are spending most of the time
+ * with this calculation. The cache stores every calculated value until the layout changes,
+ * repeated queries are answered without any calculation.
+ * </p>
+ * <p>
+ * The cache is invalidated incrementally; {@link #nodeChanged(DomNode)} has to be called for
+ * every change of the DOM. The position of an element depends only on the element itself,
+ * on its ancestors and on nodes preceding it in document order. But rules like
+ * {@code :last-child} or {@code :only-of-type} make the style of an element depend on the
+ * siblings following it; therefore - like the computed styles - all the siblings of the changed
+ * node (and their subtrees) are invalidated together with the ancestors and everything following.
+ * The positions and heights of all the other elements preceding the changed node are kept.
+ * The invalid entries are found by walking the DOM from the changed node, not by checking every
+ * cached entry. Widths may depend on the content of the ancestors (shrink to fit); all of them
+ * are outdated by every change.
+ * </p>
+ * The whole cache is invalidated if the viewport changes and by {@link #clear()}.
+ *
+ * @author Ronald Brill
+ */
+public class LayoutCache {
+
+    /**
+     * The cached geometry values.
+     */
+    public enum Metric {
+        /** The offset top. */
+        OFFSET_TOP,
+        /** The offset left. */
+        OFFSET_LEFT,
+        /** The x position relative to the document. */
+        POS_X,
+        /** The y position relative to the document. */
+        POS_Y,
+        /** The offset width. */
+        OFFSET_WIDTH,
+        /** The offset height. */
+        OFFSET_HEIGHT;
+
+        private final int mask_ = 1 << ordinal();
+    }
+
+    private static final int SIZE_DEPENDING_ON_ANCESTORS = Metric.OFFSET_WIDTH.mask_;
+
+    private final Map<DomElement, Box> boxes_ = new WeakHashMap<>();
+    private int widthVersion_;
+    private int viewportWidth_;
+    private int viewportHeight_;
+
+    private final AtomicLong hits_ = new AtomicLong();
+    private final AtomicLong misses_ = new AtomicLong();
+
+    /**
+     * Returns the cached value or calculates (and caches) it.
+     * @param element the element
+     * @param metric the requested value
+     * @param layout the calculation of the value
+     * @return the value
+     */
+    public int get(final DomElement element, final Metric metric, final ToIntFunction<DomElement> layout) {
+        final WebWindow webWindow = element.getPage().getEnclosingWindow();
+        final int viewportWidth = webWindow.getInnerWidth();
+        final int viewportHeight = webWindow.getInnerHeight();
+
+        synchronized (this) {
+            if (viewportWidth != viewportWidth_ || viewportHeight != viewportHeight_) {
+                boxes_.clear();
+                viewportWidth_ = viewportWidth;
+                viewportHeight_ = viewportHeight;
+            }
+            else {
+                final Box box = boxes_.get(element);
+                if (box != null && box.isKnown(metric, widthVersion_)) {
+                    hits_.incrementAndGet();
+                    return box.values_[metric.ordinal()];
+                }
+            }
+        }
+
+        misses_.incrementAndGet();
+        final int widthVersion;
+        synchronized (this) {
+            widthVersion = widthVersion_;
+        }
+        // the calculation queries the cache for the ancestors, don't block other threads
+        final int value = layout.applyAsInt(element);
+
+        synchronized (this) {
+            // a change while calculating outdates the value
+            if (widthVersion == widthVersion_) {
+                boxes_.computeIfAbsent(element, k -> new Box()).set(metric, value, widthVersion);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops all the cached values.
+     */
+    public synchronized void clear() {
+        boxes_.clear();
+    }
+
+    /**
+     * Has to be called for every change of the DOM (nodes, attributes and character data).
+     * @param changed the changed node; for removed nodes the former parent
+     */
+    public synchronized void nodeChanged(final DomNode changed) {
+        widthVersion_++;
+        if (boxes_.isEmpty()) {
+            return;
+        }
+        if (changed == null) {
+            boxes_.clear();
+            return;
+        }
+
+        // the siblings of the changed node may match other rules now (:last-child...),
+        // the whole subtree of the parent is invalid
+        final DomNode parent = changed.getParentNode();
+        final DomNode scope = parent == null ? changed : parent;
+        removeSubtree(scope);
+
+        // the ancestors and everything following in document order
+        for (DomNode node = scope; node != null && !boxes_.isEmpty(); node = node.getParentNode()) {
+            boxes_.remove(node);
+            for (DomNode next = node.getNextSibling(); next != null; next = next.getNextSibling()) {
+                removeSubtree(next);
+            }
+        }
+    }
+
+    private void removeSubtree(final DomNode root) {
+        boxes_.remove(root);
+        for (final DomNode descendant : root.getDescendants()) {
+            if (boxes_.isEmpty()) {
+                return;
+            }
+            boxes_.remove(descendant);
+        }
+    }
+
+    /**
+     * @return the number of values taken from the cache
+     */
+    public long getHitCount() {
+        return hits_.get();
+    }
+
+    /**
+     * @return the number of values that had to be calculated
+     */
+    public long getMissCount() {
+        return misses_.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "LayoutCache[hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+    }
+
+    private static final class Box {
+        private final int[] values_ = new int[Metric.values().length];
+        private int known_;
+        private int widthVersion_;
+
+        boolean isKnown(final Metric metric, final int widthVersion) {
+            if ((known_ & metric.mask_) == 0) {
+                return false;
+            }
+            return (metric.mask_ & SIZE_DEPENDING_ON_ANCESTORS) == 0 || widthVersion_ == widthVersion;
+        }
+
+        void set(final Metric metric, final int value, final int widthVersion) {
+            if ((metric.mask_ & SIZE_DEPENDING_ON_ANCESTORS) != 0 && widthVersion_ != widthVersion) {
+                known_ &= ~SIZE_DEPENDING_ON_ANCESTORS;
+                widthVersion_ = widthVersion;
+            }
+            values_[metric.ordinal()] = value;
+            known_ |= metric.mask_;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.css;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.cssparser.dom.CSSStyleSheetImpl;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * JVM wide cache of parsed inline style sheets, keyed by the content and the browser version.
+ * Used only if {@link org.htmlunit.WebClientOptions#setSharedStyleSheetCacheEnabled(boolean)} is set.
+ * <p>
+ * The cached sheets (including the rule index) are shared between all pages and all
+ * web clients and never modified; a {@link CssStyleSheet} works on a private copy as
+ * soon as the sheet is modified (see {@link CssStyleSheet#getModifiableWrappedSheet()}).
+ * </p>
+ * The cache holds at most {@value #MAX_ENTRIES} sheets, the least recently used ones are dropped;
+ * sheets longer than {@value #MAX_LENGTH} chars are not cached at all.
+ * Only sheets parsed without any error are cached; otherwise the errors would be
+ * reported to the {@link org.htmlunit.cssparser.parser.CSSErrorHandler} of the first client only.
+ *
+ * @author Ronald Brill
+ */
+public final class SharedStyleSheetCache {
+
+    /** The maximum number of cached sheets. */
+    static final int MAX_ENTRIES = 500;
+
+    /** The maximum length of the content of a cached sheet. */
+    static final int MAX_LENGTH = 256 * 1024;
+
+    private static final Map<Key, CSSStyleSheetImpl> SHEETS =
+            new LinkedHashMap<Key, CSSStyleSheetImpl>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, CSSStyleSheetImpl> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private SharedStyleSheetCache() {
+    }
+
+    /**
+     * @param browserVersion the browser version
+     * @param css the content of the sheet
+     * @return the cached sheet or {@code null}
+     */
+    static CSSStyleSheetImpl get(final BrowserVersion browserVersion, final String css) {
+        if (css.length() > MAX_LENGTH) {
+            return null;
+        }
+        synchronized (SHEETS) {
+            return SHEETS.get(new Key(browserVersion, css));
+        }
+    }
+
+    /**
+     * Caches a sheet; the sheet must not be modified afterwards.
+     * @param browserVersion the browser version
+     * @param css the content of the sheet
+     * @param sheet the parsed sheet
+     */
+    static void put(final BrowserVersion browserVersion, final String css, final CSSStyleSheetImpl sheet) {
+        if (css.length() > MAX_LENGTH) {
+            return;
+        }
+        synchronized (SHEETS) {
+            SHEETS.putIfAbsent(new Key(browserVersion, css), sheet);
+        }
+    }
+
+    /**
+     * Drops all the cached sheets.
+     */
+    public static void clear() {
+        synchronized (SHEETS) {
+            SHEETS.clear();
+        }
+    }
+
+    private static final class Key {
+        private final String browser_;
+        private final int browserVersionNumeric_;
+        private final String css_;
+        private final int hashCode_;
+
+        Key(final BrowserVersion browserVersion, final String css) {
+            browser_ = browserVersion.getNickname();
+            browserVersionNumeric_ = browserVersion.getBrowserVersionNumeric();
+            css_ = css;
+            hashCode_ = 31 * (31 * Objects.hashCode(browser_) + browserVersionNumeric_) + css.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode_;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hashCode_ == other.hashCode_
+                    && browserVersionNumeric_ == other.browserVersionNumeric_
+                    && Objects.equals(browser_, other.browser_)
+                    && css_.equals(other.css_);
+        }
+    }
+}
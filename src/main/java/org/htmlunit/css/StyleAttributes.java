@@ -32,6 +32,7 @@ import static org.htmlunit.css.BrowserConfiguration.ffNotIterable;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -50,9 +51,24 @@ import org.htmlunit.BrowserVersion;
 public final class StyleAttributes implements Serializable {
     private static final Map<String, Definition> STYLES = new ConcurrentHashMap<>();
 
+    /** The slot of every distinct attribute name (see {@link #getAttributeSlot(String)}). */
+    private static final Map<String, Integer> ATTRIBUTE_SLOTS = new HashMap<>();
+
+    /** The attribute slot of every definition, indexed by the ordinal. */
+    private static final int[] ATTRIBUTE_SLOTS_BY_ORDINAL;
+
     static {
-        for (final Definition definition : Definition.values()) {
+        final Definition[] definitions = Definition.values();
+        ATTRIBUTE_SLOTS_BY_ORDINAL = new int[definitions.length];
+        for (final Definition definition : definitions) {
             STYLES.put(definition.getPropertyName(), definition);
+
+            Integer slot = ATTRIBUTE_SLOTS.get(definition.getAttributeName());
+            if (slot == null) {
+                slot = ATTRIBUTE_SLOTS.size();
+                ATTRIBUTE_SLOTS.put(definition.getAttributeName(), slot);
+            }
+            ATTRIBUTE_SLOTS_BY_ORDINAL[definition.ordinal()] = slot;
         }
     }
 
@@ -81,6 +97,37 @@ public final class StyleAttributes implements Serializable {
         return definition;
     }
 
+    /**
+     * @return the number of distinct attribute names of all definitions
+     */
+    static int getAttributeSlotCount() {
+        return ATTRIBUTE_SLOTS.size();
+    }
+
+    /**
+     * Every distinct attribute name (the delimiter-separated name like {@code background-color})
+     * of the definitions has a slot number; the slots are numbered from {@code 0} to
+     * {@link #getAttributeSlotCount()} - 1 and allow to store values per attribute in arrays.
+     * @param attributeName the attribute name
+     * @return the slot of the attribute or {@code -1} if there is no definition using this name
+     */
+    static int getAttributeSlot(final String attributeName) {
+        final Integer slot = ATTRIBUTE_SLOTS.get(attributeName);
+        if (slot == null) {
+            return -1;
+        }
+        return slot.intValue();
+    }
+
+    /**
+     * @param definition the definition
+     * @return the slot of the attribute name of the definition
+     * @see #getAttributeSlot(String)
+     */
+    static int getAttributeSlot(final Definition definition) {
+        return ATTRIBUTE_SLOTS_BY_ORDINAL[definition.ordinal()];
+    }
+
     /**
      * Gets the style attributes definitions for the specified browser version.
      * @param browserVersion the browser version
@@ -0,0 +1,599 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.css;
+
+import static org.htmlunit.html.DomElement.ATTRIBUTE_NOT_DEFINED;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.htmlunit.cssparser.dom.CSSStyleSheetImpl;
+import org.htmlunit.cssparser.parser.condition.Condition;
+import org.htmlunit.cssparser.parser.condition.NotPseudoClassCondition;
+import org.htmlunit.cssparser.parser.selector.ChildSelector;
+import org.htmlunit.cssparser.parser.selector.DescendantSelector;
+import org.htmlunit.cssparser.parser.selector.ElementSelector;
+import org.htmlunit.cssparser.parser.selector.Selector;
+import org.htmlunit.html.DisabledElement;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.DomNode;
+import org.htmlunit.html.HtmlCheckBoxInput;
+import org.htmlunit.html.HtmlElement;
+import org.htmlunit.html.HtmlForm;
+import org.htmlunit.html.HtmlInput;
+import org.htmlunit.html.HtmlOption;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.html.HtmlRadioButtonInput;
+import org.htmlunit.html.HtmlTextArea;
+import org.htmlunit.html.ValidatableElement;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * Shares the result of the selector matching between elements that can't be distinguished
+ * by the selectors of the active style sheets.
+ * <p>
+ * All the selectors of the active sheets are analyzed once; the result is the set of element
+ * properties the selectors depend on (tag, id, classes, the attributes used in attribute conditions
+ * and, only if the related pseudo classes are used, the state and the position of the element).
+ * Two elements with equal properties whose parents also share the matching result (this
+ * covers all the ancestors) are matched by the same rules; siblings and cousins of large
+ * tables or lists are typically matched only once.
+ * </p>
+ * <p>
+ * Sheets using sibling combinators ({@code +} and {@code ~}) or {@code :target} disable the sharing;
+ * in these cases the sheets are matched as usual.
+ * </p>
+ * The cache is invalidated if the active sheets, their rules or the viewport change and
+ * by {@link #clear()}; {@link #nodeChanged()} has to be called for every change of the DOM.
+ *
+ * @author Ronald Brill
+ */
+public class StyleSharingCache {
+
+    private static final Log LOG = LogFactory.getLog(StyleSharingCache.class);
+
+    private static final int HOVER = 1;
+    private static final int FOCUS = 1 << 1;
+    private static final int FOCUS_WITHIN = 1 << 2;
+    private static final int READ_ONLY = 1 << 3;
+    private static final int DISABLED = 1 << 4;
+    private static final int CHECKED = 1 << 5;
+    private static final int REQUIRED = 1 << 6;
+    private static final int OPTIONAL = 1 << 7;
+    private static final int VALID = 1 << 8;
+    private static final int PLACEHOLDER_SHOWN = 1 << 9;
+    private static final int EMPTY = 1 << 10;
+
+    /**
+     * The maximum number of keys per epoch; if the state of the elements is part of the key
+     * (e.g. for {@code :hover}), every change of the state creates new keys.
+     */
+    static final int MAX_KEYS = 4096;
+
+    private volatile Epoch epoch_;
+    private final AtomicLong hits_ = new AtomicLong();
+    private final AtomicLong misses_ = new AtomicLong();
+
+    /**
+     * Applies the rules of the given sheets matching the element to the style.
+     * @param style the style to modify
+     * @param element the element
+     * @param styleSheets the enabled and active sheets of the page, in document order
+     */
+    public void modifyIfNecessary(final ComputedCssStyleDeclaration style, final DomElement element,
+            final List<CssStyleSheet> styleSheets) {
+        final Epoch epoch = getEpoch(element, styleSheets);
+        if (!epoch.shareable_) {
+            for (final CssStyleSheet styleSheet : styleSheets) {
+                styleSheet.modifyIfNecessary(style, element, null);
+            }
+            return;
+        }
+
+        final ShareKey key = getKey(epoch, element);
+        List<CSSStyleSheetImpl.SelectorEntry> matchingRules = key.matchingRules_;
+        if (matchingRules == null) {
+            misses_.incrementAndGet();
+            matchingRules = new ArrayList<>();
+            for (final CssStyleSheet styleSheet : styleSheets) {
+                matchingRules.addAll(styleSheet.getMatchingRules(element, null));
+            }
+            key.matchingRules_ = matchingRules;
+        }
+        else {
+            hits_.incrementAndGet();
+        }
+
+        for (final CSSStyleSheetImpl.SelectorEntry entry : matchingRules) {
+            style.applyStyleFromSelector(entry.getRule().getStyle(), entry.getSelector());
+        }
+    }
+
+    /**
+     * Drops all the shared results; has to be called if something
+     * changes that might influence the style of many elements.
+     */
+    public void clear() {
+        if (epoch_ != null && LOG.isDebugEnabled()) {
+            LOG.debug("Style sharing cache cleared; " + this);
+        }
+        epoch_ = null;
+    }
+
+    /**
+     * Has to be called for every change of the DOM (nodes and attributes).
+     */
+    public void nodeChanged() {
+        final Epoch epoch = epoch_;
+        if (epoch != null) {
+            epoch.elementKeys_.clear();
+        }
+    }
+
+    /**
+     * @return the number of elements whose matching rules were taken from the cache
+     */
+    public long getHitCount() {
+        return hits_.get();
+    }
+
+    /**
+     * @return the number of elements whose matching rules had to be determined
+     */
+    public long getMissCount() {
+        return misses_.get();
+    }
+
+    /**
+     * @return the ratio of hits to all the lookups, {@code 0} if there was no lookup so far
+     */
+    public double getHitRate() {
+        final long hits = hits_.get();
+        final long all = hits + misses_.get();
+        if (all == 0) {
+            return 0;
+        }
+        return (double) hits / all;
+    }
+
+    /**
+     * @return the number of keys of the current epoch
+     */
+    int getKeyCount() {
+        final Epoch epoch = epoch_;
+        if (epoch == null) {
+            return 0;
+        }
+        return epoch.keys_.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "StyleSharingCache[hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+    }
+
+    private synchronized Epoch getEpoch(final DomElement element, final List<CssStyleSheet> styleSheets) {
+        final List<Object> state = new ArrayList<>(styleSheets.size() * 2);
+        for (final CssStyleSheet styleSheet : styleSheets) {
+            state.add(styleSheet);
+            state.add(styleSheet.getRuleIndex());
+        }
+        final int[] viewport = CssStyleSheet.viewport(element.getPage().getEnclosingWindow());
+
+        final Epoch epoch = epoch_;
+        if (epoch != null && epoch.isValid(state, viewport)) {
+            return epoch;
+        }
+
+        final Epoch newEpoch = new Epoch(state, viewport);
+        for (final CssStyleSheet styleSheet : styleSheets) {
+            final List<Selector> selectors = new ArrayList<>();
+            styleSheet.collectSelectors(selectors);
+            for (final Selector selector : selectors) {
+                newEpoch.analyze(selector);
+            }
+        }
+        epoch_ = newEpoch;
+        return newEpoch;
+    }
+
+    private static ShareKey getKey(final Epoch epoch, final DomElement element) {
+        // if the state is part of the key, the keys are only valid for the moment
+        final boolean reuse = epoch.usedStates_ == 0;
+
+        final List<DomElement> elements = new ArrayList<>();
+        ShareKey parentKey = null;
+        DomNode node = element;
+        while (node instanceof DomElement) {
+            if (reuse) {
+                parentKey = epoch.elementKeys_.get(node);
+                if (parentKey != null) {
+                    break;
+                }
+            }
+            elements.add((DomElement) node);
+            node = node.getParentNode();
+        }
+
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            final DomElement current = elements.get(i);
+            parentKey = epoch.intern(new ShareKey(parentKey, current, epoch));
+            if (reuse) {
+                epoch.elementKeys_.put(current, parentKey);
+            }
+        }
+        return parentKey;
+    }
+
+    /**
+     * The selector analysis and the shared results for one set of active sheets.
+     */
+    private static final class Epoch {
+        private final List<Object> state_;
+        private final int[] viewport_;
+
+        private boolean shareable_ = true;
+        private final Set<String> attributeNames_ = new TreeSet<>();
+        private int usedStates_;
+        private boolean position_;
+
+        private final Map<ShareKey, ShareKey> keys_ = new ConcurrentHashMap<>();
+        private final Map<DomElement, ShareKey> elementKeys_ = Collections.synchronizedMap(new WeakHashMap<>());
+
+        Epoch(final List<Object> state, final int[] viewport) {
+            state_ = state;
+            viewport_ = viewport;
+        }
+
+        boolean isValid(final List<Object> state, final int[] viewport) {
+            if (state.size() != state_.size() || !Arrays.equals(viewport, viewport_)) {
+                return false;
+            }
+            for (int i = 0; i < state.size(); i++) {
+                if (state.get(i) != state_.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ShareKey intern(final ShareKey key) {
+            if (keys_.size() >= MAX_KEYS) {
+                // the keys of the dropped parents are no longer equal to the new ones,
+                // therefore this only reduces the sharing
+                keys_.clear();
+            }
+            final ShareKey existing = keys_.putIfAbsent(key, key);
+            if (existing == null) {
+                return key;
+            }
+            return existing;
+        }
+
+        void analyze(final Selector selector) {
+            switch (selector.getSelectorType()) {
+                case ELEMENT_NODE_SELECTOR:
+                    final List<Condition> conditions = ((ElementSelector) selector).getConditions();
+                    if (conditions != null) {
+                        for (final Condition condition : conditions) {
+                            analyze(condition);
+                        }
+                    }
+                    break;
+
+                case CHILD_SELECTOR:
+                    final ChildSelector cs = (ChildSelector) selector;
+                    analyze(cs.getAncestorSelector());
+                    analyze(cs.getSimpleSelector());
+                    break;
+
+                case DESCENDANT_SELECTOR:
+                    final DescendantSelector ds = (DescendantSelector) selector;
+                    analyze(ds.getAncestorSelector());
+                    analyze(ds.getSimpleSelector());
+                    break;
+
+                case PSEUDO_ELEMENT_SELECTOR:
+                    // never matches if there is no pseudo element
+                    break;
+
+                default:
+                    // the sibling combinators depend on the siblings
+                    shareable_ = false;
+                    break;
+            }
+        }
+
+        private void analyze(final Condition condition) {
+            switch (condition.getConditionType()) {
+                case ID_CONDITION:
+                case CLASS_CONDITION:
+                    // always part of the key
+                    break;
+
+                case ATTRIBUTE_CONDITION:
+                case PREFIX_ATTRIBUTE_CONDITION:
+                case SUFFIX_ATTRIBUTE_CONDITION:
+                case SUBSTRING_ATTRIBUTE_CONDITION:
+                case BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+                case ONE_OF_ATTRIBUTE_CONDITION:
+                    attributeNames_.add(condition.getLocalName());
+                    break;
+
+                case LANG_CONDITION:
+                    // the ancestors are covered by the parent key
+                    attributeNames_.add("lang");
+                    break;
+
+                case NOT_PSEUDO_CLASS_CONDITION:
+                    for (final Selector selector : ((NotPseudoClassCondition) condition).getSelectors()) {
+                        analyze(selector);
+                    }
+                    break;
+
+                case PSEUDO_CLASS_CONDITION:
+                    analyzePseudoClass(condition.getValue());
+                    break;
+
+                default:
+                    shareable_ = false;
+                    break;
+            }
+        }
+
+        private void analyzePseudoClass(final String value) {
+            switch (value) {
+                case "root":
+                    // part of the key
+                    break;
+
+                case "target":
+                    // depends on the ref of the url, not only on the id
+                    shareable_ = false;
+                    break;
+
+                case "enabled":
+                case "disabled":
+                    usedStates_ |= DISABLED;
+                    break;
+
+                case "focus":
+                    usedStates_ |= FOCUS;
+                    break;
+
+                case "focus-within":
+                    usedStates_ |= FOCUS_WITHIN;
+                    break;
+
+                case "focus-visible":
+                    usedStates_ |= FOCUS | READ_ONLY;
+                    break;
+
+                case "checked":
+                    usedStates_ |= CHECKED;
+                    break;
+
+                case "required":
+                    usedStates_ |= REQUIRED;
+                    break;
+
+                case "optional":
+                    usedStates_ |= OPTIONAL;
+                    break;
+
+                case "valid":
+                case "invalid":
+                    usedStates_ |= VALID;
+                    break;
+
+                case "empty":
+                    usedStates_ |= EMPTY;
+                    break;
+
+                case "hover":
+                    usedStates_ |= HOVER;
+                    break;
+
+                case "placeholder-shown":
+                    usedStates_ |= PLACEHOLDER_SHOWN;
+                    break;
+
+                default:
+                    if (value.endsWith("-child") || value.endsWith("-of-type")
+                            || value.startsWith("nth-")) {
+                        position_ = true;
+                    }
+                    // unsupported pseudo classes never match
+                    break;
+            }
+        }
+    }
+
+    /**
+     * The properties of an element (and the key of its parent) relevant for the selector matching.
+     * Keys are interned per {@link Epoch}, therefore the parent keys can be compared by identity.
+     */
+    private static final class ShareKey {
+        private final ShareKey parent_;
+        private final boolean root_;
+        private final Class<?> type_;
+        private final String namespaceUri_;
+        private final String localName_;
+        private final String id_;
+        private final String classes_;
+        private final String[] attributes_;
+        private final int state_;
+        private final int[] position_;
+        private final int hashCode_;
+
+        private volatile List<CSSStyleSheetImpl.SelectorEntry> matchingRules_;
+
+        ShareKey(final ShareKey parent, final DomElement element, final Epoch epoch) {
+            parent_ = parent;
+            root_ = element == element.getPage().getDocumentElement();
+            type_ = element.getClass();
+            namespaceUri_ = element.getNamespaceURI();
+            localName_ = element.getLocalName();
+            id_ = element.getId();
+            classes_ = element.getAttributeDirect("class");
+
+            attributes_ = new String[epoch.attributeNames_.size()];
+            int i = 0;
+            for (final String name : epoch.attributeNames_) {
+                final String value = element.getAttribute(name);
+                attributes_[i++] = ATTRIBUTE_NOT_DEFINED == value ? null : value;
+            }
+
+            state_ = epoch.usedStates_ == 0 ? 0 : state(element, epoch.usedStates_);
+            position_ = epoch.position_ ? position(element) : null;
+
+            hashCode_ = Objects.hash(System.identityHashCode(parent_), root_, type_, localName_, id_, classes_,
+                    Arrays.hashCode(attributes_), state_, Arrays.hashCode(position_));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode_;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ShareKey)) {
+                return false;
+            }
+            final ShareKey other = (ShareKey) obj;
+            return hashCode_ == other.hashCode_
+                    && parent_ == other.parent_
+                    && root_ == other.root_
+                    && type_ == other.type_
+                    && state_ == other.state_
+                    && Objects.equals(localName_, other.localName_)
+                    && Objects.equals(namespaceUri_, other.namespaceUri_)
+                    && Objects.equals(id_, other.id_)
+                    && Objects.equals(classes_, other.classes_)
+                    && Arrays.equals(attributes_, other.attributes_)
+                    && Arrays.equals(position_, other.position_);
+        }
+
+        @SuppressWarnings("PMD.UselessParentheses")
+        private static int state(final DomElement element, final int usedStates) {
+            int state = 0;
+            if ((usedStates & HOVER) != 0 && element.isMouseOver()) {
+                state |= HOVER;
+            }
+            if ((usedStates & (FOCUS | FOCUS_WITHIN)) != 0) {
+                final HtmlPage htmlPage = element.getHtmlPageOrNull();
+                final DomElement focus = htmlPage == null ? null : htmlPage.getFocusedElement();
+                if (focus != null) {
+                    if (element == focus) {
+                        state |= FOCUS | FOCUS_WITHIN;
+                    }
+                    else if (element.isAncestorOf(focus)) {
+                        state |= FOCUS_WITHIN;
+                    }
+                }
+            }
+            if ((usedStates & READ_ONLY) != 0
+                    && ((element instanceof HtmlInput && ((HtmlInput) element).isReadOnly())
+                        || (element instanceof HtmlTextArea && ((HtmlTextArea) element).isReadOnly()))) {
+                state |= READ_ONLY;
+            }
+            if ((usedStates & DISABLED) != 0
+                    && element instanceof DisabledElement && ((DisabledElement) element).isDisabled()) {
+                state |= DISABLED;
+            }
+            if ((usedStates & CHECKED) != 0
+                    && ((element instanceof HtmlCheckBoxInput && ((HtmlCheckBoxInput) element).isChecked())
+                        || (element instanceof HtmlRadioButtonInput && ((HtmlRadioButtonInput) element).isChecked())
+                        || (element instanceof HtmlOption && ((HtmlOption) element).isSelected()))) {
+                state |= CHECKED;
+            }
+            if ((usedStates & REQUIRED) != 0
+                    && element instanceof HtmlElement && ((HtmlElement) element).isRequired()) {
+                state |= REQUIRED;
+            }
+            if ((usedStates & OPTIONAL) != 0
+                    && element instanceof HtmlElement && ((HtmlElement) element).isOptional()) {
+                state |= OPTIONAL;
+            }
+            if ((usedStates & VALID) != 0
+                    && (element instanceof HtmlForm || element instanceof ValidatableElement)
+                    && ((HtmlElement) element).isValid()) {
+                state |= VALID;
+            }
+            if ((usedStates & PLACEHOLDER_SHOWN) != 0
+                    && element instanceof HtmlInput
+                    && StringUtils.isEmpty(((HtmlInput) element).getValue())
+                    && StringUtils.isNotEmpty(((HtmlInput) element).getPlaceholder())) {
+                state |= PLACEHOLDER_SHOWN;
+            }
+            if ((usedStates & EMPTY) != 0 && CssStyleSheet.isEmpty(element)) {
+                state |= EMPTY;
+            }
+            return state;
+        }
+
+        /**
+         * @return the position among the element siblings, counted from the start and the end
+         *         and the same for the siblings of the same type
+         */
+        private static int[] position(final DomElement element) {
+            final String type = element.getNodeName();
+            final int[] position = new int[4];
+            boolean before = true;
+            for (DomNode n = element.getParentNode() == null ? element : element.getParentNode().getFirstChild();
+                    n != null; n = n.getNextSibling()) {
+                if (n == element) {
+                    before = false;
+                }
+                else if (n instanceof DomElement) {
+                    final boolean sameType = n.getNodeName().equals(type);
+                    if (before) {
+                        position[0]++;
+                        if (sameType) {
+                            position[2]++;
+                        }
+                    }
+                    else {
+                        position[1]++;
+                        if (sameType) {
+                            position[3]++;
+                        }
+                    }
+                }
+            }
+            return position;
+        }
+    }
+}
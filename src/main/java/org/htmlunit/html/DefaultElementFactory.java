@@ -29,6 +29,7 @@ import org.htmlunit.SgmlPage;
 import org.htmlunit.cyberneko.xerces.util.XMLAttributesImpl;
 import org.htmlunit.cyberneko.xerces.xni.QName;
 import org.htmlunit.util.OrderedFastHashMap;
+import org.htmlunit.util.StringInterner;
 import org.xml.sax.Attributes;
 
 /**
@@ -741,20 +742,27 @@ public class DefaultElementFactory implements ElementFactory {
         }
 
         final Map<String, DomAttr> attributeMap = new OrderedFastHashMapWithLowercaseKeys<>(length);
+        final StringInterner interner = page.getWebClient().getStringInterner();
 
         // small performance optimization if we know the attributes we can avoid some index lookups
         if (attributes instanceof XMLAttributesImpl) {
             final ArrayList<XMLAttributesImpl.Attribute> attribs = ((XMLAttributesImpl) attributes).getAttributes();
             for (final XMLAttributesImpl.Attribute attribute : attribs) {
                 final QName qName = attribute.getQName();
-                final String name = qName.getRawname();
+                // attribute names are a small vocabulary repeated on every element
+                final String name = qName.getRawname().intern();
 
                 String namespaceURI = qName.getUri();
                 if (namespaceURI != null && namespaceURI.isEmpty()) {
                     namespaceURI = null;
                 }
 
-                DomAttr attr = new DomAttr(page, namespaceURI, name, attribute.getValue(), true);
+                String value = attribute.getValue();
+                if (interner != null) {
+                    value = interner.intern(value);
+                }
+
+                DomAttr attr = new DomAttr(page, namespaceURI, name, value, true);
                 attr = attributeMap.put(name, attr);
 
                 // browsers consider only first attribute (ex: <div id='foo' id='something'>...</div>)
@@ -769,7 +777,7 @@ public class DefaultElementFactory implements ElementFactory {
         }
 
         for (int i = 0; i < length; i++) {
-            final String qName = attributes.getQName(i);
+            final String qName = attributes.getQName(i).intern();
 
             String namespaceURI = attributes.getURI(i);
 
@@ -777,7 +785,12 @@ public class DefaultElementFactory implements ElementFactory {
                 namespaceURI = null;
             }
 
-            DomAttr attr = new DomAttr(page, namespaceURI, qName, attributes.getValue(i), true);
+            String value = attributes.getValue(i);
+            if (interner != null) {
+                value = interner.intern(value);
+            }
+
+            DomAttr attr = new DomAttr(page, namespaceURI, qName, value, true);
             attr = attributeMap.put(qName, attr);
 
             // browsers consider only first attribute (ex: <div id='foo' id='something'>...</div>)
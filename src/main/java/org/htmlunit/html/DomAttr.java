@@ -116,6 +116,7 @@ public class DomAttr extends DomNamespaceNode implements Attr {
             value_ = value;
         }
         specified_ = true;
+        notifyDomChanged();
     }
 
     /**
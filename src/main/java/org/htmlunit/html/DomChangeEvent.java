@@ -25,6 +25,8 @@ import java.util.EventObject;
 public class DomChangeEvent extends EventObject {
 
     private final DomNode changedNode_;
+    private final DomNode previousSibling_;
+    private final DomNode nextSibling_;
 
     /**
      * Constructs a new DomChangeEvent from the given parent node and a changed node.
@@ -33,8 +35,23 @@ public class DomChangeEvent extends EventObject {
      * @param changedNode the node that has been added or deleted
      */
     public DomChangeEvent(final DomNode parentNode, final DomNode changedNode) {
+        this(parentNode, changedNode, null, null);
+    }
+
+    /**
+     * Constructs a new DomChangeEvent from the given parent node and a changed node.
+     *
+     * @param parentNode the parent of the node that was changed
+     * @param changedNode the node that has been added or deleted
+     * @param previousSibling the previous sibling of the changed node (at the time of the change)
+     * @param nextSibling the next sibling of the changed node (at the time of the change)
+     */
+    public DomChangeEvent(final DomNode parentNode, final DomNode changedNode,
+            final DomNode previousSibling, final DomNode nextSibling) {
         super(parentNode);
         changedNode_ = changedNode;
+        previousSibling_ = previousSibling;
+        nextSibling_ = nextSibling;
     }
 
     /**
@@ -52,4 +69,22 @@ public class DomChangeEvent extends EventObject {
     public DomNode getChangedNode() {
         return changedNode_;
     }
+
+    /**
+     * Returns the previous sibling of the changed node at the time of the change.
+     * For deleted nodes this is the former previous sibling.
+     * @return the previous sibling or {@code null}
+     */
+    public DomNode getPreviousSibling() {
+        return previousSibling_;
+    }
+
+    /**
+     * Returns the next sibling of the changed node at the time of the change.
+     * For deleted nodes this is the former next sibling.
+     * @return the next sibling or {@code null}
+     */
+    public DomNode getNextSibling() {
+        return nextSibling_;
+    }
 }
@@ -62,6 +62,9 @@ public abstract class DomCharacterData extends DomNode implements CharacterData
         data_ = data;
 
         final SgmlPage page = getPage();
+        if (page != null) {
+            page.domChanged();
+        }
         if (page == null || page.isCharacterDataChangeListenerInUse()) {
             fireCharacterDataChanged(this, oldData);
         }
@@ -14,6 +14,9 @@
  */
 package org.htmlunit.html;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import org.htmlunit.SgmlPage;
 import org.w3c.dom.DocumentFragment;
 
@@ -57,12 +60,10 @@ public class DomDocumentFragment extends DomNode implements DocumentFragment {
      * {@inheritDoc}
      */
     @Override
-    public String asXml() {
-        final StringBuilder sb = new StringBuilder();
+    public void asXml(final Writer writer) throws IOException {
         for (final DomNode node : getChildren()) {
-            sb.append(node.asXml());
+            node.asXml(writer);
         }
-        return sb.toString();
     }
 
     /**
@@ -104,12 +104,14 @@ public class DomElement extends DomNamespaceNode implements Element {
     /** The map holding the attributes, keyed by name. */
     private NamedAttrNodeMapImpl attributes_;
 
-    /** The map holding the namespaces, keyed by URI. */
-    private FastHashMap<String, String> namespaces_;
-
-    /** Cache for the styles. */
-    private String styleString_;
-    private LinkedHashMap<String, StyleElement> styleMap_;
+    /**
+     * The source location of this element; kept here and not in the extras of {@link DomNode}
+     * because nearly every parsed element has one.
+     */
+    private int startLineNumber_ = -1;
+    private int startColumnNumber_ = -1;
+    private int endLineNumber_ = -1;
+    private int endColumnNumber_ = -1;
 
     private static final Comparator<StyleElement> STYLE_ELEMENT_COMPARATOR = new Comparator<StyleElement>() {
         @Override
@@ -144,19 +146,67 @@ public class DomElement extends DomNamespaceNode implements Element {
 
             for (final DomAttr entry : attributes.values()) {
                 entry.setParentNode(this);
+                countEventHandlerAttribute(entry.getName());
                 final String attrNamespaceURI = entry.getNamespaceURI();
                 final String prefix = entry.getPrefix();
 
                 if (attrNamespaceURI != null && prefix != null) {
-                    if (namespaces_ == null) {
-                        namespaces_ = new FastHashMap<>(1, 0.5f);
-                    }
-                    namespaces_.put(attrNamespaceURI, prefix);
+                    getExtras(true).getNamespaces(true).put(attrNamespaceURI, prefix);
                 }
             }
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setStartLocation(final int startLineNumber, final int startColumnNumber) {
+        startLineNumber_ = startLineNumber;
+        startColumnNumber_ = startColumnNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEndLocation(final int endLineNumber, final int endColumnNumber) {
+        endLineNumber_ = endLineNumber;
+        endColumnNumber_ = endColumnNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStartLineNumber() {
+        return startLineNumber_;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStartColumnNumber() {
+        return startColumnNumber_;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEndLineNumber() {
+        return endLineNumber_;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEndColumnNumber() {
+        return endColumnNumber_;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -259,6 +309,10 @@ public class DomElement extends DomNamespaceNode implements Element {
      * @return the StyleElement or null if not found
      */
     public StyleElement getStyleElement(final String name) {
+        if (!hasStyleAttributeValue()) {
+            return null;
+        }
+
         final Map<String, StyleElement> map = getStyleMap();
         if (map != null) {
             return map.get(name);
@@ -276,6 +330,10 @@ public class DomElement extends DomNamespaceNode implements Element {
      * @return the StyleElement or null if not found
      */
     public StyleElement getStyleElementCaseInSensitive(final String name) {
+        if (!hasStyleAttributeValue()) {
+            return null;
+        }
+
         final Map<String, StyleElement> map = getStyleMap();
         for (final Map.Entry<String, StyleElement> entry : map.entrySet()) {
             if (entry.getKey().equalsIgnoreCase(name)) {
@@ -295,17 +353,21 @@ public class DomElement extends DomNamespaceNode implements Element {
      */
     public LinkedHashMap<String, StyleElement> getStyleMap() {
         final String styleAttribute = getAttributeDirect("style");
-        if (styleString_ == styleAttribute) {
-            return styleMap_;
+        if (isEmptyStyleAttribute(styleAttribute)) {
+            // no need to keep an empty map for the (common) case of elements without style
+            final Extras extras = getExtras(false);
+            if (extras != null) {
+                extras.setStyle(null, null);
+            }
+            return new LinkedHashMap<>();
         }
 
-        final LinkedHashMap<String, StyleElement> styleMap = new LinkedHashMap<>();
-        if (ATTRIBUTE_NOT_DEFINED == styleAttribute || ATTRIBUTE_VALUE_EMPTY == styleAttribute) {
-            styleMap_ = styleMap;
-            styleString_ = styleAttribute;
-            return styleMap_;
+        final Extras extras = getExtras(true);
+        if (extras.getStyleString() == styleAttribute) {
+            return extras.getStyleMap();
         }
 
+        final LinkedHashMap<String, StyleElement> styleMap = new LinkedHashMap<>();
         final CSSStyleDeclarationImpl cssStyle = new CSSStyleDeclarationImpl(null);
         try {
             // use the configured cssErrorHandler here to do the same error handling during
@@ -327,10 +389,16 @@ public class DomElement extends DomNamespaceNode implements Element {
             styleMap.put(key, element);
         }
 
-        styleMap_ = styleMap;
-        styleString_ = styleAttribute;
-        // styleString_ = cssStyle.getCssText();
-        return styleMap_;
+        extras.setStyle(styleAttribute, styleMap);
+        return styleMap;
+    }
+
+    private boolean hasStyleAttributeValue() {
+        return !isEmptyStyleAttribute(getAttributeDirect("style"));
+    }
+
+    private static boolean isEmptyStyleAttribute(final String styleAttribute) {
+        return ATTRIBUTE_NOT_DEFINED == styleAttribute || ATTRIBUTE_VALUE_EMPTY == styleAttribute;
     }
 
     /**
@@ -397,7 +465,9 @@ public class DomElement extends DomNamespaceNode implements Element {
             qualifiedName = localName;
         }
         else {
-            final String prefix = namespaces_ == null ? null : namespaces_.get(namespaceURI);
+            final Extras extras = getExtras(false);
+            final FastHashMap<String, String> namespaces = extras == null ? null : extras.getNamespaces(false);
+            final String prefix = namespaces == null ? null : namespaces.get(namespaceURI);
             if (prefix == null) {
                 qualifiedName = null;
             }
@@ -543,12 +613,10 @@ public class DomElement extends DomNamespaceNode implements Element {
         final DomAttr newAttr = new DomAttr(getPage(), namespaceURI, qualifiedName, attributeValue, true);
         newAttr.setParentNode(this);
         attributes_.put(qualifiedName, newAttr);
+        countEventHandlerAttribute(qualifiedName);
 
         if (namespaceURI != null) {
-            if (namespaces_ == null) {
-                namespaces_ = new FastHashMap<>(1, 0.5f);
-            }
-            namespaces_.put(namespaceURI, newAttr.getPrefix());
+            getExtras(true).getNamespaces(true).put(namespaceURI, newAttr.getPrefix());
         }
     }
 
@@ -722,9 +790,35 @@ public class DomElement extends DomNamespaceNode implements Element {
     @Override
     public Attr setAttributeNode(final Attr attribute) {
         attributes_.setNamedItem(attribute);
+        countEventHandlerAttribute(attribute.getName());
         return null;
     }
 
+    /**
+     * Event handler attributes are compiled only when the JavaScript object of the element
+     * is created; count them upfront to make sure firing events is not skipped.
+     * @param attributeName the name of the attribute
+     */
+    private void countEventHandlerAttribute(final String attributeName) {
+        final SgmlPage page = getPage();
+        if (page != null) {
+            page.getEventListenerCounter().incrementIfEventHandlerAttribute(attributeName);
+        }
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Checks if firing an event of the given type on this element might have an effect.
+     * @param eventType the event type (like "keydown")
+     * @return {@code false} if there is for sure no event listener or handler for the given type
+     *         on the page of this element
+     */
+    public boolean mayHaveEventListeners(final String eventType) {
+        final SgmlPage page = getPage();
+        return page == null || page.getEventListenerCounter().hasListeners(eventType);
+    }
+
     /**
      * {@inheritDoc}
      * Not yet implemented.
@@ -1530,6 +1624,9 @@ public class DomElement extends DomNamespaceNode implements Element {
      */
     public ScriptResult fireEvent(final String eventType) {
         if (getPage().getWebClient().isJavaScriptEnabled()) {
+            if (!mayHaveEventListeners(eventType)) {
+                return null;
+            }
             return fireEvent(new Event(this, eventType));
         }
         return null;
@@ -1552,6 +1649,11 @@ public class DomElement extends DomNamespaceNode implements Element {
             return null;
         }
 
+        // nobody is listening; skip building the propagation path and entering the js engine
+        if (!event.processLabelAfterBubbling() && !mayHaveEventListeners(event.getType())) {
+            return null;
+        }
+
         if (LOG.isDebugEnabled()) {
             LOG.debug("Firing " + event);
         }
@@ -1832,6 +1934,7 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
     @Override
     public DomAttr put(final String key, final DomAttr value) {
         final String name = fixName(key);
+        domNode_.notifyDomChanged();
         return map_.put(name, value);
     }
 
@@ -1842,6 +1945,7 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
     public DomAttr remove(final Object key) {
         if (key instanceof String) {
             final String name = fixName((String) key);
+            domNode_.notifyDomChanged();
             return map_.remove(name);
         }
         return null;
@@ -1852,6 +1956,7 @@ class NamedAttrNodeMapImpl implements Map<String, DomAttr>, NamedNodeMap, Serial
      */
     @Override
     public void clear() {
+        domNode_.notifyDomChanged();
         map_.clear();
     }
 
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * Page level registry for the {@link DomChangeListener}s and {@link CharacterDataChangeListener}s
+ * of all nodes of a page.
+ * <p>
+ * The listeners of a node are stored as copy-on-write arrays; all modifications are guarded
+ * by one lock per page. Firing an event only reads the arrays and therefore needs no locking
+ * at all. The registry additionally counts the registered listeners; this allows a cheap check
+ * if there is a listener at all before walking up the ancestors of a changed node. Nodes carrying
+ * listeners that are moved to another page or cloned are taken into account by
+ * {@link #nodeMoved(DomNode, DomListenerRegistry, DomListenerRegistry)}.
+ * </p>
+ * The arrays are kept at the nodes (and not in a map inside the registry) to make sure
+ * nodes are not kept alive by the page only because they had a listener attached.
+ *
+ * @author Ronald Brill
+ */
+public class DomListenerRegistry implements Serializable {
+
+    private static final DomChangeListener[] NO_DOM_LISTENERS = new DomChangeListener[0];
+    private static final CharacterDataChangeListener[] NO_CHARACTER_DATA_LISTENERS
+                                                                = new CharacterDataChangeListener[0];
+
+    private final ReentrantLock lock_ = new ReentrantLock();
+    private final AtomicInteger domChangeListenerCount_ = new AtomicInteger();
+    private final AtomicInteger characterDataChangeListenerCount_ = new AtomicInteger();
+    private volatile boolean domChangeListenerInUse_;
+    private volatile boolean characterDataChangeListenerInUse_;
+
+    /**
+     * Registers the given {@link DomChangeListener} for the given node.
+     * @param node the node
+     * @param listener the listener
+     */
+    public void addDomChangeListener(final DomNode node, final DomChangeListener listener) {
+        lock_.lock();
+        try {
+            final DomNode.Extras extras = node.getExtras(true);
+            extras.setDomListeners(append(extras.getDomListeners(), listener, NO_DOM_LISTENERS));
+            domChangeListenerCount_.incrementAndGet();
+        }
+        finally {
+            lock_.unlock();
+        }
+    }
+
+    /**
+     * Deregisters the given {@link DomChangeListener} from the given node.
+     * @param node the node
+     * @param listener the listener
+     */
+    public void removeDomChangeListener(final DomNode node, final DomChangeListener listener) {
+        lock_.lock();
+        try {
+            final DomNode.Extras extras = node.getExtras(false);
+            if (extras == null) {
+                return;
+            }
+            final DomChangeListener[] listeners = extras.getDomListeners();
+            final DomChangeListener[] newListeners = remove(listeners, listener, NO_DOM_LISTENERS);
+            if (newListeners != listeners) {
+                extras.setDomListeners(newListeners);
+                domChangeListenerCount_.decrementAndGet();
+            }
+        }
+        finally {
+            lock_.unlock();
+        }
+    }
+
+    /**
+     * Registers the given {@link CharacterDataChangeListener} for the given node.
+     * @param node the node
+     * @param listener the listener
+     */
+    public void addCharacterDataChangeListener(final DomNode node, final CharacterDataChangeListener listener) {
+        lock_.lock();
+        try {
+            final DomNode.Extras extras = node.getExtras(true);
+            extras.setCharacterDataListeners(
+                    append(extras.getCharacterDataListeners(), listener, NO_CHARACTER_DATA_LISTENERS));
+            characterDataChangeListenerCount_.incrementAndGet();
+        }
+        finally {
+            lock_.unlock();
+        }
+    }
+
+    /**
+     * Deregisters the given {@link CharacterDataChangeListener} from the given node.
+     * @param node the node
+     * @param listener the listener
+     */
+    public void removeCharacterDataChangeListener(final DomNode node,
+            final CharacterDataChangeListener listener) {
+        lock_.lock();
+        try {
+            final DomNode.Extras extras = node.getExtras(false);
+            if (extras == null) {
+                return;
+            }
+            final CharacterDataChangeListener[] listeners = extras.getCharacterDataListeners();
+            final CharacterDataChangeListener[] newListeners =
+                    remove(listeners, listener, NO_CHARACTER_DATA_LISTENERS);
+            if (newListeners != listeners) {
+                extras.setCharacterDataListeners(newListeners);
+                characterDataChangeListenerCount_.decrementAndGet();
+            }
+        }
+        finally {
+            lock_.unlock();
+        }
+    }
+
+    /**
+     * Transfers the counts of the listeners registered for the given node (not the descendants)
+     * from one registry to another. Has to be called if a node is moved to another page and for
+     * every clone of a node (the clone has the same listeners as the original).
+     * @param node the node
+     * @param from the registry the listeners were counted in or {@code null}
+     * @param to the registry the listeners are counted in from now on or {@code null}
+     */
+    static void nodeMoved(final DomNode node, final DomListenerRegistry from, final DomListenerRegistry to) {
+        if (from == to) {
+            return;
+        }
+        final DomNode.Extras extras = node.getExtras(false);
+        if (extras == null) {
+            return;
+        }
+
+        final DomChangeListener[] domListeners = extras.getDomListeners();
+        final int domCount = domListeners == null ? 0 : domListeners.length;
+        final CharacterDataChangeListener[] characterDataListeners = extras.getCharacterDataListeners();
+        final int characterDataCount = characterDataListeners == null ? 0 : characterDataListeners.length;
+        if (domCount == 0 && characterDataCount == 0) {
+            return;
+        }
+
+        if (from != null) {
+            from.domChangeListenerCount_.addAndGet(-domCount);
+            from.characterDataChangeListenerCount_.addAndGet(-characterDataCount);
+        }
+        if (to != null) {
+            to.domChangeListenerCount_.addAndGet(domCount);
+            to.characterDataChangeListenerCount_.addAndGet(characterDataCount);
+        }
+    }
+
+    /**
+     * Marks the {@link DomChangeListener}s as used, independent of the registered listeners.
+     */
+    public void markDomChangeListenerInUse() {
+        domChangeListenerInUse_ = true;
+    }
+
+    /**
+     * Marks the {@link CharacterDataChangeListener}s as used, independent of the registered listeners.
+     */
+    public void markCharacterDataChangeListenerInUse() {
+        characterDataChangeListenerInUse_ = true;
+    }
+
+    /**
+     * @return true if at least one {@link DomChangeListener} is registered
+     */
+    public boolean hasDomChangeListeners() {
+        return domChangeListenerInUse_ || domChangeListenerCount_.get() > 0;
+    }
+
+    /**
+     * @return true if at least one {@link CharacterDataChangeListener} is registered
+     */
+    public boolean hasCharacterDataChangeListeners() {
+        return characterDataChangeListenerInUse_ || characterDataChangeListenerCount_.get() > 0;
+    }
+
+    private static <T> T[] append(final T[] listeners, final T listener, final T[] empty) {
+        if (listeners == null) {
+            final T[] result = Arrays.copyOf(empty, 1);
+            result[0] = listener;
+            return result;
+        }
+
+        final T[] result = Arrays.copyOf(listeners, listeners.length + 1);
+        result[listeners.length] = listener;
+        return result;
+    }
+
+    private static <T> T[] remove(final T[] listeners, final T listener, final T[] empty) {
+        if (listeners == null) {
+            return null;
+        }
+
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                if (listeners.length == 1) {
+                    return null;
+                }
+
+                final T[] result = Arrays.copyOf(empty, listeners.length - 1);
+                System.arraycopy(listeners, 0, result, 0, i);
+                System.arraycopy(listeners, i + 1, result, i, listeners.length - i - 1);
+                return result;
+            }
+        }
+        return listeners;
+    }
+}
@@ -18,10 +18,12 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -37,12 +39,14 @@ import org.htmlunit.WebWindow;
 import org.htmlunit.css.ComputedCssStyleDeclaration;
 import org.htmlunit.css.CssStyleSheet;
 import org.htmlunit.css.StyleAttributes;
+import org.htmlunit.css.StyleElement;
 import org.htmlunit.cssparser.parser.CSSErrorHandler;
 import org.htmlunit.cssparser.parser.CSSException;
 import org.htmlunit.cssparser.parser.CSSOMParser;
 import org.htmlunit.cssparser.parser.CSSParseException;
 import org.htmlunit.cssparser.parser.selector.Selector;
 import org.htmlunit.cssparser.parser.selector.SelectorList;
+import org.htmlunit.cyberneko.util.FastHashMap;
 import org.htmlunit.html.HtmlElement.DisplayStyle;
 import org.htmlunit.html.serializer.HtmlSerializerNormalizedText;
 import org.htmlunit.html.serializer.HtmlSerializerVisibleText;
@@ -100,6 +104,9 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
 
     private static final NamedNodeMap EMPTY_NAMED_NODE_MAP = new ReadOnlyEmptyNamedNodeMapImpl();
 
+    /** Used for the (rare) nodes without a page. */
+    private static final DomListenerRegistry NO_PAGE_LISTENER_REGISTRY = new DomListenerRegistry();
+
     /** The owning page of this node. */
     private SgmlPage page_;
 
@@ -126,46 +133,34 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     private HtmlUnitScriptable scriptObject_;
 
-    /** The ready state is an value that is available to a large number of elements. */
-    private String readyState_;
-
-    /**
-     * The line number in the source page where the DOM node starts.
-     */
-    private int startLineNumber_ = -1;
-
-    /**
-     * The column number in the source page where the DOM node starts.
-     */
-    private int startColumnNumber_ = -1;
-
-    /**
-     * The line number in the source page where the DOM node ends.
-     */
-    private int endLineNumber_ = -1;
+    private boolean attachedToPage_;
 
     /**
-     * The column number in the source page where the DOM node ends.
+     * The rarely used state of this node (ready state, listeners, user data, ...),
+     * allocated on first use to keep the common node small.
      */
-    private int endColumnNumber_ = -1;
-
-    private boolean attachedToPage_;
-
-    /** The listeners which are to be notified of characterData change. */
-    private List<CharacterDataChangeListener> characterDataListeners_;
-    private List<DomChangeListener> domListeners_;
-
-    private Map<String, Object> userData_;
+    private Extras extras_;
 
     /**
      * Creates a new instance.
      * @param page the page which contains this node
      */
     protected DomNode(final SgmlPage page) {
-        readyState_ = READY_STATE_LOADING;
         page_ = page;
     }
 
+    /**
+     * Returns the {@link Extras} of this node.
+     * @param create whether to create the extras if not yet available
+     * @return the extras or {@code null} if not available and create is {@code false}
+     */
+    Extras getExtras(final boolean create) {
+        if (extras_ == null && create) {
+            extras_ = new Extras();
+        }
+        return extras_;
+    }
+
     /**
      * Sets the line and column numbers in the source page where the DOM node starts.
      *
@@ -173,8 +168,9 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param startColumnNumber the column number where the DOM node starts
      */
     public void setStartLocation(final int startLineNumber, final int startColumnNumber) {
-        startLineNumber_ = startLineNumber;
-        startColumnNumber_ = startColumnNumber;
+        final Extras extras = getExtras(true);
+        extras.startLineNumber_ = startLineNumber;
+        extras.startColumnNumber_ = startColumnNumber;
     }
 
     /**
@@ -184,8 +180,9 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param endColumnNumber the column number where the DOM node ends
      */
     public void setEndLocation(final int endLineNumber, final int endColumnNumber) {
-        endLineNumber_ = endLineNumber;
-        endColumnNumber_ = endColumnNumber;
+        final Extras extras = getExtras(true);
+        extras.endLineNumber_ = endLineNumber;
+        extras.endColumnNumber_ = endColumnNumber;
     }
 
     /**
@@ -193,7 +190,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return the line number in the source page where the DOM node starts
      */
     public int getStartLineNumber() {
-        return startLineNumber_;
+        return extras_ == null ? -1 : extras_.startLineNumber_;
     }
 
     /**
@@ -201,7 +198,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return the column number in the source page where the DOM node starts
      */
     public int getStartColumnNumber() {
-        return startColumnNumber_;
+        return extras_ == null ? -1 : extras_.startColumnNumber_;
     }
 
     /**
@@ -210,7 +207,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      *         -1 if the end tag has not yet been parsed (during page loading)
      */
     public int getEndLineNumber() {
-        return endLineNumber_;
+        return extras_ == null ? -1 : extras_.endLineNumber_;
     }
 
     /**
@@ -219,7 +216,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      *         -1 if the end tag has not yet been parsed (during page loading)
      */
     public int getEndColumnNumber() {
-        return endColumnNumber_;
+        return extras_ == null ? -1 : extras_.endColumnNumber_;
     }
 
     /**
@@ -633,8 +630,8 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     @Override
     public Object getUserData(final String key) {
         Object value = null;
-        if (userData_ != null) {
-            value = userData_.get(key);
+        if (extras_ != null && extras_.userData_ != null) {
+            value = extras_.userData_.get(key);
         }
         return value;
     }
@@ -644,10 +641,11 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     @Override
     public Object setUserData(final String key, final Object data, final UserDataHandler handler) {
-        if (userData_ == null) {
-            userData_ = new HashMap<>();
+        final Extras extras = getExtras(true);
+        if (extras.userData_ == null) {
+            extras.userData_ = new HashMap<>();
         }
-        return userData_.put(key, data);
+        return extras.userData_.put(key, data);
     }
 
     /**
@@ -757,6 +755,20 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         return ser.asText(this);
     }
 
+    /**
+     * Writes a normalized textual representation of this element that represents
+     * what would be visible to the user if this page was shown in a web browser
+     * to the given {@link Appendable}. This is the streaming variant of {@link #asNormalizedText()};
+     * the text is passed to the target in chunks, the complete text is never held in memory.
+     *
+     * @param out the target to write to
+     * @throws IOException in case of error
+     */
+    public void asNormalizedText(final Appendable out) throws IOException {
+        final HtmlSerializerNormalizedText ser = new HtmlSerializerNormalizedText();
+        ser.asText(this, out);
+    }
+
     /**
      * Returns a textual representation of this element in the same way as
      * the selenium/WebDriver WebElement#getText() property does.<br>
@@ -772,6 +784,19 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         return ser.asText(this);
     }
 
+    /**
+     * Writes a textual representation of this element in the same way as
+     * the selenium/WebDriver WebElement#getText() property does to the given {@link Appendable}.
+     * This is the streaming variant of {@link #getVisibleText()}.
+     *
+     * @param out the target to write to
+     * @throws IOException in case of error
+     */
+    public void getVisibleText(final Appendable out) throws IOException {
+        final HtmlSerializerVisibleText ser = new HtmlSerializerVisibleText();
+        ser.asText(this, out);
+    }
+
     /**
      * Returns a string representation as XML document from this element and all it's children (recursively).<br>
      * The charset used in the xml header is the current page encoding; but the result is still a string.
@@ -781,21 +806,44 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return the XML string
      */
     public String asXml() {
+        final StringWriter stringWriter = new StringWriter();
+        try {
+            asXml(stringWriter);
+        }
+        catch (final IOException e) {
+            // StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes the XML representation of this element and all it's children (recursively)
+     * to the given {@link Writer}. This is the streaming variant of {@link #asXml()};
+     * the writer is flushed but not closed.<br>
+     * The charset used in the xml header is the current page encoding; make sure the
+     * writer uses the same encoding.
+     *
+     * @param writer the writer to write to
+     * @throws IOException in case of error
+     */
+    public void asXml(final Writer writer) throws IOException {
         Charset charsetName = null;
         final HtmlPage htmlPage = getHtmlPageOrNull();
         if (htmlPage != null) {
             charsetName = htmlPage.getCharset();
         }
 
-        final StringWriter stringWriter = new StringWriter();
-        try (PrintWriter printWriter = new PrintWriter(stringWriter)) {
-            if (charsetName != null && this instanceof HtmlHtml) {
-                printWriter.print("<?xml version=\"1.0\" encoding=\"");
-                printWriter.print(charsetName);
-                printWriter.print("\"?>\r\n");
-            }
-            printXml("", printWriter);
-            return stringWriter.toString();
+        final PrintWriter printWriter = new PrintWriter(writer);
+        if (charsetName != null && this instanceof HtmlHtml) {
+            printWriter.print("<?xml version=\"1.0\" encoding=\"");
+            printWriter.print(charsetName);
+            printWriter.print("\"?>\r\n");
+        }
+        printXml("", printWriter);
+        // PrintWriter swallows the exceptions
+        if (printWriter.checkError()) {
+            throw new IOException("Error writing the XML of " + this);
         }
     }
 
@@ -853,6 +901,11 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         newnode.scriptObject_ = null;
         newnode.firstChild_ = null;
         newnode.attachedToPage_ = false;
+        if (extras_ != null) {
+            newnode.extras_ = extras_.copy();
+            // the clone shares the listeners, count them for the page
+            DomListenerRegistry.nodeMoved(newnode, null, listenerRegistryOf(newnode.getPage()));
+        }
 
         // if deep, clone the children too.
         if (deep) {
@@ -928,12 +981,32 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
 
             basicAppend(domNode);
 
-            fireAddition(domNode);
+            fireAddition(domNode, false);
         }
 
         return domNode;
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Appends a node just created by the parser. For a node without parent and children the checks of
+     * {@link #appendChild(Node)} are not needed, the node is linked directly and the update of the ID and
+     * name maps of the page is deferred until {@link HtmlPage#mapParsedElements()}.
+     * All the other notifications (including the {@link DomChangeListener}s) are still done for every node.
+     *
+     * @param node the node to append
+     */
+    public void appendParsedChild(final DomNode node) {
+        if (node.getParentNode() != null || node.getFirstChild() != null || node instanceof DomDocumentFragment) {
+            appendChild(node);
+            return;
+        }
+
+        basicAppend(node);
+        fireAddition(node, true);
+    }
+
     /**
      * Appends the specified node to the end of this node's children, assuming the specified
      * node is clean (doesn't have preexisting relationships to other nodes).
@@ -945,6 +1018,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         // before the node is reachable
         node.setPage(getPage());
         node.parent_ = this;
+        notifyDomChanged();
 
         if (firstChild_ == null) {
             firstChild_ = node;
@@ -1007,7 +1081,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
 
         basicInsertBefore(newNode);
 
-        fireAddition(newNode);
+        fireAddition(newNode, false);
     }
 
     /**
@@ -1021,6 +1095,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         // before the node is reachable
         node.setPage(page_);
         node.parent_ = parent_;
+        notifyDomChanged();
         node.previousSibling_ = previousSibling_;
         node.nextSibling_ = this;
 
@@ -1033,7 +1108,17 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         previousSibling_ = node;
     }
 
-    private void fireAddition(final DomNode domNode) {
+    /**
+     * Increments the dom change counter of the page.
+     */
+    void notifyDomChanged() {
+        final SgmlPage page = getPage();
+        if (page != null) {
+            page.domChanged();
+        }
+    }
+
+    private void fireAddition(final DomNode domNode, final boolean deferMapping) {
         final boolean wasAlreadyAttached = domNode.isAttachedToPage();
         domNode.attachedToPage_ = isAttachedToPage();
 
@@ -1041,7 +1126,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         if (domNode.attachedToPage_) {
             // trigger events
             if (null != page && page.isHtmlPage()) {
-                ((HtmlPage) page).notifyNodeAdded(domNode);
+                ((HtmlPage) page).notifyNodeAdded(domNode, deferMapping);
             }
 
             // a node that is already "complete" (ie not being parsed) and not yet attached
@@ -1084,9 +1169,23 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
             return; // nothing to do
         }
 
+        // the moved nodes may have event listeners; the counts
+        // of the old page are an upper bound for them
+        if (page_ != null && newPage != null) {
+            newPage.getEventListenerCounter().addAll(page_.getEventListenerCounter());
+        }
+        updatePage(newPage);
+    }
+
+    private void updatePage(final SgmlPage newPage) {
+        if (page_ == newPage) {
+            return; // nothing to do
+        }
+
+        DomListenerRegistry.nodeMoved(this, listenerRegistryOf(page_), listenerRegistryOf(newPage));
         page_ = newPage;
         for (final DomNode node : getChildren()) {
-            node.setPage(newPage);
+            node.updatePage(newPage);
         }
     }
 
@@ -1140,16 +1239,19 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      */
     protected void detach() {
         final DomNode exParent = parent_;
+        final DomNode exPreviousSibling = getPreviousSibling();
+        final DomNode exNextSibling = nextSibling_;
 
         basicRemove();
 
-        fireRemoval(exParent);
+        fireRemoval(exParent, exPreviousSibling, exNextSibling);
     }
 
     /**
      * Cuts off all relationships this node has with siblings and parents.
      */
     protected void basicRemove() {
+        notifyDomChanged();
         if (parent_ != null && parent_.firstChild_ == this) {
             parent_.firstChild_ = nextSibling_;
         }
@@ -1172,7 +1274,8 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         }
     }
 
-    private void fireRemoval(final DomNode exParent) {
+    private void fireRemoval(final DomNode exParent, final DomNode exPreviousSibling,
+            final DomNode exNextSibling) {
         final SgmlPage page = getPage();
         if (page instanceof HtmlPage) {
             // some actions executed on removal need an intact parent relationship (e.g. for the
@@ -1183,9 +1286,9 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         }
 
         if (exParent != null && (page == null || page.isDomChangeListenerInUse())) {
-            fireNodeDeleted(exParent, this);
+            fireNodeDeleted(exParent, this, exPreviousSibling, exNextSibling);
             // ask ex-parent to fire event (because we don't have parent now)
-            exParent.fireNodeDeleted(exParent, this);
+            exParent.fireNodeDeleted(exParent, this, exPreviousSibling, exNextSibling);
         }
     }
 
@@ -1815,7 +1918,10 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @return this node's ready state
      */
     public String getReadyState() {
-        return readyState_;
+        if (extras_ == null || extras_.readyState_ == null) {
+            return READY_STATE_LOADING;
+        }
+        return extras_.readyState_;
     }
 
     /**
@@ -1823,7 +1929,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param state this node's ready state
      */
     public void setReadyState(final String state) {
-        readyState_ = state;
+        getExtras(true).readyState_ = state;
     }
 
     /**
@@ -1882,13 +1988,8 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @see #getByXPath(String)
      * @see #getCanonicalXPath()
      */
-    @SuppressWarnings("unchecked")
     public <X> X getFirstByXPath(final String xpathExpr, final PrefixResolver resolver) {
-        final List<?> results = getByXPath(xpathExpr, resolver);
-        if (results.isEmpty()) {
-            return null;
-        }
-        return (X) results.get(0);
+        return XPathHelper.getFirstByXPath(this, xpathExpr, resolver);
     }
 
     /**
@@ -1926,17 +2027,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     public void addDomChangeListener(final DomChangeListener listener) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (this) {
-            if (domListeners_ == null) {
-                domListeners_ = new ArrayList<>();
-            }
-            domListeners_.add(listener);
-
-            final SgmlPage page = getPage();
-            if (page != null) {
-                page.domChangeListenerAdded();
-            }
-        }
+        getListenerRegistry().addDomChangeListener(this, listener);
     }
 
     /**
@@ -1949,11 +2040,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     public void removeDomChangeListener(final DomChangeListener listener) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (this) {
-            if (domListeners_ != null) {
-                domListeners_.remove(listener);
-            }
-        }
+        getListenerRegistry().removeDomChangeListener(this, listener);
     }
 
     /**
@@ -1970,14 +2057,12 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
 
         DomNode toInform = this;
         while (toInform != null) {
-            if (toInform.domListeners_ != null) {
-                final List<DomChangeListener> listeners;
-                synchronized (toInform) {
-                    listeners = new ArrayList<>(toInform.domListeners_);
-                }
-
+            final Extras extras = toInform.extras_;
+            final DomChangeListener[] listeners = extras == null ? null : extras.domListeners_;
+            if (listeners != null) {
                 if (event == null) {
-                    event = new DomChangeEvent(parentNode, addedNode);
+                    event = new DomChangeEvent(parentNode, addedNode,
+                            addedNode.getPreviousSibling(), addedNode.getNextSibling());
                 }
                 for (final DomChangeListener domChangeListener : listeners) {
                     domChangeListener.nodeAdded(event);
@@ -1998,17 +2083,7 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     public void addCharacterDataChangeListener(final CharacterDataChangeListener listener) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (this) {
-            if (characterDataListeners_ == null) {
-                characterDataListeners_ = new ArrayList<>();
-            }
-            characterDataListeners_.add(listener);
-
-            final SgmlPage page = getPage();
-            if (page != null) {
-                page.characterDataChangeListenerAdded();
-            }
-        }
+        getListenerRegistry().addCharacterDataChangeListener(this, listener);
     }
 
     /**
@@ -2021,11 +2096,22 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
     public void removeCharacterDataChangeListener(final CharacterDataChangeListener listener) {
         WebAssert.notNull("listener", listener);
 
-        synchronized (this) {
-            if (characterDataListeners_ != null) {
-                characterDataListeners_.remove(listener);
-            }
+        getListenerRegistry().removeCharacterDataChangeListener(this, listener);
+    }
+
+    private DomListenerRegistry getListenerRegistry() {
+        final SgmlPage page = getPage();
+        if (page == null) {
+            return NO_PAGE_LISTENER_REGISTRY;
         }
+        return page.getListenerRegistry();
+    }
+
+    private static DomListenerRegistry listenerRegistryOf(final SgmlPage page) {
+        if (page == null) {
+            return null;
+        }
+        return page.getListenerRegistry();
     }
 
     /**
@@ -2041,12 +2127,10 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
 
         DomNode toInform = this;
         while (toInform != null) {
-            if (toInform.characterDataListeners_ != null) {
-                final List<CharacterDataChangeListener> listeners;
-                synchronized (toInform) {
-                    listeners = new ArrayList<>(toInform.characterDataListeners_);
-                }
-
+            final Extras extras = toInform.extras_;
+            final CharacterDataChangeListener[] listeners =
+                    extras == null ? null : extras.characterDataListeners_;
+            if (listeners != null) {
                 if (event == null) {
                     event = new CharacterDataChangeEvent(characterData, oldValue);
                 }
@@ -2069,18 +2153,29 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @param deletedNode the node that has been deleted
      */
     protected void fireNodeDeleted(final DomNode parentNode, final DomNode deletedNode) {
+        fireNodeDeleted(parentNode, deletedNode, null, null);
+    }
+
+    /**
+     * Support for reporting DOM changes. This method can be called when a node has been deleted, and it
+     * will send the appropriate {@link DomChangeEvent} to any registered {@link DomChangeListener}s.
+     *
+     * @param parentNode the parent of the node that was changed
+     * @param deletedNode the node that has been deleted
+     * @param exPreviousSibling the former previous sibling of the deleted node
+     * @param exNextSibling the former next sibling of the deleted node
+     */
+    protected void fireNodeDeleted(final DomNode parentNode, final DomNode deletedNode,
+            final DomNode exPreviousSibling, final DomNode exNextSibling) {
         DomChangeEvent event = null;
 
         DomNode toInform = this;
         while (toInform != null) {
-            if (toInform.domListeners_ != null) {
-                final List<DomChangeListener> listeners;
-                synchronized (toInform) {
-                    listeners = new ArrayList<>(toInform.domListeners_);
-                }
-
+            final Extras extras = toInform.extras_;
+            final DomChangeListener[] listeners = extras == null ? null : extras.domListeners_;
+            if (listeners != null) {
                 if (event == null) {
-                    event = new DomChangeEvent(parentNode, deletedNode);
+                    event = new DomChangeEvent(parentNode, deletedNode, exPreviousSibling, exNextSibling);
                 }
                 for (final DomChangeListener domChangeListener : listeners) {
                     domChangeListener.nodeDeleted(event);
@@ -2185,7 +2280,12 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
      * @see HtmlScript#processImportNode(org.htmlunit.javascript.host.dom.Document)
      */
     public void processImportNode(final org.htmlunit.javascript.host.dom.Document doc) {
-        page_ = (SgmlPage) doc.getDomNodeOrDie();
+        final SgmlPage newPage = (SgmlPage) doc.getDomNodeOrDie();
+        if (page_ != null && page_ != newPage) {
+            newPage.getEventListenerCounter().addAll(page_.getEventListenerCounter());
+        }
+        DomListenerRegistry.nodeMoved(this, listenerRegistryOf(page_), listenerRegistryOf(newPage));
+        page_ = newPage;
     }
 
     /**
@@ -2293,6 +2393,89 @@ public abstract class DomNode implements Cloneable, Serializable, Node {
         }
     }
 
+    /**
+     * Holder for the rarely used state of a node. Most nodes never need any of
+     * these fields, therefore they are grouped here and allocated on demand.
+     */
+    static final class Extras implements Serializable {
+        /** The line and column numbers in the source page (not used by elements, see {@link DomElement}). */
+        private int startLineNumber_ = -1;
+        private int startColumnNumber_ = -1;
+        private int endLineNumber_ = -1;
+        private int endColumnNumber_ = -1;
+
+        /** The ready state; {@code null} means {@link DomNode#READY_STATE_LOADING}. */
+        private String readyState_;
+
+        /**
+         * The listeners which are to be notified of changes; copy-on-write arrays
+         * maintained by the {@link DomListenerRegistry} of the page.
+         */
+        private volatile CharacterDataChangeListener[] characterDataListeners_;
+        private volatile DomChangeListener[] domListeners_;
+
+        private Map<String, Object> userData_;
+
+        /** The map holding the namespaces of a {@link DomElement}, keyed by URI. */
+        private FastHashMap<String, String> namespaces_;
+
+        /** Cache for the styles of a {@link DomElement}. */
+        private String styleString_;
+        private LinkedHashMap<String, StyleElement> styleMap_;
+
+        CharacterDataChangeListener[] getCharacterDataListeners() {
+            return characterDataListeners_;
+        }
+
+        void setCharacterDataListeners(final CharacterDataChangeListener[] listeners) {
+            characterDataListeners_ = listeners;
+        }
+
+        DomChangeListener[] getDomListeners() {
+            return domListeners_;
+        }
+
+        void setDomListeners(final DomChangeListener[] listeners) {
+            domListeners_ = listeners;
+        }
+
+        FastHashMap<String, String> getNamespaces(final boolean create) {
+            if (namespaces_ == null && create) {
+                namespaces_ = new FastHashMap<>(1, 0.5f);
+            }
+            return namespaces_;
+        }
+
+        String getStyleString() {
+            return styleString_;
+        }
+
+        LinkedHashMap<String, StyleElement> getStyleMap() {
+            return styleMap_;
+        }
+
+        void setStyle(final String styleString, final LinkedHashMap<String, StyleElement> styleMap) {
+            styleString_ = styleString;
+            styleMap_ = styleMap;
+        }
+
+        Extras copy() {
+            final Extras copy = new Extras();
+            copy.startLineNumber_ = startLineNumber_;
+            copy.startColumnNumber_ = startColumnNumber_;
+            copy.endLineNumber_ = endLineNumber_;
+            copy.endColumnNumber_ = endColumnNumber_;
+            copy.readyState_ = readyState_;
+            copy.characterDataListeners_ = characterDataListeners_;
+            copy.domListeners_ = domListeners_;
+            copy.userData_ = userData_;
+            copy.namespaces_ = namespaces_;
+            copy.styleString_ = styleString_;
+            copy.styleMap_ = styleMap_;
+            return copy;
+        }
+    }
+
     /**
      * An unmodifiable empty {@link NamedNodeMap} implementation.
      */
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * Page level count of the JavaScript event listeners and handlers per event type.
+ * <p>
+ * The count covers all the event targets of the page (nodes, the document and the window);
+ * if there is no listener for an event type, firing an event of this type can't have any
+ * visible effect and the whole dispatching (including the creation of the event object)
+ * can be skipped.
+ * </p>
+ * The count is allowed to be too high but never too low: event handler attributes
+ * (like {@code onclick}) are counted as soon as they are set, even if the handler
+ * is not (yet) compiled, and are never uncounted.
+ *
+ * @author Ronald Brill
+ */
+public class EventListenerCounter implements Serializable {
+
+    private final ConcurrentMap<String, AtomicInteger> counts_ = new ConcurrentHashMap<>();
+
+    /**
+     * Counts one more listener for the given event type.
+     * @param eventType the event type (like "click")
+     */
+    public void increment(final String eventType) {
+        counts_.computeIfAbsent(eventType.toLowerCase(Locale.ROOT), k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * Counts one listener less for the given event type.
+     * @param eventType the event type (like "click")
+     */
+    public void decrement(final String eventType) {
+        final AtomicInteger count = counts_.get(eventType.toLowerCase(Locale.ROOT));
+        if (count != null) {
+            count.updateAndGet(c -> c > 0 ? c - 1 : 0);
+        }
+    }
+
+    /**
+     * Counts the listener defined by an event handler attribute.
+     * @param attributeName the name of the attribute
+     */
+    public void incrementIfEventHandlerAttribute(final String attributeName) {
+        if (attributeName.length() > 2
+                && (attributeName.charAt(0) == 'o' || attributeName.charAt(0) == 'O')
+                && (attributeName.charAt(1) == 'n' || attributeName.charAt(1) == 'N')) {
+            increment(attributeName.substring(2));
+        }
+    }
+
+    /**
+     * Adds the counts of the given counter to this one; used if nodes are moved from
+     * one page to another.
+     * @param other the counter of the other page
+     */
+    public void addAll(final EventListenerCounter other) {
+        if (other == this) {
+            return;
+        }
+        for (final Map.Entry<String, AtomicInteger> entry : other.counts_.entrySet()) {
+            final int count = entry.getValue().get();
+            if (count > 0) {
+                counts_.computeIfAbsent(entry.getKey(), k -> new AtomicInteger()).addAndGet(count);
+            }
+        }
+    }
+
+    /**
+     * @param eventType the event type (like "click")
+     * @return {@code false} if there is for sure no listener for the given event type
+     */
+    public boolean hasListeners(final String eventType) {
+        if (eventType == null) {
+            return true;
+        }
+        final AtomicInteger count = counts_.get(eventType.toLowerCase(Locale.ROOT));
+        return count != null && count.get() > 0;
+    }
+}
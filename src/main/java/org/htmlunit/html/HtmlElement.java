@@ -25,6 +25,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.htmlunit.BrowserVersion;
@@ -36,6 +38,7 @@ import org.htmlunit.WebAssert;
 import org.htmlunit.WebClient;
 import org.htmlunit.WebWindow;
 import org.htmlunit.css.ComputedCssStyleDeclaration;
+import org.htmlunit.css.LayoutCache.Metric;
 import org.htmlunit.html.impl.SelectableTextInput;
 import org.htmlunit.javascript.HtmlUnitScriptable;
 import org.htmlunit.javascript.host.dom.Document;
@@ -563,30 +566,20 @@ public abstract class HtmlElement extends DomElement {
             focus();
         }
         final boolean isShiftNeeded = KeyboardEvent.isShiftNeeded(c, shiftPressed_);
+        final boolean shift = shiftPressed_ || isShiftNeeded;
 
-        final Event shiftDown;
-        final ScriptResult shiftDownResult;
-        if (isShiftNeeded) {
-            shiftDown = new KeyboardEvent(this, Event.TYPE_KEY_DOWN, KeyboardEvent.DOM_VK_SHIFT,
-                    true, ctrlPressed_, altPressed_);
-            shiftDownResult = fireEvent(shiftDown);
-        }
-        else {
-            shiftDown = null;
-            shiftDownResult = null;
-        }
+        final boolean shiftDownAborted = isShiftNeeded
+                && fireKeyboardEvent(this, Event.TYPE_KEY_DOWN,
+                    type -> new KeyboardEvent(this, type, KeyboardEvent.DOM_VK_SHIFT, true, ctrlPressed_, altPressed_));
 
-        final Event keyDown = new KeyboardEvent(this, Event.TYPE_KEY_DOWN, c,
-                                                shiftPressed_ || isShiftNeeded, ctrlPressed_, altPressed_);
-        final ScriptResult keyDownResult = fireEvent(keyDown);
+        final boolean keyDownAborted = fireKeyboardEvent(this, Event.TYPE_KEY_DOWN,
+                type -> new KeyboardEvent(this, type, c, shift, ctrlPressed_, altPressed_));
 
-        if (!keyDown.isAborted(keyDownResult)) {
-            final Event keyPress = new KeyboardEvent(this, Event.TYPE_KEY_PRESS, c,
-                    shiftPressed_ || isShiftNeeded, ctrlPressed_, altPressed_);
-            final ScriptResult keyPressResult = fireEvent(keyPress);
+        if (!keyDownAborted) {
+            final boolean keyPressAborted = fireKeyboardEvent(this, Event.TYPE_KEY_PRESS,
+                    type -> new KeyboardEvent(this, type, c, shift, ctrlPressed_, altPressed_));
 
-            if ((shiftDown == null || !shiftDown.isAborted(shiftDownResult))
-                    && !keyPress.isAborted(keyPressResult)) {
+            if (!shiftDownAborted && !keyPressAborted) {
                 doType(c, lastType);
             }
         }
@@ -598,8 +591,8 @@ public abstract class HtmlElement extends DomElement {
                 || this instanceof HtmlNumberInput
                 || this instanceof HtmlSearchInput
                 || this instanceof HtmlPasswordInput) {
-            fireEvent(new KeyboardEvent(this, Event.TYPE_INPUT, c,
-                                        shiftPressed_ || isShiftNeeded, ctrlPressed_, altPressed_));
+            fireKeyboardEvent(this, Event.TYPE_INPUT,
+                type -> new KeyboardEvent(this, type, c, shift, ctrlPressed_, altPressed_));
         }
 
         HtmlElement eventSource = this;
@@ -608,15 +601,13 @@ public abstract class HtmlElement extends DomElement {
         }
 
         if (eventSource != null) {
-            final Event keyUp = new KeyboardEvent(this, Event.TYPE_KEY_UP, c,
-                                                    shiftPressed_ || isShiftNeeded, ctrlPressed_, altPressed_);
-            eventSource.fireEvent(keyUp);
+            fireKeyboardEvent(eventSource, Event.TYPE_KEY_UP,
+                type -> new KeyboardEvent(this, type, c, shift, ctrlPressed_, altPressed_));
 
             if (isShiftNeeded) {
-                final Event shiftUp = new KeyboardEvent(this, Event.TYPE_KEY_UP,
-                                        KeyboardEvent.DOM_VK_SHIFT,
-                                        false, ctrlPressed_, altPressed_);
-                eventSource.fireEvent(shiftUp);
+                fireKeyboardEvent(eventSource, Event.TYPE_KEY_UP,
+                    type -> new KeyboardEvent(this, type, KeyboardEvent.DOM_VK_SHIFT,
+                                                false, ctrlPressed_, altPressed_));
             }
         }
 
@@ -739,34 +730,17 @@ public abstract class HtmlElement extends DomElement {
             focus();
         }
 
-        final Event keyDown;
-        final ScriptResult keyDownResult;
-        if (fireKeyDown) {
-            keyDown = new KeyboardEvent(this, Event.TYPE_KEY_DOWN, keyCode, shiftPressed_, ctrlPressed_, altPressed_);
-            keyDownResult = fireEvent(keyDown);
-        }
-        else {
-            keyDown = null;
-            keyDownResult = null;
-        }
+        final Function<String, Event> eventFactory =
+                type -> new KeyboardEvent(this, type, keyCode, shiftPressed_, ctrlPressed_, altPressed_);
+
+        final boolean keyDownAborted = fireKeyDown && fireKeyboardEvent(this, Event.TYPE_KEY_DOWN, eventFactory);
 
         final BrowserVersion browserVersion = page.getWebClient().getBrowserVersion();
 
-        final Event keyPress;
-        final ScriptResult keyPressResult;
-        if (fireKeyPress && browserVersion.hasFeature(KEYBOARD_EVENT_SPECIAL_KEYPRESS)) {
-            keyPress = new KeyboardEvent(this, Event.TYPE_KEY_PRESS, keyCode,
-                    shiftPressed_, ctrlPressed_, altPressed_);
+        final boolean keyPressAborted = fireKeyPress && browserVersion.hasFeature(KEYBOARD_EVENT_SPECIAL_KEYPRESS)
+                && fireKeyboardEvent(this, Event.TYPE_KEY_PRESS, eventFactory);
 
-            keyPressResult = fireEvent(keyPress);
-        }
-        else {
-            keyPress = null;
-            keyPressResult = null;
-        }
-
-        if (keyDown != null && !keyDown.isAborted(keyDownResult)
-                && (keyPress == null || !keyPress.isAborted(keyPressResult))) {
+        if (fireKeyDown && !keyDownAborted && !keyPressAborted) {
             doType(keyCode, lastType);
         }
 
@@ -776,15 +750,11 @@ public abstract class HtmlElement extends DomElement {
             || this instanceof HtmlNumberInput
             || this instanceof HtmlSearchInput
             || this instanceof HtmlPasswordInput) {
-            final Event input = new KeyboardEvent(this, Event.TYPE_INPUT, keyCode,
-                    shiftPressed_, ctrlPressed_, altPressed_);
-            fireEvent(input);
+            fireKeyboardEvent(this, Event.TYPE_INPUT, eventFactory);
         }
 
         if (fireKeyUp) {
-            final Event keyUp = new KeyboardEvent(this, Event.TYPE_KEY_UP, keyCode,
-                    shiftPressed_, ctrlPressed_, altPressed_);
-            fireEvent(keyUp);
+            fireKeyboardEvent(this, Event.TYPE_KEY_UP, eventFactory);
         }
 
 //        final HtmlForm form = getEnclosingForm();
@@ -802,6 +772,24 @@ public abstract class HtmlElement extends DomElement {
         return page.getWebClient().getCurrentWindow().getEnclosedPage();
     }
 
+    /**
+     * Fires a keyboard event on the given target. The event is not even created if there is
+     * no listener for this event type on the page; this keeps typing long text cheap.
+     * @param target the element to fire the event on
+     * @param type the event type
+     * @param eventFactory creates the event for the given type
+     * @return {@code true} if the event was aborted
+     */
+    private static boolean fireKeyboardEvent(final HtmlElement target, final String type,
+            final Function<String, Event> eventFactory) {
+        if (!target.mayHaveEventListeners(type)) {
+            return false;
+        }
+        final Event event = eventFactory.apply(type);
+        final ScriptResult result = target.fireEvent(event);
+        return event.isAborted(result);
+    }
+
     /**
      * Performs the effective type action, called after the keyPress event and before the keyUp event.
      * @param c the character you with to simulate typing
@@ -1492,6 +1480,10 @@ public abstract class HtmlElement extends DomElement {
      *         element relative to the <code>offsetParent</code>.
      */
     public int getOffsetTop() {
+        return getLayoutValue(Metric.OFFSET_TOP, this::calculateOffsetTop);
+    }
+
+    private int calculateOffsetTop() {
         if (this instanceof HtmlBody) {
             return 0;
         }
@@ -1540,6 +1532,10 @@ public abstract class HtmlElement extends DomElement {
      *         element relative to the <code>offsetParent</code>.
      */
     public int getOffsetLeft() {
+        return getLayoutValue(Metric.OFFSET_LEFT, this::calculateOffsetLeft);
+    }
+
+    private int calculateOffsetLeft() {
         if (this instanceof HtmlBody) {
             return 0;
         }
@@ -1577,11 +1573,32 @@ public abstract class HtmlElement extends DomElement {
         return left;
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the value from the {@link org.htmlunit.css.LayoutCache} of the page or calculates it.
+     * @param metric the requested value
+     * @param calculation the calculation of the value
+     * @return the value
+     */
+    public int getLayoutValue(final Metric metric, final IntSupplier calculation) {
+        final HtmlPage htmlPage = getHtmlPageOrNull();
+        // changes of detached nodes are not visible to the page; no caching
+        if (htmlPage == null || !isAttachedToPage()) {
+            return calculation.getAsInt();
+        }
+        return htmlPage.getLayoutCache().get(this, metric, e -> calculation.getAsInt());
+    }
+
     /**
      * Returns this element's X position.
      * @return this element's X position
      */
     public int getPosX() {
+        return getLayoutValue(Metric.POS_X, this::calculatePosX);
+    }
+
+    private int calculatePosX() {
         int cumulativeOffset = 0;
         final WebWindow webWindow = getPage().getEnclosingWindow();
 
@@ -1604,6 +1621,10 @@ public abstract class HtmlElement extends DomElement {
      * @return this element's Y position
      */
     public int getPosY() {
+        return getLayoutValue(Metric.POS_Y, this::calculatePosY);
+    }
+
+    private int calculatePosY() {
         int cumulativeOffset = 0;
         final WebWindow webWindow = getPage().getEnclosingWindow();
 
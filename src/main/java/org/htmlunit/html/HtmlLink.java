@@ -255,6 +255,46 @@ public class HtmlLink extends HtmlElement {
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeAdded(final HtmlAttributeChangeEvent event) {
+        relChanged(event);
+        super.fireHtmlAttributeAdded(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeReplaced(final HtmlAttributeChangeEvent event) {
+        relChanged(event);
+        super.fireHtmlAttributeReplaced(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void fireHtmlAttributeRemoved(final HtmlAttributeChangeEvent event) {
+        relChanged(event);
+        super.fireHtmlAttributeRemoved(event);
+    }
+
+    /**
+     * The rel attribute decides if this link contributes a style sheet to the page.
+     * @param event the attribute change event
+     */
+    private void relChanged(final HtmlAttributeChangeEvent event) {
+        if (event.getHtmlElement() == this && "rel".equals(event.getName()) && isAttachedToPage()) {
+            final HtmlPage page = getHtmlPageOrNull();
+            if (page != null) {
+                page.styleSheetsChanged();
+            }
+        }
+    }
+
     private void executeEvent(final String type) {
         final HTMLLinkElement link = getScriptableObject();
         final Event event = new Event(this, type);
@@ -41,6 +41,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -66,6 +68,10 @@ import org.htmlunit.corejs.javascript.Script;
 import org.htmlunit.corejs.javascript.Scriptable;
 import org.htmlunit.css.ComputedCssStyleDeclaration;
 import org.htmlunit.css.CssStyleSheet;
+import org.htmlunit.css.ElementCssStyleDeclaration;
+import org.htmlunit.css.LayoutCache;
+import org.htmlunit.css.StyleSharingCache;
+import org.htmlunit.cssparser.dom.CSSStyleSheetImpl;
 import org.htmlunit.html.impl.SimpleRange;
 import org.htmlunit.html.parser.HTMLParserDOMBuilder;
 import org.htmlunit.http.HttpStatus;
@@ -152,8 +158,10 @@ public class HtmlPage extends SgmlPage {
 
     private Map<String, MappedElementIndexEntry> idMap_ = new ConcurrentHashMap<>();
     private Map<String, MappedElementIndexEntry> nameMap_ = new ConcurrentHashMap<>();
+    private List<DomElement> unmappedElements_ = new ArrayList<>();
 
     private List<BaseFrameElement> frameElements_ = new ArrayList<>();
+    private StyleSheetIndex styleSheetIndex_ = new StyleSheetIndex();
     private int parserCount_;
     private int snippetParserCount_;
     private int inlineSnippetParserCount_;
@@ -168,6 +176,8 @@ public class HtmlPage extends SgmlPage {
     private List<SimpleRange> selectionRanges_ = new ArrayList<>(3);
 
     private transient ComputedStylesCache computedStylesCache_;
+    private transient StyleSharingCache styleSharingCache_;
+    private transient LayoutCache layoutCache_;
 
     private static final HashSet<String> TABBABLE_TAGS =
             new HashSet<>(Arrays.asList(HtmlAnchor.TAG_NAME, HtmlArea.TAG_NAME,
@@ -626,6 +636,7 @@ public class HtmlPage extends SgmlPage {
     @Override
     public DomElement getElementById(final String elementId) {
         if (elementId != null) {
+            mapParsedElements();
             final MappedElementIndexEntry elements = idMap_.get(elementId);
             if (elements != null) {
                 return elements.first();
@@ -1656,6 +1667,7 @@ public class HtmlPage extends SgmlPage {
      */
     public List<DomElement> getElementsById(final String elementId) {
         if (elementId != null) {
+            mapParsedElements();
             final MappedElementIndexEntry elements = idMap_.get(elementId);
             if (elements != null) {
                 return new ArrayList<>(elements.elements());
@@ -1676,6 +1688,7 @@ public class HtmlPage extends SgmlPage {
     @SuppressWarnings("unchecked")
     public <E extends DomElement> E getElementByName(final String name) throws ElementNotFoundException {
         if (name != null) {
+            mapParsedElements();
             final MappedElementIndexEntry elements = nameMap_.get(name);
             if (elements != null) {
                 return (E) elements.first();
@@ -1694,6 +1707,7 @@ public class HtmlPage extends SgmlPage {
      */
     public List<DomElement> getElementsByName(final String name) {
         if (name != null) {
+            mapParsedElements();
             final MappedElementIndexEntry elements = nameMap_.get(name);
             if (elements != null) {
                 return new ArrayList<>(elements.elements());
@@ -1713,6 +1727,7 @@ public class HtmlPage extends SgmlPage {
         if (idAndOrName == null) {
             return Collections.emptyList();
         }
+        mapParsedElements();
         final MappedElementIndexEntry list1 = idMap_.get(idAndOrName);
         final MappedElementIndexEntry list2 = nameMap_.get(idAndOrName);
         final List<DomElement> list = new ArrayList<>();
@@ -1733,14 +1748,26 @@ public class HtmlPage extends SgmlPage {
      * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
      *
      * @param node the node that has just been added to the document
+     * @param deferMapping if true, the node is added to the ID and name maps with the next
+     *        {@link #mapParsedElements()}; only allowed for nodes without children
      */
-    void notifyNodeAdded(final DomNode node) {
+    void notifyNodeAdded(final DomNode node, final boolean deferMapping) {
         if (node instanceof DomElement) {
-            addMappedElement((DomElement) node, true);
+            if (deferMapping) {
+                synchronized (unmappedElements_) {
+                    unmappedElements_.add((DomElement) node);
+                }
+            }
+            else {
+                addMappedElement((DomElement) node, true);
+            }
 
             if (node instanceof BaseFrameElement) {
                 frameElements_.add((BaseFrameElement) node);
             }
+            else if (node instanceof HtmlStyle || node instanceof HtmlLink) {
+                styleSheetIndex_.add((HtmlElement) node);
+            }
 
             if (node.getFirstChild() != null) {
                 for (final Iterator<HtmlElement> iterator = node.new DescendantHtmlElementsIterator();
@@ -1749,6 +1776,9 @@ public class HtmlPage extends SgmlPage {
                     if (child instanceof BaseFrameElement) {
                         frameElements_.add((BaseFrameElement) child);
                     }
+                    else if (child instanceof HtmlStyle || child instanceof HtmlLink) {
+                        styleSheetIndex_.add(child);
+                    }
                 }
             }
 
@@ -1771,10 +1801,16 @@ public class HtmlPage extends SgmlPage {
             if (node instanceof BaseFrameElement) {
                 frameElements_.remove(node);
             }
+            else if (node instanceof HtmlStyle || node instanceof HtmlLink) {
+                styleSheetIndex_.remove((HtmlElement) node);
+            }
             for (final HtmlElement child : node.getHtmlElementDescendants()) {
                 if (child instanceof BaseFrameElement) {
                     frameElements_.remove(child);
                 }
+                else if (child instanceof HtmlStyle || child instanceof HtmlLink) {
+                    styleSheetIndex_.remove(child);
+                }
             }
 
             if ("base".equals(node.getNodeName())) {
@@ -1789,12 +1825,38 @@ public class HtmlPage extends SgmlPage {
      * @param recurse indicates if children must be added too
      */
     void addMappedElement(final DomElement element, final boolean recurse) {
+        mapParsedElements();
         if (isAncestorOf(element)) {
             addElement(idMap_, element, DomElement.ID_ATTRIBUTE, recurse);
             addElement(nameMap_, element, DomElement.NAME_ATTRIBUTE, recurse);
         }
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Adds the elements appended by the parser to the ID and name maps.
+     * The parser appends the elements without children, one after another; instead of checking
+     * the position of every single element and updating the maps for it, this is done for all
+     * of them at once, before the maps are used (or changed) the next time and before a script
+     * is executed.
+     */
+    public void mapParsedElements() {
+        if (unmappedElements_.isEmpty()) {
+            return;
+        }
+
+        synchronized (unmappedElements_) {
+            for (final DomElement element : unmappedElements_) {
+                // the elements were attached when added to the list; removing an element maps
+                // all the pending ones first
+                addElement(idMap_, element, DomElement.ID_ATTRIBUTE, false);
+                addElement(nameMap_, element, DomElement.NAME_ATTRIBUTE, false);
+            }
+            unmappedElements_.clear();
+        }
+    }
+
     private void addElement(final Map<String, MappedElementIndexEntry> map, final DomElement element,
             final String attribute, final boolean recurse) {
         final String value = element.getAttribute(attribute);
@@ -1830,6 +1892,7 @@ public class HtmlPage extends SgmlPage {
      * @param descendant indicates of the element was descendant of this HtmlPage, but now its parent might be null
      */
     void removeMappedElement(final DomElement element, final boolean recurse, final boolean descendant) {
+        mapParsedElements();
         if (descendant || isAncestorOf(element)) {
             removeElement(idMap_, element, DomElement.ID_ATTRIBUTE, recurse);
             removeElement(nameMap_, element, DomElement.NAME_ATTRIBUTE, recurse);
@@ -1946,6 +2009,10 @@ public class HtmlPage extends SgmlPage {
 
         result.idMap_ = new ConcurrentHashMap<>();
         result.nameMap_ = new ConcurrentHashMap<>();
+        result.unmappedElements_ = new ArrayList<>();
+        result.styleSheetIndex_ = new StyleSheetIndex();
+        result.styleSharingCache_ = null;
+        result.layoutCache_ = null;
 
         return result;
     }
@@ -2585,6 +2652,12 @@ public class HtmlPage extends SgmlPage {
         if (computedStylesCache_ != null) {
             computedStylesCache_.clear();
         }
+        if (styleSharingCache_ != null) {
+            styleSharingCache_.clear();
+        }
+        if (layoutCache_ != null) {
+            layoutCache_.clear();
+        }
     }
 
     /**
@@ -2595,6 +2668,9 @@ public class HtmlPage extends SgmlPage {
         if (computedStylesCache_ != null) {
             computedStylesCache_.remove(element);
         }
+        if (layoutCache_ != null) {
+            layoutCache_.nodeChanged(element);
+        }
     }
 
     /**
@@ -2611,6 +2687,9 @@ public class HtmlPage extends SgmlPage {
                 parent = parent.getParentNode();
             }
         }
+        if (layoutCache_ != null) {
+            layoutCache_.nodeChanged(element);
+        }
     }
 
     /**
@@ -2645,23 +2724,120 @@ public class HtmlPage extends SgmlPage {
      *         This returns an empty list if css support is disabled in the web client options.
      */
     public List<CssStyleSheet> getStyleSheets() {
-        final List<CssStyleSheet> styles = new ArrayList<>();
         if (getWebClient().getOptions().isCssEnabled()) {
-            for (final HtmlElement htmlElement : getHtmlElementDescendants()) {
-                if (htmlElement instanceof HtmlStyle) {
-                    styles.add(((HtmlStyle) htmlElement).getSheet());
-                    continue;
+            return styleSheetIndex_.getStyleSheets();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Calculates the computed styles of all the elements of this page and fills the cache used by
+     * {@link WebWindow#getComputedStyle(DomElement, String)}.
+     * <p>
+     * This is useful if the computed styles (or e.g. the visibility) of most of the elements are
+     * queried afterwards. The selector matching is done in parallel by a {@link ForkJoinPool}
+     * created for this call; it only reads the DOM and the rule indexes. The styles are built
+     * and cached by the calling thread. The page is locked (like for the execution of scripts) during
+     * the calculation, no JavaScript runs concurrently. The DOM must not be modified by other
+     * threads in the meantime.
+     * </p>
+     * Does nothing if css support is disabled in the web client options.
+     */
+    public void precomputeComputedStyles() {
+        if (!getWebClient().getOptions().isCssEnabled()) {
+            return;
+        }
+
+        synchronized (this) { // no script execution in parallel
+            final HtmlElement root = getDocumentElement();
+            if (root == null) {
+                return;
+            }
+
+            // calculating the first style loads the sheets and builds all the lazy state
+            // shared between the elements (sheet list, rule indexes, media); this has to
+            // happen before the workers start
+            getEnclosingWindow().getComputedStyle(root, null);
+
+            final List<CssStyleSheet> activeStyleSheets = new ArrayList<>();
+            for (final CssStyleSheet cssStyleSheet : getStyleSheets()) {
+                if (cssStyleSheet != null && cssStyleSheet.isEnabled() && cssStyleSheet.isActive()) {
+                    activeStyleSheets.add(cssStyleSheet);
+                    cssStyleSheet.getMatchingRules(root, null);
                 }
+            }
+
+            final List<MatchingRules> matches;
+            final ForkJoinPool pool = new ForkJoinPool();
+            try {
+                matches = pool.invoke(new MatchingRulesTask(root, activeStyleSheets));
+            }
+            finally {
+                pool.shutdown();
+            }
 
-                if (htmlElement instanceof HtmlLink) {
-                    final HtmlLink link = (HtmlLink) htmlElement;
-                    if (link.isStyleSheetLink()) {
-                        styles.add(link.getSheet());
+            // the elements are only written by this thread
+            for (final MatchingRules match : matches) {
+                if (getStyleFromCache(match.element_, null) == null) {
+                    final ComputedCssStyleDeclaration style =
+                            new ComputedCssStyleDeclaration(new ElementCssStyleDeclaration(match.element_));
+                    for (final CSSStyleSheetImpl.SelectorEntry entry : match.rules_) {
+                        style.applyStyleFromSelector(entry.getRule().getStyle(), entry.getSelector());
                     }
+                    putStyleIntoCache(match.element_, null, style);
                 }
             }
         }
-        return styles;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return a number that changes every time the list returned by {@link #getStyleSheets()} changes
+     */
+    public int getStyleSheetsVersion() {
+        return styleSheetIndex_.getVersion();
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Notifies the page that a style sheet owner has changed in a way that may add or remove
+     * its style sheet (e.g. the {@code rel} attribute of a link).
+     */
+    public void styleSheetsChanged() {
+        styleSheetIndex_.changed();
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return the cache sharing the selector matching results between similar elements of this page
+     */
+    public StyleSharingCache getStyleSharingCache() {
+        // make sure the listener maintaining the caches is registered
+        getCssPropertiesCache();
+        if (styleSharingCache_ == null) {
+            styleSharingCache_ = new StyleSharingCache();
+        }
+        return styleSharingCache_;
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * @return the cache of the element geometry (offsets, positions and sizes) of this page
+     */
+    public LayoutCache getLayoutCache() {
+        // make sure the listener maintaining the caches is registered
+        getCssPropertiesCache();
+        if (layoutCache_ == null) {
+            layoutCache_ = new LayoutCache();
+
+            // the layout depends on the text also
+            addCharacterDataChangeListener(new DomHtmlAttributeChangeListenerImpl());
+        }
+        return layoutCache_;
     }
 
     /**
@@ -2712,8 +2888,11 @@ public class HtmlPage extends SgmlPage {
      * <p>Additionally, whenever a <code>style</code> node or a <code>link</code> node
      * with <code>rel=stylesheet</code> is added or
      * removed, all elements should be removed from the computed style cache.</p>
+     *
+     * <p>The {@link LayoutCache} is maintained by this listener also.</p>
      */
-    private class DomHtmlAttributeChangeListenerImpl implements DomChangeListener, HtmlAttributeChangeListener {
+    private class DomHtmlAttributeChangeListenerImpl
+            implements DomChangeListener, HtmlAttributeChangeListener, CharacterDataChangeListener {
 
         /**
          * Ctor.
@@ -2728,6 +2907,7 @@ public class HtmlPage extends SgmlPage {
         @Override
         public void nodeAdded(final DomChangeEvent event) {
             nodeChanged(event.getChangedNode(), null);
+            layoutChanged(event.getChangedNode());
         }
 
         /**
@@ -2736,6 +2916,8 @@ public class HtmlPage extends SgmlPage {
         @Override
         public void nodeDeleted(final DomChangeEvent event) {
             nodeChanged(event.getChangedNode(), null);
+            // the deleted node is already detached, the layout changes at the former parent
+            layoutChanged(event.getParentNode());
         }
 
         /**
@@ -2744,6 +2926,7 @@ public class HtmlPage extends SgmlPage {
         @Override
         public void attributeAdded(final HtmlAttributeChangeEvent event) {
             nodeChanged(event.getHtmlElement(), event.getName());
+            layoutChanged(event.getHtmlElement());
         }
 
         /**
@@ -2752,6 +2935,7 @@ public class HtmlPage extends SgmlPage {
         @Override
         public void attributeRemoved(final HtmlAttributeChangeEvent event) {
             nodeChanged(event.getHtmlElement(), event.getName());
+            layoutChanged(event.getHtmlElement());
         }
 
         /**
@@ -2760,6 +2944,7 @@ public class HtmlPage extends SgmlPage {
         @Override
         public void attributeReplaced(final HtmlAttributeChangeEvent event) {
             nodeChanged(event.getHtmlElement(), event.getName());
+            layoutChanged(event.getHtmlElement());
         }
 
         private void nodeChanged(final DomNode changedNode, final String attribName) {
@@ -2781,6 +2966,75 @@ public class HtmlPage extends SgmlPage {
             if (computedStylesCache_ != null) {
                 computedStylesCache_.nodeChanged(changedNode, clearParents);
             }
+            if (styleSharingCache_ != null) {
+                styleSharingCache_.nodeChanged();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void characterDataChanged(final CharacterDataChangeEvent event) {
+            layoutChanged(event.getCharacterData());
+        }
+
+        private void layoutChanged(final DomNode changedNode) {
+            if (layoutCache_ != null) {
+                layoutCache_.nodeChanged(changedNode);
+            }
+        }
+    }
+
+    /**
+     * Collects the rules matching the child elements of an element (and their descendants);
+     * the children having children itself are processed by separate tasks.
+     * The task does not write anything, the results are returned to the calling thread.
+     */
+    private static final class MatchingRulesTask extends RecursiveTask<List<MatchingRules>> {
+        private final DomElement element_;
+        private final List<CssStyleSheet> styleSheets_;
+
+        MatchingRulesTask(final DomElement element, final List<CssStyleSheet> styleSheets) {
+            element_ = element;
+            styleSheets_ = styleSheets;
+        }
+
+        @Override
+        protected List<MatchingRules> compute() {
+            final List<MatchingRules> matches = new ArrayList<>();
+            final List<MatchingRulesTask> subtrees = new ArrayList<>();
+            for (DomElement child = element_.getFirstElementChild();
+                    child != null; child = child.getNextElementSibling()) {
+                final List<CSSStyleSheetImpl.SelectorEntry> rules = new ArrayList<>();
+                for (final CssStyleSheet styleSheet : styleSheets_) {
+                    rules.addAll(styleSheet.getMatchingRules(child, null));
+                }
+                matches.add(new MatchingRules(child, rules));
+
+                if (child.getFirstElementChild() != null) {
+                    subtrees.add(new MatchingRulesTask(child, styleSheets_));
+                }
+            }
+
+            invokeAll(subtrees);
+            for (final MatchingRulesTask subtree : subtrees) {
+                matches.addAll(subtree.join());
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * The rules matching an element, in the order they have to be applied.
+     */
+    private static final class MatchingRules {
+        private final DomElement element_;
+        private final List<CSSStyleSheetImpl.SelectorEntry> rules_;
+
+        MatchingRules(final DomElement element, final List<CSSStyleSheetImpl.SelectorEntry> rules) {
+            element_ = element;
+            rules_ = rules;
         }
     }
 
@@ -2874,6 +3128,78 @@ public class HtmlPage extends SgmlPage {
         }
     }
 
+    /**
+     * The &lt;style&gt; and &lt;link&gt; elements of the page; maintained when nodes are added to
+     * or removed from the page. The list of style sheets is rebuilt only after a change.
+     */
+    private static final class StyleSheetIndex implements Serializable {
+        private final ArrayList<HtmlElement> owners_ = new ArrayList<>();
+        private boolean sorted_ = true;
+        private int version_;
+        private transient List<CssStyleSheet> styleSheets_;
+
+        synchronized void add(final HtmlElement owner) {
+            // elements are usually added in document order (while parsing)
+            final int size = owners_.size();
+            if (sorted_ && size > 0 && DOCUMENT_POSITION_COMPERATOR.compare(owners_.get(size - 1), owner) > 0) {
+                sorted_ = false;
+            }
+            owners_.add(owner);
+            changed();
+        }
+
+        synchronized void remove(final HtmlElement owner) {
+            if (owners_.remove(owner)) {
+                changed();
+            }
+        }
+
+        synchronized void changed() {
+            version_++;
+            styleSheets_ = null;
+        }
+
+        synchronized int getVersion() {
+            return version_;
+        }
+
+        List<CssStyleSheet> getStyleSheets() {
+            final List<HtmlElement> owners;
+            final int version;
+            synchronized (this) {
+                if (styleSheets_ != null) {
+                    return styleSheets_;
+                }
+
+                if (!sorted_) {
+                    owners_.sort(DOCUMENT_POSITION_COMPERATOR);
+                    sorted_ = true;
+                }
+                owners = new ArrayList<>(owners_);
+                version = version_;
+            }
+
+            // getting the sheet might load it; do this without holding the lock
+            final List<CssStyleSheet> styleSheets = new ArrayList<>(owners.size());
+            for (final HtmlElement owner : owners) {
+                if (owner instanceof HtmlStyle) {
+                    styleSheets.add(((HtmlStyle) owner).getSheet());
+                }
+                else if (((HtmlLink) owner).isStyleSheetLink()) {
+                    styleSheets.add(((HtmlLink) owner).getSheet());
+                }
+            }
+
+            final List<CssStyleSheet> result = Collections.unmodifiableList(styleSheets);
+            synchronized (this) {
+                if (version == version_) {
+                    styleSheets_ = result;
+                }
+            }
+            return result;
+        }
+    }
+
     private static final class MappedElementIndexEntry implements Serializable {
         private final ArrayList<DomElement> elements_;
         private boolean sorted_;
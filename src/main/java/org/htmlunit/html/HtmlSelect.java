@@ -265,6 +265,15 @@ public class HtmlSelect extends HtmlElement implements DisabledElement, Submitta
         return response;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void appendParsedChild(final DomNode node) {
+        // the options need the processing of appendChild()
+        appendChild(node);
+    }
+
     /**
      * Sets the "selected" state of the specified option. If this "select" element
      * is single-select, then calling this method will deselect all other options.
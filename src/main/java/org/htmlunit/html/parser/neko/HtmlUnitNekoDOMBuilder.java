@@ -65,6 +65,7 @@ import org.htmlunit.html.parser.HTMLParser;
 import org.htmlunit.html.parser.HTMLParserDOMBuilder;
 import org.htmlunit.html.parser.HTMLParserListener;
 import org.htmlunit.javascript.host.html.HTMLBodyElement;
+import org.htmlunit.util.StringInterner;
 import org.htmlunit.util.StringUtils;
 import org.w3c.dom.Node;
 import org.xml.sax.Attributes;
@@ -128,6 +129,7 @@ final class HtmlUnitNekoDOMBuilder extends AbstractSAXParser
     private DomNode currentNode_;
     private final boolean createdByJavascript_;
     private final XMLString characters_ = new XMLString();
+    private final StringInterner stringInterner_;
     private HtmlUnitNekoDOMBuilder.HeadParsed headParsed_ = HeadParsed.NO;
     private HtmlElement body_;
     private boolean lastTagWasSynthesized_;
@@ -181,6 +183,8 @@ final class HtmlUnitNekoDOMBuilder extends AbstractSAXParser
         createdByJavascript_ = createdByJavascript;
 
         final WebClient webClient = page_.getWebClient();
+        stringInterner_ = webClient.getStringInterner();
+
         final HTMLParserListener listener = webClient.getHTMLParserListener();
         final boolean reportErrors = listener != null;
         if (reportErrors) {
@@ -510,6 +514,11 @@ final class HtmlUnitNekoDOMBuilder extends AbstractSAXParser
             currentNode_ = stack_.peek();
         }
 
+        if (previousNode instanceof ScriptElement) {
+            // the script has to see all the elements parsed so far
+            page_.mapParsedElements();
+        }
+
         final boolean postponed = page_.isParsingInlineHtmlSnippet();
         previousNode.onAllChildrenAddedToPage(postponed);
     }
@@ -536,7 +545,10 @@ final class HtmlUnitNekoDOMBuilder extends AbstractSAXParser
         }
 
         // Use the normal behavior: append a text node for the accumulated text.
-        final String textValue = characters_.toString();
+        // the interner looks up the characters without creating a string first
+        final String textValue = stringInterner_ == null
+                ? characters_.toString()
+                : stringInterner_.intern(characters_);
         characters_.clear();
 
         if (org.apache.commons.lang3.StringUtils.isBlank(textValue)) {
@@ -580,6 +592,7 @@ final class HtmlUnitNekoDOMBuilder extends AbstractSAXParser
     @Override
     public void endDocument() throws SAXException {
         handleCharacters();
+        page_.mapParsedElements();
         if (locator_ != null) {
             page_.setEndLocation(locator_.getLineNumber(), locator_.getColumnNumber());
         }
@@ -767,6 +780,6 @@ final class HtmlUnitNekoDOMBuilder extends AbstractSAXParser
             return;
         }
 
-        parent.appendChild(child);
+        parent.appendParsedChild(child);
     }
 }
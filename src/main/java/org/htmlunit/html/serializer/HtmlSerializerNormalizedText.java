@@ -17,6 +17,8 @@ package org.htmlunit.html.serializer;
 import static org.htmlunit.css.CssStyleSheet.BLOCK;
 import static org.htmlunit.html.DomElement.ATTRIBUTE_NOT_DEFINED;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.List;
 
@@ -88,6 +90,25 @@ public class HtmlSerializerNormalizedText {
         return builder.getText();
     }
 
+    /**
+     * Converts an HTML node to text and writes the text to the given target.
+     * The text is written in chunks while the node is processed; only a bounded
+     * part of the text is buffered.
+     * @param node a node
+     * @param out the target to write to
+     * @throws IOException in case of error
+     */
+    public void asText(final DomNode node, final Appendable out) throws IOException {
+        final HtmlSerializerTextBuilder builder = new HtmlSerializerTextBuilder(out);
+        try {
+            appendNode(builder, node);
+        }
+        catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+        builder.writeText();
+    }
+
     /**
      * Iterate over all Children and call appendNode() for every.
      *
@@ -603,18 +624,31 @@ public class HtmlSerializerNormalizedText {
 
         private static final String LINE_SEPARATOR = "\n";
         private static final int LINE_SEPARATOR_LENGTH = LINE_SEPARATOR.length();
+        private static final int FLUSH_THRESHOLD = 8 * 1024;
 
         private State state_;
         private final StringBuilder builder_;
         private int trimRightPos_;
+        private final Appendable out_;
+        private long flushedLength_;
 
         /**
          * Ctor.
          */
         public HtmlSerializerTextBuilder() {
+            this(null);
+        }
+
+        /**
+         * Ctor.
+         * @param out if not null, the text is written in chunks to this target and
+         *        the builder only buffers the (trailing) part that may still change
+         */
+        public HtmlSerializerTextBuilder(final Appendable out) {
             builder_ = new StringBuilder();
             state_ = State.EMPTY;
             trimRightPos_ = builder_.length();
+            out_ = out;
         }
 
         /**
@@ -711,6 +745,7 @@ public class HtmlSerializerNormalizedText {
                 // reset state to empty to restart whitespace normalization afterwards
                 state_ = State.TRIM;
             }
+            flushIfNeeded();
         }
 
         /**
@@ -722,7 +757,7 @@ public class HtmlSerializerNormalizedText {
                     break;
                 case BLANK_AT_END:
                     builder_.setLength(trimRightPos_);
-                    if (builder_.length() == 0) {
+                    if (isEmpty()) {
                         state_ = State.EMPTY;
                     }
                     else {
@@ -733,7 +768,7 @@ public class HtmlSerializerNormalizedText {
                 case BLANK_AT_END_AFTER_NEWLINE:
                     builder_.setLength(trimRightPos_ - LINE_SEPARATOR_LENGTH);
                     trimRightPos_ = trimRightPos_ - LINE_SEPARATOR_LENGTH;
-                    if (builder_.length() == 0) {
+                    if (isEmpty()) {
                         state_ = State.EMPTY;
                     }
                     else {
@@ -746,7 +781,7 @@ public class HtmlSerializerNormalizedText {
                 case NEWLINE_AT_END:
                     builder_.setLength(builder_.length() - LINE_SEPARATOR_LENGTH);
                     trimRightPos_ = trimRightPos_ - LINE_SEPARATOR_LENGTH;
-                    if (builder_.length() == 0) {
+                    if (isEmpty()) {
                         state_ = State.EMPTY;
                     }
                     else {
@@ -759,6 +794,7 @@ public class HtmlSerializerNormalizedText {
                     state_ = State.BLOCK_SEPARATOR_AT_END;
                     break;
             }
+            flushIfNeeded();
         }
 
         /**
@@ -793,6 +829,43 @@ public class HtmlSerializerNormalizedText {
             return builder_.substring(0, trimRightPos_);
         }
 
+        /**
+         * Writes the remaining text to the target passed to the constructor.
+         * @throws IOException in case of error
+         */
+        public void writeText() throws IOException {
+            out_.append(builder_, 0, trimRightPos_);
+            flushedLength_ += trimRightPos_;
+            builder_.setLength(0);
+            trimRightPos_ = 0;
+        }
+
+        private boolean isEmpty() {
+            return flushedLength_ == 0 && builder_.length() == 0;
+        }
+
+        /**
+         * Writes the part of the buffer that can no longer change to the target.
+         * The last line separator before trimRightPos_ has to stay in the buffer
+         * because appendBlockSeparator() may remove it.
+         */
+        private void flushIfNeeded() {
+            if (out_ == null || trimRightPos_ < FLUSH_THRESHOLD) {
+                return;
+            }
+
+            final int flushPos = trimRightPos_ - LINE_SEPARATOR_LENGTH;
+            try {
+                out_.append(builder_, 0, flushPos);
+            }
+            catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            builder_.delete(0, flushPos);
+            trimRightPos_ -= flushPos;
+            flushedLength_ += flushPos;
+        }
+
         private static boolean isSpace(final char ch) {
             return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\f' || ch == '\r';
         }
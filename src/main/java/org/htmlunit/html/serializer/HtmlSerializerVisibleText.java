@@ -16,6 +16,8 @@ package org.htmlunit.html.serializer;
 
 import static org.htmlunit.css.CssStyleSheet.BLOCK;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -83,6 +85,28 @@ public class HtmlSerializerVisibleText {
         return builder.getText();
     }
 
+    /**
+     * Converts an HTML node to text and writes the text to the given target.
+     * The text is written in chunks while the node is processed; only a bounded
+     * part of the text is buffered.
+     * @param node a node
+     * @param out the target to write to
+     * @throws IOException in case of error
+     */
+    public void asText(final DomNode node, final Appendable out) throws IOException {
+        if (node instanceof HtmlBreak) {
+            return;
+        }
+        final HtmlSerializerTextBuilder builder = new HtmlSerializerTextBuilder(out);
+        try {
+            appendNode(builder, node, whiteSpaceStyle(node, Mode.WHITE_SPACE_NORMAL));
+        }
+        catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+        builder.writeText();
+    }
+
     /**
      * Iterate over all Children and call appendNode() for every.
      *
@@ -781,18 +805,32 @@ public class HtmlSerializerVisibleText {
             BLOCK_SEPARATOR_AT_END
         }
 
+        private static final int FLUSH_THRESHOLD = 8 * 1024;
+
         private State state_;
         private final StringBuilder builder_;
         private int trimRightPos_;
         private boolean contentAdded_;
+        private final Appendable out_;
+        private long flushedLength_;
 
         /**
          * Ctor.
          */
         public HtmlSerializerTextBuilder() {
+            this(null);
+        }
+
+        /**
+         * Ctor.
+         * @param out if not null, the text is written in chunks to this target and
+         *        the builder only buffers the (trailing) part that may still change
+         */
+        public HtmlSerializerTextBuilder(final Appendable out) {
             builder_ = new StringBuilder();
             state_ = State.EMPTY;
             trimRightPos_ = 0;
+            out_ = out;
         }
 
         /**
@@ -926,6 +964,7 @@ public class HtmlSerializerVisibleText {
                 trimRightPos_ = builder_.length();
                 contentAdded_ = true;
             }
+            flushIfNeeded();
         }
 
         /**
@@ -937,7 +976,7 @@ public class HtmlSerializerVisibleText {
                     break;
                 case BLANK_AT_END:
                     builder_.setLength(trimRightPos_);
-                    if (builder_.length() == 0) {
+                    if (isEmpty()) {
                         state_ = State.EMPTY;
                     }
                     else {
@@ -947,7 +986,7 @@ public class HtmlSerializerVisibleText {
                     break;
                 case BLANK_AT_END_AFTER_NEWLINE:
                     builder_.setLength(trimRightPos_ - 1);
-                    if (builder_.length() == 0) {
+                    if (isEmpty()) {
                         state_ = State.EMPTY;
                     }
                     else {
@@ -961,7 +1000,7 @@ public class HtmlSerializerVisibleText {
                 case BREAK_AT_END:
                     builder_.setLength(builder_.length() - 1);
                     trimRightPos_ = trimRightPos_ - 1;
-                    if (builder_.length() == 0) {
+                    if (isEmpty()) {
                         state_ = State.EMPTY;
                     }
                     else {
@@ -974,6 +1013,7 @@ public class HtmlSerializerVisibleText {
                     state_ = State.BLOCK_SEPARATOR_AT_END;
                     break;
             }
+            flushIfNeeded();
         }
 
         /**
@@ -1020,7 +1060,7 @@ public class HtmlSerializerVisibleText {
 
             builder_.setLength(trimRightPos_);
             state_ = State.DEFAULT;
-            if (builder_.length() == 0) {
+            if (isEmpty()) {
                 state_ = State.EMPTY;
             }
         }
@@ -1045,5 +1085,42 @@ public class HtmlSerializerVisibleText {
         public String getText() {
             return builder_.substring(0, trimRightPos_);
         }
+
+        /**
+         * Writes the remaining text to the target passed to the constructor.
+         * @throws IOException in case of error
+         */
+        public void writeText() throws IOException {
+            out_.append(builder_, 0, trimRightPos_);
+            flushedLength_ += trimRightPos_;
+            builder_.setLength(0);
+            trimRightPos_ = 0;
+        }
+
+        private boolean isEmpty() {
+            return flushedLength_ == 0 && builder_.length() == 0;
+        }
+
+        /**
+         * Writes the part of the buffer that can no longer change to the target.
+         * The last char before trimRightPos_ has to stay in the buffer
+         * because appendBlockSeparator() and trimRight() may remove it.
+         */
+        private void flushIfNeeded() {
+            if (out_ == null || trimRightPos_ < FLUSH_THRESHOLD) {
+                return;
+            }
+
+            final int flushPos = trimRightPos_ - 1;
+            try {
+                out_.append(builder_, 0, flushPos);
+            }
+            catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            builder_.delete(0, flushPos);
+            trimRightPos_ -= flushPos;
+            flushedLength_ += flushPos;
+        }
     }
 }
@@ -15,10 +15,14 @@
 package org.htmlunit.html.xpath;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.transform.TransformerException;
 
+import org.htmlunit.SgmlPage;
 import org.htmlunit.html.DomNode;
 import org.htmlunit.xpath.XPathContext;
 import org.htmlunit.xpath.objects.XBoolean;
@@ -26,6 +30,7 @@ import org.htmlunit.xpath.objects.XNodeSet;
 import org.htmlunit.xpath.objects.XNumber;
 import org.htmlunit.xpath.objects.XObject;
 import org.htmlunit.xpath.objects.XString;
+import org.htmlunit.xpath.xml.dtm.DTM;
 import org.htmlunit.xpath.xml.utils.PrefixResolver;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -40,6 +45,26 @@ import org.w3c.dom.NodeList;
  */
 public final class XPathHelper {
 
+    private static final int MAX_CACHED_EXPRESSIONS = 512;
+
+    /**
+     * Compiled expressions, one cache per thread. The compiled expressions of the xpath engine
+     * (e.g. the location path iterators) are keeping state while evaluated; they can be reused
+     * one after another but must not be used by two threads at the same time.
+     */
+    private static final ThreadLocal<Map<String, XPathAdapter>> XPATH_CACHE_ =
+            new ThreadLocal<Map<String, XPathAdapter>>() {
+                @Override
+                protected Map<String, XPathAdapter> initialValue() {
+                    return new LinkedHashMap<String, XPathAdapter>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(final Map.Entry<String, XPathAdapter> eldest) {
+                            return size() > MAX_CACHED_EXPRESSIONS;
+                        }
+                    };
+                }
+            };
+
     private static final ThreadLocal<Boolean> PROCESS_XPATH_ = new ThreadLocal<Boolean>() {
         @Override
         protected synchronized Boolean initialValue() {
@@ -65,31 +90,137 @@ public final class XPathHelper {
      */
     public static <T> List<T> getByXPath(final DomNode contextNode, final String xpathExpr,
             final PrefixResolver prefixResolver) {
+        return getByXPath(contextNode, xpathExpr, prefixResolver, false);
+    }
+
+    /**
+     * Evaluates an XPath expression from the specified node, returning the first node in document order.
+     * If the result of the expression is a node set, the evaluation stops after the first node whenever
+     * the underlying iterator delivers the nodes in document order.
+     *
+     * @param <T> the type class
+     * @param contextNode the node to start searching from
+     * @param xpathExpr the XPath expression
+     * @param prefixResolver the prefix resolver to use for resolving namespace prefixes, or null
+     * @return the first object found or {@code null}
+     */
+    public static <T> T getFirstByXPath(final DomNode contextNode, final String xpathExpr,
+            final PrefixResolver prefixResolver) {
+        final List<T> results = getByXPath(contextNode, xpathExpr, prefixResolver, true);
+        if (results.isEmpty()) {
+            return null;
+        }
+        return results.get(0);
+    }
+
+    private static <T> List<T> getByXPath(final DomNode contextNode, final String xpathExpr,
+            final PrefixResolver prefixResolver, final boolean firstOnly) {
         if (xpathExpr == null) {
             throw new IllegalArgumentException("Null is not a valid XPath expression");
         }
 
+        try {
+            final boolean caseSensitive = contextNode.getPage().hasCaseSensitiveTagNames();
+            final XPathAdapter xpath = getXPathAdapter(contextNode, xpathExpr, prefixResolver, caseSensitive);
+            return getByXPath(contextNode, xpath, prefixResolver, firstOnly);
+        }
+        catch (final Exception e) {
+            throw new RuntimeException("Could not retrieve XPath >" + xpathExpr + "< on " + contextNode, e);
+        }
+    }
+
+    /**
+     * Returns the compiled expression from the cache or compiles it. The result of the compilation
+     * depends on the expression, the case sensitivity and the namespaces the prefixes used in the
+     * expression are resolved to; all these are part of the cache key.
+     */
+    private static XPathAdapter getXPathAdapter(final DomNode contextNode, final String xpathExpr,
+            final PrefixResolver prefixResolver, final boolean caseSensitive) throws TransformerException {
+        final List<String> prefixes = getPrefixes(xpathExpr);
+
         PrefixResolver resolver = prefixResolver;
-        if (resolver == null) {
-            final Node xpathExpressionContext;
-            if (contextNode.getNodeType() == Node.DOCUMENT_NODE) {
-                xpathExpressionContext = ((Document) contextNode).getDocumentElement();
-            }
-            else {
-                xpathExpressionContext = contextNode;
+        if (resolver == null && !prefixes.isEmpty()) {
+            resolver = createPrefixResolver(contextNode);
+        }
+
+        final StringBuilder key = new StringBuilder(xpathExpr.length() + 2);
+        key.append(caseSensitive ? 'S' : 'I').append(xpathExpr);
+        for (final String prefix : prefixes) {
+            key.append('\n').append(prefix).append('=').append(resolver.getNamespaceForPrefix(prefix));
+        }
+        final String cacheKey = key.toString();
+
+        final Map<String, XPathAdapter> cache = XPATH_CACHE_.get();
+        XPathAdapter xpath = cache.get(cacheKey);
+        if (xpath == null) {
+            if (resolver == null) {
+                resolver = createPrefixResolver(contextNode);
             }
+            xpath = new XPathAdapter(xpathExpr, resolver, caseSensitive);
+            cache.put(cacheKey, xpath);
+        }
+        return xpath;
+    }
 
-            resolver = new HtmlUnitPrefixResolver(xpathExpressionContext);
+    private static PrefixResolver createPrefixResolver(final DomNode contextNode) {
+        final Node xpathExpressionContext;
+        if (contextNode.getNodeType() == Node.DOCUMENT_NODE) {
+            xpathExpressionContext = ((Document) contextNode).getDocumentElement();
+        }
+        else {
+            xpathExpressionContext = contextNode;
         }
 
-        try {
-            final boolean caseSensitive = contextNode.getPage().hasCaseSensitiveTagNames();
-            final XPathAdapter xpath = new XPathAdapter(xpathExpr, resolver, caseSensitive);
-            return getByXPath(contextNode, xpath, prefixResolver);
+        return new HtmlUnitPrefixResolver(xpathExpressionContext);
+    }
+
+    /**
+     * Collects the namespace prefixes used in the expression; this may contain some
+     * more names (e.g. of variables) but never misses a prefix.
+     */
+    private static List<String> getPrefixes(final String xpathExpr) {
+        List<String> prefixes = null;
+        char quote = 0;
+        final int length = xpathExpr.length();
+        for (int i = 0; i < length; i++) {
+            final char ch = xpathExpr.charAt(i);
+            if (quote != 0) {
+                if (ch == quote) {
+                    quote = 0;
+                }
+            }
+            else if (ch == '\'' || ch == '"') {
+                quote = ch;
+            }
+            else if (ch == ':') {
+                if (i + 1 < length && xpathExpr.charAt(i + 1) == ':') {
+                    // axis
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (start > 0 && isNameChar(xpathExpr.charAt(start - 1))) {
+                    start--;
+                }
+                if (start < i) {
+                    if (prefixes == null) {
+                        prefixes = new ArrayList<>();
+                    }
+                    final String prefix = xpathExpr.substring(start, i);
+                    if (!prefixes.contains(prefix)) {
+                        prefixes.add(prefix);
+                    }
+                }
+            }
         }
-        catch (final Exception e) {
-            throw new RuntimeException("Could not retrieve XPath >" + xpathExpr + "< on " + contextNode, e);
+        if (prefixes == null) {
+            return Collections.emptyList();
         }
+        return prefixes;
+    }
+
+    private static boolean isNameChar(final char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_' || ch == '-' || ch == '.';
     }
 
     /**
@@ -102,19 +233,49 @@ public final class XPathHelper {
      */
     public static <T> List<T> getByXPath(final Node node, final XPathAdapter xpath,
             final PrefixResolver prefixResolver) throws TransformerException {
+        return getByXPath(node, xpath, prefixResolver, false);
+    }
+
+    private static <T> List<T> getByXPath(final Node node, final XPathAdapter xpath,
+            final PrefixResolver prefixResolver, final boolean firstOnly) throws TransformerException {
         final List<T> list = new ArrayList<>();
 
+        // the DTM built by the context can be reused as long as the dom is unchanged;
+        // this is only done for nodes attached to the page, for detached subtrees
+        // every call would add one more DTM to the context
+        SgmlPage page = null;
+        if (node instanceof DomNode && ((DomNode) node).isAttachedToPage()) {
+            page = ((DomNode) node).getPage();
+        }
+        XPathContext xpathSupport = null;
+        int domChangeCount = 0;
+        if (page != null) {
+            domChangeCount = page.getDomChangeCount();
+            xpathSupport = page.takeCachedXPathContext();
+        }
+        if (xpathSupport == null) {
+            xpathSupport = new XPathContext();
+        }
+
         PROCESS_XPATH_.set(Boolean.TRUE);
         try {
-            final XPathContext xpathSupport = new XPathContext();
             final int ctxtNode = xpathSupport.getDTMHandleFromNode(node);
             final XObject result = xpath.execute(xpathSupport, ctxtNode, prefixResolver);
 
             if (result instanceof XNodeSet) {
-                final NodeList nodelist = result.nodelist();
-                final int length = nodelist.getLength();
-                for (int i = 0; i < length; i++) {
-                    list.add((T) nodelist.item(i));
+                final XNodeSet nodeSet = (XNodeSet) result;
+                if (firstOnly && nodeSet.isDocOrdered()) {
+                    final int handle = nodeSet.nextNode();
+                    if (handle != DTM.NULL) {
+                        list.add((T) nodeSet.getDTM(handle).getNode(handle));
+                    }
+                }
+                else {
+                    final NodeList nodelist = result.nodelist();
+                    final int length = nodelist.getLength();
+                    for (int i = 0; i < length; i++) {
+                        list.add((T) nodelist.item(i));
+                    }
                 }
             }
             else if (result instanceof XNumber) {
@@ -129,6 +290,10 @@ public final class XPathHelper {
             else {
                 throw new RuntimeException("Unproccessed " + result.getClass().getName());
             }
+
+            if (page != null) {
+                page.cacheXPathContext(xpathSupport, domChangeCount);
+            }
         }
         finally {
             PROCESS_XPATH_.set(Boolean.FALSE);
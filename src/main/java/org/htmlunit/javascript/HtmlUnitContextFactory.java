@@ -57,6 +57,7 @@ public class HtmlUnitContextFactory extends ContextFactory {
     private long timeout_;
     private Debugger debugger_;
     private boolean deminifyFunctionCode_;
+    private int compileThreshold_;
 
     /**
      * Creates a new instance of HtmlUnitContextFactory.
@@ -128,6 +129,33 @@ public class HtmlUnitContextFactory extends ContextFactory {
         return deminifyFunctionCode_;
     }
 
+    /**
+     * Enables the compiled mode for scripts with at least the given number of characters.
+     * These scripts are compiled into java byte code instead of being interpreted; this is
+     * usually much faster for cpu bound code like larger libraries or application bundles.
+     * Smaller scripts, event handlers and code passed to eval() are still interpreted,
+     * because for them the class generation costs more than it gains.
+     * <p>The compiler injects instruction counting at function entries and loop back-edges,
+     * therefore the {@link #setTimeout(long) timeout} is still enforced. The compiled mode
+     * is not used if a {@link #setDebugger(Debugger) debugger} is set.</p>
+     *
+     * @param sourceLength the minimal source length of scripts to be compiled;
+     *        0 or less disables the compiled mode (the default)
+     */
+    public void setCompileThreshold(final int sourceLength) {
+        compileThreshold_ = sourceLength;
+    }
+
+    /**
+     * Returns the minimal source length of scripts compiled into java byte code.
+     * A value of 0 or less means all scripts are interpreted.
+     *
+     * @return the compile threshold (default value is <code>0</code>)
+     */
+    public int getCompileThreshold() {
+        return compileThreshold_;
+    }
+
     /**
      * Custom context to store execution time and handle timeouts.
      */
@@ -192,8 +220,21 @@ public class HtmlUnitContextFactory extends ContextFactory {
                 .getThreadLocal(JavaScriptEngine.KEY_STARTING_PAGE);
             source = preProcess(page, source, sourceName, lineno, null);
 
-            return super.compileString(source, compiler, compilationErrorReporter,
-                    sourceName, lineno, securityDomain, compilerEnvironsProcessor);
+            if (isWindowEval || compileThreshold_ <= 0 || source.length() < compileThreshold_
+                    || debugger_ != null) {
+                return super.compileString(source, compiler, compilationErrorReporter,
+                        sourceName, lineno, securityDomain, compilerEnvironsProcessor);
+            }
+
+            // compiled mode; the generated code still calls observeInstructionCount()
+            setInterpretedMode(false);
+            try {
+                return super.compileString(source, compiler, compilationErrorReporter,
+                        sourceName, lineno, securityDomain, compilerEnvironsProcessor);
+            }
+            finally {
+                setInterpretedMode(true);
+            }
         }
 
         @Override
@@ -252,10 +293,12 @@ public class HtmlUnitContextFactory extends ContextFactory {
         // make sure no java classes are usable from js
         cx.setClassShutter(fullClassName -> false);
 
-        // Use pure interpreter mode to get observeInstructionCount() callbacks.
+        // Use interpreter mode by default; scripts are compiled only if enabled
+        // by setCompileThreshold(), see TimeoutContext.compileString().
         cx.setInterpretedMode(true);
 
-        // Set threshold on how often we want to receive the callbacks
+        // Set threshold on how often we want to receive the callbacks; this also
+        // enables the instruction counting in the code generated by the compiler
         cx.setInstructionObserverThreshold(INSTRUCTION_COUNT_THRESHOLD);
 
         cx.setErrorReporter(new HtmlUnitErrorReporter(webClient_.getJavaScriptErrorListener()));
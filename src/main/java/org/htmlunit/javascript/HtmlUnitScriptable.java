@@ -35,6 +35,7 @@ import org.htmlunit.corejs.javascript.Scriptable;
 import org.htmlunit.corejs.javascript.ScriptableObject;
 import org.htmlunit.html.DomNode;
 import org.htmlunit.html.HtmlImage;
+import org.htmlunit.javascript.configuration.HostClassFactory;
 import org.htmlunit.javascript.host.Window;
 import org.htmlunit.javascript.host.html.HTMLElement;
 import org.htmlunit.javascript.host.html.HTMLUnknownElement;
@@ -258,7 +259,7 @@ public class HtmlUnitScriptable extends ScriptableObject implements Cloneable {
         }
         else {
             try {
-                scriptable = javaScriptClass.getDeclaredConstructor().newInstance();
+                scriptable = HostClassFactory.newInstance(javaScriptClass);
             }
             catch (final Exception e) {
                 throw JavaScriptEngine.throwAsScriptRuntimeEx(e);
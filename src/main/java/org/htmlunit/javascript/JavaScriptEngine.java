@@ -26,9 +26,14 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -67,6 +72,7 @@ import org.htmlunit.javascript.configuration.AbstractJavaScriptConfiguration;
 import org.htmlunit.javascript.configuration.ClassConfiguration;
 import org.htmlunit.javascript.configuration.ClassConfiguration.ConstantInfo;
 import org.htmlunit.javascript.configuration.ClassConfiguration.PropertyInfo;
+import org.htmlunit.javascript.configuration.HostClassFactory;
 import org.htmlunit.javascript.configuration.JavaScriptConfiguration;
 import org.htmlunit.javascript.configuration.ProxyAutoConfigJavaScriptConfiguration;
 import org.htmlunit.javascript.host.ConsoleCustom;
@@ -109,6 +115,16 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
 
     private static final Log LOG = LogFactory.getLog(JavaScriptEngine.class);
 
+    // the compiled Proxy Auto-Config scripts, usually there is only one
+    private static final Map<ProxyAutoConfigKey, ProxyAutoConfigScript> PROXY_AUTO_CONFIG_SCRIPTS =
+            new LinkedHashMap<ProxyAutoConfigKey, ProxyAutoConfigScript>(4, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<ProxyAutoConfigKey, ProxyAutoConfigScript> eldest) {
+                    return size() > 8;
+                }
+            };
+
     /** ScriptRuntime.emptyArgs. */
     public static final Object[] EMPTY_ARGS = ScriptRuntime.emptyArgs;
 
@@ -288,7 +304,7 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
                 final HtmlUnitScriptable prototype = configureClass(config, jsScope);
                 if (config.isJsObject()) {
                     // Place object with prototype property in Window scope
-                    final HtmlUnitScriptable obj = config.getHostClass().getDeclaredConstructor().newInstance();
+                    final HtmlUnitScriptable obj = HostClassFactory.newInstance(config.getHostClass());
                     prototype.defineProperty("__proto__", prototype, ScriptableObject.DONTENUM);
                     obj.defineProperty("prototype", prototype, ScriptableObject.DONTENUM); // but not setPrototype!
                     obj.setParentScope(jsScope);
@@ -331,7 +347,7 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
             final Map.Entry<String, Member> jsConstructor = config.getJsConstructor();
             if (prototype != null && config.isJsObject()) {
                 if (jsConstructor == null) {
-                    final ScriptableObject constructor = config.getHostClass().getDeclaredConstructor().newInstance();
+                    final ScriptableObject constructor = HostClassFactory.newInstance(config.getHostClass());
                     ((HtmlUnitScriptable) constructor).setClassName(jsClassName);
                     defineConstructor(jsScope, prototype, constructor);
                     configureConstantsStaticPropertiesAndStaticFunctions(config, constructor);
@@ -533,7 +549,7 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
     public static HtmlUnitScriptable configureClass(final ClassConfiguration config, final Scriptable window)
         throws Exception {
 
-        final HtmlUnitScriptable prototype = config.getHostClass().getDeclaredConstructor().newInstance();
+        final HtmlUnitScriptable prototype = HostClassFactory.newInstance(config.getHostClass());
         prototype.setParentScope(window);
         prototype.setClassName(config.getClassName());
 
@@ -1247,6 +1263,31 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
         domException.setParentScope(scope);
         domException.setPrototype(scope.getPrototype(DOMException.class));
 
+        return asJavaScriptException(domException);
+    }
+
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Creates a {@link DOMException} with a name without legacy code (e.g. 'DataError')
+     * and encapsulates it into a Rhino-compatible exception.
+     *
+     * @param scope the parent scope
+     * @param message the exception message
+     * @param name the exception name
+     * @return the created exception
+     */
+    public static RhinoException asJavaScriptException(final HtmlUnitScriptable scope, final String message,
+            final String name) {
+        final DOMException domException = new DOMException();
+        domException.jsConstructor(message, name);
+        domException.setParentScope(scope);
+        domException.setPrototype(scope.getPrototype(DOMException.class));
+
+        return asJavaScriptException(domException);
+    }
+
+    private static RhinoException asJavaScriptException(final DOMException domException) {
         final EcmaError helper = ScriptRuntime.syntaxError("helper");
         String fileName = helper.sourceName();
         if (fileName != null) {
@@ -1395,29 +1436,197 @@ public class JavaScriptEngine implements AbstractJavaScriptEngine<Script> {
 
     /**
      * Evaluates the <code>FindProxyForURL</code> method of the specified content.
+     * <p>
+     * The content is compiled only once (per browser version); every call executes the compiled
+     * script in a fresh scope. The results are cached for a short time (see {@link ProxyAutoConfigScript}).
+     * </p>
      * @param browserVersion the browser version to use
      * @param content the JavaScript content
      * @param url the URL to be retrieved
      * @return semicolon-separated result
      */
     public static String evaluateProxyAutoConfig(final BrowserVersion browserVersion, final String content, final URL url) {
-        try (Context cx = Context.enter()) {
-            final ProxyAutoConfigJavaScriptConfiguration jsConfig =
-                    ProxyAutoConfigJavaScriptConfiguration.getInstance(browserVersion);
+        final ProxyAutoConfigKey key = new ProxyAutoConfigKey(browserVersion, content);
+
+        ProxyAutoConfigScript script;
+        synchronized (PROXY_AUTO_CONFIG_SCRIPTS) {
+            script = PROXY_AUTO_CONFIG_SCRIPTS.get(key);
+        }
+        if (script == null) {
+            script = new ProxyAutoConfigScript(browserVersion, content);
+            synchronized (PROXY_AUTO_CONFIG_SCRIPTS) {
+                final ProxyAutoConfigScript existing = PROXY_AUTO_CONFIG_SCRIPTS.putIfAbsent(key, script);
+                if (existing != null) {
+                    script = existing;
+                }
+            }
+        }
+        return script.findProxyForURL(url);
+    }
 
-            final ScriptableObject scope = cx.initSafeStandardObjects();
+    /**
+     * The key of the compiled Proxy Auto-Config scripts. The content is usually the same
+     * string instance (held by the {@link org.htmlunit.ProxyConfig}) for every lookup;
+     * the hash code of the string is cached and the equality check starts with the identity,
+     * the content is not copied or scanned per lookup.
+     */
+    private static final class ProxyAutoConfigKey {
+        private final String browser_;
+        private final int browserVersionNumeric_;
+        private final String content_;
+        private final int hashCode_;
+
+        ProxyAutoConfigKey(final BrowserVersion browserVersion, final String content) {
+            browser_ = browserVersion.getNickname();
+            browserVersionNumeric_ = browserVersion.getBrowserVersionNumeric();
+            content_ = content;
+            hashCode_ = 31 * (31 * Objects.hashCode(browser_) + browserVersionNumeric_) + content.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode_;
+        }
 
-            for (final ClassConfiguration config : jsConfig.getAll()) {
-                configureFunctions(config, scope);
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof ProxyAutoConfigKey)) {
+                return false;
             }
+            final ProxyAutoConfigKey other = (ProxyAutoConfigKey) obj;
+            return hashCode_ == other.hashCode_
+                    && browserVersionNumeric_ == other.browserVersionNumeric_
+                    && Objects.equals(browser_, other.browser_)
+                    && (content_ == other.content_ || content_.equals(other.content_));
+        }
+    }
+
+    /**
+     * A compiled Proxy Auto-Config script.
+     * <p>
+     * The script is executed in a fresh (not sealed) scope for every call; the script
+     * is free to modify the standard objects and no state is carried over from one call to the next.
+     * Only the compilation is done once.
+     * </p>
+     * <p>
+     * The results of <code>FindProxyForURL</code> are cached for {@link #RESULT_TTL} ms;
+     * per scheme, host and port if the script can't read its url parameter at all,
+     * per url otherwise. Scripts using the time based functions or the Date object are not cached.
+     * </p>
+     */
+    private static final class ProxyAutoConfigScript {
+        private static final long RESULT_TTL = 60_000;
+        private static final int MAX_RESULTS = 10_000;
+        private static final Pattern FUNCTION_DECLARATION =
+                Pattern.compile("function\\s+FindProxyForURL\\s*\\(\\s*([A-Za-z_$][\\w$]*)");
+        // new Date(), Date.now(), Date() ...
+        private static final Pattern DATE_USAGE = Pattern.compile("(?<![\\w$.])Date(?![\\w$])");
+        // ways to read the url without the parameter name
+        private static final Pattern INDIRECT_ACCESS = Pattern.compile("(?<![\\w$])(arguments|eval|with)(?![\\w$])");
+
+        private final BrowserVersion browserVersion_;
+        private final Script init_;
+        private final Script script_;
+        private final boolean cacheable_;
+        private final boolean hostOnly_;
+        private final Map<String, CachedResult> results_ = new ConcurrentHashMap<>();
+
+        ProxyAutoConfigScript(final BrowserVersion browserVersion, final String content) {
+            browserVersion_ = browserVersion;
+            try (Context cx = Context.enter()) {
+                init_ = cx.compileString("var ProxyConfig = function() {}; ProxyConfig.bindings = {}",
+                        "<init>", 1, null);
+                script_ = cx.compileString(content, "<Proxy Auto-Config>", 1, null);
+            }
+
+            cacheable_ = !content.contains("weekdayRange")
+                    && !content.contains("dateRange")
+                    && !content.contains("timeRange")
+                    && !DATE_USAGE.matcher(content).find();
+            hostOnly_ = isUrlParameterUnused(content);
+        }
+
+        /**
+         * Conservative check if the result depends only on the host. This is the case if the
+         * url parameter of the one and only <code>FindProxyForURL</code> declaration is never
+         * referenced and the script neither uses {@code arguments}, {@code eval} or {@code with}
+         * nor references <code>FindProxyForURL</code> anywhere else (e.g. to replace the function).
+         */
+        private static boolean isUrlParameterUnused(final String content) {
+            final Matcher matcher = FUNCTION_DECLARATION.matcher(content);
+            if (!matcher.find()
+                    || INDIRECT_ACCESS.matcher(content).find()
+                    || countIdentifier(content, "FindProxyForURL") != 1) {
+                return false;
+            }
+            // only the declaration itself
+            return countIdentifier(content, matcher.group(1)) == 1;
+        }
+
+        private static int countIdentifier(final String content, final String identifier) {
+            final Pattern usage = Pattern.compile("(?<![\\w$])" + Pattern.quote(identifier) + "(?![\\w$])");
+            final Matcher usageMatcher = usage.matcher(content);
+            int count = 0;
+            while (usageMatcher.find()) {
+                count++;
+            }
+            return count;
+        }
+
+        String findProxyForURL(final URL url) {
+            if (!cacheable_) {
+                return call(url);
+            }
+
+            final String key;
+            if (hostOnly_) {
+                key = url.getProtocol() + "://" + url.getHost() + ':' + url.getPort();
+            }
+            else {
+                key = url.toExternalForm();
+            }
+
+            final long now = System.currentTimeMillis();
+            final CachedResult cached = results_.get(key);
+            if (cached != null && cached.expires_ > now) {
+                return cached.value_;
+            }
+
+            final String value = call(url);
+            if (results_.size() >= MAX_RESULTS) {
+                results_.clear();
+            }
+            results_.put(key, new CachedResult(value, now + RESULT_TTL));
+            return value;
+        }
+
+        private String call(final URL url) {
+            try (Context cx = Context.enter()) {
+                final ProxyAutoConfigJavaScriptConfiguration jsConfig =
+                        ProxyAutoConfigJavaScriptConfiguration.getInstance(browserVersion_);
+
+                final ScriptableObject scope = cx.initSafeStandardObjects();
+                for (final ClassConfiguration config : jsConfig.getAll()) {
+                    configureFunctions(config, scope);
+                }
+                init_.exec(cx, scope);
+                script_.exec(cx, scope);
+
+                final Object[] functionArgs = {url.toExternalForm(), url.getHost()};
+                final NativeFunction f = (NativeFunction) scope.get("FindProxyForURL", scope);
+                final Object result = f.call(cx, scope, scope, functionArgs);
+                return JavaScriptEngine.toString(result);
+            }
+        }
+    }
 
-            cx.evaluateString(scope, "var ProxyConfig = function() {}; ProxyConfig.bindings = {}", "<init>", 1, null);
-            cx.evaluateString(scope, content, "<Proxy Auto-Config>", 1, null);
+    private static final class CachedResult {
+        private final String value_;
+        private final long expires_;
 
-            final Object[] functionArgs = {url.toExternalForm(), url.getHost()};
-            final NativeFunction f = (NativeFunction) scope.get("FindProxyForURL", scope);
-            final Object result = f.call(cx, scope, scope, functionArgs);
-            return toString(result);
+        CachedResult(final String value, final long expires) {
+            value_ = value;
+            expires_ = expires;
         }
     }
 }
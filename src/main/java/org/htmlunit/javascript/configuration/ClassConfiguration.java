@@ -104,7 +104,7 @@ public final class ClassConfiguration {
      * @param setter the setter method
      */
     public void addProperty(final String name, final Method getter, final Method setter) {
-        final PropertyInfo info = new PropertyInfo(getter, setter);
+        final PropertyInfo info = new PropertyInfo(accessible(getter), accessible(setter));
         if (propertyMap_ == null) {
             propertyMap_ = new HashMap<>();
         }
@@ -118,7 +118,7 @@ public final class ClassConfiguration {
      * @param setter the static setter method
      */
     public void addStaticProperty(final String name, final Method getter, final Method setter) {
-        final PropertyInfo info = new PropertyInfo(getter, setter);
+        final PropertyInfo info = new PropertyInfo(accessible(getter), accessible(setter));
         if (staticPropertyMap_ == null) {
             staticPropertyMap_ = new HashMap<>();
         }
@@ -207,7 +207,7 @@ public final class ClassConfiguration {
         if (symbolMap_ == null) {
             symbolMap_ = new HashMap<>();
         }
-        symbolMap_.put(symbol, method);
+        symbolMap_.put(symbol, accessible(method));
     }
 
     /**
@@ -231,7 +231,7 @@ public final class ClassConfiguration {
         if (functionMap_ == null) {
             functionMap_ = new HashMap<>();
         }
-        functionMap_.put(name, method);
+        functionMap_.put(name, accessible(method));
     }
 
     /**
@@ -243,7 +243,26 @@ public final class ClassConfiguration {
         if (staticFunctionMap_ == null) {
             staticFunctionMap_ = new HashMap<>();
         }
-        staticFunctionMap_.put(name, method);
+        staticFunctionMap_.put(name, accessible(method));
+    }
+
+    /**
+     * The methods are invoked reflectively for every access from js; the configuration is shared
+     * by all the windows, therefore the access check is disabled here once instead of being done
+     * on every call.
+     * @param method the method (may be null)
+     * @return the method
+     */
+    private static Method accessible(final Method method) {
+        if (method != null) {
+            try {
+                method.setAccessible(true);
+            }
+            catch (final RuntimeException e) {
+                // ignore, the access is checked for every call
+            }
+        }
+        return method;
     }
 
     /**
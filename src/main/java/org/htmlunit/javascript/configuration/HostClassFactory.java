@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.javascript.configuration;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * Creates instances of the host classes.
+ * <p>
+ * Every new window creates the prototypes (and the constructors) of all the host classes
+ * and every DOM node accessed from js gets its own host object. Instead of looking up the
+ * default constructor and calling it reflectively every time, a factory is generated once
+ * per host class (using the {@link LambdaMetafactory}) and shared by all browser versions.
+ * Classes not visible to the class loader of HtmlUnit are created using reflection.
+ * </p>
+ *
+ * @author Ronald Brill
+ */
+public final class HostClassFactory {
+
+    private static final Log LOG = LogFactory.getLog(HostClassFactory.class);
+
+    private static final ClassValue<Supplier<?>> FACTORIES = new ClassValue<Supplier<?>>() {
+        @Override
+        protected Supplier<?> computeValue(final Class<?> type) {
+            return createFactory(type);
+        }
+    };
+
+    /**
+     * Disallow instantiation of this class.
+     */
+    private HostClassFactory() {
+        // Empty.
+    }
+
+    /**
+     * Creates a new instance of the given host class using the default constructor.
+     * @param <T> the type
+     * @param hostClass the class
+     * @return the new instance
+     */
+    public static <T> T newInstance(final Class<T> hostClass) {
+        return hostClass.cast(FACTORIES.get(hostClass).get());
+    }
+
+    private static Supplier<?> createFactory(final Class<?> type) {
+        if (type.getClassLoader() == HostClassFactory.class.getClassLoader()) {
+            try {
+                final MethodHandles.Lookup lookup = MethodHandles.lookup();
+                final MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+                final CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        constructor,
+                        MethodType.methodType(type));
+                return (Supplier<?>) site.getTarget().invokeExact();
+            }
+            catch (final Throwable e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Can't create a factory for '" + type.getName() + "', using reflection", e);
+                }
+            }
+        }
+
+        return () -> {
+            try {
+                final Constructor<?> constructor = type.getDeclaredConstructor();
+                return constructor.newInstance();
+            }
+            catch (final ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+}
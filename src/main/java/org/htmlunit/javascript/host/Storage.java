@@ -27,6 +27,7 @@ import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
 import org.htmlunit.javascript.configuration.JsxFunction;
 import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.storage.StorageQuotaExceededException;
 import org.w3c.dom.DOMException;
 
 /**
@@ -166,12 +167,21 @@ public class Storage extends HtmlUnitScriptable {
     public void setItem(final String key, final String data) {
         final long storeSize = storeSize_ + data.length();
         if (storeSize > STORE_SIZE_KIMIT) {
-            throw JavaScriptEngine.throwAsScriptRuntimeEx(
-                    new DOMException((short) 22, "QuotaExceededError: Failed to execute 'setItem' on 'Storage': "
-                            + "Setting the value of '" + key + "' exceeded the quota."));
+            throw quotaExceeded(key);
+        }
+        try {
+            store_.put(key, data);
+        }
+        catch (final StorageQuotaExceededException e) {
+            throw quotaExceeded(key);
         }
         storeSize_ = storeSize;
-        store_.put(key, data);
+    }
+
+    private static RuntimeException quotaExceeded(final String key) {
+        return JavaScriptEngine.throwAsScriptRuntimeEx(
+                new DOMException((short) 22, "QuotaExceededError: Failed to execute 'setItem' on 'Storage': "
+                        + "Setting the value of '" + key + "' exceeded the quota."));
     }
 
     /**
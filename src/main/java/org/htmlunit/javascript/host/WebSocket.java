@@ -19,6 +19,11 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +38,7 @@ import org.htmlunit.corejs.javascript.typedarrays.NativeArrayBuffer;
 import org.htmlunit.html.HtmlPage;
 import org.htmlunit.javascript.AbstractJavaScriptEngine;
 import org.htmlunit.javascript.JavaScriptEngine;
+import org.htmlunit.javascript.background.BackgroundJavaScriptFactory;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstant;
 import org.htmlunit.javascript.configuration.JsxConstructor;
@@ -81,13 +87,22 @@ public class WebSocket extends EventTarget implements AutoCloseable {
     private Function messageHandler_;
     private Function openHandler_;
     private URI url_;
-    private int readyState_ = CONNECTING;
+    private volatile int readyState_ = CONNECTING;
     private String binaryType_ = "blob";
 
     private HtmlPage containingPage_;
     private WebSocketAdapter webSocketImpl_;
     private boolean originSet_;
 
+    private final Queue<PendingEvent> pendingEvents_ = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingEventCount_ = new AtomicInteger();
+    private final AtomicBoolean drainScheduled_ = new AtomicBoolean();
+    private final AtomicInteger queuedMessages_ = new AtomicInteger();
+    private final AtomicLong droppedMessages_ = new AtomicLong();
+    private final AtomicLong deliveredMessages_ = new AtomicLong();
+    private int maxQueuedMessages_ = -1;
+    private boolean coalesceMessages_;
+
     /**
      * Creates a new instance.
      */
@@ -112,6 +127,13 @@ public class WebSocket extends EventTarget implements AutoCloseable {
             final WebClient webClient = webWindow.getWebClient();
             originSet_ = true;
 
+            maxQueuedMessages_ = webClient.getOptions().getWebSocketMaxQueuedMessages();
+            coalesceMessages_ = webClient.getOptions().isWebSocketCoalesceMessages();
+
+            // the listener is called by the threads of the websocket client; all the events are
+            // queued and dispatched by the job manager of the window to run the js code in the
+            // same thread as all the other js code of the page. The state is changed together
+            // with the delivery of the event; scripts do not see the new state before the event.
             final WebSocketListener webSocketListener = new WebSocketListener() {
 
                 @Override
@@ -121,59 +143,78 @@ public class WebSocket extends EventTarget implements AutoCloseable {
 
                 @Override
                 public void onWebSocketConnect() {
-                    setReadyState(OPEN);
-
-                    final Event openEvent = new Event(Event.TYPE_OPEN);
-                    openEvent.setParentScope(window);
-                    openEvent.setPrototype(getPrototype(openEvent.getClass()));
-                    openEvent.setSrcElement(WebSocket.this);
-                    fire(openEvent);
-                    callFunction(openHandler_, new Object[] {openEvent});
+                    enqueue(() -> {
+                        setReadyState(OPEN);
+
+                        final Event openEvent = new Event(Event.TYPE_OPEN);
+                        openEvent.setParentScope(window);
+                        openEvent.setPrototype(getPrototype(openEvent.getClass()));
+                        openEvent.setSrcElement(WebSocket.this);
+                        fire(openEvent);
+                        callFunction(openHandler_, new Object[] {openEvent});
+                    }, false);
                 }
 
                 @Override
                 public void onWebSocketClose(final int statusCode, final String reason) {
-                    setReadyState(CLOSED);
-
-                    final CloseEvent closeEvent = new CloseEvent();
-                    closeEvent.setParentScope(window);
-                    closeEvent.setPrototype(getPrototype(closeEvent.getClass()));
-                    closeEvent.setCode(statusCode);
-                    closeEvent.setReason(reason);
-                    closeEvent.setWasClean(true);
-                    fire(closeEvent);
-                    callFunction(closeHandler_, new Object[] {closeEvent});
+                    enqueue(() -> {
+                        setReadyState(CLOSED);
+
+                        final CloseEvent closeEvent = new CloseEvent();
+                        closeEvent.setParentScope(window);
+                        closeEvent.setPrototype(getPrototype(closeEvent.getClass()));
+                        closeEvent.setCode(statusCode);
+                        closeEvent.setReason(reason);
+                        closeEvent.setWasClean(true);
+                        fire(closeEvent);
+                        callFunction(closeHandler_, new Object[] {closeEvent});
+                    }, false);
                 }
 
                 @Override
                 public void onWebSocketText(final String message) {
-                    final MessageEvent msgEvent = new MessageEvent(message);
-                    msgEvent.setParentScope(window);
-                    msgEvent.setPrototype(getPrototype(msgEvent.getClass()));
-                    if (originSet_) {
-                        msgEvent.setOrigin(getUrl());
+                    if (!reserveMessageSlot()) {
+                        return;
                     }
-                    msgEvent.setSrcElement(WebSocket.this);
-                    fire(msgEvent);
-                    callFunction(messageHandler_, new Object[] {msgEvent});
+
+                    enqueue(() -> {
+                        final MessageEvent msgEvent = new MessageEvent(message);
+                        msgEvent.setParentScope(window);
+                        msgEvent.setPrototype(getPrototype(msgEvent.getClass()));
+                        if (originSet_) {
+                            msgEvent.setOrigin(getUrl());
+                        }
+                        msgEvent.setSrcElement(WebSocket.this);
+                        fire(msgEvent);
+                        callFunction(messageHandler_, new Object[] {msgEvent});
+                    }, true);
                 }
 
                 @Override
                 public void onWebSocketBinary(final byte[] data, final int offset, final int length) {
+                    // check before copying, dropped frames are not copied at all
+                    if (!reserveMessageSlot()) {
+                        return;
+                    }
+
+                    // the client may reuse the data array after returning, copy it once
                     final NativeArrayBuffer buffer = new NativeArrayBuffer(length);
                     System.arraycopy(data, offset, buffer.getBuffer(), 0, length);
-                    buffer.setParentScope(getParentScope());
-                    buffer.setPrototype(ScriptableObject.getClassPrototype(getWindow(), buffer.getClassName()));
-
-                    final MessageEvent msgEvent = new MessageEvent(buffer);
-                    msgEvent.setParentScope(window);
-                    msgEvent.setPrototype(getPrototype(msgEvent.getClass()));
-                    if (originSet_) {
-                        msgEvent.setOrigin(getUrl());
-                    }
-                    msgEvent.setSrcElement(WebSocket.this);
-                    fire(msgEvent);
-                    callFunction(messageHandler_, new Object[] {msgEvent});
+
+                    enqueue(() -> {
+                        buffer.setParentScope(getParentScope());
+                        buffer.setPrototype(ScriptableObject.getClassPrototype(getWindow(), buffer.getClassName()));
+
+                        final MessageEvent msgEvent = new MessageEvent(buffer);
+                        msgEvent.setParentScope(window);
+                        msgEvent.setPrototype(getPrototype(msgEvent.getClass()));
+                        if (originSet_) {
+                            msgEvent.setOrigin(getUrl());
+                        }
+                        msgEvent.setSrcElement(WebSocket.this);
+                        fire(msgEvent);
+                        callFunction(messageHandler_, new Object[] {msgEvent});
+                    }, true);
                 }
 
                 @Override
@@ -185,23 +226,25 @@ public class WebSocket extends EventTarget implements AutoCloseable {
 
                 @Override
                 public void onWebSocketError(final Throwable cause) {
-                    setReadyState(CLOSED);
-
-                    final Event errorEvent = new Event(Event.TYPE_ERROR);
-                    errorEvent.setParentScope(window);
-                    errorEvent.setPrototype(getPrototype(errorEvent.getClass()));
-                    errorEvent.setSrcElement(WebSocket.this);
-                    fire(errorEvent);
-                    callFunction(errorHandler_, new Object[] {errorEvent});
-
-                    final CloseEvent closeEvent = new CloseEvent();
-                    closeEvent.setParentScope(window);
-                    closeEvent.setPrototype(getPrototype(closeEvent.getClass()));
-                    closeEvent.setCode(1006);
-                    closeEvent.setReason(cause.getMessage());
-                    closeEvent.setWasClean(false);
-                    fire(closeEvent);
-                    callFunction(closeHandler_, new Object[] {closeEvent});
+                    enqueue(() -> {
+                        setReadyState(CLOSED);
+
+                        final Event errorEvent = new Event(Event.TYPE_ERROR);
+                        errorEvent.setParentScope(window);
+                        errorEvent.setPrototype(getPrototype(errorEvent.getClass()));
+                        errorEvent.setSrcElement(WebSocket.this);
+                        fire(errorEvent);
+                        callFunction(errorHandler_, new Object[] {errorEvent});
+
+                        final CloseEvent closeEvent = new CloseEvent();
+                        closeEvent.setParentScope(window);
+                        closeEvent.setPrototype(getPrototype(closeEvent.getClass()));
+                        closeEvent.setCode(1006);
+                        closeEvent.setReason(cause.getMessage());
+                        closeEvent.setWasClean(false);
+                        fire(closeEvent);
+                        callFunction(closeHandler_, new Object[] {closeEvent});
+                    }, false);
                 }
             };
 
@@ -462,6 +505,118 @@ public class WebSocket extends EventTarget implements AutoCloseable {
         }
     }
 
+    /**
+     * Reserves a place in the queue for a received message.
+     * @return {@code false} if the queue is full and the message has to be dropped
+     */
+    boolean reserveMessageSlot() {
+        final int queued = queuedMessages_.incrementAndGet();
+        if (maxQueuedMessages_ >= 0 && queued > maxQueuedMessages_) {
+            queuedMessages_.decrementAndGet();
+            droppedMessages_.incrementAndGet();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("WS message dropped; " + maxQueuedMessages_ + " messages are waiting for delivery");
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds the event to the queue and schedules a job for the delivery.
+     * @param delivery the dispatching of the event
+     * @param isMessage whether this is a message (with a reserved slot) or a state change
+     */
+    void enqueue(final Runnable delivery, final boolean isMessage) {
+        pendingEvents_.add(new PendingEvent(delivery, isMessage));
+        pendingEventCount_.incrementAndGet();
+
+        if (coalesceMessages_) {
+            if (drainScheduled_.compareAndSet(false, true)) {
+                scheduleJob(this::drainPendingEvents);
+            }
+            // else the scheduled job will deliver this event also
+            return;
+        }
+
+        // the jobs are delivering the events in the order of the queue
+        scheduleJob(() -> {
+            final PendingEvent event = pendingEvents_.poll();
+            if (event != null) {
+                deliver(event);
+            }
+        });
+    }
+
+    /**
+     * Delivers the events queued when the job started; a new job is scheduled
+     * for the events arriving in the meantime. This way a steady stream of messages
+     * does not block the other jobs of the window.
+     */
+    private void drainPendingEvents() {
+        try {
+            int remaining = pendingEventCount_.get();
+            while (remaining > 0) {
+                final PendingEvent event = pendingEvents_.poll();
+                if (event == null) {
+                    break;
+                }
+                deliver(event);
+                remaining--;
+            }
+        }
+        finally {
+            drainScheduled_.set(false);
+            if (!pendingEvents_.isEmpty() && drainScheduled_.compareAndSet(false, true)) {
+                scheduleJob(this::drainPendingEvents);
+            }
+        }
+    }
+
+    private void scheduleJob(final Runnable job) {
+        final WebWindow webWindow = containingPage_.getEnclosingWindow();
+        webWindow.getJobManager().addJob(
+                BackgroundJavaScriptFactory.theFactory().createJavaScriptJob(0, null, job), containingPage_);
+    }
+
+    private void deliver(final PendingEvent event) {
+        pendingEventCount_.decrementAndGet();
+        if (!event.isMessage_) {
+            event.delivery_.run();
+            return;
+        }
+
+        queuedMessages_.decrementAndGet();
+        try {
+            event.delivery_.run();
+        }
+        finally {
+            deliveredMessages_.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of received messages waiting for the delivery to the page
+     */
+    public int getQueuedMessageCount() {
+        return queuedMessages_.get();
+    }
+
+    /**
+     * @return the number of received messages dropped because too many messages were waiting
+     * @see org.htmlunit.WebClientOptions#setWebSocketMaxQueuedMessages(int)
+     */
+    public long getDroppedMessageCount() {
+        return droppedMessages_.get();
+    }
+
+    /**
+     * @return the number of received messages delivered to the page
+     */
+    public long getDeliveredMessageCount() {
+        return deliveredMessages_.get();
+    }
+
     void fire(final Event evt) {
         evt.setTarget(this);
         evt.setParentScope(getParentScope());
@@ -482,4 +637,14 @@ public class WebSocket extends EventTarget implements AutoCloseable {
         final JavaScriptEngine engine = (JavaScriptEngine) containingPage_.getWebClient().getJavaScriptEngine();
         engine.callFunction(containingPage_, function, scope, this, args);
     }
+
+    private static final class PendingEvent {
+        private final Runnable delivery_;
+        private final boolean isMessage_;
+
+        PendingEvent(final Runnable delivery, final boolean isMessage) {
+            delivery_ = delivery;
+            isMessage_ = isMessage;
+        }
+    }
 }
@@ -113,6 +113,7 @@ import org.htmlunit.javascript.host.html.DocumentProxy;
 import org.htmlunit.javascript.host.html.HTMLCollection;
 import org.htmlunit.javascript.host.html.HTMLDocument;
 import org.htmlunit.javascript.host.html.HTMLElement;
+import org.htmlunit.javascript.host.idb.IDBFactory;
 import org.htmlunit.javascript.host.performance.Performance;
 import org.htmlunit.javascript.host.speech.SpeechSynthesis;
 import org.htmlunit.javascript.host.xml.XMLDocument;
@@ -200,6 +201,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Au
     private Location location_;
     private Selection selection_;
     private Event currentEvent_;
+    private int scriptErrorCount_;
     private String status_ = "";
     private Map<Class<? extends Scriptable>, Scriptable> prototypes_ = new HashMap<>();
     private Object controllers_;
@@ -209,6 +211,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Au
     private Scriptable performance_;
 
     private final EnumMap<Type, Storage> storages_ = new EnumMap<>(Type.class);
+    private IDBFactory indexedDB_;
 
     private transient List<AnimationFrame> animationFrames_ = new ArrayList<>();
 
@@ -605,6 +608,18 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Au
         return getStorage(Type.SESSION_STORAGE);
     }
 
+    /**
+     * Returns the {@code indexedDB} property.
+     * @return the {@code indexedDB} property
+     */
+    @JsxGetter
+    public IDBFactory getIndexedDB() {
+        if (indexedDB_ == null) {
+            indexedDB_ = new IDBFactory(this);
+        }
+        return indexedDB_;
+    }
+
     /**
      * Gets the storage of the specified type.
      * @param storageType the type
@@ -1416,6 +1431,7 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Au
      * @param e the error that needs to be reported
      */
     public void triggerOnError(final ScriptException e) {
+        scriptErrorCount_++;
         final Function f = getOnerror();
         if (f != null) {
             String msg = e.getMessage();
@@ -1445,6 +1461,18 @@ public class Window extends EventTarget implements WindowOrWorkerGlobalScope, Au
         }
     }
 
+    /**
+     * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+     *
+     * Returns the number of script errors reported by {@link #triggerOnError(ScriptException)} so far.
+     * Allows to detect an exception thrown by an event handler even if the exception is not rethrown
+     * (see {@link org.htmlunit.WebClientOptions#setThrowExceptionOnScriptError(boolean)}).
+     * @return the number of script errors
+     */
+    public int getScriptErrorCount() {
+        return scriptErrorCount_;
+    }
+
     private void setHandlerForJavaScript(final String eventName, final Object handler) {
         getEventListenersContainer().setEventHandler(eventName, handler);
     }
@@ -185,6 +185,12 @@ public class CSSGroupingRule extends CSSRule {
             }
             pos++;
         }
+
+        // reset the index of the sheet and the styles of the page also
+        final CSSStyleSheet parentStyleSheet = getParentStyleSheet();
+        if (parentStyleSheet != null) {
+            parentStyleSheet.getCssStyleSheet().rulesChanged();
+        }
     }
 
     /**
@@ -171,7 +171,7 @@ public class CSSStyleSheet extends StyleSheet {
     public int insertRule(final String rule, final int position) {
         try {
             initCssRules();
-            getCssStyleSheet().getWrappedSheet().insertRule(rule, fixIndex(position));
+            getCssStyleSheet().getModifiableWrappedSheet().insertRule(rule, fixIndex(position));
             refreshCssRules();
             return position;
         }
@@ -181,7 +181,7 @@ public class CSSStyleSheet extends StyleSheet {
             if (pos > -1) {
                 final String newRule = rule.substring(0, pos) + "{}";
                 try {
-                    getCssStyleSheet().getWrappedSheet().insertRule(newRule, fixIndex(position));
+                    getCssStyleSheet().getModifiableWrappedSheet().insertRule(newRule, fixIndex(position));
                     refreshCssRules();
                     return position;
                 }
@@ -201,7 +201,7 @@ public class CSSStyleSheet extends StyleSheet {
         cssRules_.clearRules();
         cssRulesIndexFix_.clear();
 
-        final CSSRuleListImpl ruleList = getCssStyleSheet().getWrappedSheet().getCssRules();
+        final CSSRuleListImpl ruleList = getCssStyleSheet().getModifiableWrappedSheet().getCssRules();
         final List<AbstractCSSRuleImpl> rules = ruleList.getRules();
         int pos = 0;
         for (final AbstractCSSRuleImpl rule : rules) {
@@ -220,8 +220,8 @@ public class CSSStyleSheet extends StyleSheet {
             pos++;
         }
 
-        // reset our index also
-        getCssStyleSheet().getWrappedSheet().resetRuleIndex();
+        // reset our index and the styles of the page also
+        getCssStyleSheet().rulesChanged();
     }
 
     private int fixIndex(int index) {
@@ -243,7 +243,7 @@ public class CSSStyleSheet extends StyleSheet {
     public void deleteRule(final int position) {
         try {
             initCssRules();
-            getCssStyleSheet().getWrappedSheet().deleteRule(fixIndex(position));
+            getCssStyleSheet().getModifiableWrappedSheet().deleteRule(fixIndex(position));
             refreshCssRules();
         }
         catch (final DOMException e) {
@@ -263,16 +263,16 @@ public class CSSStyleSheet extends StyleSheet {
         String completeRule = selector + " {" + rule + "}";
         try {
             initCssRules();
-            getCssStyleSheet().getWrappedSheet().insertRule(completeRule,
-                    getCssStyleSheet().getWrappedSheet().getCssRules().getLength());
+            getCssStyleSheet().getModifiableWrappedSheet().insertRule(completeRule,
+                    getCssStyleSheet().getModifiableWrappedSheet().getCssRules().getLength());
             refreshCssRules();
         }
         catch (final DOMException e) {
             // in case of error try with an empty rule
             completeRule = selector + " {}";
             try {
-                getCssStyleSheet().getWrappedSheet().insertRule(completeRule,
-                        getCssStyleSheet().getWrappedSheet().getCssRules().getLength());
+                getCssStyleSheet().getModifiableWrappedSheet().insertRule(completeRule,
+                        getCssStyleSheet().getModifiableWrappedSheet().getCssRules().getLength());
                 refreshCssRules();
             }
             catch (final DOMException ex) {
@@ -291,7 +291,7 @@ public class CSSStyleSheet extends StyleSheet {
     public void removeRule(final int position) {
         try {
             initCssRules();
-            getCssStyleSheet().getWrappedSheet().deleteRule(fixIndex(position));
+            getCssStyleSheet().getModifiableWrappedSheet().deleteRule(fixIndex(position));
             refreshCssRules();
         }
         catch (final DOMException e) {
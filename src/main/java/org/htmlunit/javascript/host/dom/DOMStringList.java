@@ -14,9 +14,15 @@
  */
 package org.htmlunit.javascript.host.dom;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.htmlunit.corejs.javascript.Scriptable;
 import org.htmlunit.javascript.HtmlUnitScriptable;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.configuration.JsxGetter;
 
 /**
  * A JavaScript object for {@code DOMStringList}.
@@ -27,6 +33,28 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class DOMStringList extends HtmlUnitScriptable {
 
+    private final List<String> strings_;
+
+    /**
+     * Creates an instance.
+     */
+    public DOMStringList() {
+        super();
+        strings_ = Collections.emptyList();
+    }
+
+    /**
+     * Creates a new instance.
+     * @param scope the parent scope
+     * @param strings the strings
+     */
+    public DOMStringList(final HtmlUnitScriptable scope, final List<String> strings) {
+        super();
+        strings_ = strings;
+        setParentScope(scope.getWindow());
+        setPrototype(scope.getPrototype(DOMStringList.class));
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +62,47 @@ public class DOMStringList extends HtmlUnitScriptable {
     public void jsConstructor() {
         // nothing to do
     }
+
+    /**
+     * Returns the {@code length} property.
+     * @return the {@code length} property
+     */
+    @JsxGetter
+    public int getLength() {
+        return strings_.size();
+    }
+
+    /**
+     * @param index the index
+     * @return the string at the index or {@code null}
+     */
+    @JsxFunction
+    public String item(final int index) {
+        if (index >= 0 && index < strings_.size()) {
+            return strings_.get(index);
+        }
+        return null;
+    }
+
+    /**
+     * @param string the string
+     * @return whether the list contains the string
+     */
+    @JsxFunction
+    public boolean contains(final String string) {
+        return strings_.contains(string);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object get(final int index, final Scriptable start) {
+        if (this == start) {
+            if (index >= 0 && index < strings_.size()) {
+                return strings_.get(index);
+            }
+        }
+        return super.get(index, start);
+    }
 }
@@ -17,12 +17,21 @@ package org.htmlunit.javascript.host.dom;
 import static org.htmlunit.javascript.configuration.SupportedBrowser.CHROME;
 import static org.htmlunit.javascript.configuration.SupportedBrowser.EDGE;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.htmlunit.corejs.javascript.Function;
 import org.htmlunit.corejs.javascript.NativeArray;
 import org.htmlunit.corejs.javascript.NativeObject;
 import org.htmlunit.corejs.javascript.Scriptable;
 import org.htmlunit.html.CharacterDataChangeEvent;
 import org.htmlunit.html.CharacterDataChangeListener;
+import org.htmlunit.html.DomChangeEvent;
+import org.htmlunit.html.DomChangeListener;
+import org.htmlunit.html.DomNode;
 import org.htmlunit.html.HtmlAttributeChangeEvent;
 import org.htmlunit.html.HtmlAttributeChangeListener;
 import org.htmlunit.html.HtmlElement;
@@ -38,6 +47,11 @@ import org.htmlunit.javascript.host.Window;
 
 /**
  * A JavaScript object for {@code MutationObserver}.
+ * <p>
+ * The records are collected in the record queue of the observer; the callback is
+ * called only once for all the records collected while the current script was running
+ * (or until {@link #takeRecords()} empties the queue).
+ * </p>
  *
  * @author Ahmed Ashour
  * @author Ronald Brill
@@ -45,17 +59,21 @@ import org.htmlunit.javascript.host.Window;
  */
 @JsxClass
 public class MutationObserver extends HtmlUnitScriptable implements HtmlAttributeChangeListener,
-        CharacterDataChangeListener {
+        CharacterDataChangeListener, DomChangeListener {
 
     private Function function_;
     private Node node_;
     private boolean attaributes_;
     private boolean attributeOldValue_;
-    private NativeArray attributeFilter_;
+    private Set<String> attributeFilter_;
+    private boolean childList_;
     private boolean characterData_;
     private boolean characterDataOldValue_;
     private boolean subtree_;
 
+    private final List<MutationRecord> records_ = new ArrayList<>();
+    private boolean deliveryScheduled_;
+
     /**
      * Creates an instance.
      * @param function the function to observe
@@ -80,25 +98,54 @@ public class MutationObserver extends HtmlUnitScriptable implements HtmlAttribut
             throw JavaScriptEngine.typeError("Options is undefined");
         }
 
+        final Object attributeFilter = options.get("attributeFilter");
+        final boolean hasAttributeOldValue = options.has("attributeOldValue", options);
+        final boolean hasCharacterDataOldValue = options.has("characterDataOldValue", options);
+
+        boolean attributes = Boolean.TRUE.equals(options.get("attributes"));
+        if (!options.has("attributes", options) && (hasAttributeOldValue || attributeFilter instanceof NativeArray)) {
+            attributes = true;
+        }
+        boolean characterData = Boolean.TRUE.equals(options.get("characterData"));
+        if (!options.has("characterData", options) && hasCharacterDataOldValue) {
+            characterData = true;
+        }
+        final boolean childList = Boolean.TRUE.equals(options.get("childList"));
+
+        if (!attributes && !childList && !characterData) {
+            throw JavaScriptEngine.typeError("One of childList, attributes, od characterData must be set");
+        }
+
+        if (node_ != null) {
+            removeListeners();
+        }
+
         node_ = node;
-        attaributes_ = Boolean.TRUE.equals(options.get("attributes"));
+        attaributes_ = attributes;
         attributeOldValue_ = Boolean.TRUE.equals(options.get("attributeOldValue"));
-        characterData_ = Boolean.TRUE.equals(options.get("characterData"));
+        characterData_ = characterData;
         characterDataOldValue_ = Boolean.TRUE.equals(options.get("characterDataOldValue"));
+        childList_ = childList;
         subtree_ = Boolean.TRUE.equals(options.get("subtree"));
-        attributeFilter_ = (NativeArray) options.get("attributeFilter");
 
-        final boolean childList = Boolean.TRUE.equals(options.get("childList"));
-
-        if (!attaributes_ && !childList && !characterData_) {
-            throw JavaScriptEngine.typeError("One of childList, attributes, od characterData must be set");
+        attributeFilter_ = null;
+        if (attributeFilter instanceof NativeArray) {
+            final NativeArray filter = (NativeArray) attributeFilter;
+            attributeFilter_ = new HashSet<>();
+            for (final Object name : filter) {
+                attributeFilter_.add(JavaScriptEngine.toString(name));
+            }
         }
 
-        if (attaributes_ && node_.getDomNodeOrDie() instanceof HtmlElement) {
-            ((HtmlElement) node_.getDomNodeOrDie()).addHtmlAttributeChangeListener(this);
+        final DomNode domNode = node_.getDomNodeOrDie();
+        if (attaributes_ && domNode instanceof HtmlElement) {
+            ((HtmlElement) domNode).addHtmlAttributeChangeListener(this);
         }
         if (characterData_) {
-            node.getDomNodeOrDie().addCharacterDataChangeListener(this);
+            domNode.addCharacterDataChangeListener(this);
+        }
+        if (childList_) {
+            domNode.addDomChangeListener(this);
         }
     }
 
@@ -107,11 +154,22 @@ public class MutationObserver extends HtmlUnitScriptable implements HtmlAttribut
      */
     @JsxFunction
     public void disconnect() {
-        if (attaributes_ && node_.getDomNodeOrDie() instanceof HtmlElement) {
-            ((HtmlElement) node_.getDomNodeOrDie()).removeHtmlAttributeChangeListener(this);
+        if (node_ != null) {
+            removeListeners();
+        }
+        records_.clear();
+    }
+
+    private void removeListeners() {
+        final DomNode domNode = node_.getDomNodeOrDie();
+        if (attaributes_ && domNode instanceof HtmlElement) {
+            ((HtmlElement) domNode).removeHtmlAttributeChangeListener(this);
         }
         if (characterData_) {
-            node_.getDomNodeOrDie().removeCharacterDataChangeListener(this);
+            domNode.removeCharacterDataChangeListener(this);
+        }
+        if (childList_) {
+            domNode.removeDomChangeListener(this);
         }
     }
 
@@ -121,7 +179,13 @@ public class MutationObserver extends HtmlUnitScriptable implements HtmlAttribut
      */
     @JsxFunction
     public Scriptable takeRecords() {
-        return JavaScriptEngine.newArray(getParentScope(), 0);
+        return JavaScriptEngine.newArray(getParentScope(), takeQueuedRecords());
+    }
+
+    private Object[] takeQueuedRecords() {
+        final Object[] records = records_.toArray();
+        records_.clear();
+        return records;
     }
 
     /**
@@ -131,29 +195,61 @@ public class MutationObserver extends HtmlUnitScriptable implements HtmlAttribut
     public void characterDataChanged(final CharacterDataChangeEvent event) {
         final HtmlUnitScriptable target = event.getCharacterData().getScriptableObject();
         if (subtree_ || target == node_) {
-            final MutationRecord mutationRecord = new MutationRecord();
-            final Scriptable scope = getParentScope();
-            mutationRecord.setParentScope(scope);
-            mutationRecord.setPrototype(getPrototype(mutationRecord.getClass()));
-
-            mutationRecord.setType("characterData");
-            mutationRecord.setTarget(target);
+            final MutationRecord mutationRecord = newRecord("characterData", target);
             if (characterDataOldValue_) {
                 mutationRecord.setOldValue(event.getOldValue());
             }
+            enqueue(mutationRecord);
+        }
+    }
 
-            final Window window = getWindow();
-            final HtmlPage owningPage = (HtmlPage) window.getDocument().getPage();
-            final JavaScriptEngine jsEngine =
-                    (JavaScriptEngine) window.getWebWindow().getWebClient().getJavaScriptEngine();
-            jsEngine.addPostponedAction(new PostponedAction(owningPage, "MutationObserver.characterDataChanged") {
-                @Override
-                public void execute() {
-                    final Scriptable array = JavaScriptEngine.newArray(scope, new Object[] {mutationRecord});
-                    jsEngine.callFunction(owningPage, function_, scope, MutationObserver.this, new Object[] {array});
-                }
-            });
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void nodeAdded(final DomChangeEvent event) {
+        childListChanged(event, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void nodeDeleted(final DomChangeEvent event) {
+        childListChanged(event, false);
+    }
+
+    private void childListChanged(final DomChangeEvent event, final boolean added) {
+        final DomNode parent = event.getParentNode();
+        final DomNode observed = node_.getDomNodeOrDie();
+        if (parent != observed && !(subtree_ && observed.isAncestorOf(parent))) {
+            return;
+        }
+
+        final HtmlUnitScriptable target = parent.getScriptableObject();
+        final MutationRecord mutationRecord = newRecord("childList", target);
+
+        // static lists; live lists would register listeners for every record
+        final NodeList nodes = NodeList.staticNodeList(target, Collections.singletonList(event.getChangedNode()));
+        final NodeList empty = NodeList.staticNodeList(target, Collections.emptyList());
+        if (added) {
+            mutationRecord.setAddedNodes(nodes);
+            mutationRecord.setRemovedNodes(empty);
+        }
+        else {
+            mutationRecord.setAddedNodes(empty);
+            mutationRecord.setRemovedNodes(nodes);
+        }
+
+        final DomNode previousSibling = event.getPreviousSibling();
+        if (previousSibling != null) {
+            mutationRecord.setPreviousSibling(previousSibling.getScriptableObject());
+        }
+        final DomNode nextSibling = event.getNextSibling();
+        if (nextSibling != null) {
+            mutationRecord.setNextSibling(nextSibling.getScriptableObject());
         }
+        enqueue(mutationRecord);
     }
 
     /**
@@ -161,7 +257,7 @@ public class MutationObserver extends HtmlUnitScriptable implements HtmlAttribut
      */
     @Override
     public void attributeAdded(final HtmlAttributeChangeEvent event) {
-        attributeChanged(event, "MutationObserver.attributeAdded", false);
+        attributeChanged(event, false);
     }
 
     /**
@@ -169,7 +265,7 @@ public class MutationObserver extends HtmlUnitScriptable implements HtmlAttribut
      */
     @Override
     public void attributeRemoved(final HtmlAttributeChangeEvent event) {
-        attributeChanged(event, "MutationObserver.attributeRemoved", true);
+        attributeChanged(event, true);
     }
 
     /**
@@ -177,40 +273,62 @@ public class MutationObserver extends HtmlUnitScriptable implements HtmlAttribut
      */
     @Override
     public void attributeReplaced(final HtmlAttributeChangeEvent event) {
-        attributeChanged(event, "MutationObserver.attributeReplaced", true);
+        attributeChanged(event, true);
     }
 
-    private void attributeChanged(final HtmlAttributeChangeEvent event, final String actionTitle,
-                        final boolean includeOldValue) {
+    private void attributeChanged(final HtmlAttributeChangeEvent event, final boolean includeOldValue) {
         final HtmlElement target = event.getHtmlElement();
         if (subtree_ || target == node_.getDomNodeOrDie()) {
             final String attributeName = event.getName();
             if (attributeFilter_ == null || attributeFilter_.contains(attributeName)) {
-                final MutationRecord mutationRecord = new MutationRecord();
-                final Scriptable scope = getParentScope();
-                mutationRecord.setParentScope(scope);
-                mutationRecord.setPrototype(getPrototype(mutationRecord.getClass()));
-
+                final MutationRecord mutationRecord = newRecord("attributes", target.getScriptableObject());
                 mutationRecord.setAttributeName(attributeName);
-                mutationRecord.setType("attributes");
-                mutationRecord.setTarget(target.getScriptableObject());
                 if (includeOldValue && attributeOldValue_) {
                     mutationRecord.setOldValue(event.getValue());
                 }
-
-                final Window window = getWindow();
-                final HtmlPage owningPage = (HtmlPage) window.getDocument().getPage();
-                final JavaScriptEngine jsEngine =
-                        (JavaScriptEngine) window.getWebWindow().getWebClient().getJavaScriptEngine();
-                jsEngine.addPostponedAction(new PostponedAction(owningPage, actionTitle) {
-                    @Override
-                    public void execute() {
-                        final Scriptable array = JavaScriptEngine.newArray(scope, new Object[] {mutationRecord});
-                        jsEngine.callFunction(owningPage, function_,
-                                scope, MutationObserver.this, new Object[] {array});
-                    }
-                });
+                enqueue(mutationRecord);
             }
         }
     }
+
+    private MutationRecord newRecord(final String type, final HtmlUnitScriptable target) {
+        final MutationRecord mutationRecord = new MutationRecord();
+        mutationRecord.setParentScope(getParentScope());
+        mutationRecord.setPrototype(getPrototype(mutationRecord.getClass()));
+        mutationRecord.setType(type);
+        mutationRecord.setTarget(target);
+        return mutationRecord;
+    }
+
+    /**
+     * Adds the record to the record queue; the delivery of all queued records is
+     * scheduled together with the first one.
+     * @param mutationRecord the record
+     */
+    private void enqueue(final MutationRecord mutationRecord) {
+        records_.add(mutationRecord);
+        if (deliveryScheduled_) {
+            return;
+        }
+        deliveryScheduled_ = true;
+
+        final Window window = getWindow();
+        final HtmlPage owningPage = (HtmlPage) window.getDocument().getPage();
+        final JavaScriptEngine jsEngine =
+                (JavaScriptEngine) window.getWebWindow().getWebClient().getJavaScriptEngine();
+        jsEngine.addPostponedAction(new PostponedAction(owningPage, "MutationObserver.deliver") {
+            @Override
+            public void execute() {
+                deliveryScheduled_ = false;
+                if (records_.isEmpty()) {
+                    return;
+                }
+
+                final Scriptable scope = getParentScope();
+                final Scriptable array = JavaScriptEngine.newArray(scope, takeQueuedRecords());
+                jsEngine.callFunction(owningPage, function_, scope, MutationObserver.this,
+                        new Object[] {array, MutationObserver.this});
+            }
+        });
+    }
 }
@@ -25,11 +25,14 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.htmlunit.ScriptResult;
+import org.htmlunit.SgmlPage;
+import org.htmlunit.WebWindow;
 import org.htmlunit.corejs.javascript.Function;
 import org.htmlunit.corejs.javascript.NativeObject;
 import org.htmlunit.corejs.javascript.Scriptable;
 import org.htmlunit.corejs.javascript.ScriptableObject;
 import org.htmlunit.html.DomNode;
+import org.htmlunit.html.EventListenerCounter;
 import org.htmlunit.html.HtmlPage;
 import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.host.Window;
@@ -227,9 +230,34 @@ public class EventListenersContainer implements Serializable {
             }
             return false;
         }
+
+        final EventListenerCounter counter = getEventListenerCounter();
+        if (counter != null) {
+            counter.increment(type);
+        }
         return true;
     }
 
+    /**
+     * @return the listener count of the page of our node or {@code null} if there is no page
+     */
+    private EventListenerCounter getEventListenerCounter() {
+        final DomNode node = jsNode_.getDomNodeOrNull();
+        if (node != null) {
+            final SgmlPage page = node.getPage();
+            return page == null ? null : page.getEventListenerCounter();
+        }
+
+        // the window of a non html page has no dom node
+        if (jsNode_ instanceof Window) {
+            final WebWindow webWindow = ((Window) jsNode_).getWebWindow();
+            if (webWindow != null && webWindow.getEnclosedPage() instanceof SgmlPage) {
+                return ((SgmlPage) webWindow.getEnclosedPage()).getEventListenerCounter();
+            }
+        }
+        return null;
+    }
+
     private TypeContainer getTypeContainer(final String type) {
         final String typeLC = type.toLowerCase(Locale.ROOT);
         return typeContainers_.getOrDefault(typeLC, TypeContainer.EMPTY);
@@ -258,8 +286,19 @@ public class EventListenersContainer implements Serializable {
             return;
         }
 
-        typeContainers_.computeIfPresent(eventType.toLowerCase(Locale.ROOT),
-            (k, container) -> container.removeListener(listener, useCapture));
+        final boolean[] removed = {false};
+        typeContainers_.computeIfPresent(eventType.toLowerCase(Locale.ROOT), (k, container) -> {
+            final TypeContainer newContainer = container.removeListener(listener, useCapture);
+            removed[0] = newContainer != container;
+            return newContainer;
+        });
+
+        if (removed[0]) {
+            final EventListenerCounter counter = getEventListenerCounter();
+            if (counter != null) {
+                counter.decrement(eventType);
+            }
+        }
     }
 
     /**
@@ -278,12 +317,26 @@ public class EventListenersContainer implements Serializable {
             handler = (Function) value;
         }
 
+        final boolean[] hadHandler = {false};
         typeContainers_.compute(eventType.toLowerCase(Locale.ROOT), (k, container) -> {
             if (container == null) {
                 container = TypeContainer.EMPTY;
             }
+            hadHandler[0] = container.handler_ != null;
             return container.setPropertyHandler(handler);
         });
+
+        if (hadHandler[0] != (handler != null)) {
+            final EventListenerCounter counter = getEventListenerCounter();
+            if (counter != null) {
+                if (handler == null) {
+                    counter.decrement(eventType);
+                }
+                else {
+                    counter.increment(eventType);
+                }
+            }
+        }
     }
 
     private void executeEventListeners(final int eventPhase, final Event event, final Object[] args) {
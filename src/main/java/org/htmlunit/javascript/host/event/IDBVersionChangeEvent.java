@@ -16,6 +16,7 @@ package org.htmlunit.javascript.host.event;
 
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxGetter;
 
 /**
  * A JavaScript object for {@code IDBVersionChangeEvent}.
@@ -26,6 +27,32 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBVersionChangeEvent extends Event {
 
+    private long oldVersion_;
+    private Long newVersion_;
+
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBVersionChangeEvent() {
+        super();
+    }
+
+    /**
+     * Creates a new event instance.
+     * @param target the event target
+     * @param type the event type
+     * @param oldVersion the old version of the database
+     * @param newVersion the new version of the database; {@code null} if the database is deleted
+     */
+    public IDBVersionChangeEvent(final EventTarget target, final String type,
+            final long oldVersion, final Long newVersion) {
+        super(target, type);
+        setBubbles(false);
+        setCancelable(false);
+        oldVersion_ = oldVersion;
+        newVersion_ = newVersion;
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -33,4 +60,20 @@ public class IDBVersionChangeEvent extends Event {
     public void jsConstructor() {
         // nothing to do
     }
+
+    /**
+     * @return the old version of the database
+     */
+    @JsxGetter
+    public long getOldVersion() {
+        return oldVersion_;
+    }
+
+    /**
+     * @return the new version of the database; {@code null} if the database is deleted
+     */
+    @JsxGetter
+    public Long getNewVersion() {
+        return newVersion_;
+    }
 }
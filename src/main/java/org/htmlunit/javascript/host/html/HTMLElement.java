@@ -36,6 +36,7 @@ import org.htmlunit.SgmlPage;
 import org.htmlunit.corejs.javascript.Function;
 import org.htmlunit.corejs.javascript.ScriptableObject;
 import org.htmlunit.css.ComputedCssStyleDeclaration;
+import org.htmlunit.css.LayoutCache.Metric;
 import org.htmlunit.html.DomElement;
 import org.htmlunit.html.DomNode;
 import org.htmlunit.html.DomText;
@@ -547,8 +548,11 @@ public class HTMLElement extends Element {
             // compute appropriate offset height to pretend mouse event was produced within this element
             return event.getClientY() - getPosY() + 50;
         }
-        final ComputedCssStyleDeclaration style = getWindow().getWebWindow().getComputedStyle(getDomNodeOrDie(), null);
-        return style.getCalculatedHeight(true, true);
+        final HtmlElement htmlElement = getDomNodeOrDie();
+        return htmlElement.getLayoutValue(Metric.OFFSET_HEIGHT, () -> {
+            final ComputedCssStyleDeclaration style = getWindow().getWebWindow().getComputedStyle(htmlElement, null);
+            return style.getCalculatedHeight(true, true);
+        });
     }
 
     /**
@@ -570,8 +574,11 @@ public class HTMLElement extends Element {
             // compute appropriate offset width to pretend mouse event was produced within this element
             return event.getClientX() - getPosX() + 50;
         }
-        final ComputedCssStyleDeclaration style = getWindow().getWebWindow().getComputedStyle(getDomNodeOrDie(), null);
-        return style.getCalculatedWidth(true, true);
+        final HtmlElement htmlElement = getDomNodeOrDie();
+        return htmlElement.getLayoutValue(Metric.OFFSET_WIDTH, () -> {
+            final ComputedCssStyleDeclaration style = getWindow().getWebWindow().getComputedStyle(htmlElement, null);
+            return style.getCalculatedWidth(true, true);
+        });
     }
 
     /**
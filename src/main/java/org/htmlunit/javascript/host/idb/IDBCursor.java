@@ -14,12 +14,30 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import java.util.Arrays;
+import java.util.List;
+
+import org.htmlunit.corejs.javascript.Context;
 import org.htmlunit.javascript.HtmlUnitScriptable;
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.javascript.host.dom.DOMException;
+import org.htmlunit.storage.IndexedDbException;
+import org.htmlunit.storage.IndexedDbKeyRange;
+import org.htmlunit.storage.IndexedDbKeys;
+import org.htmlunit.storage.IndexedDbObjectStore;
+import org.htmlunit.storage.IndexedDbRecord;
 
 /**
  * A JavaScript object for {@code IDBCursor}.
+ * <p>
+ * The cursor does not hold an iterator; every step searches the next record relative
+ * to the current position (O(log n)). Therefore the cursor works on the current state
+ * of the store, also if records are added or removed during the iteration.
+ * </p>
  *
  * @author Ahmed Ashour
  * @author Ronald Brill
@@ -27,6 +45,19 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBCursor extends HtmlUnitScriptable {
 
+    private static final List<String> DIRECTIONS = Arrays.asList("next", "nextunique", "prev", "prevunique");
+
+    private IDBObjectStore objectStore_;
+    private IDBIndex index_;
+    private IndexedDbKeyRange range_;
+    private String direction_;
+    private boolean withValue_;
+    private IDBRequest request_;
+    private IndexedDbRecord record_;
+    private boolean gotValue_;
+    private Object key_;
+    private Object primaryKey_;
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +65,271 @@ public class IDBCursor extends HtmlUnitScriptable {
     public void jsConstructor() {
         // nothing to do
     }
+
+    /**
+     * Opens a new cursor.
+     * @param objectStore the object store
+     * @param index the index or {@code null} for a cursor on the object store
+     * @param range the range
+     * @param direction the JavaScript direction argument
+     * @param withValue whether to open an {@link IDBCursorWithValue}
+     * @return the request
+     */
+    static IDBRequest open(final IDBObjectStore objectStore, final IDBIndex index, final IndexedDbKeyRange range,
+            final Object direction, final boolean withValue) {
+        final IDBTransaction transaction = objectStore.getTransaction();
+        transaction.checkActive();
+
+        final String directionString = JavaScriptEngine.isUndefined(direction)
+                ? DIRECTIONS.get(0) : JavaScriptEngine.toString(direction);
+        if (!DIRECTIONS.contains(directionString)) {
+            throw JavaScriptEngine.typeError(
+                    "The direction provided ('" + directionString + "') is not a valid enum value.");
+        }
+
+        final IDBCursor cursor = withValue ? new IDBCursorWithValue() : new IDBCursor();
+        cursor.setParentScope(objectStore.getParentScope());
+        cursor.setPrototype(objectStore.getPrototype(cursor.getClass()));
+        cursor.objectStore_ = objectStore;
+        cursor.index_ = index;
+        cursor.range_ = range;
+        cursor.direction_ = directionString;
+        cursor.withValue_ = withValue;
+
+        final Object source = index == null ? objectStore : index;
+        cursor.request_ = transaction.addRequest(source, cx -> cursor.iterate(null, null, 1));
+        return cursor.request_;
+    }
+
+    private Object iterate(final Object key, final Object primaryKey, final long count) {
+        final boolean reverse = isReverse();
+        final boolean unique = direction_.endsWith("unique");
+
+        IndexedDbRecord record = record_;
+        if (key != null) {
+            if (index_ == null) {
+                record = objectStore_.getStore().find(range_, key, true, reverse);
+            }
+            else {
+                record = index_.getIndex().find(range_, key, primaryKey, true, reverse, unique);
+            }
+        }
+        else {
+            for (long i = 0; i < count; i++) {
+                record = next(record, reverse, unique);
+                if (record == null) {
+                    break;
+                }
+            }
+        }
+
+        record_ = record;
+        gotValue_ = record != null;
+        key_ = null;
+        primaryKey_ = null;
+        valueChanged();
+        return gotValue_ ? this : null;
+    }
+
+    private IndexedDbRecord next(final IndexedDbRecord current, final boolean reverse, final boolean unique) {
+        if (index_ == null) {
+            return objectStore_.getStore().find(range_, current == null ? null : current.getKey(), false, reverse);
+        }
+        if (current == null) {
+            return index_.getIndex().find(range_, null, null, false, reverse, unique);
+        }
+        return index_.getIndex().find(range_, current.getKey(), current.getPrimaryKey(), false, reverse, unique);
+    }
+
+    /**
+     * Called if the current record changes.
+     */
+    void valueChanged() {
+        // nothing to do
+    }
+
+    IndexedDbRecord getRecord() {
+        return record_;
+    }
+
+    private boolean isReverse() {
+        return direction_.startsWith("prev");
+    }
+
+    /**
+     * @return the source; an {@link IDBObjectStore} or an {@link IDBIndex}
+     */
+    @JsxGetter
+    public Object getSource() {
+        if (index_ == null) {
+            return objectStore_;
+        }
+        return index_;
+    }
+
+    /**
+     * @return the direction
+     */
+    @JsxGetter
+    public String getDirection() {
+        return direction_;
+    }
+
+    /**
+     * @return the key of the current position
+     */
+    @JsxGetter
+    public Object getKey() {
+        if (record_ == null) {
+            return JavaScriptEngine.UNDEFINED;
+        }
+        if (key_ == null) {
+            key_ = IDBSupport.toJs(record_.getKey(), Context.getCurrentContext(), getParentScope());
+        }
+        return key_;
+    }
+
+    /**
+     * @return the primary key of the current position
+     */
+    @JsxGetter
+    public Object getPrimaryKey() {
+        if (record_ == null) {
+            return JavaScriptEngine.UNDEFINED;
+        }
+        if (primaryKey_ == null) {
+            primaryKey_ = IDBSupport.toJs(record_.getPrimaryKey(), Context.getCurrentContext(), getParentScope());
+        }
+        return primaryKey_;
+    }
+
+    /**
+     * @return the request
+     */
+    @JsxGetter
+    public IDBRequest getRequest() {
+        return request_;
+    }
+
+    /**
+     * Moves the cursor to the next record or to the first record with the given key.
+     * @param key the key (optional)
+     */
+    @JsxFunction(functionName = "continue")
+    public void continue_js(final Object key) {
+        objectStore_.getTransaction().checkActive();
+        checkGotValue();
+
+        Object target = null;
+        if (!JavaScriptEngine.isUndefined(key)) {
+            target = IDBSupport.toValidKey(key, this);
+            final int cmp = IndexedDbKeys.compare(target, record_.getKey());
+            if (isReverse() ? cmp >= 0 : cmp <= 0) {
+                throw JavaScriptEngine.asJavaScriptException(this,
+                        "The parameter is not after this cursor's position.", IndexedDbException.DATA_ERROR);
+            }
+        }
+        step(target, null, 1);
+    }
+
+    /**
+     * Moves the cursor to the given key and primary key.
+     * @param key the key
+     * @param primaryKey the primary key
+     */
+    @JsxFunction
+    public void continuePrimaryKey(final Object key, final Object primaryKey) {
+        objectStore_.getTransaction().checkActive();
+        if (index_ == null || direction_.endsWith("unique")) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The cursor's source is not an index or its direction is unique.",
+                    DOMException.INVALID_ACCESS_ERR);
+        }
+        checkGotValue();
+
+        final Object targetKey = IDBSupport.toValidKey(key, this);
+        final Object targetPrimaryKey = IDBSupport.toValidKey(primaryKey, this);
+        int cmp = IndexedDbKeys.compare(targetKey, record_.getKey());
+        if (cmp == 0) {
+            cmp = IndexedDbKeys.compare(targetPrimaryKey, record_.getPrimaryKey());
+        }
+        if (isReverse() ? cmp >= 0 : cmp <= 0) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The parameters are not after this cursor's position.", IndexedDbException.DATA_ERROR);
+        }
+        step(targetKey, targetPrimaryKey, 1);
+    }
+
+    /**
+     * Moves the cursor forward.
+     * @param count the number of records to skip
+     */
+    @JsxFunction
+    public void advance(final Object count) {
+        final double number = JavaScriptEngine.toNumber(count);
+        if (Double.isNaN(number) || number < 1 || number > 4294967295d) {
+            throw JavaScriptEngine.typeError("The count parameter is out of range.");
+        }
+        objectStore_.getTransaction().checkActive();
+        checkGotValue();
+        step(null, null, (long) number);
+    }
+
+    private void step(final Object key, final Object primaryKey, final long count) {
+        gotValue_ = false;
+        request_.reset();
+        objectStore_.getTransaction().addRequest(request_, cx -> iterate(key, primaryKey, count));
+    }
+
+    /**
+     * Replaces the value of the current record.
+     * @param value the new value
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest update(final Object value) {
+        objectStore_.getTransaction().checkWritable();
+        checkGotValue();
+        checkWithValue();
+
+        final IndexedDbObjectStore store = objectStore_.getStore();
+        if (store.getKeyPath() != null) {
+            final Object key = IDBSupport.extractKey(value, store.getKeyPath());
+            if (key == null || IndexedDbKeys.compare(key, record_.getPrimaryKey()) != 0) {
+                throw JavaScriptEngine.asJavaScriptException(this,
+                        "The effective object store of this cursor uses in-line keys and evaluating the key path"
+                        + " of the value parameter results in a different value than the cursor's effective key.",
+                        IndexedDbException.DATA_ERROR);
+            }
+            return objectStore_.store(value, JavaScriptEngine.UNDEFINED, false, this);
+        }
+        return objectStore_.store(value, getPrimaryKey(), false, this);
+    }
+
+    /**
+     * Deletes the current record.
+     * @return the request
+     */
+    @JsxFunction(functionName = "delete")
+    public IDBRequest delete_js() {
+        objectStore_.getTransaction().checkWritable();
+        checkGotValue();
+        checkWithValue();
+
+        return objectStore_.delete(IndexedDbKeyRange.only(record_.getPrimaryKey()), this);
+    }
+
+    private void checkGotValue() {
+        if (!gotValue_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The cursor is being iterated or has iterated past its end.", IDBSupport.INVALID_STATE_ERROR);
+        }
+    }
+
+    private void checkWithValue() {
+        if (!withValue_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The cursor is a key cursor.", IDBSupport.INVALID_STATE_ERROR);
+        }
+    }
 }
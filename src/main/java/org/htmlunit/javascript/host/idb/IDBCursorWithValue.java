@@ -14,8 +14,12 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.storage.IndexedDbRecord;
 
 /**
  * A JavaScript object for {@code IDBCursorWithValue}.
@@ -26,6 +30,8 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBCursorWithValue extends IDBCursor {
 
+    private Object value_;
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +40,27 @@ public class IDBCursorWithValue extends IDBCursor {
     public void jsConstructor() {
         super.jsConstructor();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void valueChanged() {
+        value_ = null;
+    }
+
+    /**
+     * @return the value of the current record
+     */
+    @JsxGetter
+    public Object getValue() {
+        final IndexedDbRecord record = getRecord();
+        if (record == null) {
+            return JavaScriptEngine.UNDEFINED;
+        }
+        if (value_ == null) {
+            value_ = IDBSupport.deserialize(record.getValue(), Context.getCurrentContext(), getParentScope());
+        }
+        return value_;
+    }
 }
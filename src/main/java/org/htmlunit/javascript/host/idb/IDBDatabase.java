@@ -14,9 +14,27 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.corejs.javascript.NativeArray;
+import org.htmlunit.corejs.javascript.Scriptable;
+import org.htmlunit.corejs.javascript.ScriptableObject;
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.javascript.configuration.JsxSetter;
+import org.htmlunit.javascript.host.Window;
+import org.htmlunit.javascript.host.dom.DOMException;
+import org.htmlunit.javascript.host.dom.DOMStringList;
+import org.htmlunit.javascript.host.event.Event;
 import org.htmlunit.javascript.host.event.EventTarget;
+import org.htmlunit.storage.IndexedDbBackend;
+import org.htmlunit.storage.IndexedDbDatabase;
+import org.htmlunit.storage.IndexedDbException;
+import org.htmlunit.storage.IndexedDbTransaction;
 
 /**
  * A JavaScript object for {@code IDBDatabase}.
@@ -27,6 +45,33 @@ import org.htmlunit.javascript.host.event.EventTarget;
 @JsxClass
 public class IDBDatabase extends EventTarget {
 
+    private IndexedDbBackend backend_;
+    private IndexedDbDatabase database_;
+    private IDBTransaction upgradeTransaction_;
+    private boolean closed_;
+
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBDatabase() {
+        super();
+    }
+
+    /**
+     * Ctor.
+     * @param window the window
+     * @param backend the backend
+     * @param database the database
+     */
+    IDBDatabase(final Window window, final IndexedDbBackend backend, final IndexedDbDatabase database) {
+        super();
+        setParentScope(window);
+        setPrototype(window.getPrototype(IDBDatabase.class));
+
+        backend_ = backend;
+        database_ = database;
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -35,4 +80,236 @@ public class IDBDatabase extends EventTarget {
     public void jsConstructor() {
         super.jsConstructor();
     }
+
+    IndexedDbDatabase getDatabase() {
+        return database_;
+    }
+
+    /**
+     * Starts the backend transaction; blocks while a transaction with an overlapping
+     * scope is running in another thread.
+     * @param storeNames the names of the object stores in the scope
+     * @param readOnly whether the transaction is read only
+     * @return the backend transaction
+     */
+    IndexedDbTransaction beginTransaction(final List<String> storeNames, final boolean readOnly) {
+        return backend_.beginTransaction(database_.getOrigin(), database_.getName(), storeNames, readOnly);
+    }
+
+    void setUpgradeTransaction(final IDBTransaction upgradeTransaction) {
+        upgradeTransaction_ = upgradeTransaction;
+    }
+
+    /**
+     * @return the name
+     */
+    @JsxGetter
+    public String getName() {
+        return database_.getName();
+    }
+
+    /**
+     * @return the version
+     */
+    @JsxGetter
+    public long getVersion() {
+        return database_.getVersion();
+    }
+
+    /**
+     * @return the names of the object stores
+     */
+    @JsxGetter
+    public DOMStringList getObjectStoreNames() {
+        return new DOMStringList(this, database_.getObjectStoreNames());
+    }
+
+    /**
+     * Creates a new object store; only allowed in the {@code upgradeneeded} callback.
+     * @param name the name
+     * @param options the options ({@code keyPath} and {@code autoIncrement})
+     * @return the new object store
+     */
+    @JsxFunction
+    public IDBObjectStore createObjectStore(final String name, final Object options) {
+        final IDBTransaction transaction = checkUpgradeTransaction();
+
+        Object keyPath = null;
+        boolean autoIncrement = false;
+        if (options instanceof Scriptable) {
+            final Scriptable scriptable = (Scriptable) options;
+            keyPath = IDBSupport.toKeyPath(ScriptableObject.getProperty(scriptable, "keyPath"));
+            autoIncrement = JavaScriptEngine.toBoolean(ScriptableObject.getProperty(scriptable, "autoIncrement"));
+        }
+        if (autoIncrement && (keyPath instanceof List || "".equals(keyPath))) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The autoIncrement option was set but the keyPath option is empty or an array.",
+                    DOMException.INVALID_ACCESS_ERR);
+        }
+
+        try {
+            transaction.getTransaction().createObjectStore(database_, name, keyPath, autoIncrement);
+        }
+        catch (final IndexedDbException e) {
+            throw JavaScriptEngine.asJavaScriptException(this, e.getMessage(), e.getName());
+        }
+        return transaction.objectStore(name);
+    }
+
+    /**
+     * Deletes an object store; only allowed in the {@code upgradeneeded} callback.
+     * @param name the name
+     */
+    @JsxFunction
+    public void deleteObjectStore(final String name) {
+        final IDBTransaction transaction = checkUpgradeTransaction();
+        try {
+            transaction.getTransaction().deleteObjectStore(database_, name);
+        }
+        catch (final IndexedDbException e) {
+            throw JavaScriptEngine.asJavaScriptException(this, e.getMessage(), e.getName());
+        }
+    }
+
+    private IDBTransaction checkUpgradeTransaction() {
+        if (upgradeTransaction_ == null || upgradeTransaction_.isFinished()) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The database is not running a version change transaction.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        upgradeTransaction_.checkActive();
+        return upgradeTransaction_;
+    }
+
+    /**
+     * Starts a new transaction.
+     * @param storeNames the name or the array of names of the object stores in the scope
+     * @param mode the mode; {@code readonly} or {@code readwrite}
+     * @return the new transaction
+     */
+    @JsxFunction
+    public IDBTransaction transaction(final Object storeNames, final Object mode) {
+        if (closed_ || upgradeTransaction_ != null && !upgradeTransaction_.isFinished()) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "A version change transaction is running or the database is closed.",
+                    IDBSupport.INVALID_STATE_ERROR);
+        }
+
+        final List<String> names = new ArrayList<>();
+        if (storeNames instanceof NativeArray) {
+            final NativeArray array = (NativeArray) storeNames;
+            for (int i = 0; i < array.getLength(); i++) {
+                names.add(JavaScriptEngine.toString(array.get(i, array)));
+            }
+        }
+        else if (storeNames instanceof DOMStringList) {
+            final DOMStringList list = (DOMStringList) storeNames;
+            for (int i = 0; i < list.getLength(); i++) {
+                names.add(list.item(i));
+            }
+        }
+        else {
+            names.add(JavaScriptEngine.toString(storeNames));
+        }
+        if (names.isEmpty()) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The storeNames parameter was empty.", DOMException.INVALID_ACCESS_ERR);
+        }
+        for (final String name : names) {
+            if (database_.getObjectStore(name) == null) {
+                throw JavaScriptEngine.asJavaScriptException(this,
+                        "One of the specified object stores was not found.", IndexedDbException.NOT_FOUND_ERROR);
+            }
+        }
+
+        final String modeString = JavaScriptEngine.isUndefined(mode)
+                ? IDBTransaction.MODE_READONLY : JavaScriptEngine.toString(mode);
+        if (!IDBTransaction.MODE_READONLY.equals(modeString) && !IDBTransaction.MODE_READWRITE.equals(modeString)) {
+            throw JavaScriptEngine.typeError("The mode provided ('" + modeString + "') is not a valid enum value.");
+        }
+
+        // the backend transaction is started when the requests are processed
+        final IDBTransaction transaction = new IDBTransaction(this, names, modeString, null);
+        transaction.schedule();
+        return transaction;
+    }
+
+    /**
+     * Closes the connection.
+     */
+    @JsxFunction
+    public void close() {
+        closed_ = true;
+    }
+
+    /**
+     * Returns the {@code onabort} event handler.
+     * @return the {@code onabort} event handler
+     */
+    @JsxGetter
+    public Object getOnabort() {
+        return getEventHandler(Event.TYPE_ABORT);
+    }
+
+    /**
+     * Sets the {@code onabort} event handler.
+     * @param handler the {@code onabort} event handler
+     */
+    @JsxSetter
+    public void setOnabort(final Object handler) {
+        setEventHandler(Event.TYPE_ABORT, handler);
+    }
+
+    /**
+     * Returns the {@code onclose} event handler.
+     * @return the {@code onclose} event handler
+     */
+    @JsxGetter
+    public Object getOnclose() {
+        return getEventHandler(Event.TYPE_CLOSE);
+    }
+
+    /**
+     * Sets the {@code onclose} event handler.
+     * @param handler the {@code onclose} event handler
+     */
+    @JsxSetter
+    public void setOnclose(final Object handler) {
+        setEventHandler(Event.TYPE_CLOSE, handler);
+    }
+
+    /**
+     * Returns the {@code onerror} event handler.
+     * @return the {@code onerror} event handler
+     */
+    @JsxGetter
+    public Object getOnerror() {
+        return getEventHandler(Event.TYPE_ERROR);
+    }
+
+    /**
+     * Sets the {@code onerror} event handler.
+     * @param handler the {@code onerror} event handler
+     */
+    @JsxSetter
+    public void setOnerror(final Object handler) {
+        setEventHandler(Event.TYPE_ERROR, handler);
+    }
+
+    /**
+     * Returns the {@code onversionchange} event handler.
+     * @return the {@code onversionchange} event handler
+     */
+    @JsxGetter
+    public Object getOnversionchange() {
+        return getEventHandler("versionchange");
+    }
+
+    /**
+     * Sets the {@code onversionchange} event handler.
+     * @param handler the {@code onversionchange} event handler
+     */
+    @JsxSetter
+    public void setOnversionchange(final Object handler) {
+        setEventHandler("versionchange", handler);
+    }
 }
@@ -14,12 +14,34 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import java.net.URL;
+
+import org.htmlunit.WebWindow;
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.corejs.javascript.ContextAction;
+import org.htmlunit.javascript.AbstractJavaScriptEngine;
 import org.htmlunit.javascript.HtmlUnitScriptable;
+import org.htmlunit.javascript.JavaScriptEngine;
+import org.htmlunit.javascript.background.BackgroundJavaScriptFactory;
+import org.htmlunit.javascript.background.JavaScriptJob;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.host.Window;
+import org.htmlunit.javascript.host.event.IDBVersionChangeEvent;
+import org.htmlunit.storage.IndexedDbBackend;
+import org.htmlunit.storage.IndexedDbDatabase;
+import org.htmlunit.storage.IndexedDbException;
+import org.htmlunit.storage.IndexedDbKeys;
+import org.htmlunit.storage.IndexedDbTransaction;
 
 /**
  * A JavaScript object for {@code IDBFactory}.
+ * <p>
+ * The databases are stored in the {@link IndexedDbBackend} of the
+ * {@link org.htmlunit.StorageHolder}; all requests are processed asynchronously
+ * by jobs of the {@link org.htmlunit.javascript.background.JavaScriptJobManager} of the window.
+ * </p>
  *
  * @author Ahmed Ashour
  * @author Ronald Brill
@@ -27,6 +49,26 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBFactory extends HtmlUnitScriptable {
 
+    /** The largest version; Number.MAX_SAFE_INTEGER. */
+    private static final double MAX_VERSION = 9007199254740991d;
+
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBFactory() {
+        super();
+    }
+
+    /**
+     * Ctor.
+     * @param window the window
+     */
+    public IDBFactory(final Window window) {
+        super();
+        setParentScope(window);
+        setPrototype(window.getPrototype(IDBFactory.class));
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +76,157 @@ public class IDBFactory extends HtmlUnitScriptable {
     public void jsConstructor() {
         // nothing to do
     }
+
+    /**
+     * Opens a connection to a database; the database is created or upgraded if needed.
+     * @param name the name of the database
+     * @param version the version (optional)
+     * @return the request
+     */
+    @JsxFunction
+    public IDBOpenDBRequest open(final String name, final Object version) {
+        long requestedVersion = 0;
+        if (!JavaScriptEngine.isUndefined(version)) {
+            final double number = JavaScriptEngine.toNumber(version);
+            if (Double.isNaN(number) || number < 1 || number > MAX_VERSION
+                    || number != Math.floor(number)) {
+                throw JavaScriptEngine.typeError("The version provided must be a positive integer.");
+            }
+            requestedVersion = (long) number;
+        }
+
+        final Window window = getWindow();
+        final IDBOpenDBRequest request = new IDBOpenDBRequest(window);
+        final long newVersion = requestedVersion;
+        schedule(cx -> {
+            open(request, name, newVersion);
+            return null;
+        });
+        return request;
+    }
+
+    private void open(final IDBOpenDBRequest request, final String name, final long requestedVersion) {
+        final Window window = getWindow();
+        final IndexedDbBackend backend = getBackend();
+
+        // the version change transaction covers the whole database; waits for running transactions
+        final IndexedDbTransaction engineTransaction;
+        try {
+            engineTransaction = backend.beginTransaction(getOrigin(), name, null, false);
+        }
+        catch (final IndexedDbException e) {
+            request.fail(IDBSupport.newDomException(e.getName(), e.getMessage(), this));
+            return;
+        }
+
+        try {
+            final IndexedDbDatabase database = backend.getDatabase(getOrigin(), name);
+            final long oldVersion = database == null ? 0 : database.getVersion();
+            final long version = requestedVersion == 0 ? Math.max(oldVersion, 1) : requestedVersion;
+
+            if (version < oldVersion) {
+                engineTransaction.commit();
+                request.fail(IDBSupport.newDomException(IndexedDbException.VERSION_ERROR,
+                        "The requested version (" + version + ") is less than the existing version ("
+                        + oldVersion + ").", this));
+                return;
+            }
+
+            if (version == oldVersion) {
+                engineTransaction.commit();
+                request.succeed(new IDBDatabase(window, backend, database));
+                return;
+            }
+
+            final IndexedDbDatabase upgraded = engineTransaction.setVersion(getOrigin(), name, version);
+            final IDBDatabase db = new IDBDatabase(window, backend, upgraded);
+            final IDBTransaction transaction = new IDBTransaction(db, upgraded.getObjectStoreNames(),
+                    IDBTransaction.MODE_VERSIONCHANGE, engineTransaction);
+            db.setUpgradeTransaction(transaction);
+
+            request.setResult(db);
+            request.setTransaction(transaction);
+            final int scriptErrors = window.getScriptErrorCount();
+            try {
+                request.fire(new IDBVersionChangeEvent(request, "upgradeneeded", oldVersion, version));
+            }
+            finally {
+                if (window.getScriptErrorCount() != scriptErrors) {
+                    transaction.abortOnCallbackException();
+                }
+            }
+            transaction.process(Context.getCurrentContext());
+
+            request.setTransaction(null);
+            if (transaction.isAborted()) {
+                request.fail(IDBSupport.newDomException(IDBSupport.ABORT_ERROR,
+                        "The version change transaction was aborted.", this));
+                return;
+            }
+            request.succeed(db);
+        }
+        finally {
+            // e.g. if a callback has thrown
+            if (!engineTransaction.isFinished()) {
+                engineTransaction.abort();
+            }
+        }
+    }
+
+    /**
+     * Deletes a database.
+     * @param name the name of the database
+     * @return the request
+     */
+    @JsxFunction
+    public IDBOpenDBRequest deleteDatabase(final String name) {
+        final IDBOpenDBRequest request = new IDBOpenDBRequest(getWindow());
+        schedule(cx -> {
+            final IndexedDbDatabase database = getBackend().getDatabase(getOrigin(), name);
+            final long oldVersion = database == null ? 0 : database.getVersion();
+            try {
+                getBackend().deleteDatabase(getOrigin(), name);
+            }
+            catch (final IndexedDbException e) {
+                request.fail(IDBSupport.newDomException(e.getName(), e.getMessage(), this));
+                return null;
+            }
+            request.setResult(JavaScriptEngine.UNDEFINED);
+            request.fire(new IDBVersionChangeEvent(request, "success", oldVersion, null));
+            return null;
+        });
+        return request;
+    }
+
+    /**
+     * Compares two keys.
+     * @param first the first key
+     * @param second the second key
+     * @return -1, 0 or 1
+     */
+    @JsxFunction
+    public int cmp(final Object first, final Object second) {
+        final Object firstKey = IDBSupport.toValidKey(first, this);
+        final Object secondKey = IDBSupport.toValidKey(second, this);
+        return Integer.signum(IndexedDbKeys.compare(firstKey, secondKey));
+    }
+
+    private IndexedDbBackend getBackend() {
+        return getWindow().getWebWindow().getWebClient().getStorageHolder().getIndexedDbBackend();
+    }
+
+    private String getOrigin() {
+        final URL url = getWindow().getWebWindow().getEnclosedPage().getUrl();
+        return url.getProtocol() + "://" + url.getHost();
+    }
+
+    private void schedule(final ContextAction<Object> action) {
+        final WebWindow webWindow = getWindow().getWebWindow();
+        final JavaScriptJob job = BackgroundJavaScriptFactory.theFactory()
+                .createJavaScriptJob(0, null, () -> {
+                    final AbstractJavaScriptEngine<?> engine = webWindow.getWebClient().getJavaScriptEngine();
+                    engine.getContextFactory().call(action);
+                });
+        webWindow.getJobManager().addJob(job, webWindow.getEnclosedPage());
+    }
 }
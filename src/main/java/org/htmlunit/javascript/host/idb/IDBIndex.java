@@ -14,9 +14,19 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.corejs.javascript.Context;
 import org.htmlunit.javascript.HtmlUnitScriptable;
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.storage.IndexedDbIndex;
+import org.htmlunit.storage.IndexedDbKeyRange;
+import org.htmlunit.storage.IndexedDbRecord;
 
 /**
  * A JavaScript object for {@code IDBIndex}.
@@ -27,6 +37,30 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBIndex extends HtmlUnitScriptable {
 
+    private IDBObjectStore objectStore_;
+    private IndexedDbIndex index_;
+
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBIndex() {
+        super();
+    }
+
+    /**
+     * Ctor.
+     * @param objectStore the object store
+     * @param index the backend index
+     */
+    IDBIndex(final IDBObjectStore objectStore, final IndexedDbIndex index) {
+        super();
+        setParentScope(objectStore.getParentScope());
+        setPrototype(objectStore.getPrototype(IDBIndex.class));
+
+        objectStore_ = objectStore;
+        index_ = index;
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +68,163 @@ public class IDBIndex extends HtmlUnitScriptable {
     public void jsConstructor() {
         // nothing to do
     }
+
+    IndexedDbIndex getIndex() {
+        return index_;
+    }
+
+    /**
+     * @return the name
+     */
+    @JsxGetter
+    public String getName() {
+        return index_.getName();
+    }
+
+    /**
+     * @return the object store
+     */
+    @JsxGetter
+    public IDBObjectStore getObjectStore() {
+        return objectStore_;
+    }
+
+    /**
+     * @return the key path
+     */
+    @JsxGetter
+    public Object getKeyPath() {
+        return IDBSupport.keyPathToJs(index_.getKeyPath(), Context.getCurrentContext(), getParentScope());
+    }
+
+    /**
+     * @return whether the index keys are unique
+     */
+    @JsxGetter
+    public boolean isUnique() {
+        return index_.isUnique();
+    }
+
+    /**
+     * @return whether array keys are added as one entry per element
+     */
+    @JsxGetter
+    public boolean isMultiEntry() {
+        return index_.isMultiEntry();
+    }
+
+    /**
+     * Returns the value of the first record matching the query.
+     * @param query the key or key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest get(final Object query) {
+        final IDBTransaction transaction = objectStore_.getTransaction();
+        transaction.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRequiredRange(query, this);
+        return transaction.addRequest(this, cx -> {
+            final IndexedDbRecord record = index_.get(range);
+            if (record == null) {
+                return JavaScriptEngine.UNDEFINED;
+            }
+            return IDBSupport.deserialize(record.getValue(), cx, getParentScope());
+        });
+    }
+
+    /**
+     * Returns the primary key of the first record matching the query.
+     * @param query the key or key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest getKey(final Object query) {
+        final IDBTransaction transaction = objectStore_.getTransaction();
+        transaction.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRequiredRange(query, this);
+        return transaction.addRequest(this, cx -> {
+            final IndexedDbRecord record = index_.get(range);
+            if (record == null) {
+                return JavaScriptEngine.UNDEFINED;
+            }
+            return IDBSupport.toJs(record.getPrimaryKey(), cx, getParentScope());
+        });
+    }
+
+    /**
+     * Returns the values of all records matching the query.
+     * @param query the key or key range
+     * @param count the maximum number of values
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest getAll(final Object query, final Object count) {
+        final IDBTransaction transaction = objectStore_.getTransaction();
+        transaction.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRange(query, this);
+        final long max = IDBSupport.toCount(count);
+        return transaction.addRequest(this, cx -> {
+            final List<Object> values = new ArrayList<>();
+            for (final IndexedDbRecord record : index_.getAll(range, max)) {
+                values.add(IDBSupport.deserialize(record.getValue(), cx, getParentScope()));
+            }
+            return cx.newArray(getParentScope(), values.toArray());
+        });
+    }
+
+    /**
+     * Returns the primary keys of all records matching the query.
+     * @param query the key or key range
+     * @param count the maximum number of keys
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest getAllKeys(final Object query, final Object count) {
+        final IDBTransaction transaction = objectStore_.getTransaction();
+        transaction.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRange(query, this);
+        final long max = IDBSupport.toCount(count);
+        return transaction.addRequest(this, cx -> {
+            final List<Object> keys = new ArrayList<>();
+            for (final IndexedDbRecord record : index_.getAll(range, max)) {
+                keys.add(IDBSupport.toJs(record.getPrimaryKey(), cx, getParentScope()));
+            }
+            return cx.newArray(getParentScope(), keys.toArray());
+        });
+    }
+
+    /**
+     * Counts the records matching the query.
+     * @param query the key or key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest count(final Object query) {
+        final IDBTransaction transaction = objectStore_.getTransaction();
+        transaction.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRange(query, this);
+        return transaction.addRequest(this, cx -> index_.count(range));
+    }
+
+    /**
+     * Opens a cursor.
+     * @param query the key or key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest openCursor(final Object query, final Object direction) {
+        return IDBCursor.open(objectStore_, this, IDBSupport.toRange(query, this), direction, true);
+    }
+
+    /**
+     * Opens a cursor without values.
+     * @param query the key or key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest openKeyCursor(final Object query, final Object direction) {
+        return IDBCursor.open(objectStore_, this, IDBSupport.toRange(query, this), direction, false);
+    }
 }
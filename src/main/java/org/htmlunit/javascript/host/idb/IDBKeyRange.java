@@ -14,9 +14,17 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import org.htmlunit.corejs.javascript.Context;
 import org.htmlunit.javascript.HtmlUnitScriptable;
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.javascript.configuration.JsxStaticFunction;
+import org.htmlunit.javascript.host.Window;
+import org.htmlunit.storage.IndexedDbException;
+import org.htmlunit.storage.IndexedDbKeyRange;
 
 /**
  * A JavaScript object for {@code IDBKeyRange}.
@@ -27,6 +35,8 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBKeyRange extends HtmlUnitScriptable {
 
+    private IndexedDbKeyRange range_;
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +44,124 @@ public class IDBKeyRange extends HtmlUnitScriptable {
     public void jsConstructor() {
         // nothing to do
     }
+
+    /**
+     * @return the range
+     */
+    public IndexedDbKeyRange getRange() {
+        return range_;
+    }
+
+    /**
+     * Creates a key range containing a single value.
+     * @param value the value
+     * @return the new key range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange only(final Object value) {
+        final Window window = getWindowFromTopCallScope();
+        return create(window, IDBSupport.toValidKey(value, window), null, false, false, true);
+    }
+
+    /**
+     * Creates a key range with only a lower bound.
+     * @param lower the lower bound
+     * @param open whether the lower bound is excluded
+     * @return the new key range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange lowerBound(final Object lower, final Object open) {
+        final Window window = getWindowFromTopCallScope();
+        return create(window, IDBSupport.toValidKey(lower, window), null,
+                JavaScriptEngine.toBoolean(open), false, false);
+    }
+
+    /**
+     * Creates a key range with only an upper bound.
+     * @param upper the upper bound
+     * @param open whether the upper bound is excluded
+     * @return the new key range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange upperBound(final Object upper, final Object open) {
+        final Window window = getWindowFromTopCallScope();
+        return create(window, null, IDBSupport.toValidKey(upper, window),
+                false, JavaScriptEngine.toBoolean(open), false);
+    }
+
+    /**
+     * Creates a key range with a lower and an upper bound.
+     * @param lower the lower bound
+     * @param upper the upper bound
+     * @param lowerOpen whether the lower bound is excluded
+     * @param upperOpen whether the upper bound is excluded
+     * @return the new key range
+     */
+    @JsxStaticFunction
+    public static IDBKeyRange bound(final Object lower, final Object upper,
+            final Object lowerOpen, final Object upperOpen) {
+        final Window window = getWindowFromTopCallScope();
+        return create(window, IDBSupport.toValidKey(lower, window), IDBSupport.toValidKey(upper, window),
+                JavaScriptEngine.toBoolean(lowerOpen), JavaScriptEngine.toBoolean(upperOpen), false);
+    }
+
+    private static IDBKeyRange create(final Window window, final Object lower, final Object upper,
+            final boolean lowerOpen, final boolean upperOpen, final boolean only) {
+        final IDBKeyRange keyRange = new IDBKeyRange();
+        keyRange.setParentScope(window);
+        keyRange.setPrototype(window.getPrototype(IDBKeyRange.class));
+        try {
+            if (only) {
+                keyRange.range_ = IndexedDbKeyRange.only(lower);
+            }
+            else {
+                keyRange.range_ = new IndexedDbKeyRange(lower, upper, lowerOpen, upperOpen);
+            }
+        }
+        catch (final IndexedDbException e) {
+            throw JavaScriptEngine.asJavaScriptException(window, e.getMessage(), e.getName());
+        }
+        return keyRange;
+    }
+
+    /**
+     * @return the lower bound
+     */
+    @JsxGetter
+    public Object getLower() {
+        return IDBSupport.toJs(range_.getLower(), Context.getCurrentContext(), getParentScope());
+    }
+
+    /**
+     * @return the upper bound
+     */
+    @JsxGetter
+    public Object getUpper() {
+        return IDBSupport.toJs(range_.getUpper(), Context.getCurrentContext(), getParentScope());
+    }
+
+    /**
+     * @return whether the lower bound is excluded
+     */
+    @JsxGetter
+    public boolean isLowerOpen() {
+        return range_.isLowerOpen();
+    }
+
+    /**
+     * @return whether the upper bound is excluded
+     */
+    @JsxGetter
+    public boolean isUpperOpen() {
+        return range_.isUpperOpen();
+    }
+
+    /**
+     * @param key the key
+     * @return whether the key is in the range
+     */
+    @JsxFunction
+    public boolean includes(final Object key) {
+        return range_.includes(IDBSupport.toValidKey(key, this));
+    }
 }
@@ -14,9 +14,27 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.corejs.javascript.Scriptable;
+import org.htmlunit.corejs.javascript.ScriptableObject;
 import org.htmlunit.javascript.HtmlUnitScriptable;
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.javascript.host.dom.DOMException;
+import org.htmlunit.javascript.host.dom.DOMStringList;
+import org.htmlunit.storage.IndexedDbException;
+import org.htmlunit.storage.IndexedDbIndex;
+import org.htmlunit.storage.IndexedDbKeyRange;
+import org.htmlunit.storage.IndexedDbObjectStore;
+import org.htmlunit.storage.IndexedDbRecord;
 
 /**
  * A JavaScript object for {@code IDBObjectStore}.
@@ -27,6 +45,31 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBObjectStore extends HtmlUnitScriptable {
 
+    private IDBTransaction transaction_;
+    private IndexedDbObjectStore store_;
+    private final Map<String, IDBIndex> indexes_ = new HashMap<>();
+
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBObjectStore() {
+        super();
+    }
+
+    /**
+     * Ctor.
+     * @param transaction the transaction
+     * @param store the backend store
+     */
+    IDBObjectStore(final IDBTransaction transaction, final IndexedDbObjectStore store) {
+        super();
+        setParentScope(transaction.getParentScope());
+        setPrototype(transaction.getPrototype(IDBObjectStore.class));
+
+        transaction_ = transaction;
+        store_ = store;
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +77,388 @@ public class IDBObjectStore extends HtmlUnitScriptable {
     public void jsConstructor() {
         // nothing to do
     }
+
+    IndexedDbObjectStore getStore() {
+        return store_;
+    }
+
+    /**
+     * @return the name
+     */
+    @JsxGetter
+    public String getName() {
+        return store_.getName();
+    }
+
+    /**
+     * @return the key path
+     */
+    @JsxGetter
+    public Object getKeyPath() {
+        return IDBSupport.keyPathToJs(store_.getKeyPath(), Context.getCurrentContext(), getParentScope());
+    }
+
+    /**
+     * @return whether there is a key generator
+     */
+    @JsxGetter
+    public boolean isAutoIncrement() {
+        return store_.isAutoIncrement();
+    }
+
+    /**
+     * @return the names of the indexes
+     */
+    @JsxGetter
+    public DOMStringList getIndexNames() {
+        return new DOMStringList(this, store_.getIndexNames());
+    }
+
+    /**
+     * @return the transaction
+     */
+    @JsxGetter
+    public IDBTransaction getTransaction() {
+        return transaction_;
+    }
+
+    /**
+     * Adds or replaces a record.
+     * @param value the value
+     * @param key the key; only for stores without key path
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest put(final Object value, final Object key) {
+        return store(value, key, false, this);
+    }
+
+    /**
+     * Adds a record; fails if there is already a record with the key.
+     * @param value the value
+     * @param key the key; only for stores without key path
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest add(final Object value, final Object key) {
+        return store(value, key, true, this);
+    }
+
+    /**
+     * Stores a record.
+     * @param value the value
+     * @param key the key; only for stores without key path
+     * @param noOverwrite whether an existing record is an error
+     * @param source the source of the request
+     * @return the request
+     */
+    IDBRequest store(final Object value, final Object key, final boolean noOverwrite, final Object source) {
+        transaction_.checkWritable();
+
+        final Object keyPath = store_.getKeyPath();
+        final Object providedKey;
+        if (keyPath != null) {
+            if (!JavaScriptEngine.isUndefined(key)) {
+                throw JavaScriptEngine.asJavaScriptException(this,
+                        "The object store uses in-line keys and the key parameter was provided.",
+                        IndexedDbException.DATA_ERROR);
+            }
+            if (store_.isAutoIncrement()
+                    && IDBSupport.evaluateKeyPath(value, (String) keyPath) == Scriptable.NOT_FOUND) {
+                if (!(value instanceof Scriptable)) {
+                    throw JavaScriptEngine.asJavaScriptException(this,
+                            "The key can't be stored in the value.", IndexedDbException.DATA_ERROR);
+                }
+                // generated when executed
+                providedKey = null;
+            }
+            else {
+                providedKey = IDBSupport.extractKey(value, keyPath);
+                if (providedKey == null) {
+                    throw JavaScriptEngine.asJavaScriptException(this,
+                            "Evaluating the object store's key path did not yield a valid key.",
+                            IndexedDbException.DATA_ERROR);
+                }
+            }
+        }
+        else if (JavaScriptEngine.isUndefined(key)) {
+            if (!store_.isAutoIncrement()) {
+                throw JavaScriptEngine.asJavaScriptException(this,
+                        "The object store uses out-of-line keys and has no key generator"
+                        + " and the key parameter was not provided.", IndexedDbException.DATA_ERROR);
+            }
+            providedKey = null;
+        }
+        else {
+            providedKey = IDBSupport.toValidKey(key, this);
+        }
+
+        final String serialized = IDBSupport.serialize(value, Context.getCurrentContext(), this);
+        return transaction_.addRequest(source, cx -> {
+            final Scriptable scope = getParentScope();
+            final Object clone = IDBSupport.deserialize(serialized, cx, scope);
+
+            Object recordKey = providedKey;
+            String recordValue = serialized;
+            if (recordKey == null) {
+                recordKey = transaction_.getTransaction().nextKey(store_);
+                if (keyPath != null) {
+                    IDBSupport.injectKey(clone, (String) keyPath, recordKey, cx, scope);
+                    recordValue = IDBSupport.serialize(clone, cx, this);
+                }
+            }
+
+            final Map<String, List<Object>> indexKeys = new HashMap<>();
+            for (final String name : store_.getIndexNames()) {
+                final IndexedDbIndex index = store_.getIndex(name);
+                indexKeys.put(name, IDBSupport.indexKeys(clone, index.getKeyPath(), index.isMultiEntry()));
+            }
+            transaction_.getTransaction().put(store_, recordKey, recordValue, indexKeys, noOverwrite);
+            return IDBSupport.toJs(recordKey, cx, scope);
+        });
+    }
+
+    /**
+     * Returns the value of the first record matching the query.
+     * @param query the key or key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest get(final Object query) {
+        transaction_.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRequiredRange(query, this);
+        return transaction_.addRequest(this, cx -> {
+            final IndexedDbRecord record = store_.get(range);
+            if (record == null) {
+                return JavaScriptEngine.UNDEFINED;
+            }
+            return IDBSupport.deserialize(record.getValue(), cx, getParentScope());
+        });
+    }
+
+    /**
+     * Returns the key of the first record matching the query.
+     * @param query the key or key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest getKey(final Object query) {
+        transaction_.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRequiredRange(query, this);
+        return transaction_.addRequest(this, cx -> {
+            final IndexedDbRecord record = store_.get(range);
+            if (record == null) {
+                return JavaScriptEngine.UNDEFINED;
+            }
+            return IDBSupport.toJs(record.getKey(), cx, getParentScope());
+        });
+    }
+
+    /**
+     * Returns the values of all records matching the query.
+     * @param query the key or key range
+     * @param count the maximum number of values
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest getAll(final Object query, final Object count) {
+        transaction_.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRange(query, this);
+        final long max = IDBSupport.toCount(count);
+        return transaction_.addRequest(this, cx -> {
+            final List<Object> values = new ArrayList<>();
+            for (final IndexedDbRecord record : store_.getAll(range, max)) {
+                values.add(IDBSupport.deserialize(record.getValue(), cx, getParentScope()));
+            }
+            return cx.newArray(getParentScope(), values.toArray());
+        });
+    }
+
+    /**
+     * Returns the keys of all records matching the query.
+     * @param query the key or key range
+     * @param count the maximum number of keys
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest getAllKeys(final Object query, final Object count) {
+        transaction_.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRange(query, this);
+        final long max = IDBSupport.toCount(count);
+        return transaction_.addRequest(this, cx -> {
+            final List<Object> keys = new ArrayList<>();
+            for (final IndexedDbRecord record : store_.getAll(range, max)) {
+                keys.add(IDBSupport.toJs(record.getKey(), cx, getParentScope()));
+            }
+            return cx.newArray(getParentScope(), keys.toArray());
+        });
+    }
+
+    /**
+     * Counts the records matching the query.
+     * @param query the key or key range
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest count(final Object query) {
+        transaction_.checkActive();
+        final IndexedDbKeyRange range = IDBSupport.toRange(query, this);
+        return transaction_.addRequest(this, cx -> store_.count(range));
+    }
+
+    /**
+     * Deletes the records matching the query.
+     * @param query the key or key range
+     * @return the request
+     */
+    @JsxFunction(functionName = "delete")
+    public IDBRequest delete_js(final Object query) {
+        transaction_.checkWritable();
+        return delete(IDBSupport.toRequiredRange(query, this), this);
+    }
+
+    IDBRequest delete(final IndexedDbKeyRange range, final Object source) {
+        return transaction_.addRequest(source, cx -> {
+            transaction_.getTransaction().delete(store_, range);
+            return JavaScriptEngine.UNDEFINED;
+        });
+    }
+
+    /**
+     * Deletes all records.
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest clear() {
+        transaction_.checkWritable();
+        return transaction_.addRequest(this, cx -> {
+            transaction_.getTransaction().clear(store_);
+            return JavaScriptEngine.UNDEFINED;
+        });
+    }
+
+    /**
+     * Opens a cursor.
+     * @param query the key or key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest openCursor(final Object query, final Object direction) {
+        return IDBCursor.open(this, null, IDBSupport.toRange(query, this), direction, true);
+    }
+
+    /**
+     * Opens a cursor without values.
+     * @param query the key or key range
+     * @param direction the direction
+     * @return the request
+     */
+    @JsxFunction
+    public IDBRequest openKeyCursor(final Object query, final Object direction) {
+        return IDBCursor.open(this, null, IDBSupport.toRange(query, this), direction, false);
+    }
+
+    /**
+     * Creates a new index; only allowed in the {@code upgradeneeded} callback.
+     * @param name the name
+     * @param keyPath the key path
+     * @param options the options ({@code unique} and {@code multiEntry})
+     * @return the new index
+     */
+    @JsxFunction
+    public IDBIndex createIndex(final String name, final Object keyPath, final Object options) {
+        checkUpgradeTransaction();
+
+        final Object path = IDBSupport.toKeyPath(keyPath);
+        boolean unique = false;
+        boolean multiEntry = false;
+        if (options instanceof Scriptable) {
+            final Scriptable scriptable = (Scriptable) options;
+            unique = JavaScriptEngine.toBoolean(ScriptableObject.getProperty(scriptable, "unique"));
+            multiEntry = JavaScriptEngine.toBoolean(ScriptableObject.getProperty(scriptable, "multiEntry"));
+        }
+        if (path == null) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The keyPath argument contains an invalid key path.", DOMException.SYNTAX_ERR);
+        }
+        if (multiEntry && path instanceof List) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The keyPath argument was an array and the multiEntry option is true.",
+                    DOMException.INVALID_ACCESS_ERR);
+        }
+
+        final IndexedDbIndex index;
+        try {
+            index = transaction_.getTransaction().createIndex(store_, name, path, unique, multiEntry);
+        }
+        catch (final IndexedDbException e) {
+            throw JavaScriptEngine.asJavaScriptException(this, e.getMessage(), e.getName());
+        }
+
+        // populating the index fails with a ConstraintError if the existing
+        // records violate the uniqueness; this aborts the transaction
+        transaction_.addRequest(this, cx -> {
+            for (final IndexedDbRecord record : store_.getAll(IndexedDbKeyRange.ALL, 0)) {
+                final Object value = IDBSupport.deserialize(record.getValue(), cx, getParentScope());
+                final List<Object> keys = IDBSupport.indexKeys(value, path, multiEntry);
+                if (!keys.isEmpty()) {
+                    transaction_.getTransaction().addIndexEntry(index, keys, record.getPrimaryKey());
+                }
+            }
+            return JavaScriptEngine.UNDEFINED;
+        });
+
+        return index(name);
+    }
+
+    /**
+     * Deletes an index; only allowed in the {@code upgradeneeded} callback.
+     * @param name the name
+     */
+    @JsxFunction
+    public void deleteIndex(final String name) {
+        checkUpgradeTransaction();
+        try {
+            transaction_.getTransaction().deleteIndex(store_, name);
+        }
+        catch (final IndexedDbException e) {
+            throw JavaScriptEngine.asJavaScriptException(this, e.getMessage(), e.getName());
+        }
+        indexes_.remove(name);
+    }
+
+    /**
+     * Returns an index.
+     * @param name the name
+     * @return the index
+     */
+    @JsxFunction
+    public IDBIndex index(final String name) {
+        if (transaction_.isFinished()) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The transaction has finished.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        final IndexedDbIndex index = store_.getIndex(name);
+        if (index == null) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The specified index was not found.", IndexedDbException.NOT_FOUND_ERROR);
+        }
+
+        final IDBIndex existing = indexes_.get(name);
+        if (existing != null && existing.getIndex() == index) {
+            return existing;
+        }
+        final IDBIndex newIndex = new IDBIndex(this, index);
+        indexes_.put(name, newIndex);
+        return newIndex;
+    }
+
+    private void checkUpgradeTransaction() {
+        if (!transaction_.isVersionChange()) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The database is not running a version change transaction.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        transaction_.checkActive();
+    }
 }
@@ -16,6 +16,9 @@ package org.htmlunit.javascript.host.idb;
 
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.javascript.configuration.JsxSetter;
+import org.htmlunit.javascript.host.Window;
 
 /**
  * A JavaScript object for {@code IDBOpenDBRequest}.
@@ -26,6 +29,21 @@ import org.htmlunit.javascript.configuration.JsxConstructor;
 @JsxClass
 public class IDBOpenDBRequest extends IDBRequest {
 
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBOpenDBRequest() {
+        super();
+    }
+
+    /**
+     * Ctor.
+     * @param window the window
+     */
+    IDBOpenDBRequest(final Window window) {
+        super(window, null, null);
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -34,4 +52,40 @@ public class IDBOpenDBRequest extends IDBRequest {
     public void jsConstructor() {
         super.jsConstructor();
     }
+
+    /**
+     * Returns the {@code onupgradeneeded} event handler.
+     * @return the {@code onupgradeneeded} event handler
+     */
+    @JsxGetter
+    public Object getOnupgradeneeded() {
+        return getEventHandler("upgradeneeded");
+    }
+
+    /**
+     * Sets the {@code onupgradeneeded} event handler.
+     * @param handler the {@code onupgradeneeded} event handler
+     */
+    @JsxSetter
+    public void setOnupgradeneeded(final Object handler) {
+        setEventHandler("upgradeneeded", handler);
+    }
+
+    /**
+     * Returns the {@code onblocked} event handler.
+     * @return the {@code onblocked} event handler
+     */
+    @JsxGetter
+    public Object getOnblocked() {
+        return getEventHandler("blocked");
+    }
+
+    /**
+     * Sets the {@code onblocked} event handler.
+     * @param handler the {@code onblocked} event handler
+     */
+    @JsxSetter
+    public void setOnblocked(final Object handler) {
+        setEventHandler("blocked", handler);
+    }
 }
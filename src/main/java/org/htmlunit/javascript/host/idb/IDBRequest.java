@@ -14,8 +14,14 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.javascript.configuration.JsxSetter;
+import org.htmlunit.javascript.host.Window;
+import org.htmlunit.javascript.host.dom.DOMException;
+import org.htmlunit.javascript.host.event.Event;
 import org.htmlunit.javascript.host.event.EventTarget;
 
 /**
@@ -27,6 +33,36 @@ import org.htmlunit.javascript.host.event.EventTarget;
 @JsxClass
 public class IDBRequest extends EventTarget {
 
+    private static final String READY_STATE_PENDING = "pending";
+    private static final String READY_STATE_DONE = "done";
+
+    private Object source_;
+    private IDBTransaction transaction_;
+    private Object result_ = JavaScriptEngine.UNDEFINED;
+    private DOMException error_;
+    private boolean done_;
+
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBRequest() {
+        super();
+    }
+
+    /**
+     * Ctor.
+     * @param window the window
+     * @param source the source (an {@link IDBObjectStore}, {@link IDBIndex} or {@link IDBCursor}; or null)
+     * @param transaction the transaction (maybe null)
+     */
+    IDBRequest(final Window window, final Object source, final IDBTransaction transaction) {
+        super();
+        setParentScope(window);
+        setPrototype(window.getPrototype(getClass()));
+        source_ = source;
+        transaction_ = transaction;
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -35,4 +71,147 @@ public class IDBRequest extends EventTarget {
     public void jsConstructor() {
         super.jsConstructor();
     }
+
+    /**
+     * @return the result
+     */
+    @JsxGetter
+    public Object getResult() {
+        if (!done_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The request has not finished.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        return result_;
+    }
+
+    /**
+     * @return the error
+     */
+    @JsxGetter
+    public DOMException getError() {
+        if (!done_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The request has not finished.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        return error_;
+    }
+
+    /**
+     * @return the source
+     */
+    @JsxGetter
+    public Object getSource() {
+        return source_;
+    }
+
+    /**
+     * @return the transaction
+     */
+    @JsxGetter
+    public IDBTransaction getTransaction() {
+        return transaction_;
+    }
+
+    void setTransaction(final IDBTransaction transaction) {
+        transaction_ = transaction;
+    }
+
+    /**
+     * @return the ready state
+     */
+    @JsxGetter
+    public String getReadyState() {
+        return done_ ? READY_STATE_DONE : READY_STATE_PENDING;
+    }
+
+    /**
+     * Returns the {@code onsuccess} event handler.
+     * @return the {@code onsuccess} event handler
+     */
+    @JsxGetter
+    public Object getOnsuccess() {
+        return getEventHandler("success");
+    }
+
+    /**
+     * Sets the {@code onsuccess} event handler.
+     * @param handler the {@code onsuccess} event handler
+     */
+    @JsxSetter
+    public void setOnsuccess(final Object handler) {
+        setEventHandler("success", handler);
+    }
+
+    /**
+     * Returns the {@code onerror} event handler.
+     * @return the {@code onerror} event handler
+     */
+    @JsxGetter
+    public Object getOnerror() {
+        return getEventHandler(Event.TYPE_ERROR);
+    }
+
+    /**
+     * Sets the {@code onerror} event handler.
+     * @param handler the {@code onerror} event handler
+     */
+    @JsxSetter
+    public void setOnerror(final Object handler) {
+        setEventHandler(Event.TYPE_ERROR, handler);
+    }
+
+    /**
+     * Resets the request; used by cursors for the next iteration.
+     */
+    void reset() {
+        done_ = false;
+        result_ = JavaScriptEngine.UNDEFINED;
+        error_ = null;
+    }
+
+    /**
+     * Marks the request as done without firing an event; used for the {@code upgradeneeded} case.
+     * @param result the result
+     */
+    void setResult(final Object result) {
+        done_ = true;
+        result_ = result;
+    }
+
+    /**
+     * Marks the request as done and fires the success event.
+     * @param result the result
+     */
+    void succeed(final Object result) {
+        done_ = true;
+        result_ = result;
+        error_ = null;
+        fire(new Event(this, "success"));
+    }
+
+    /**
+     * Marks the request as done and fires the error event.
+     * @param error the error
+     * @return the event; used to check if the default action was prevented
+     */
+    Event fail(final DOMException error) {
+        done_ = true;
+        result_ = JavaScriptEngine.UNDEFINED;
+        error_ = error;
+
+        final Event event = new Event(this, Event.TYPE_ERROR);
+        event.setBubbles(true);
+        event.setCancelable(true);
+        fire(event);
+        return event;
+    }
+
+    /**
+     * Executes the event on this request.
+     * @param event the event
+     */
+    void fire(final Event event) {
+        event.setTarget(this);
+        executeEventLocally(event);
+    }
 }
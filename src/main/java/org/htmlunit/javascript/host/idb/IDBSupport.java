@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.javascript.host.idb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.corejs.javascript.EcmaError;
+import org.htmlunit.corejs.javascript.NativeArray;
+import org.htmlunit.corejs.javascript.RhinoException;
+import org.htmlunit.corejs.javascript.ScriptRuntime;
+import org.htmlunit.corejs.javascript.Scriptable;
+import org.htmlunit.corejs.javascript.ScriptableObject;
+import org.htmlunit.corejs.javascript.json.JsonParser;
+import org.htmlunit.corejs.javascript.json.JsonParser.ParseException;
+import org.htmlunit.javascript.HtmlUnitScriptable;
+import org.htmlunit.javascript.JavaScriptEngine;
+import org.htmlunit.javascript.host.dom.DOMException;
+import org.htmlunit.storage.IndexedDbException;
+import org.htmlunit.storage.IndexedDbKeyRange;
+
+/**
+ * Conversions between the JavaScript values and the keys/values of the
+ * {@link org.htmlunit.storage.IndexedDbBackend}.
+ * <p>
+ * Values are cloned using their JSON representation; this is a subset of the structured clone
+ * algorithm (e.g. dates are stored as strings, Maps and Sets are not supported).
+ * </p>
+ *
+ * @author Ronald Brill
+ */
+final class IDBSupport {
+
+    static final String TRANSACTION_INACTIVE_ERROR = "TransactionInactiveError";
+    static final String READ_ONLY_ERROR = "ReadOnlyError";
+    static final String INVALID_STATE_ERROR = "InvalidStateError";
+    static final String DATA_CLONE_ERROR = "DataCloneError";
+    static final String ABORT_ERROR = "AbortError";
+
+    private IDBSupport() {
+    }
+
+    /**
+     * @param value the JavaScript value
+     * @return the key or {@code null} if the value is not a valid key
+     */
+    static Object toKey(final Object value) {
+        return toKey(value, new IdentityHashMap<>());
+    }
+
+    private static Object toKey(final Object value, final Map<Object, Object> seen) {
+        if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number)) {
+                return null;
+            }
+            return Double.valueOf(number);
+        }
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+        if (value instanceof NativeArray) {
+            if (seen.put(value, value) != null) {
+                return null;
+            }
+            final NativeArray array = (NativeArray) value;
+            final List<Object> keys = new ArrayList<>();
+            for (int i = 0; i < array.getLength(); i++) {
+                final Object key = toKey(array.get(i, array), seen);
+                if (key == null) {
+                    return null;
+                }
+                keys.add(key);
+            }
+            seen.remove(value);
+            return Collections.unmodifiableList(keys);
+        }
+        if (value instanceof Scriptable && "Date".equals(((Scriptable) value).getClassName())) {
+            final double time = ScriptRuntime.toNumber(value);
+            if (Double.isNaN(time)) {
+                return null;
+            }
+            return new Date((long) time);
+        }
+        return null;
+    }
+
+    /**
+     * @param value the JavaScript value
+     * @param scope the scope for the exception
+     * @return the key
+     * @throws RhinoException (DataError) if the value is not a valid key
+     */
+    static Object toValidKey(final Object value, final HtmlUnitScriptable scope) {
+        final Object key = toKey(value);
+        if (key == null) {
+            throw JavaScriptEngine.asJavaScriptException(scope,
+                    "The parameter is not a valid key.", IndexedDbException.DATA_ERROR);
+        }
+        return key;
+    }
+
+    /**
+     * @param key the key
+     * @param cx the context
+     * @param scope the scope
+     * @return the JavaScript value of the key
+     */
+    static Object toJs(final Object key, final Context cx, final Scriptable scope) {
+        if (key == null) {
+            return JavaScriptEngine.UNDEFINED;
+        }
+        if (key instanceof Date) {
+            return cx.newObject(scope, "Date", new Object[] {Double.valueOf(((Date) key).getTime())});
+        }
+        if (key instanceof List) {
+            final List<?> list = (List<?>) key;
+            final Object[] elements = new Object[list.size()];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = toJs(list.get(i), cx, scope);
+            }
+            return cx.newArray(scope, elements);
+        }
+        return key;
+    }
+
+    /**
+     * @param query the JavaScript query; undefined, null, a key or an {@link IDBKeyRange}
+     * @param scope the scope for the exception
+     * @return the range
+     */
+    static IndexedDbKeyRange toRange(final Object query, final HtmlUnitScriptable scope) {
+        if (query == null || JavaScriptEngine.isUndefined(query)) {
+            return IndexedDbKeyRange.ALL;
+        }
+        if (query instanceof IDBKeyRange) {
+            return ((IDBKeyRange) query).getRange();
+        }
+        return IndexedDbKeyRange.only(toValidKey(query, scope));
+    }
+
+    /**
+     * @param query the JavaScript query; a key or an {@link IDBKeyRange}
+     * @param scope the scope for the exception
+     * @return the range
+     */
+    static IndexedDbKeyRange toRequiredRange(final Object query, final HtmlUnitScriptable scope) {
+        if (query == null || JavaScriptEngine.isUndefined(query)) {
+            throw JavaScriptEngine.asJavaScriptException(scope,
+                    "No key or key range specified.", IndexedDbException.DATA_ERROR);
+        }
+        return toRange(query, scope);
+    }
+
+    /**
+     * @param count the JavaScript count argument
+     * @return the count; 0 for all
+     */
+    static long toCount(final Object count) {
+        if (JavaScriptEngine.isUndefined(count)) {
+            return 0;
+        }
+        final double value = JavaScriptEngine.toNumber(count);
+        if (Double.isNaN(value) || value < 0 || value > 4294967295d) {
+            throw JavaScriptEngine.typeError("The count parameter is out of range.");
+        }
+        return (long) value;
+    }
+
+    /**
+     * @param keyPath the JavaScript key path; undefined, null, a string or an array of strings
+     * @return {@code null}, a {@link String} or a {@link List} of strings
+     */
+    static Object toKeyPath(final Object keyPath) {
+        if (keyPath == null || JavaScriptEngine.isUndefined(keyPath)) {
+            return null;
+        }
+        if (keyPath instanceof NativeArray) {
+            final NativeArray array = (NativeArray) keyPath;
+            final List<String> paths = new ArrayList<>();
+            for (int i = 0; i < array.getLength(); i++) {
+                paths.add(JavaScriptEngine.toString(array.get(i, array)));
+            }
+            return Collections.unmodifiableList(paths);
+        }
+        return JavaScriptEngine.toString(keyPath);
+    }
+
+    /**
+     * @param keyPath the key path
+     * @param cx the context
+     * @param scope the scope
+     * @return the JavaScript value of the key path
+     */
+    static Object keyPathToJs(final Object keyPath, final Context cx, final Scriptable scope) {
+        if (keyPath == null) {
+            return null;
+        }
+        if (keyPath instanceof List) {
+            return cx.newArray(scope, ((List<?>) keyPath).toArray());
+        }
+        return keyPath;
+    }
+
+    /**
+     * Evaluates a string key path on the value.
+     * @param value the value
+     * @param keyPath the key path
+     * @return the result or {@link Scriptable#NOT_FOUND}
+     */
+    static Object evaluateKeyPath(final Object value, final String keyPath) {
+        if (keyPath.isEmpty()) {
+            return value;
+        }
+
+        Object current = value;
+        for (final String part : keyPath.split("\\.", -1)) {
+            if (current instanceof CharSequence && "length".equals(part)) {
+                current = Double.valueOf(((CharSequence) current).length());
+                continue;
+            }
+            if (!(current instanceof Scriptable)) {
+                return Scriptable.NOT_FOUND;
+            }
+            current = ScriptableObject.getProperty((Scriptable) current, part);
+            if (current == Scriptable.NOT_FOUND || JavaScriptEngine.isUndefined(current)) {
+                return Scriptable.NOT_FOUND;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Extracts the key from the value.
+     * @param value the value
+     * @param keyPath the key path; a {@link String} or a {@link List} of strings
+     * @return the key or {@code null} if the key path does not yield a valid key
+     */
+    static Object extractKey(final Object value, final Object keyPath) {
+        if (keyPath instanceof List) {
+            final List<Object> keys = new ArrayList<>();
+            for (final Object path : (List<?>) keyPath) {
+                final Object key = extractKey(value, path);
+                if (key == null) {
+                    return null;
+                }
+                keys.add(key);
+            }
+            return Collections.unmodifiableList(keys);
+        }
+
+        final Object result = evaluateKeyPath(value, (String) keyPath);
+        if (result == Scriptable.NOT_FOUND) {
+            return null;
+        }
+        return toKey(result);
+    }
+
+    /**
+     * Stores the key in the value; missing intermediate objects are created.
+     * @param value the value
+     * @param keyPath the key path
+     * @param key the JavaScript value of the key
+     * @param cx the context
+     * @param scope the scope
+     * @return false if the key can't be stored
+     */
+    static boolean injectKey(final Object value, final String keyPath, final Object key,
+            final Context cx, final Scriptable scope) {
+        if (!(value instanceof Scriptable)) {
+            return false;
+        }
+
+        final String[] parts = keyPath.split("\\.", -1);
+        Scriptable current = (Scriptable) value;
+        for (int i = 0; i < parts.length - 1; i++) {
+            Object next = ScriptableObject.getProperty(current, parts[i]);
+            if (next == Scriptable.NOT_FOUND || JavaScriptEngine.isUndefined(next)) {
+                next = cx.newObject(scope);
+                ScriptableObject.putProperty(current, parts[i], next);
+            }
+            if (!(next instanceof Scriptable)) {
+                return false;
+            }
+            current = (Scriptable) next;
+        }
+        ScriptableObject.putProperty(current, parts[parts.length - 1], key);
+        return true;
+    }
+
+    /**
+     * Calculates the keys of all indexes for a value.
+     * @param value the value
+     * @param keyPath the index key path
+     * @param multiEntry whether the array keys are added as one entry per element
+     * @return the keys
+     */
+    static List<Object> indexKeys(final Object value, final Object keyPath, final boolean multiEntry) {
+        if (multiEntry && keyPath instanceof String) {
+            final Object result = evaluateKeyPath(value, (String) keyPath);
+            if (result instanceof NativeArray) {
+                final NativeArray array = (NativeArray) result;
+                final List<Object> keys = new ArrayList<>();
+                for (int i = 0; i < array.getLength(); i++) {
+                    final Object key = toKey(array.get(i, array));
+                    if (key != null) {
+                        keys.add(key);
+                    }
+                }
+                return keys;
+            }
+        }
+
+        final Object key = extractKey(value, keyPath);
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(key);
+    }
+
+    /**
+     * Clones the value by converting it into the JSON representation.
+     * @param value the value
+     * @param cx the context
+     * @param scope the scope
+     * @return the serialized value, {@code null} for undefined
+     */
+    static String serialize(final Object value, final Context cx, final HtmlUnitScriptable scope) {
+        if (JavaScriptEngine.isUndefined(value)) {
+            return null;
+        }
+
+        final Scriptable json = (Scriptable) ScriptableObject.getProperty(
+                ScriptableObject.getTopLevelScope(scope), "JSON");
+        final Object result;
+        try {
+            result = ScriptableObject.callMethod(cx, json, "stringify", new Object[] {value});
+        }
+        catch (final EcmaError e) {
+            throw JavaScriptEngine.asJavaScriptException(scope,
+                    "The object could not be cloned: " + e.getErrorMessage(), DATA_CLONE_ERROR);
+        }
+        if (JavaScriptEngine.isUndefined(result)) {
+            throw JavaScriptEngine.asJavaScriptException(scope,
+                    "The object could not be cloned.", DATA_CLONE_ERROR);
+        }
+        return JavaScriptEngine.toString(result);
+    }
+
+    /**
+     * @param value the serialized value
+     * @param cx the context
+     * @param scope the scope
+     * @return the JavaScript value
+     */
+    static Object deserialize(final String value, final Context cx, final Scriptable scope) {
+        if (value == null) {
+            return JavaScriptEngine.UNDEFINED;
+        }
+        try {
+            return new JsonParser(cx, scope).parseValue(value);
+        }
+        catch (final ParseException e) {
+            throw JavaScriptEngine.reportRuntimeError("Invalid stored value: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param name the name of the error
+     * @param message the message
+     * @param scope the scope
+     * @return a new DOMException
+     */
+    static DOMException newDomException(final String name, final String message, final HtmlUnitScriptable scope) {
+        final DOMException domException = new DOMException();
+        domException.jsConstructor(message, name);
+        domException.setParentScope(scope.getWindow());
+        domException.setPrototype(scope.getPrototype(DOMException.class));
+        return domException;
+    }
+}
@@ -14,12 +14,48 @@
  */
 package org.htmlunit.javascript.host.idb;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.htmlunit.WebWindow;
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.javascript.AbstractJavaScriptEngine;
+import org.htmlunit.javascript.JavaScriptEngine;
+import org.htmlunit.javascript.background.BackgroundJavaScriptFactory;
+import org.htmlunit.javascript.background.JavaScriptJob;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
+import org.htmlunit.javascript.configuration.JsxFunction;
+import org.htmlunit.javascript.configuration.JsxGetter;
+import org.htmlunit.javascript.configuration.JsxSetter;
+import org.htmlunit.javascript.host.Window;
+import org.htmlunit.javascript.host.dom.DOMException;
+import org.htmlunit.javascript.host.dom.DOMStringList;
+import org.htmlunit.javascript.host.event.Event;
 import org.htmlunit.javascript.host.event.EventTarget;
+import org.htmlunit.storage.IndexedDbException;
+import org.htmlunit.storage.IndexedDbObjectStore;
+import org.htmlunit.storage.IndexedDbTransaction;
 
 /**
  * A JavaScript object for {@code IDBTransaction}.
+ * <p>
+ * The requests of a transaction are processed by one job of the window's
+ * {@link org.htmlunit.javascript.background.JavaScriptJobManager}; the transaction is active
+ * until the job starts and while the request callbacks are running. The transaction is
+ * committed as soon as there are no more pending requests.
+ * </p>
+ * <p>
+ * The backend transaction is started by the job; at this point the backend waits for running
+ * transactions of other threads with an overlapping scope (see
+ * {@link org.htmlunit.storage.IndexedDbBackend#beginTransaction(String, String, java.util.Collection,
+ * boolean)}).
+ * </p>
  *
  * @author Ahmed Ashour
  * @author Ronald Brill
@@ -27,6 +63,71 @@ import org.htmlunit.javascript.host.event.EventTarget;
 @JsxClass
 public class IDBTransaction extends EventTarget {
 
+    static final String MODE_READONLY = "readonly";
+    static final String MODE_READWRITE = "readwrite";
+    static final String MODE_VERSIONCHANGE = "versionchange";
+
+    private IDBDatabase db_;
+    private List<String> storeNames_;
+    private String mode_;
+    private IndexedDbTransaction transaction_;
+    private final Deque<PendingRequest> requests_ = new ArrayDeque<>();
+    private final Map<String, IDBObjectStore> objectStores_ = new HashMap<>();
+    private boolean active_;
+    private boolean committing_;
+    private boolean finished_;
+    private boolean aborted_;
+    private DOMException error_;
+
+    /**
+     * An operation of a request; executed when the transaction processes the request.
+     */
+    interface Operation {
+        /**
+         * @param cx the context
+         * @return the result of the request
+         */
+        Object execute(Context cx);
+    }
+
+    private static final class PendingRequest {
+        private final IDBRequest request_;
+        private final Operation operation_;
+
+        PendingRequest(final IDBRequest request, final Operation operation) {
+            request_ = request;
+            operation_ = operation;
+        }
+    }
+
+    /**
+     * Default constructor used to build the prototype.
+     */
+    public IDBTransaction() {
+        super();
+    }
+
+    /**
+     * Ctor.
+     * @param db the database
+     * @param storeNames the names of the object stores in the scope
+     * @param mode the mode
+     * @param transaction the backend transaction; {@code null} to start it when processing the requests
+     */
+    IDBTransaction(final IDBDatabase db, final List<String> storeNames, final String mode,
+            final IndexedDbTransaction transaction) {
+        super();
+        setParentScope(db.getParentScope());
+        setPrototype(db.getPrototype(IDBTransaction.class));
+
+        db_ = db;
+        storeNames_ = new ArrayList<>(storeNames);
+        Collections.sort(storeNames_);
+        mode_ = mode;
+        transaction_ = transaction;
+        active_ = true;
+    }
+
     /**
      * JavaScript constructor.
      */
@@ -35,4 +136,348 @@ public class IDBTransaction extends EventTarget {
     public void jsConstructor() {
         super.jsConstructor();
     }
+
+    /**
+     * @return the database
+     */
+    @JsxGetter
+    public IDBDatabase getDb() {
+        return db_;
+    }
+
+    /**
+     * @return the mode
+     */
+    @JsxGetter
+    public String getMode() {
+        return mode_;
+    }
+
+    /**
+     * @return the error or {@code null}
+     */
+    @JsxGetter
+    public DOMException getError() {
+        return error_;
+    }
+
+    /**
+     * @return the names of the object stores in the scope
+     */
+    @JsxGetter
+    public DOMStringList getObjectStoreNames() {
+        if (MODE_VERSIONCHANGE.equals(mode_)) {
+            return new DOMStringList(this, db_.getDatabase().getObjectStoreNames());
+        }
+        return new DOMStringList(this, Collections.unmodifiableList(storeNames_));
+    }
+
+    /**
+     * Returns an object store in the scope of this transaction.
+     * @param name the name of the object store
+     * @return the object store
+     */
+    @JsxFunction
+    public IDBObjectStore objectStore(final String name) {
+        if (finished_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The transaction has finished.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        final IndexedDbObjectStore store = db_.getDatabase().getObjectStore(name);
+        if (store == null || !MODE_VERSIONCHANGE.equals(mode_) && !storeNames_.contains(name)) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The specified object store was not found.", IndexedDbException.NOT_FOUND_ERROR);
+        }
+
+        final IDBObjectStore objectStore = objectStores_.get(name);
+        if (objectStore != null && objectStore.getStore() == store) {
+            return objectStore;
+        }
+        final IDBObjectStore newObjectStore = new IDBObjectStore(this, store);
+        objectStores_.put(name, newObjectStore);
+        return newObjectStore;
+    }
+
+    /**
+     * Aborts the transaction.
+     */
+    @JsxFunction
+    public void abort() {
+        if (finished_ || committing_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The transaction has finished.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        abort(null);
+    }
+
+    /**
+     * Commits the transaction after all pending requests are processed.
+     */
+    @JsxFunction
+    public void commit() {
+        if (finished_ || committing_ || !active_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The transaction is not active.", IDBSupport.INVALID_STATE_ERROR);
+        }
+        committing_ = true;
+    }
+
+    /**
+     * Returns the {@code oncomplete} event handler.
+     * @return the {@code oncomplete} event handler
+     */
+    @JsxGetter
+    public Object getOncomplete() {
+        return getEventHandler("complete");
+    }
+
+    /**
+     * Sets the {@code oncomplete} event handler.
+     * @param handler the {@code oncomplete} event handler
+     */
+    @JsxSetter
+    public void setOncomplete(final Object handler) {
+        setEventHandler("complete", handler);
+    }
+
+    /**
+     * Returns the {@code onerror} event handler.
+     * @return the {@code onerror} event handler
+     */
+    @JsxGetter
+    public Object getOnerror() {
+        return getEventHandler(Event.TYPE_ERROR);
+    }
+
+    /**
+     * Sets the {@code onerror} event handler.
+     * @param handler the {@code onerror} event handler
+     */
+    @JsxSetter
+    public void setOnerror(final Object handler) {
+        setEventHandler(Event.TYPE_ERROR, handler);
+    }
+
+    /**
+     * Returns the {@code onabort} event handler.
+     * @return the {@code onabort} event handler
+     */
+    @JsxGetter
+    public Object getOnabort() {
+        return getEventHandler(Event.TYPE_ABORT);
+    }
+
+    /**
+     * Sets the {@code onabort} event handler.
+     * @param handler the {@code onabort} event handler
+     */
+    @JsxSetter
+    public void setOnabort(final Object handler) {
+        setEventHandler(Event.TYPE_ABORT, handler);
+    }
+
+    IndexedDbTransaction getTransaction() {
+        return transaction_;
+    }
+
+    boolean isVersionChange() {
+        return MODE_VERSIONCHANGE.equals(mode_);
+    }
+
+    boolean isFinished() {
+        return finished_;
+    }
+
+    boolean isAborted() {
+        return aborted_;
+    }
+
+    void checkActive() {
+        if (!active_ || committing_ || finished_) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The transaction is not active.", IDBSupport.TRANSACTION_INACTIVE_ERROR);
+        }
+    }
+
+    void checkWritable() {
+        checkActive();
+        if (MODE_READONLY.equals(mode_)) {
+            throw JavaScriptEngine.asJavaScriptException(this,
+                    "The transaction is read-only.", IDBSupport.READ_ONLY_ERROR);
+        }
+    }
+
+    /**
+     * Adds a new request.
+     * @param source the source of the request
+     * @param operation the operation
+     * @return the request
+     */
+    IDBRequest addRequest(final Object source, final Operation operation) {
+        final IDBRequest request = new IDBRequest(getWindow(), source, this);
+        addRequest(request, operation);
+        return request;
+    }
+
+    /**
+     * Adds an existing request again; used by cursors.
+     * @param request the request
+     * @param operation the operation
+     */
+    void addRequest(final IDBRequest request, final Operation operation) {
+        checkActive();
+        requests_.add(new PendingRequest(request, operation));
+    }
+
+    /**
+     * Processes the requests later using a job.
+     */
+    void schedule() {
+        final WebWindow webWindow = getWindow().getWebWindow();
+        final JavaScriptJob job = BackgroundJavaScriptFactory.theFactory()
+                .createJavaScriptJob(0, null, () -> {
+                    final AbstractJavaScriptEngine<?> engine = webWindow.getWebClient().getJavaScriptEngine();
+                    engine.getContextFactory().call(cx -> {
+                        process(cx);
+                        return null;
+                    });
+                });
+        webWindow.getJobManager().addJob(job, webWindow.getEnclosedPage());
+    }
+
+    /**
+     * Processes all the requests; the transaction is committed at the end.
+     * @param cx the context
+     */
+    void process(final Context cx) {
+        active_ = false;
+        if (finished_) {
+            return;
+        }
+
+        if (transaction_ == null) {
+            try {
+                transaction_ = db_.beginTransaction(storeNames_, MODE_READONLY.equals(mode_));
+            }
+            catch (final IndexedDbException e) {
+                abort(IDBSupport.newDomException(e.getName(), e.getMessage(), this));
+                return;
+            }
+        }
+
+        try {
+            while (!finished_ && !requests_.isEmpty()) {
+                execute(cx, requests_.poll());
+            }
+        }
+        catch (final RuntimeException e) {
+            // never leave the backend transaction open
+            abort(IDBSupport.newDomException(IndexedDbException.UNKNOWN_ERROR, e.getMessage(), this));
+            throw e;
+        }
+
+        if (finished_) {
+            return;
+        }
+
+        finished_ = true;
+        try {
+            transaction_.commit();
+        }
+        catch (final IndexedDbException e) {
+            finished_ = false;
+            abort(IDBSupport.newDomException(e.getName(), e.getMessage(), this));
+            return;
+        }
+        // complete does not bubble
+        executeEventLocally(new Event(this, "complete"));
+    }
+
+    private void execute(final Context cx, final PendingRequest pending) {
+        final IDBRequest request = pending.request_;
+        Object result = null;
+        DOMException error = null;
+        try {
+            result = pending.operation_.execute(cx);
+        }
+        catch (final IndexedDbException e) {
+            error = IDBSupport.newDomException(e.getName(), e.getMessage(), this);
+        }
+
+        active_ = true;
+        final Window window = getWindow();
+        final int scriptErrors = window.getScriptErrorCount();
+        Event errorEvent = null;
+        try {
+            if (error == null) {
+                request.succeed(result);
+            }
+            else {
+                errorEvent = request.fail(error);
+                if (!errorEvent.isCancelBubble()) {
+                    fire(errorEvent);
+                }
+            }
+        }
+        catch (final RuntimeException e) {
+            active_ = false;
+            abortOnCallbackException();
+            throw e;
+        }
+        finally {
+            active_ = false;
+        }
+
+        if (window.getScriptErrorCount() != scriptErrors) {
+            // the exception was reported but not rethrown
+            abortOnCallbackException();
+        }
+        else if (errorEvent != null && !errorEvent.isDefaultPrevented()) {
+            abort(error);
+        }
+    }
+
+    /**
+     * Aborts the transaction because a callback has thrown an exception.
+     */
+    void abortOnCallbackException() {
+        abort(IDBSupport.newDomException(IDBSupport.ABORT_ERROR,
+                "An exception was thrown by an event handler.", this));
+    }
+
+    /**
+     * Aborts the transaction; all changes are reverted.
+     * @param error the error or {@code null} if aborted by script
+     */
+    void abort(final DOMException error) {
+        if (finished_) {
+            return;
+        }
+
+        finished_ = true;
+        aborted_ = true;
+        active_ = false;
+        error_ = error;
+        if (transaction_ != null) {
+            transaction_.abort();
+        }
+
+        while (!requests_.isEmpty()) {
+            final IDBRequest request = requests_.poll().request_;
+            request.fail(IDBSupport.newDomException(IDBSupport.ABORT_ERROR, "The transaction was aborted.", this));
+        }
+
+        final Event event = new Event(this, Event.TYPE_ABORT);
+        event.setCancelable(false);
+        fire(event);
+    }
+
+    /**
+     * Executes the event on this transaction and the database (bubbling).
+     * @param event the event
+     */
+    private void fire(final Event event) {
+        executeEventLocally(event);
+        db_.executeEventLocally(event);
+    }
 }
@@ -17,16 +17,21 @@ package org.htmlunit.javascript.host.worker;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.htmlunit.BrowserVersion;
+import org.htmlunit.ScriptException;
 import org.htmlunit.WebClient;
 import org.htmlunit.WebRequest;
 import org.htmlunit.WebResponse;
+import org.htmlunit.WebWindow;
 import org.htmlunit.corejs.javascript.Context;
 import org.htmlunit.corejs.javascript.ContextAction;
 import org.htmlunit.corejs.javascript.ContextFactory;
@@ -40,8 +45,10 @@ import org.htmlunit.javascript.HtmlUnitContextFactory;
 import org.htmlunit.javascript.HtmlUnitScriptable;
 import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.javascript.RecursiveFunctionObject;
+import org.htmlunit.javascript.TimeoutError;
 import org.htmlunit.javascript.background.BasicJavaScriptJob;
 import org.htmlunit.javascript.background.JavaScriptJob;
+import org.htmlunit.javascript.background.JavaScriptJobManager;
 import org.htmlunit.javascript.configuration.ClassConfiguration;
 import org.htmlunit.javascript.configuration.JsxClass;
 import org.htmlunit.javascript.configuration.JsxConstructor;
@@ -66,6 +73,11 @@ import org.htmlunit.util.MimeType;
 
 /**
  * The scope for the execution of {@link Worker}s.
+ * <p>
+ * By default the worker code is executed by the JavaScript executor of the owning window.
+ * If {@link org.htmlunit.WebClientOptions#setWorkerThreadsEnabled(boolean)} is set, every worker
+ * has its own {@link WorkerEventLoop} thread and the messages are passed as copies.
+ * </p>
  *
  * @author Marc Guillemot
  * @author Ronald Brill
@@ -86,6 +98,10 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
     private final Worker worker_;
     private WorkerLocation workerLocation_;
     private WorkerNavigator workerNavigator_;
+    private final WorkerEventLoop eventLoop_;
+    // the timers of a worker executed by the window, removed from the job manager on terminate
+    private final Set<Integer> windowTimerIds_ = ConcurrentHashMap.newKeySet();
+    private volatile boolean terminated_;
 
     static {
         try {
@@ -108,6 +124,7 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
         name_ = null;
         worker_ = null;
         workerLocation_ = null;
+        eventLoop_ = null;
     }
 
     /**
@@ -194,6 +211,13 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
 
         worker_ = worker;
         workerLocation_ = null;
+
+        if (webClient.getOptions().isWorkerThreadsEnabled()) {
+            eventLoop_ = new WorkerEventLoop(this, webClient.getJavaScriptEngine().getContextFactory(), name);
+        }
+        else {
+            eventLoop_ = null;
+        }
     }
 
     /**
@@ -260,23 +284,36 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
      */
     @JsxFunction
     public void postMessage(final Object message) {
-        final MessageEvent event = new MessageEvent();
-        event.initMessageEvent(Event.TYPE_MESSAGE, false, false, message, origin_, "",
-                                    owningWindow_, JavaScriptEngine.UNDEFINED);
-        event.setParentScope(owningWindow_);
-        event.setPrototype(owningWindow_.getPrototype(event.getClass()));
-
         if (LOG.isDebugEnabled()) {
             LOG.debug("[DedicatedWorker] postMessage: {}" + message);
         }
+        if (terminated_) {
+            return;
+        }
+
+        final ContextAction<Object> action;
+        if (eventLoop_ == null) {
+            final MessageEvent event = createWindowMessageEvent(message);
+            action = cx -> {
+                if (!terminated_) {
+                    dispatchOnPage(event);
+                }
+                return null;
+            };
+        }
+        else {
+            // we are on the worker thread; only the copy is passed to the page
+            final Object data = StructuredClone.write(Context.getCurrentContext(), this, message);
+            action = cx -> {
+                if (!terminated_) {
+                    dispatchOnPage(createWindowMessageEvent(StructuredClone.read(cx, owningWindow_, data)));
+                }
+                return null;
+            };
+        }
+
         final JavaScriptEngine jsEngine =
                 (JavaScriptEngine) owningWindow_.getWebWindow().getWebClient().getJavaScriptEngine();
-        final ContextAction<Object> action = cx -> {
-            worker_.getEventListenersContainer().executeCapturingListeners(event, null);
-            final Object[] args = {event};
-            worker_.getEventListenersContainer().executeBubblingListeners(event, args);
-            return null;
-        };
 
         final HtmlUnitContextFactory cf = jsEngine.getContextFactory();
 
@@ -286,7 +323,40 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
         owningWindow_.getWebWindow().getJobManager().addJob(job, page);
     }
 
+    private MessageEvent createWindowMessageEvent(final Object message) {
+        final MessageEvent event = new MessageEvent();
+        event.initMessageEvent(Event.TYPE_MESSAGE, false, false, message, origin_, "",
+                                    owningWindow_, JavaScriptEngine.UNDEFINED);
+        event.setParentScope(owningWindow_);
+        event.setPrototype(owningWindow_.getPrototype(event.getClass()));
+        return event;
+    }
+
+    private void dispatchOnPage(final MessageEvent event) {
+        worker_.getEventListenersContainer().executeCapturingListeners(event, null);
+        final Object[] args = {event};
+        worker_.getEventListenersContainer().executeBubblingListeners(event, args);
+    }
+
     void messagePosted(final Object message) {
+        if (terminated_) {
+            return;
+        }
+        if (eventLoop_ != null) {
+            // we are on the page thread; only the copy is passed to the worker
+            final Object data = StructuredClone.write(Context.getCurrentContext(), owningWindow_, message);
+            eventLoop_.execute(cx -> {
+                final MessageEvent event = new MessageEvent();
+                event.initMessageEvent(Event.TYPE_MESSAGE, false, false, StructuredClone.read(cx, this, data),
+                        origin_, "", null, JavaScriptEngine.UNDEFINED);
+                event.setParentScope(this);
+                event.setPrototype(getPrototype(event.getClass()));
+                executeEvent(cx, event);
+                return null;
+            });
+            return;
+        }
+
         final MessageEvent event = new MessageEvent();
         event.initMessageEvent(Event.TYPE_MESSAGE, false, false, message, origin_, "",
                                     owningWindow_, JavaScriptEngine.UNDEFINED);
@@ -296,7 +366,9 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
         final JavaScriptEngine jsEngine =
                 (JavaScriptEngine) owningWindow_.getWebWindow().getWebClient().getJavaScriptEngine();
         final ContextAction<Object> action = cx -> {
-            executeEvent(cx, event);
+            if (!terminated_) {
+                executeEvent(cx, event);
+            }
             return null;
         };
 
@@ -372,21 +444,74 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
         final AbstractJavaScriptEngine<?> javaScriptEngine = webClient.getJavaScriptEngine();
 
         final DedicatedWorkerGlobalScope thisScope = this;
-        final ContextAction<Object> action = cx -> {
-            return javaScriptEngine.execute(page, thisScope, scriptCode, fullUrl.toExternalForm(), 1);
-        };
+        final ContextAction<Object> action;
+        if (eventLoop_ == null) {
+            action = cx -> {
+                return javaScriptEngine.execute(page, thisScope, scriptCode, fullUrl.toExternalForm(), 1);
+            };
+        }
+        else {
+            // the engine synchronizes on the page, the worker has to run without
+            action = cx -> cx.evaluateString(thisScope, scriptCode, fullUrl.toExternalForm(), 1, null);
+        }
 
         final HtmlUnitContextFactory cf = javaScriptEngine.getContextFactory();
 
         if (context != null) {
             action.run(context);
         }
+        else if (eventLoop_ != null) {
+            eventLoop_.execute(action);
+        }
         else {
-            final JavaScriptJob job = new WorkerJob(cf, action, "loadAndExecute " + url);
+            final JavaScriptJob job = new WorkerJob(cf, cx -> terminated_ ? null : action.run(cx),
+                    "loadAndExecute " + url);
             owningWindow_.getWebWindow().getJobManager().addJob(job, page);
         }
     }
 
+    /**
+     * Terminates the worker; stops the worker thread or, if the worker is executed by the window,
+     * removes the pending timers. Messages are no longer delivered in both directions.
+     */
+    void terminate() {
+        terminated_ = true;
+        if (eventLoop_ != null) {
+            eventLoop_.shutdown();
+            return;
+        }
+
+        final JavaScriptJobManager jobManager = owningWindow_.getWebWindow().getJobManager();
+        for (final Integer id : windowTimerIds_) {
+            jobManager.removeJob(id);
+        }
+        windowTimerIds_.clear();
+    }
+
+    /**
+     * @return {@code true} if the page that created the worker is still displayed
+     */
+    boolean isOwningPageActive() {
+        final WebWindow webWindow = owningWindow_.getWebWindow();
+        return !webWindow.isClosed() && webWindow.getEnclosedPage() == owningWindow_.getDocument().getPage();
+    }
+
+    /**
+     * Reports an error of the worker thread to the {@link org.htmlunit.javascript.JavaScriptErrorListener}.
+     * @param e the error
+     */
+    void handleError(final Throwable e) {
+        final HtmlPage page = (HtmlPage) owningWindow_.getDocument().getPage();
+        final WebClient webClient = owningWindow_.getWebWindow().getWebClient();
+        if (e instanceof TimeoutError) {
+            final TimeoutError timeoutError = (TimeoutError) e;
+            webClient.getJavaScriptErrorListener().timeoutError(page,
+                    timeoutError.getAllowedTime(), timeoutError.getExecutionTime());
+            return;
+        }
+        webClient.getJavaScriptErrorListener().scriptException(page, new ScriptException(page, e));
+    }
+
     /**
      * Sets a chunk of JavaScript to be invoked at some specified time later.
      * The invocation occurs only if the window is opened after the delay
@@ -405,8 +530,12 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
     @JsxFunction
     public static Object setTimeout(final Context context, final Scriptable scope,
             final Scriptable thisObj, final Object[] args, final Function function) {
-        return WindowOrWorkerGlobalScopeMixin.setTimeout(context,
-                ((DedicatedWorkerGlobalScope) thisObj).owningWindow_, args, function);
+        final DedicatedWorkerGlobalScope workerScope = (DedicatedWorkerGlobalScope) thisObj;
+        if (workerScope.eventLoop_ != null) {
+            return workerScope.addTimer(args, false);
+        }
+        return workerScope.windowTimerAdded(WindowOrWorkerGlobalScopeMixin.setTimeout(context,
+                workerScope.owningWindow_, args, function));
     }
 
     /**
@@ -424,8 +553,85 @@ public class DedicatedWorkerGlobalScope extends WorkerGlobalScope {
     @JsxFunction
     public static Object setInterval(final Context context, final Scriptable scope,
             final Scriptable thisObj, final Object[] args, final Function function) {
-        return WindowOrWorkerGlobalScopeMixin.setInterval(context,
-                ((DedicatedWorkerGlobalScope) thisObj).owningWindow_, args, function);
+        final DedicatedWorkerGlobalScope workerScope = (DedicatedWorkerGlobalScope) thisObj;
+        if (workerScope.eventLoop_ != null) {
+            return workerScope.addTimer(args, true);
+        }
+        return workerScope.windowTimerAdded(WindowOrWorkerGlobalScopeMixin.setInterval(context,
+                workerScope.owningWindow_, args, function));
+    }
+
+    /**
+     * Cancels a time-out previously set with the
+     * {@link #setTimeout(Context, Scriptable, Scriptable, Object[], Function)} method.
+     *
+     * @param timeoutId identifier for the timeout to clear
+     *        as returned by {@link #setTimeout(Context, Scriptable, Scriptable, Object[], Function)}
+     */
+    @JsxFunction
+    public void clearTimeout(final int timeoutId) {
+        clearTimer(timeoutId);
+    }
+
+    /**
+     * Cancels the interval previously started using the
+     * {@link #setInterval(Context, Scriptable, Scriptable, Object[], Function)} method.
+     *
+     * @param intervalID specifies the interval to cancel as returned by the
+     *        {@link #setInterval(Context, Scriptable, Scriptable, Object[], Function)} method
+     */
+    @JsxFunction
+    public void clearInterval(final int intervalID) {
+        clearTimer(intervalID);
+    }
+
+    private void clearTimer(final int id) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("[DedicatedWorker] clearTimer(" + id + ")");
+        }
+
+        if (eventLoop_ != null) {
+            eventLoop_.clearTimer(id);
+            return;
+        }
+        if (windowTimerIds_.remove(id)) {
+            owningWindow_.getWebWindow().getJobManager().removeJob(id);
+        }
+    }
+
+    private Object windowTimerAdded(final Object id) {
+        if (terminated_) {
+            // the timer was created by a task already running
+            owningWindow_.getWebWindow().getJobManager().removeJob((Integer) id);
+        }
+        else {
+            windowTimerIds_.add((Integer) id);
+        }
+        return id;
+    }
+
+    private int addTimer(final Object[] args, final boolean periodic) {
+        if (args.length < 1) {
+            throw JavaScriptEngine.typeError("Function not provided");
+        }
+
+        final int timeout = JavaScriptEngine.toInt32((args.length > 1) ? args[1] : JavaScriptEngine.UNDEFINED);
+        final Object[] params = (args.length > 2)
+                ? Arrays.copyOfRange(args, 2, args.length)
+                : JavaScriptEngine.EMPTY_ARGS;
+
+        final Object code = args[0];
+        final ContextAction<Object> action;
+        if (code instanceof Function) {
+            action = cx -> ((Function) code).call(cx, this, this, params);
+        }
+        else if (code instanceof String) {
+            action = cx -> cx.evaluateString(this, (String) code, "worker timer", 1, null);
+        }
+        else {
+            throw JavaScriptEngine.reportRuntimeError("Unknown type for function.");
+        }
+        return eventLoop_.addTimer(action, Math.max(1, timeout), periodic);
     }
 
     /**
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.javascript.host.worker;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.corejs.javascript.NativeArray;
+import org.htmlunit.corejs.javascript.NativeObject;
+import org.htmlunit.corejs.javascript.ScriptRuntime;
+import org.htmlunit.corejs.javascript.Scriptable;
+import org.htmlunit.corejs.javascript.ScriptableObject;
+import org.htmlunit.corejs.javascript.typedarrays.NativeArrayBuffer;
+import org.htmlunit.corejs.javascript.typedarrays.NativeArrayBufferView;
+import org.htmlunit.javascript.HtmlUnitScriptable;
+import org.htmlunit.javascript.JavaScriptEngine;
+
+/**
+ * The structured clone of messages passed between the page and a worker running on its own thread.
+ * <p>
+ * {@link #write(Context, HtmlUnitScriptable, Object)} copies the value into plain java objects
+ * not referencing the scope of the sender; {@link #read(Context, Scriptable, Object)} creates
+ * the JavaScript objects in the scope of the receiver. Supported are the primitive values
+ * (including {@code undefined}, {@code NaN} and BigInt), plain objects, arrays, {@code Date},
+ * {@code RegExp}, {@code Map}, {@code Set}, {@code ArrayBuffer}, the typed arrays and
+ * {@code DataView}; cycles and shared references are preserved. All the other objects
+ * (functions, DOM nodes, errors...) are rejected with a {@code DataCloneError}.
+ * </p>
+ *
+ * @author Ronald Brill
+ * @see <a href="https://html.spec.whatwg.org/multipage/structured-data.html">HTML Living Standard</a>
+ */
+final class StructuredClone {
+
+    private static final String DATA_CLONE_ERROR = "DataCloneError";
+
+    /** Marker for {@code undefined}. */
+    private static final Object UNDEFINED = new Object();
+
+    private StructuredClone() {
+        // Empty.
+    }
+
+    /**
+     * Copies the value.
+     * @param cx the context
+     * @param scope the scope of the sender
+     * @param value the value
+     * @return the copy, not referencing any JavaScript object
+     */
+    static Object write(final Context cx, final HtmlUnitScriptable scope, final Object value) {
+        return write(cx, scope, value, new IdentityHashMap<>());
+    }
+
+    /**
+     * Creates the JavaScript value from the copy.
+     * @param cx the context
+     * @param scope the scope of the receiver
+     * @param data the result of {@link #write(Context, HtmlUnitScriptable, Object)}
+     * @return the value
+     */
+    static Object read(final Context cx, final Scriptable scope, final Object data) {
+        return read(cx, scope, data, new IdentityHashMap<>());
+    }
+
+    private static Object write(final Context cx, final HtmlUnitScriptable scope, final Object value,
+            final Map<Object, Object> memory) {
+        if (value == null) {
+            return null;
+        }
+        if (JavaScriptEngine.isUndefined(value)) {
+            return UNDEFINED;
+        }
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof BigInteger) {
+            return value;
+        }
+        if (!(value instanceof Scriptable)) {
+            throw notCloneable(scope, String.valueOf(value));
+        }
+
+        final Object known = memory.get(value);
+        if (known != null) {
+            return known;
+        }
+
+        final Scriptable object = (Scriptable) value;
+        if (object instanceof NativeArrayBuffer) {
+            final byte[] bytes = ((NativeArrayBuffer) object).getBuffer();
+            final byte[] copy = new byte[((NativeArrayBuffer) object).getLength()];
+            System.arraycopy(bytes, 0, copy, 0, copy.length);
+            memory.put(object, copy);
+            return copy;
+        }
+        if (object instanceof NativeArrayBufferView) {
+            final NativeArrayBufferView view = (NativeArrayBufferView) object;
+            final int length;
+            if ("DataView".equals(object.getClassName())) {
+                length = view.getByteLength();
+            }
+            else {
+                length = ScriptRuntime.toInt32(ScriptableObject.getProperty(object, "length"));
+            }
+            final ViewData data = new ViewData(object.getClassName(),
+                    (byte[]) write(cx, scope, view.getBuffer(), memory), view.getByteOffset(), length);
+            memory.put(object, data);
+            return data;
+        }
+
+        final String className = object.getClassName();
+        if ("Date".equals(className)) {
+            final DateData data = new DateData(Double.valueOf(ScriptRuntime.toNumber(object)));
+            memory.put(object, data);
+            return data;
+        }
+        if ("RegExp".equals(className)) {
+            final StringBuilder flags = new StringBuilder();
+            appendFlag(object, "global", 'g', flags);
+            appendFlag(object, "ignoreCase", 'i', flags);
+            appendFlag(object, "multiline", 'm', flags);
+            appendFlag(object, "dotAll", 's', flags);
+            appendFlag(object, "unicode", 'u', flags);
+            appendFlag(object, "sticky", 'y', flags);
+            final RegExpData data = new RegExpData(
+                    JavaScriptEngine.toString(ScriptableObject.getProperty(object, "source")), flags.toString());
+            memory.put(object, data);
+            return data;
+        }
+        if ("Map".equals(className) || "Set".equals(className)) {
+            final CollectionData data = new CollectionData("Map".equals(className));
+            memory.put(object, data);
+
+            // Array.from() returns the entries of a map, the values of a set
+            final Scriptable arrayCtor = (Scriptable) ScriptableObject.getProperty(
+                    ScriptableObject.getTopLevelScope(scope), "Array");
+            final NativeArray entries =
+                    (NativeArray) ScriptableObject.callMethod(cx, arrayCtor, "from", new Object[] {object});
+            final long length = entries.getLength();
+            for (int i = 0; i < length; i++) {
+                final Object entry = entries.get(i, entries);
+                if (data.isMap_) {
+                    final NativeArray pair = (NativeArray) entry;
+                    data.values_.add(write(cx, scope, pair.get(0, pair), memory));
+                    data.values_.add(write(cx, scope, pair.get(1, pair), memory));
+                }
+                else {
+                    data.values_.add(write(cx, scope, entry, memory));
+                }
+            }
+            return data;
+        }
+        if (object instanceof NativeArray) {
+            final NativeArray array = (NativeArray) object;
+            final ObjectData data = new ObjectData(array.getLength());
+            memory.put(object, data);
+            for (final Object id : array.getIds()) {
+                data.keys_.add(id);
+                data.values_.add(write(cx, scope, get(array, id), memory));
+            }
+            return data;
+        }
+        if (object instanceof NativeObject) {
+            final ObjectData data = new ObjectData(-1);
+            memory.put(object, data);
+            for (final Object id : object.getIds()) {
+                data.keys_.add(id);
+                data.values_.add(write(cx, scope, get(object, id), memory));
+            }
+            return data;
+        }
+        throw notCloneable(scope, className);
+    }
+
+    private static void appendFlag(final Scriptable regExp, final String name, final char flag,
+            final StringBuilder flags) {
+        if (Boolean.TRUE.equals(ScriptableObject.getProperty(regExp, name))) {
+            flags.append(flag);
+        }
+    }
+
+    private static Object get(final Scriptable object, final Object id) {
+        if (id instanceof Integer) {
+            return ScriptableObject.getProperty(object, ((Integer) id).intValue());
+        }
+        return ScriptableObject.getProperty(object, id.toString());
+    }
+
+    private static RuntimeException notCloneable(final HtmlUnitScriptable scope, final String type) {
+        return JavaScriptEngine.asJavaScriptException(scope,
+                "The message could not be cloned: " + type + " can't be cloned.", DATA_CLONE_ERROR);
+    }
+
+    private static Object read(final Context cx, final Scriptable scope, final Object data,
+            final Map<Object, Object> memory) {
+        if (data == UNDEFINED) {
+            return JavaScriptEngine.UNDEFINED;
+        }
+        if (data == null || data instanceof String || data instanceof Number
+                || data instanceof Boolean || data instanceof BigInteger) {
+            return data;
+        }
+
+        final Object known = memory.get(data);
+        if (known != null) {
+            return known;
+        }
+
+        if (data instanceof byte[]) {
+            final byte[] bytes = (byte[]) data;
+            final NativeArrayBuffer buffer = (NativeArrayBuffer) cx.newObject(scope, "ArrayBuffer",
+                    new Object[] {Integer.valueOf(bytes.length)});
+            System.arraycopy(bytes, 0, buffer.getBuffer(), 0, bytes.length);
+            memory.put(data, buffer);
+            return buffer;
+        }
+        if (data instanceof ViewData) {
+            final ViewData view = (ViewData) data;
+            final Scriptable result = cx.newObject(scope, view.className_, new Object[] {
+                read(cx, scope, view.buffer_, memory),
+                Integer.valueOf(view.byteOffset_),
+                Integer.valueOf(view.length_)});
+            memory.put(data, result);
+            return result;
+        }
+        if (data instanceof DateData) {
+            final Scriptable result = cx.newObject(scope, "Date", new Object[] {((DateData) data).time_});
+            memory.put(data, result);
+            return result;
+        }
+        if (data instanceof RegExpData) {
+            final RegExpData regExp = (RegExpData) data;
+            final Scriptable result = cx.newObject(scope, "RegExp", new Object[] {regExp.source_, regExp.flags_});
+            memory.put(data, result);
+            return result;
+        }
+        if (data instanceof CollectionData) {
+            final CollectionData collection = (CollectionData) data;
+            final Scriptable result = cx.newObject(scope, collection.isMap_ ? "Map" : "Set");
+            memory.put(data, result);
+            if (collection.isMap_) {
+                for (int i = 0; i < collection.values_.size(); i += 2) {
+                    ScriptableObject.callMethod(cx, result, "set", new Object[] {
+                        read(cx, scope, collection.values_.get(i), memory),
+                        read(cx, scope, collection.values_.get(i + 1), memory)});
+                }
+            }
+            else {
+                for (final Object value : collection.values_) {
+                    ScriptableObject.callMethod(cx, result, "add", new Object[] {read(cx, scope, value, memory)});
+                }
+            }
+            return result;
+        }
+
+        final ObjectData object = (ObjectData) data;
+        final Scriptable result;
+        if (object.arrayLength_ < 0) {
+            result = cx.newObject(scope);
+        }
+        else {
+            result = cx.newArray(scope, 0);
+            ScriptableObject.putProperty(result, "length", Double.valueOf(object.arrayLength_));
+        }
+        memory.put(data, result);
+        for (int i = 0; i < object.keys_.size(); i++) {
+            final Object key = object.keys_.get(i);
+            final Object value = read(cx, scope, object.values_.get(i), memory);
+            if (key instanceof Integer) {
+                ScriptableObject.putProperty(result, ((Integer) key).intValue(), value);
+            }
+            else {
+                ScriptableObject.putProperty(result, key.toString(), value);
+            }
+        }
+        return result;
+    }
+
+    /** A plain object or an array (with its own enumerable properties). */
+    private static final class ObjectData {
+        private final long arrayLength_;
+        private final List<Object> keys_ = new ArrayList<>();
+        private final List<Object> values_ = new ArrayList<>();
+
+        ObjectData(final long arrayLength) {
+            arrayLength_ = arrayLength;
+        }
+    }
+
+    /** A typed array or a DataView. */
+    private static final class ViewData {
+        private final String className_;
+        private final byte[] buffer_;
+        private final int byteOffset_;
+        private final int length_;
+
+        ViewData(final String className, final byte[] buffer, final int byteOffset, final int length) {
+            className_ = className;
+            buffer_ = buffer;
+            byteOffset_ = byteOffset;
+            length_ = length;
+        }
+    }
+
+    private static final class DateData {
+        private final Double time_;
+
+        DateData(final Double time) {
+            time_ = time;
+        }
+    }
+
+    private static final class RegExpData {
+        private final String source_;
+        private final String flags_;
+
+        RegExpData(final String source, final String flags) {
+            source_ = source;
+            flags_ = flags;
+        }
+    }
+
+    /** A Map (keys and values alternating) or a Set. */
+    private static final class CollectionData {
+        private final boolean isMap_;
+        private final List<Object> values_ = new ArrayList<>();
+
+        CollectionData(final boolean isMap) {
+            isMap_ = isMap;
+        }
+    }
+}
@@ -103,10 +103,12 @@ public class Worker extends EventTarget {
     /**
      * Immediately terminates the Worker. This does not offer the worker
      * an opportunity to finish its operations; it is stopped at once.
+     * Pending messages and timers of the worker are dropped, for workers running on
+     * the JavaScript executor of the window as well as for workers running on a dedicated thread.
      */
     @JsxFunction
     public void terminate() {
-        // TODO
+        workerScope_.terminate();
     }
 
     /**
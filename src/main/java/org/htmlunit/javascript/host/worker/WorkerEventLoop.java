@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.javascript.host.worker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.htmlunit.corejs.javascript.ContextAction;
+import org.htmlunit.javascript.HtmlUnitContextFactory;
+import org.htmlunit.javascript.TimeoutError;
+
+/**
+ * The event loop of a {@link Worker} running on a dedicated thread.
+ * <p>
+ * All the JavaScript of the worker (the script itself, the message handlers and the timers)
+ * is executed by this thread, every task in its own Rhino context. The thread ends if
+ * there was nothing to do for some time; it is recreated by the next task.
+ * </p>
+ *
+ * @author Ronald Brill
+ */
+final class WorkerEventLoop {
+
+    private static final Log LOG = LogFactory.getLog(WorkerEventLoop.class);
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(1);
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private final DedicatedWorkerGlobalScope scope_;
+    private final HtmlUnitContextFactory contextFactory_;
+    private final ScheduledThreadPoolExecutor executor_;
+    private final AtomicInteger nextTimerId_ = new AtomicInteger(1);
+    private final Map<Integer, ScheduledFuture<?>> timers_ = new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param scope the worker scope
+     * @param contextFactory the context factory
+     * @param name the name of the worker (used for the thread name)
+     */
+    WorkerEventLoop(final DedicatedWorkerGlobalScope scope, final HtmlUnitContextFactory contextFactory,
+            final String name) {
+        scope_ = scope;
+        contextFactory_ = contextFactory;
+
+        final String threadName = "Worker " + THREAD_COUNT.getAndIncrement() + (name == null ? "" : " " + name);
+        executor_ = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor_.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor_.allowCoreThreadTimeOut(true);
+        executor_.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Queues a task.
+     * @param action the action to execute on the worker thread
+     */
+    void execute(final ContextAction<Object> action) {
+        try {
+            executor_.execute(() -> run(action));
+        }
+        catch (final RejectedExecutionException e) {
+            // terminated; drop the task
+            LOG.debug("Worker terminated, task ignored", e);
+        }
+    }
+
+    /**
+     * Queues a (periodic) timer task.
+     * @param action the action to execute on the worker thread
+     * @param delay the delay in milliseconds
+     * @param periodic whether the task is repeated every {@code delay} milliseconds
+     * @return the id of the timer
+     */
+    int addTimer(final ContextAction<Object> action, final long delay, final boolean periodic) {
+        final int id = nextTimerId_.getAndIncrement();
+        try {
+            final ScheduledFuture<?> future;
+            if (periodic) {
+                future = executor_.scheduleAtFixedRate(() -> run(action), delay, delay, TimeUnit.MILLISECONDS);
+            }
+            else {
+                future = executor_.schedule(() -> {
+                    timers_.remove(id);
+                    run(action);
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            timers_.put(id, future);
+            if (future.isDone()) {
+                // already executed (or the loop was shut down in between)
+                timers_.remove(id);
+            }
+        }
+        catch (final RejectedExecutionException e) {
+            // terminated; drop the timer
+            LOG.debug("Worker terminated, timer ignored", e);
+        }
+        return id;
+    }
+
+    /**
+     * Cancels a timer; does nothing if there is no pending timer with this id.
+     * @param id the id of the timer as returned by {@link #addTimer(ContextAction, long, boolean)}
+     */
+    void clearTimer(final int id) {
+        final ScheduledFuture<?> future = timers_.remove(id);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Stops the thread; pending tasks and timers are discarded.
+     */
+    void shutdown() {
+        executor_.shutdownNow();
+        for (final ScheduledFuture<?> future : timers_.values()) {
+            future.cancel(false);
+        }
+        timers_.clear();
+    }
+
+    private void run(final ContextAction<Object> action) {
+        if (!scope_.isOwningPageActive()) {
+            shutdown();
+            return;
+        }
+
+        try {
+            contextFactory_.call(cx -> {
+                try {
+                    action.run(cx);
+                    cx.processMicrotasks();
+                }
+                catch (final RuntimeException | TimeoutError | StackOverflowError e) {
+                    scope_.handleError(e);
+                }
+                return null;
+            });
+        }
+        catch (final RuntimeException e) {
+            LOG.error("Worker task failed", e);
+        }
+    }
+}
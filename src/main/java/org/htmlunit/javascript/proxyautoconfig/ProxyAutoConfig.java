@@ -18,7 +18,9 @@ import java.net.InetAddress;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.htmlunit.javascript.HtmlUnitScriptable;
@@ -42,6 +44,11 @@ public final class ProxyAutoConfig extends HtmlUnitScriptable {
 
     private static final String TIMEZONE_GMT = "GMT";
 
+    // PAC scripts are resolving the same few hosts for every request
+    private static final long DNS_TTL = 60_000;
+    private static final int DNS_MAX_ENTRIES = 1_000;
+    private static final Map<String, DnsEntry> DNS_CACHE = new ConcurrentHashMap<>();
+
     private ProxyAutoConfig() {
         super();
     }
@@ -117,6 +124,25 @@ public final class ProxyAutoConfig extends HtmlUnitScriptable {
      */
     @JsxFunction
     public static String dnsResolve(final String host) {
+        if (host == null) {
+            return resolve(null);
+        }
+
+        final long now = System.currentTimeMillis();
+        final DnsEntry cached = DNS_CACHE.get(host);
+        if (cached != null && cached.expires_ > now) {
+            return cached.address_;
+        }
+
+        final String address = resolve(host);
+        if (DNS_CACHE.size() >= DNS_MAX_ENTRIES) {
+            DNS_CACHE.clear();
+        }
+        DNS_CACHE.put(host, new DnsEntry(address, now + DNS_TTL));
+        return address;
+    }
+
+    private static String resolve(final String host) {
         try {
             return InetAddress.getByName(host).getHostAddress();
         }
@@ -457,4 +483,14 @@ public final class ProxyAutoConfig extends HtmlUnitScriptable {
                 | ((Integer.parseInt(parts[2]) & 0xff) << 8)
                 | (Integer.parseInt(parts[3]) & 0xff);
     }
+
+    private static final class DnsEntry {
+        private final String address_;
+        private final long expires_;
+
+        DnsEntry(final String address, final long expires) {
+            address_ = address;
+            expires_ = expires;
+        }
+    }
 }
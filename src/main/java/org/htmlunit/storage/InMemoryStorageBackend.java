@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The default {@link StorageBackend}, all the data is kept in memory
+ * and is lost if the {@link org.htmlunit.WebClient} is gone.
+ *
+ * @author Ronald Brill
+ */
+public class InMemoryStorageBackend implements StorageBackend {
+
+    private final Map<String, Map<String, String>> stores_ = new HashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> getStore(final String origin) {
+        synchronized (stores_) {
+            return stores_.computeIfAbsent(origin, k -> new LinkedHashMap<>());
+        }
+    }
+}
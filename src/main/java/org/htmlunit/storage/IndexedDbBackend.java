@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * The storage engine behind the IndexedDB support.
+ * <p>
+ * The data of all databases is kept in sorted in memory structures (see {@link IndexedDbObjectStore}
+ * and {@link IndexedDbIndex}). A backend created with the default constructor is purely in memory,
+ * a backend created by {@link #open(Path)} additionally writes every committed
+ * {@link IndexedDbTransaction} as one checksummed block to an append only log file. When opening
+ * the file the log is replayed; an incomplete or corrupt tail (e.g. from a crash while writing)
+ * is dropped. If the log contains many blocks it is compacted into a single snapshot block.
+ * </p>
+ * <p>
+ * Transactions with overlapping scopes are serialized; see
+ * {@link #beginTransaction(String, String, Collection, boolean)}.
+ * </p>
+ * <p>
+ * The file is locked while the backend is open; call {@link #close()} when done.
+ * </p>
+ *
+ * @author Ronald Brill
+ */
+public class IndexedDbBackend implements Closeable {
+
+    private static final Log LOG = LogFactory.getLog(IndexedDbBackend.class);
+
+    private static final int MAGIC = 0x48554944;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int BLOCK_OVERHEAD = 12;
+    private static final int COMPACTION_THRESHOLD = 1_000;
+
+    private final Map<String, Map<String, IndexedDbDatabase>> databases_ = new HashMap<>();
+    private final List<IndexedDbTransaction> running_ = new ArrayList<>();
+    private final Path file_;
+    private FileChannel channel_;
+    private FileLock lock_;
+    private int blocks_;
+
+    /**
+     * Creates a new in memory backend.
+     */
+    public IndexedDbBackend() {
+        file_ = null;
+    }
+
+    private IndexedDbBackend(final Path file) {
+        file_ = file;
+    }
+
+    /**
+     * Opens (or creates) a file backed backend.
+     * @param file the file
+     * @return the backend
+     * @throws IOException in case of error, e.g. if the file is already in use
+     */
+    public static IndexedDbBackend open(final Path file) throws IOException {
+        final IndexedDbBackend backend = new IndexedDbBackend(file.toAbsolutePath());
+        synchronized (backend) {
+            backend.openChannel();
+            try {
+                backend.load();
+                if (backend.blocks_ > COMPACTION_THRESHOLD) {
+                    backend.compact();
+                }
+            }
+            catch (final IOException e) {
+                backend.close();
+                throw e;
+            }
+        }
+        return backend;
+    }
+
+    /**
+     * @return the file or {@code null} for an in memory backend
+     */
+    public Path getFile() {
+        return file_;
+    }
+
+    /**
+     * Starts a new transaction covering the whole backend.
+     * @return the transaction
+     */
+    public IndexedDbTransaction beginTransaction() {
+        return beginTransaction(null, null, null, false);
+    }
+
+    /**
+     * Starts a new transaction for the given scope.
+     * <p>
+     * If a transaction of another thread with an overlapping scope is running (and not both
+     * are read only) this call blocks until the other transaction is committed or aborted.
+     * Transactions of the same thread are not checked; the job manager of a window runs
+     * them one after the other anyway.
+     * </p>
+     * @param origin the origin or {@code null} for the whole backend
+     * @param name the database name or {@code null} for the whole backend
+     * @param storeNames the names of the object stores or {@code null} for the whole database
+     * @param readOnly whether the transaction is read only
+     * @return the transaction
+     */
+    public synchronized IndexedDbTransaction beginTransaction(final String origin, final String name,
+            final Collection<String> storeNames, final boolean readOnly) {
+        final IndexedDbTransaction transaction
+                = new IndexedDbTransaction(this, file_ != null, origin, name, storeNames, readOnly);
+        while (conflicts(transaction)) {
+            try {
+                wait();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IndexedDbException(IndexedDbException.UNKNOWN_ERROR,
+                        "Interrupted while waiting for a running transaction.");
+            }
+        }
+        running_.add(transaction);
+        return transaction;
+    }
+
+    private boolean conflicts(final IndexedDbTransaction transaction) {
+        for (final IndexedDbTransaction running : running_) {
+            if (transaction.conflictsWith(running)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called by the transaction when committed or aborted.
+     * @param transaction the transaction
+     */
+    synchronized void finished(final IndexedDbTransaction transaction) {
+        if (running_.remove(transaction)) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * @param origin the origin
+     * @param name the database name
+     * @return the database or {@code null}
+     */
+    public synchronized IndexedDbDatabase getDatabase(final String origin, final String name) {
+        final Map<String, IndexedDbDatabase> databases = databases_.get(origin);
+        if (databases == null) {
+            return null;
+        }
+        return databases.get(name);
+    }
+
+    /**
+     * @param origin the origin
+     * @return the sorted names of all databases of the origin
+     */
+    public synchronized List<String> getDatabaseNames(final String origin) {
+        final Map<String, IndexedDbDatabase> databases = databases_.get(origin);
+        if (databases == null) {
+            return Collections.emptyList();
+        }
+        final List<String> names = new ArrayList<>(databases.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Deletes the database (if there).
+     * @param origin the origin
+     * @param name the database name
+     */
+    public synchronized void deleteDatabase(final String origin, final String name) {
+        final IndexedDbTransaction transaction = beginTransaction(origin, name, null, false);
+        final IndexedDbDatabase database = getDatabase(origin, name);
+        if (database != null) {
+            transaction.deleteDatabase(database);
+        }
+        transaction.commit();
+    }
+
+    synchronized void putDatabase(final IndexedDbDatabase database) {
+        databases_.computeIfAbsent(database.getOrigin(), k -> new HashMap<>()).put(database.getName(), database);
+    }
+
+    synchronized void removeDatabase(final IndexedDbDatabase database) {
+        final Map<String, IndexedDbDatabase> databases = databases_.get(database.getOrigin());
+        if (databases != null) {
+            databases.remove(database.getName());
+            if (databases.isEmpty()) {
+                databases_.remove(database.getOrigin());
+            }
+        }
+    }
+
+    synchronized Collection<IndexedDbDatabase> getDatabases() {
+        final List<IndexedDbDatabase> result = new ArrayList<>();
+        for (final Map<String, IndexedDbDatabase> databases : databases_.values()) {
+            result.addAll(databases.values());
+        }
+        return result;
+    }
+
+    private void openChannel() throws IOException {
+        channel_ = FileChannel.open(file_,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lock_ = channel_.tryLock();
+        }
+        catch (final OverlappingFileLockException e) {
+            // already locked by this vm
+            lock_ = null;
+        }
+        if (lock_ == null) {
+            channel_.close();
+            channel_ = null;
+            throw new IOException("The file '" + file_ + "' is in use.");
+        }
+    }
+
+    private void load() throws IOException {
+        final long size = channel_.size();
+        if (size == 0) {
+            writeHeader(channel_);
+            return;
+        }
+
+        channel_.position(0);
+        // do not close, this closes the channel
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel_)));
+        if (size < HEADER_SIZE || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("The file '" + file_ + "' is not an IndexedDB file.");
+        }
+
+        long position = HEADER_SIZE;
+        while (position < size) {
+            final int length = replayBlock(in, size - position);
+            if (length < 0) {
+                LOG.warn("IndexedDB file '" + file_ + "' has a corrupt tail at " + position + "; dropped.");
+                channel_.truncate(position);
+                break;
+            }
+            position = position + BLOCK_OVERHEAD + length;
+            blocks_++;
+        }
+        channel_.position(position);
+    }
+
+    /**
+     * Reads and applies the next block.
+     * @return the length of the block payload or -1 if the block is incomplete or corrupt
+     */
+    private int replayBlock(final DataInputStream in, final long available) throws IOException {
+        if (available < BLOCK_OVERHEAD) {
+            return -1;
+        }
+        final int length = in.readInt();
+        if (length < 0 || length > available - BLOCK_OVERHEAD) {
+            return -1;
+        }
+
+        final byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+            final long checksum = in.readLong();
+            if (checksum != checksum(payload)) {
+                return -1;
+            }
+        }
+        catch (final EOFException e) {
+            return -1;
+        }
+
+        final IndexedDbTransaction transaction = new IndexedDbTransaction(this, false);
+        try {
+            transaction.replay(payload);
+        }
+        catch (final IOException | RuntimeException e) {
+            transaction.abort();
+            LOG.warn("IndexedDB file '" + file_ + "' contains an invalid block: " + e.getMessage());
+            return -1;
+        }
+        transaction.commit();
+        return length;
+    }
+
+    /**
+     * Writes a block to the file.
+     * @param payload the block content
+     * @throws IOException in case of error
+     */
+    synchronized void append(final byte[] payload) throws IOException {
+        if (channel_ == null) {
+            throw new IOException("The backend is closed.");
+        }
+        writeBlock(channel_, payload);
+        blocks_++;
+    }
+
+    /**
+     * Rewrites the file with one block containing the current state.
+     * Does nothing for an in memory backend.
+     * @throws IOException in case of error
+     */
+    public synchronized void compact() throws IOException {
+        if (channel_ == null) {
+            return;
+        }
+
+        final byte[] snapshot = IndexedDbTransaction.snapshot(this);
+        final Path tmp = file_.resolveSibling(file_.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            if (snapshot.length > 0) {
+                writeBlock(out, snapshot);
+            }
+            out.force(true);
+        }
+
+        lock_.release();
+        channel_.close();
+        channel_ = null;
+        Files.move(tmp, file_, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        openChannel();
+        channel_.position(channel_.size());
+        blocks_ = snapshot.length > 0 ? 1 : 0;
+    }
+
+    /**
+     * Closes the file; does nothing for an in memory backend.
+     * @throws IOException in case of error
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel_ == null) {
+            return;
+        }
+        try {
+            channel_.force(true);
+            lock_.release();
+        }
+        finally {
+            channel_.close();
+            channel_ = null;
+        }
+    }
+
+    private static void writeHeader(final FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void writeBlock(final FileChannel channel, final byte[] payload) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(payload.length + BLOCK_OVERHEAD);
+        buffer.putInt(payload.length).put(payload).putLong(checksum(payload));
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long checksum(final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A database of the {@link IndexedDbBackend}.
+ * All modifications have to be done using an {@link IndexedDbTransaction}.
+ *
+ * @author Ronald Brill
+ */
+public final class IndexedDbDatabase {
+
+    private final IndexedDbBackend backend_;
+    private final String origin_;
+    private final String name_;
+    private long version_;
+    private final Map<String, IndexedDbObjectStore> objectStores_ = new HashMap<>();
+
+    IndexedDbDatabase(final IndexedDbBackend backend, final String origin, final String name) {
+        backend_ = backend;
+        origin_ = origin;
+        name_ = name;
+    }
+
+    IndexedDbBackend getBackend() {
+        return backend_;
+    }
+
+    /**
+     * @return the origin
+     */
+    public String getOrigin() {
+        return origin_;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name_;
+    }
+
+    /**
+     * @return the version
+     */
+    public long getVersion() {
+        synchronized (backend_) {
+            return version_;
+        }
+    }
+
+    void setVersion(final long version) {
+        version_ = version;
+    }
+
+    /**
+     * @return the sorted names of the object stores
+     */
+    public List<String> getObjectStoreNames() {
+        synchronized (backend_) {
+            final List<String> names = new ArrayList<>(objectStores_.keySet());
+            Collections.sort(names);
+            return names;
+        }
+    }
+
+    /**
+     * @param name the name
+     * @return the object store or {@code null}
+     */
+    public IndexedDbObjectStore getObjectStore(final String name) {
+        synchronized (backend_) {
+            return objectStores_.get(name);
+        }
+    }
+
+    Map<String, IndexedDbObjectStore> getObjectStores() {
+        return objectStores_;
+    }
+}
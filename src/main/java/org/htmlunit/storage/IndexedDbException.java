@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+/**
+ * Thrown by the {@link IndexedDbBackend}; the name is one of the
+ * error names defined by the IndexedDB spec.
+ *
+ * @author Ronald Brill
+ */
+public class IndexedDbException extends RuntimeException {
+
+    /** A key or a key range is not valid. */
+    public static final String DATA_ERROR = "DataError";
+    /** A uniqueness constraint was violated. */
+    public static final String CONSTRAINT_ERROR = "ConstraintError";
+    /** The requested object was not found. */
+    public static final String NOT_FOUND_ERROR = "NotFoundError";
+    /** The requested version is lower than the current one. */
+    public static final String VERSION_ERROR = "VersionError";
+    /** An I/O operation failed. */
+    public static final String UNKNOWN_ERROR = "UnknownError";
+
+    private final String name_;
+
+    /**
+     * Ctor.
+     * @param name the error name
+     * @param message the message
+     */
+    public IndexedDbException(final String name, final String message) {
+        super(message);
+        name_ = name;
+    }
+
+    /**
+     * @return the error name
+     */
+    public String getName() {
+        return name_;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A secondary index of an {@link IndexedDbObjectStore}. The entries are sorted by
+ * index key and primary key.
+ * All modifications have to be done using an {@link IndexedDbTransaction}.
+ *
+ * @author Ronald Brill
+ */
+public final class IndexedDbIndex {
+
+    private final IndexedDbObjectStore objectStore_;
+    private final String name_;
+    private final Object keyPath_;
+    private final boolean unique_;
+    private final boolean multiEntry_;
+
+    private final TreeMap<Object, TreeSet<Object>> entries_ = new TreeMap<>(IndexedDbKeys.COMPARATOR);
+    private final TreeMap<Object, List<Object>> keysByPrimaryKey_ = new TreeMap<>(IndexedDbKeys.COMPARATOR);
+
+    IndexedDbIndex(final IndexedDbObjectStore objectStore, final String name, final Object keyPath,
+            final boolean unique, final boolean multiEntry) {
+        objectStore_ = objectStore;
+        name_ = name;
+        keyPath_ = keyPath;
+        unique_ = unique;
+        multiEntry_ = multiEntry;
+    }
+
+    /**
+     * @return the object store
+     */
+    public IndexedDbObjectStore getObjectStore() {
+        return objectStore_;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name_;
+    }
+
+    /**
+     * @return the key path; a {@link String} or a {@link List} of strings
+     */
+    public Object getKeyPath() {
+        return keyPath_;
+    }
+
+    /**
+     * @return whether the index keys have to be unique
+     */
+    public boolean isUnique() {
+        return unique_;
+    }
+
+    /**
+     * @return whether array keys are added as one entry per element
+     */
+    public boolean isMultiEntry() {
+        return multiEntry_;
+    }
+
+    /**
+     * @param range the range
+     * @return the first record in the range or {@code null}
+     */
+    public IndexedDbRecord get(final IndexedDbKeyRange range) {
+        return find(range, null, null, false, false, false);
+    }
+
+    /**
+     * @param range the range
+     * @param count the maximum number of records; 0 for all
+     * @return the records in the range
+     */
+    public List<IndexedDbRecord> getAll(final IndexedDbKeyRange range, final long count) {
+        synchronized (objectStore_.getDatabase().getBackend()) {
+            final List<IndexedDbRecord> result = new ArrayList<>();
+            for (final Map.Entry<Object, TreeSet<Object>> entry : range.subMap(entries_).entrySet()) {
+                for (final Object primaryKey : entry.getValue()) {
+                    if (count > 0 && result.size() >= count) {
+                        return result;
+                    }
+                    result.add(record(entry.getKey(), primaryKey));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @param range the range
+     * @return the number of records in the range
+     */
+    public int count(final IndexedDbKeyRange range) {
+        synchronized (objectStore_.getDatabase().getBackend()) {
+            int count = 0;
+            for (final TreeSet<Object> primaryKeys : range.subMap(entries_).values()) {
+                count += primaryKeys.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Cursor navigation.
+     * @param range the range
+     * @param key the index key of the current position or {@code null} to start at the beginning
+     * @param primaryKey the primary key of the current position or {@code null} to
+     *        position at the first/last record of the index key
+     * @param inclusive whether the position itself is a match
+     * @param reverse whether to walk backwards
+     * @param unique whether to skip records with the same index key
+     * @return the next record or {@code null}
+     */
+    public IndexedDbRecord find(final IndexedDbKeyRange range, final Object key, final Object primaryKey,
+            final boolean inclusive, final boolean reverse, final boolean unique) {
+        synchronized (objectStore_.getDatabase().getBackend()) {
+            final NavigableMap<Object, TreeSet<Object>> map = range.subMap(entries_);
+
+            if (key != null && primaryKey != null && !unique) {
+                final TreeSet<Object> primaryKeys = map.get(key);
+                if (primaryKeys != null) {
+                    final Object next;
+                    if (reverse) {
+                        next = inclusive ? primaryKeys.floor(primaryKey) : primaryKeys.lower(primaryKey);
+                    }
+                    else {
+                        next = inclusive ? primaryKeys.ceiling(primaryKey) : primaryKeys.higher(primaryKey);
+                    }
+                    if (next != null) {
+                        return record(key, next);
+                    }
+                }
+            }
+
+            final Map.Entry<Object, TreeSet<Object>> entry;
+            if (key == null) {
+                entry = reverse ? map.lastEntry() : map.firstEntry();
+            }
+            else if (primaryKey != null || !inclusive) {
+                entry = reverse ? map.lowerEntry(key) : map.higherEntry(key);
+            }
+            else {
+                entry = reverse ? map.floorEntry(key) : map.ceilingEntry(key);
+            }
+
+            if (entry == null) {
+                return null;
+            }
+
+            // prevunique returns the first record of every key
+            final Object next = reverse && !unique ? entry.getValue().last() : entry.getValue().first();
+            return record(entry.getKey(), next);
+        }
+    }
+
+    private IndexedDbRecord record(final Object key, final Object primaryKey) {
+        return new IndexedDbRecord(key, primaryKey, objectStore_.getRecords().get(primaryKey));
+    }
+
+    /**
+     * @param keys the index keys of a new record
+     * @param primaryKey the primary key of the new record
+     * @return true if adding the keys violates the uniqueness of this index
+     */
+    boolean violatesUniqueness(final List<Object> keys, final Object primaryKey) {
+        if (!unique_) {
+            return false;
+        }
+        for (final Object key : keys) {
+            final TreeSet<Object> primaryKeys = entries_.get(key);
+            if (primaryKeys != null
+                    && (primaryKeys.size() > 1 || IndexedDbKeys.compare(primaryKeys.first(), primaryKey) != 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(final List<Object> keys, final Object primaryKey) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        final List<Object> existing = keysByPrimaryKey_.get(primaryKey);
+        final List<Object> all = existing == null ? new ArrayList<>(keys.size()) : existing;
+        for (final Object key : keys) {
+            if (entries_.computeIfAbsent(key, k -> new TreeSet<>(IndexedDbKeys.COMPARATOR)).add(primaryKey)) {
+                all.add(key);
+            }
+        }
+        keysByPrimaryKey_.put(primaryKey, all);
+    }
+
+    List<Object> remove(final Object primaryKey) {
+        final List<Object> keys = keysByPrimaryKey_.remove(primaryKey);
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+
+        for (final Object key : keys) {
+            final TreeSet<Object> primaryKeys = entries_.get(key);
+            primaryKeys.remove(primaryKey);
+            if (primaryKeys.isEmpty()) {
+                entries_.remove(key);
+            }
+        }
+        return keys;
+    }
+
+    List<Object> getKeys(final Object primaryKey) {
+        final List<Object> keys = keysByPrimaryKey_.get(primaryKey);
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.io.Serializable;
+import java.util.NavigableMap;
+
+/**
+ * A key range of the {@link IndexedDbBackend}. A {@code null} bound means unbounded.
+ *
+ * @author Ronald Brill
+ */
+public final class IndexedDbKeyRange implements Serializable {
+
+    /** The range containing all keys. */
+    public static final IndexedDbKeyRange ALL = new IndexedDbKeyRange(null, null, false, false);
+
+    private final Object lower_;
+    private final Object upper_;
+    private final boolean lowerOpen_;
+    private final boolean upperOpen_;
+
+    /**
+     * Ctor.
+     * @param lower the lower bound or {@code null}
+     * @param upper the upper bound or {@code null}
+     * @param lowerOpen whether the lower bound is excluded
+     * @param upperOpen whether the upper bound is excluded
+     */
+    public IndexedDbKeyRange(final Object lower, final Object upper,
+            final boolean lowerOpen, final boolean upperOpen) {
+        if (lower != null && upper != null) {
+            final int cmp = IndexedDbKeys.compare(lower, upper);
+            if (cmp > 0 || cmp == 0 && (lowerOpen || upperOpen)) {
+                throw new IndexedDbException(IndexedDbException.DATA_ERROR,
+                        "The lower key is greater than the upper key.");
+            }
+        }
+
+        lower_ = lower;
+        upper_ = upper;
+        lowerOpen_ = lower != null && lowerOpen;
+        upperOpen_ = upper != null && upperOpen;
+    }
+
+    /**
+     * @param key the key
+     * @return a range containing only the given key
+     */
+    public static IndexedDbKeyRange only(final Object key) {
+        return new IndexedDbKeyRange(key, key, false, false);
+    }
+
+    /**
+     * @return the lower bound or {@code null}
+     */
+    public Object getLower() {
+        return lower_;
+    }
+
+    /**
+     * @return the upper bound or {@code null}
+     */
+    public Object getUpper() {
+        return upper_;
+    }
+
+    /**
+     * @return whether the lower bound is excluded
+     */
+    public boolean isLowerOpen() {
+        return lowerOpen_;
+    }
+
+    /**
+     * @return whether the upper bound is excluded
+     */
+    public boolean isUpperOpen() {
+        return upperOpen_;
+    }
+
+    /**
+     * @param key the key
+     * @return true if the key is part of this range
+     */
+    public boolean includes(final Object key) {
+        if (lower_ != null) {
+            final int cmp = IndexedDbKeys.compare(lower_, key);
+            if (cmp > 0 || cmp == 0 && lowerOpen_) {
+                return false;
+            }
+        }
+        if (upper_ != null) {
+            final int cmp = IndexedDbKeys.compare(key, upper_);
+            if (cmp > 0 || cmp == 0 && upperOpen_) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param <V> the value type
+     * @param map the map
+     * @return the view of the map restricted to this range
+     */
+    public <V> NavigableMap<Object, V> subMap(final NavigableMap<Object, V> map) {
+        if (lower_ == null) {
+            if (upper_ == null) {
+                return map;
+            }
+            return map.headMap(upper_, !upperOpen_);
+        }
+        if (upper_ == null) {
+            return map.tailMap(lower_, !lowerOpen_);
+        }
+        return map.subMap(lower_, !lowerOpen_, upper_, !upperOpen_);
+    }
+}
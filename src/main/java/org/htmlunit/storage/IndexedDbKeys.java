@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Helper for the keys of the {@link IndexedDbBackend}.
+ * <p>
+ * Valid keys are {@link Double}s (numbers), {@link Date}s, {@link String}s and {@link List}s
+ * of valid keys (arrays). The order is the one defined by the IndexedDB spec:
+ * numbers &lt; dates &lt; strings &lt; arrays.
+ * </p>
+ *
+ * @author Ronald Brill
+ */
+public final class IndexedDbKeys {
+
+    /** The comparator for keys. */
+    public static final Comparator<Object> COMPARATOR = new KeyComparator();
+
+    private static final byte TYPE_NUMBER = 1;
+    private static final byte TYPE_DATE = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_ARRAY = 4;
+
+    private IndexedDbKeys() {
+    }
+
+    /**
+     * @param key the object to check
+     * @return true if the given object is a valid key
+     */
+    public static boolean isValid(final Object key) {
+        if (key instanceof Double) {
+            return !((Double) key).isNaN();
+        }
+        if (key instanceof Date) {
+            return !Double.isNaN(((Date) key).getTime());
+        }
+        if (key instanceof String) {
+            return true;
+        }
+        if (key instanceof List) {
+            for (final Object entry : (List<?>) key) {
+                if (!isValid(entry)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compares two keys.
+     * @param key1 the first key
+     * @param key2 the second key
+     * @return a negative integer, zero, or a positive integer as the first key is less than,
+     *         equal to, or greater than the second
+     */
+    public static int compare(final Object key1, final Object key2) {
+        return COMPARATOR.compare(key1, key2);
+    }
+
+    private static int type(final Object key) {
+        if (key instanceof Double) {
+            return TYPE_NUMBER;
+        }
+        if (key instanceof Date) {
+            return TYPE_DATE;
+        }
+        if (key instanceof String) {
+            return TYPE_STRING;
+        }
+        if (key instanceof List) {
+            return TYPE_ARRAY;
+        }
+        throw new IndexedDbException(IndexedDbException.DATA_ERROR, "Invalid key '" + key + "'.");
+    }
+
+    static void write(final DataOutput out, final Object key) throws IOException {
+        final int type = type(key);
+        out.writeByte(type);
+        switch (type) {
+            case TYPE_NUMBER:
+                out.writeDouble((Double) key);
+                break;
+
+            case TYPE_DATE:
+                out.writeLong(((Date) key).getTime());
+                break;
+
+            case TYPE_STRING:
+                writeString(out, (String) key);
+                break;
+
+            default:
+                final List<?> list = (List<?>) key;
+                out.writeInt(list.size());
+                for (final Object entry : list) {
+                    write(out, entry);
+                }
+        }
+    }
+
+    static Object read(final DataInput in) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case TYPE_NUMBER:
+                return in.readDouble();
+
+            case TYPE_DATE:
+                return new Date(in.readLong());
+
+            case TYPE_STRING:
+                return readString(in);
+
+            case TYPE_ARRAY:
+                final int size = in.readInt();
+                final List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(in));
+                }
+                return Collections.unmodifiableList(list);
+
+            default:
+                throw new IOException("Unknown key type " + type);
+        }
+    }
+
+    static void writeString(final DataOutput out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class KeyComparator implements Comparator<Object>, Serializable {
+
+        @Override
+        public int compare(final Object key1, final Object key2) {
+            final int type1 = type(key1);
+            final int type2 = type(key2);
+            if (type1 != type2) {
+                return type1 - type2;
+            }
+
+            switch (type1) {
+                case TYPE_NUMBER:
+                    // not Double.compare(); -0 and 0 are the same key
+                    final double number1 = (Double) key1;
+                    final double number2 = (Double) key2;
+                    if (number1 < number2) {
+                        return -1;
+                    }
+                    return number1 > number2 ? 1 : 0;
+
+                case TYPE_DATE:
+                    return Long.compare(((Date) key1).getTime(), ((Date) key2).getTime());
+
+                case TYPE_STRING:
+                    return ((String) key1).compareTo((String) key2);
+
+                default:
+                    final List<?> list1 = (List<?>) key1;
+                    final List<?> list2 = (List<?>) key2;
+                    final int length = Math.min(list1.size(), list2.size());
+                    for (int i = 0; i < length; i++) {
+                        final int result = compare(list1.get(i), list2.get(i));
+                        if (result != 0) {
+                            return result;
+                        }
+                    }
+                    return list1.size() - list2.size();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * An object store of an {@link IndexedDbDatabase}. The records are kept sorted by key,
+ * all lookups (including range scans) are O(log n).
+ * All modifications have to be done using an {@link IndexedDbTransaction}.
+ *
+ * @author Ronald Brill
+ */
+public final class IndexedDbObjectStore {
+
+    private final IndexedDbDatabase database_;
+    private final String name_;
+    private final Object keyPath_;
+    private final boolean autoIncrement_;
+    private long keyGenerator_ = 1;
+    private final TreeMap<Object, String> records_ = new TreeMap<>(IndexedDbKeys.COMPARATOR);
+    private final Map<String, IndexedDbIndex> indexes_ = new HashMap<>();
+
+    IndexedDbObjectStore(final IndexedDbDatabase database, final String name,
+            final Object keyPath, final boolean autoIncrement) {
+        database_ = database;
+        name_ = name;
+        keyPath_ = keyPath;
+        autoIncrement_ = autoIncrement;
+    }
+
+    /**
+     * @return the database
+     */
+    public IndexedDbDatabase getDatabase() {
+        return database_;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name_;
+    }
+
+    /**
+     * @return the key path; {@code null}, a {@link String} or a {@link List} of strings
+     */
+    public Object getKeyPath() {
+        return keyPath_;
+    }
+
+    /**
+     * @return true if there is a key generator
+     */
+    public boolean isAutoIncrement() {
+        return autoIncrement_;
+    }
+
+    /**
+     * @return the sorted names of the indexes
+     */
+    public List<String> getIndexNames() {
+        synchronized (database_.getBackend()) {
+            final List<String> names = new ArrayList<>(indexes_.keySet());
+            Collections.sort(names);
+            return names;
+        }
+    }
+
+    /**
+     * @param name the name
+     * @return the index or {@code null}
+     */
+    public IndexedDbIndex getIndex(final String name) {
+        synchronized (database_.getBackend()) {
+            return indexes_.get(name);
+        }
+    }
+
+    /**
+     * @param range the range
+     * @return the first record in the range or {@code null}
+     */
+    public IndexedDbRecord get(final IndexedDbKeyRange range) {
+        return find(range, null, false, false);
+    }
+
+    /**
+     * @param range the range
+     * @param count the maximum number of records; 0 for all
+     * @return the records in the range
+     */
+    public List<IndexedDbRecord> getAll(final IndexedDbKeyRange range, final long count) {
+        synchronized (database_.getBackend()) {
+            final List<IndexedDbRecord> result = new ArrayList<>();
+            for (final Map.Entry<Object, String> entry : range.subMap(records_).entrySet()) {
+                if (count > 0 && result.size() >= count) {
+                    break;
+                }
+                result.add(new IndexedDbRecord(entry.getKey(), entry.getKey(), entry.getValue()));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @param range the range
+     * @return the number of records in the range
+     */
+    public int count(final IndexedDbKeyRange range) {
+        synchronized (database_.getBackend()) {
+            return range.subMap(records_).size();
+        }
+    }
+
+    /**
+     * Cursor navigation.
+     * @param range the range
+     * @param position the current position or {@code null} to start at the beginning
+     * @param inclusive whether the position itself is a match
+     * @param reverse whether to walk backwards
+     * @return the next record or {@code null}
+     */
+    public IndexedDbRecord find(final IndexedDbKeyRange range, final Object position,
+            final boolean inclusive, final boolean reverse) {
+        synchronized (database_.getBackend()) {
+            NavigableMap<Object, String> map = range.subMap(records_);
+            if (reverse) {
+                map = map.descendingMap();
+            }
+
+            final Map.Entry<Object, String> entry;
+            if (position == null) {
+                entry = map.firstEntry();
+            }
+            else {
+                entry = inclusive ? map.ceilingEntry(position) : map.higherEntry(position);
+            }
+
+            if (entry == null) {
+                return null;
+            }
+            return new IndexedDbRecord(entry.getKey(), entry.getKey(), entry.getValue());
+        }
+    }
+
+    long getKeyGenerator() {
+        return keyGenerator_;
+    }
+
+    void setKeyGenerator(final long keyGenerator) {
+        keyGenerator_ = keyGenerator;
+    }
+
+    TreeMap<Object, String> getRecords() {
+        return records_;
+    }
+
+    Map<String, IndexedDbIndex> getIndexes() {
+        return indexes_;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+/**
+ * A record found by a lookup in an {@link IndexedDbObjectStore} or an {@link IndexedDbIndex}.
+ *
+ * @author Ronald Brill
+ */
+public final class IndexedDbRecord {
+
+    private final Object key_;
+    private final Object primaryKey_;
+    private final String value_;
+
+    IndexedDbRecord(final Object key, final Object primaryKey, final String value) {
+        key_ = key;
+        primaryKey_ = primaryKey;
+        value_ = value;
+    }
+
+    /**
+     * @return the key (the index key for index lookups, the primary key otherwise)
+     */
+    public Object getKey() {
+        return key_;
+    }
+
+    /**
+     * @return the primary key
+     */
+    public Object getPrimaryKey() {
+        return primaryKey_;
+    }
+
+    /**
+     * @return the serialized value; {@code null} for undefined
+     */
+    public String getValue() {
+        return value_;
+    }
+}
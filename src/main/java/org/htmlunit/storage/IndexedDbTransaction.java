@@ -0,0 +1,804 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A transaction of the {@link IndexedDbBackend}.
+ * <p>
+ * All modifications are applied directly to the in memory structures; the transaction
+ * records the undo actions (used by {@link #abort()}) and the redo log. The redo log
+ * is written to the file of a persistent backend as one block by {@link #commit()}.
+ * </p>
+ * <p>
+ * Every transaction has a scope (see {@link IndexedDbBackend#beginTransaction(String, String, Collection,
+ * boolean)}); the backend does not run transactions with overlapping scopes at the same time
+ * unless both are read only. Therefore nobody sees the uncommitted changes of a transaction
+ * and the undo actions never revert the changes of others.
+ * </p>
+ *
+ * @author Ronald Brill
+ */
+public final class IndexedDbTransaction {
+
+    private static final byte OP_SET_VERSION = 1;
+    private static final byte OP_DELETE_DATABASE = 2;
+    private static final byte OP_CREATE_STORE = 3;
+    private static final byte OP_DELETE_STORE = 4;
+    private static final byte OP_CREATE_INDEX = 5;
+    private static final byte OP_DELETE_INDEX = 6;
+    private static final byte OP_PUT = 7;
+    private static final byte OP_DELETE = 8;
+    private static final byte OP_CLEAR = 9;
+    private static final byte OP_INDEX_ADD = 10;
+    private static final byte OP_KEY_GENERATOR = 11;
+
+    private static final double MAX_GENERATED_KEY = 9007199254740992d;
+
+    private final IndexedDbBackend backend_;
+    private final String origin_;
+    private final String databaseName_;
+    private final Set<String> storeNames_;
+    private final boolean readOnly_;
+    private final Thread owner_;
+    private final Deque<Runnable> undo_ = new ArrayDeque<>();
+    private final ByteArrayOutputStream redoBytes_;
+    private final DataOutputStream redo_;
+    private boolean finished_;
+
+    IndexedDbTransaction(final IndexedDbBackend backend, final boolean redo) {
+        this(backend, redo, null, null, null, false);
+    }
+
+    IndexedDbTransaction(final IndexedDbBackend backend, final boolean redo, final String origin,
+            final String databaseName, final Collection<String> storeNames, final boolean readOnly) {
+        backend_ = backend;
+        origin_ = origin;
+        databaseName_ = databaseName;
+        storeNames_ = storeNames == null ? null : new HashSet<>(storeNames);
+        readOnly_ = readOnly;
+        owner_ = Thread.currentThread();
+        if (redo) {
+            redoBytes_ = new ByteArrayOutputStream();
+            redo_ = new DataOutputStream(redoBytes_);
+        }
+        else {
+            redoBytes_ = null;
+            redo_ = null;
+        }
+    }
+
+    /**
+     * @return true if this transaction must not modify anything
+     */
+    public boolean isReadOnly() {
+        return readOnly_;
+    }
+
+    /**
+     * @return true if the transaction is committed or aborted
+     */
+    public boolean isFinished() {
+        synchronized (backend_) {
+            return finished_;
+        }
+    }
+
+    /**
+     * Sets the version of the database; the database is created if not already there.
+     * @param origin the origin
+     * @param name the database name
+     * @param version the new version
+     * @return the database
+     */
+    public IndexedDbDatabase setVersion(final String origin, final String name, final long version) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final IndexedDbDatabase existing = backend_.getDatabase(origin, name);
+            final IndexedDbDatabase database;
+            if (existing == null) {
+                database = new IndexedDbDatabase(backend_, origin, name);
+                backend_.putDatabase(database);
+                undo_.push(() -> backend_.removeDatabase(database));
+            }
+            else {
+                database = existing;
+                final long oldVersion = database.getVersion();
+                undo_.push(() -> database.setVersion(oldVersion));
+            }
+            database.setVersion(version);
+
+            log(out -> {
+                out.writeByte(OP_SET_VERSION);
+                writeDatabase(out, database);
+                out.writeLong(version);
+            });
+            return database;
+        }
+    }
+
+    /**
+     * Deletes the database.
+     * @param database the database
+     */
+    public void deleteDatabase(final IndexedDbDatabase database) {
+        synchronized (backend_) {
+            checkWritable();
+
+            backend_.removeDatabase(database);
+            undo_.push(() -> backend_.putDatabase(database));
+
+            log(out -> {
+                out.writeByte(OP_DELETE_DATABASE);
+                writeDatabase(out, database);
+            });
+        }
+    }
+
+    /**
+     * Creates a new object store.
+     * @param database the database
+     * @param name the name
+     * @param keyPath the key path; {@code null}, a {@link String} or a {@link List} of strings
+     * @param autoIncrement whether to use a key generator
+     * @return the new object store
+     */
+    public IndexedDbObjectStore createObjectStore(final IndexedDbDatabase database, final String name,
+            final Object keyPath, final boolean autoIncrement) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final Map<String, IndexedDbObjectStore> stores = database.getObjectStores();
+            if (stores.containsKey(name)) {
+                throw new IndexedDbException(IndexedDbException.CONSTRAINT_ERROR,
+                        "An object store with the specified name already exists.");
+            }
+
+            final IndexedDbObjectStore store = new IndexedDbObjectStore(database, name, keyPath, autoIncrement);
+            stores.put(name, store);
+            undo_.push(() -> stores.remove(name));
+
+            log(out -> {
+                out.writeByte(OP_CREATE_STORE);
+                writeDatabase(out, database);
+                IndexedDbKeys.writeString(out, name);
+                writeKeyPath(out, keyPath);
+                out.writeBoolean(autoIncrement);
+            });
+            return store;
+        }
+    }
+
+    /**
+     * Deletes the object store.
+     * @param database the database
+     * @param name the name
+     */
+    public void deleteObjectStore(final IndexedDbDatabase database, final String name) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final Map<String, IndexedDbObjectStore> stores = database.getObjectStores();
+            final IndexedDbObjectStore store = stores.remove(name);
+            if (store == null) {
+                throw new IndexedDbException(IndexedDbException.NOT_FOUND_ERROR,
+                        "The specified object store was not found.");
+            }
+            undo_.push(() -> stores.put(name, store));
+
+            log(out -> {
+                out.writeByte(OP_DELETE_STORE);
+                writeDatabase(out, database);
+                IndexedDbKeys.writeString(out, name);
+            });
+        }
+    }
+
+    /**
+     * Creates a new index. The index is empty, use {@link #addIndexEntry(IndexedDbIndex, List, Object)}
+     * to add the entries for the already existing records.
+     * @param store the object store
+     * @param name the name
+     * @param keyPath the key path; a {@link String} or a {@link List} of strings
+     * @param unique whether the index keys have to be unique
+     * @param multiEntry whether array keys are added as one entry per element
+     * @return the new index
+     */
+    public IndexedDbIndex createIndex(final IndexedDbObjectStore store, final String name,
+            final Object keyPath, final boolean unique, final boolean multiEntry) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final Map<String, IndexedDbIndex> indexes = store.getIndexes();
+            if (indexes.containsKey(name)) {
+                throw new IndexedDbException(IndexedDbException.CONSTRAINT_ERROR,
+                        "An index with the specified name already exists.");
+            }
+
+            final IndexedDbIndex index = new IndexedDbIndex(store, name, keyPath, unique, multiEntry);
+            indexes.put(name, index);
+            undo_.push(() -> indexes.remove(name));
+
+            log(out -> {
+                out.writeByte(OP_CREATE_INDEX);
+                writeStore(out, store);
+                IndexedDbKeys.writeString(out, name);
+                writeKeyPath(out, keyPath);
+                out.writeBoolean(unique);
+                out.writeBoolean(multiEntry);
+            });
+            return index;
+        }
+    }
+
+    /**
+     * Deletes the index.
+     * @param store the object store
+     * @param name the name
+     */
+    public void deleteIndex(final IndexedDbObjectStore store, final String name) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final Map<String, IndexedDbIndex> indexes = store.getIndexes();
+            final IndexedDbIndex index = indexes.remove(name);
+            if (index == null) {
+                throw new IndexedDbException(IndexedDbException.NOT_FOUND_ERROR,
+                        "The specified index was not found.");
+            }
+            undo_.push(() -> indexes.put(name, index));
+
+            log(out -> {
+                out.writeByte(OP_DELETE_INDEX);
+                writeStore(out, store);
+                IndexedDbKeys.writeString(out, name);
+            });
+        }
+    }
+
+    /**
+     * Adds the index keys of an already existing record.
+     * @param index the index
+     * @param keys the index keys
+     * @param primaryKey the primary key of the record
+     */
+    public void addIndexEntry(final IndexedDbIndex index, final List<Object> keys, final Object primaryKey) {
+        synchronized (backend_) {
+            checkWritable();
+
+            if (index.violatesUniqueness(keys, primaryKey)) {
+                throw new IndexedDbException(IndexedDbException.CONSTRAINT_ERROR,
+                        "Unable to add key to index '" + index.getName() + "': the key is not unique.");
+            }
+            index.add(keys, primaryKey);
+            undo_.push(() -> index.remove(primaryKey));
+
+            log(out -> {
+                out.writeByte(OP_INDEX_ADD);
+                writeStore(out, index.getObjectStore());
+                IndexedDbKeys.writeString(out, index.getName());
+                IndexedDbKeys.write(out, primaryKey);
+                writeKeys(out, keys);
+            });
+        }
+    }
+
+    /**
+     * Returns the next key of the key generator.
+     * @param store the object store
+     * @return the key
+     */
+    public Double nextKey(final IndexedDbObjectStore store) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final long key = store.getKeyGenerator();
+            if (key > MAX_GENERATED_KEY) {
+                throw new IndexedDbException(IndexedDbException.CONSTRAINT_ERROR,
+                        "The key generator has reached its maximum.");
+            }
+            setKeyGenerator(store, key + 1);
+            return Double.valueOf(key);
+        }
+    }
+
+    private void setKeyGenerator(final IndexedDbObjectStore store, final long keyGenerator) {
+        final long oldKeyGenerator = store.getKeyGenerator();
+        store.setKeyGenerator(keyGenerator);
+        undo_.push(() -> store.setKeyGenerator(oldKeyGenerator));
+
+        log(out -> {
+            out.writeByte(OP_KEY_GENERATOR);
+            writeStore(out, store);
+            out.writeLong(keyGenerator);
+        });
+    }
+
+    /**
+     * Adds or replaces a record.
+     * @param store the object store
+     * @param key the key
+     * @param value the serialized value
+     * @param indexKeys the index keys of the record for all the indexes of the store
+     * @param noOverwrite if true an existing record is not replaced
+     */
+    public void put(final IndexedDbObjectStore store, final Object key, final String value,
+            final Map<String, List<Object>> indexKeys, final boolean noOverwrite) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final TreeMap<Object, String> records = store.getRecords();
+            final boolean exists = records.containsKey(key);
+            if (exists && noOverwrite) {
+                throw new IndexedDbException(IndexedDbException.CONSTRAINT_ERROR,
+                        "Key already exists in the object store.");
+            }
+            for (final IndexedDbIndex index : store.getIndexes().values()) {
+                if (index.violatesUniqueness(keysFor(indexKeys, index), key)) {
+                    throw new IndexedDbException(IndexedDbException.CONSTRAINT_ERROR,
+                            "Unable to add key to index '" + index.getName() + "': the key is not unique.");
+                }
+            }
+
+            final String oldValue = records.put(key, value);
+            final Map<IndexedDbIndex, List<Object>> oldIndexKeys = new HashMap<>();
+            for (final IndexedDbIndex index : store.getIndexes().values()) {
+                oldIndexKeys.put(index, index.remove(key));
+                index.add(keysFor(indexKeys, index), key);
+            }
+            undo_.push(() -> {
+                if (exists) {
+                    records.put(key, oldValue);
+                }
+                else {
+                    records.remove(key);
+                }
+                for (final Map.Entry<IndexedDbIndex, List<Object>> entry : oldIndexKeys.entrySet()) {
+                    entry.getKey().remove(key);
+                    entry.getKey().add(entry.getValue(), key);
+                }
+            });
+
+            log(out -> {
+                out.writeByte(OP_PUT);
+                writeStore(out, store);
+                IndexedDbKeys.write(out, key);
+                IndexedDbKeys.writeString(out, value);
+                out.writeInt(indexKeys.size());
+                for (final Map.Entry<String, List<Object>> entry : indexKeys.entrySet()) {
+                    IndexedDbKeys.writeString(out, entry.getKey());
+                    writeKeys(out, entry.getValue());
+                }
+            });
+
+            if (store.isAutoIncrement() && key instanceof Double) {
+                final double number = Math.floor((Double) key);
+                if (number >= store.getKeyGenerator()) {
+                    setKeyGenerator(store, (long) Math.min(number + 1, MAX_GENERATED_KEY + 1));
+                }
+            }
+        }
+    }
+
+    private static List<Object> keysFor(final Map<String, List<Object>> indexKeys, final IndexedDbIndex index) {
+        final List<Object> keys = indexKeys.get(index.getName());
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+        return keys;
+    }
+
+    /**
+     * Deletes all the records in the range.
+     * @param store the object store
+     * @param range the range
+     */
+    public void delete(final IndexedDbObjectStore store, final IndexedDbKeyRange range) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final Map<Object, String> deleted = new TreeMap<>(range.subMap(store.getRecords()));
+            if (deleted.isEmpty()) {
+                return;
+            }
+            removeRecords(store, deleted);
+
+            log(out -> {
+                out.writeByte(OP_DELETE);
+                writeStore(out, store);
+                writeRange(out, range);
+            });
+        }
+    }
+
+    /**
+     * Deletes all records.
+     * @param store the object store
+     */
+    public void clear(final IndexedDbObjectStore store) {
+        synchronized (backend_) {
+            checkWritable();
+
+            final Map<Object, String> deleted = new TreeMap<>(store.getRecords());
+            if (deleted.isEmpty()) {
+                return;
+            }
+            removeRecords(store, deleted);
+
+            log(out -> {
+                out.writeByte(OP_CLEAR);
+                writeStore(out, store);
+            });
+        }
+    }
+
+    private void removeRecords(final IndexedDbObjectStore store, final Map<Object, String> deleted) {
+        final TreeMap<Object, String> records = store.getRecords();
+        final Map<IndexedDbIndex, Map<Object, List<Object>>> deletedIndexKeys = new HashMap<>();
+        for (final IndexedDbIndex index : store.getIndexes().values()) {
+            final Map<Object, List<Object>> keys = new HashMap<>();
+            for (final Object key : deleted.keySet()) {
+                keys.put(key, index.remove(key));
+            }
+            deletedIndexKeys.put(index, keys);
+        }
+        for (final Object key : deleted.keySet()) {
+            records.remove(key);
+        }
+
+        undo_.push(() -> {
+            records.putAll(deleted);
+            for (final Map.Entry<IndexedDbIndex, Map<Object, List<Object>>> entry : deletedIndexKeys.entrySet()) {
+                for (final Map.Entry<Object, List<Object>> keys : entry.getValue().entrySet()) {
+                    entry.getKey().add(keys.getValue(), keys.getKey());
+                }
+            }
+        });
+    }
+
+    /**
+     * Commits the transaction; for a persistent backend the changes are written to the file.
+     */
+    public void commit() {
+        synchronized (backend_) {
+            if (finished_) {
+                return;
+            }
+
+            if (redo_ != null && redoBytes_.size() > 0) {
+                try {
+                    backend_.append(redoBytes_.toByteArray());
+                }
+                catch (final IOException e) {
+                    abort();
+                    throw new IndexedDbException(IndexedDbException.UNKNOWN_ERROR,
+                            "Writing the transaction failed: " + e.getMessage());
+                }
+            }
+            finished_ = true;
+            undo_.clear();
+            backend_.finished(this);
+        }
+    }
+
+    /**
+     * Aborts the transaction; all changes are reverted.
+     */
+    public void abort() {
+        synchronized (backend_) {
+            if (finished_) {
+                return;
+            }
+
+            finished_ = true;
+            while (!undo_.isEmpty()) {
+                undo_.pop().run();
+            }
+            backend_.finished(this);
+        }
+    }
+
+    private void checkWritable() {
+        if (finished_) {
+            throw new IllegalStateException("The transaction has already finished.");
+        }
+        if (readOnly_) {
+            throw new IllegalStateException("The transaction is read only.");
+        }
+    }
+
+    /**
+     * @param other the other transaction
+     * @return true if both transactions must not run at the same time
+     */
+    boolean conflictsWith(final IndexedDbTransaction other) {
+        // the job manager of a window runs the transactions one after the other
+        if (owner_ == other.owner_ || readOnly_ && other.readOnly_) {
+            return false;
+        }
+        if (databaseName_ == null || other.databaseName_ == null) {
+            return true;
+        }
+        if (!databaseName_.equals(other.databaseName_) || !origin_.equals(other.origin_)) {
+            return false;
+        }
+        if (storeNames_ == null || other.storeNames_ == null) {
+            return true;
+        }
+        return !Collections.disjoint(storeNames_, other.storeNames_);
+    }
+
+    private void log(final LogWriter writer) {
+        if (redo_ == null) {
+            return;
+        }
+        try {
+            writer.write(redo_);
+        }
+        catch (final IOException e) {
+            // ByteArrayOutputStream
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeDatabase(final DataOutput out, final IndexedDbDatabase database) throws IOException {
+        IndexedDbKeys.writeString(out, database.getOrigin());
+        IndexedDbKeys.writeString(out, database.getName());
+    }
+
+    private static void writeStore(final DataOutput out, final IndexedDbObjectStore store) throws IOException {
+        writeDatabase(out, store.getDatabase());
+        IndexedDbKeys.writeString(out, store.getName());
+    }
+
+    private static void writeKeys(final DataOutput out, final List<Object> keys) throws IOException {
+        out.writeInt(keys.size());
+        for (final Object key : keys) {
+            IndexedDbKeys.write(out, key);
+        }
+    }
+
+    private static void writeKeyPath(final DataOutput out, final Object keyPath) throws IOException {
+        if (keyPath instanceof List) {
+            final List<?> list = (List<?>) keyPath;
+            out.writeInt(list.size());
+            for (final Object path : list) {
+                IndexedDbKeys.writeString(out, (String) path);
+            }
+            return;
+        }
+
+        out.writeInt(-1);
+        IndexedDbKeys.writeString(out, (String) keyPath);
+    }
+
+    private static void writeRange(final DataOutput out, final IndexedDbKeyRange range) throws IOException {
+        out.writeBoolean(range.getLower() != null);
+        if (range.getLower() != null) {
+            IndexedDbKeys.write(out, range.getLower());
+            out.writeBoolean(range.isLowerOpen());
+        }
+        out.writeBoolean(range.getUpper() != null);
+        if (range.getUpper() != null) {
+            IndexedDbKeys.write(out, range.getUpper());
+            out.writeBoolean(range.isUpperOpen());
+        }
+    }
+
+    /**
+     * Applies a block of the log; used when opening the file.
+     * @param payload the block
+     * @throws IOException if the block is corrupt
+     */
+    void replay(final byte[] payload) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        while (in.available() > 0) {
+            final byte op = in.readByte();
+            final String origin = IndexedDbKeys.readString(in);
+            final String databaseName = IndexedDbKeys.readString(in);
+
+            if (op == OP_SET_VERSION) {
+                setVersion(origin, databaseName, in.readLong());
+                continue;
+            }
+
+            final IndexedDbDatabase database = backend_.getDatabase(origin, databaseName);
+            if (database == null) {
+                throw new IOException("Unknown database '" + databaseName + "'");
+            }
+
+            switch (op) {
+                case OP_DELETE_DATABASE:
+                    deleteDatabase(database);
+                    break;
+
+                case OP_CREATE_STORE:
+                    createObjectStore(database, IndexedDbKeys.readString(in), readKeyPath(in), in.readBoolean());
+                    break;
+
+                case OP_DELETE_STORE:
+                    deleteObjectStore(database, IndexedDbKeys.readString(in));
+                    break;
+
+                default:
+                    replayStoreOp(op, in, database);
+            }
+        }
+    }
+
+    private void replayStoreOp(final byte op, final DataInputStream in, final IndexedDbDatabase database)
+            throws IOException {
+        final IndexedDbObjectStore store = database.getObjectStore(IndexedDbKeys.readString(in));
+        if (store == null) {
+            throw new IOException("Unknown object store");
+        }
+
+        switch (op) {
+            case OP_CREATE_INDEX:
+                createIndex(store, IndexedDbKeys.readString(in), readKeyPath(in), in.readBoolean(), in.readBoolean());
+                break;
+
+            case OP_DELETE_INDEX:
+                deleteIndex(store, IndexedDbKeys.readString(in));
+                break;
+
+            case OP_INDEX_ADD:
+                final IndexedDbIndex index = store.getIndex(IndexedDbKeys.readString(in));
+                if (index == null) {
+                    throw new IOException("Unknown index");
+                }
+                final Object primaryKey = IndexedDbKeys.read(in);
+                addIndexEntry(index, readKeys(in), primaryKey);
+                break;
+
+            case OP_KEY_GENERATOR:
+                setKeyGenerator(store, in.readLong());
+                break;
+
+            case OP_PUT:
+                final Object key = IndexedDbKeys.read(in);
+                final String value = IndexedDbKeys.readString(in);
+                final int count = in.readInt();
+                final Map<String, List<Object>> indexKeys = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    indexKeys.put(IndexedDbKeys.readString(in), readKeys(in));
+                }
+                put(store, key, value, indexKeys, false);
+                break;
+
+            case OP_DELETE:
+                delete(store, readRange(in));
+                break;
+
+            case OP_CLEAR:
+                clear(store);
+                break;
+
+            default:
+                throw new IOException("Unknown operation " + op);
+        }
+    }
+
+    private static List<Object> readKeys(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final List<Object> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(IndexedDbKeys.read(in));
+        }
+        return keys;
+    }
+
+    private static Object readKeyPath(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return IndexedDbKeys.readString(in);
+        }
+
+        final List<String> keyPath = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keyPath.add(IndexedDbKeys.readString(in));
+        }
+        return Collections.unmodifiableList(keyPath);
+    }
+
+    private static IndexedDbKeyRange readRange(final DataInputStream in) throws IOException {
+        Object lower = null;
+        boolean lowerOpen = false;
+        if (in.readBoolean()) {
+            lower = IndexedDbKeys.read(in);
+            lowerOpen = in.readBoolean();
+        }
+        Object upper = null;
+        boolean upperOpen = false;
+        if (in.readBoolean()) {
+            upper = IndexedDbKeys.read(in);
+            upperOpen = in.readBoolean();
+        }
+        return new IndexedDbKeyRange(lower, upper, lowerOpen, upperOpen);
+    }
+
+    /**
+     * Writes the whole content of the backend as redo log; used for compaction.
+     * @param backend the backend
+     * @return the log
+     */
+    static byte[] snapshot(final IndexedDbBackend backend) {
+        final IndexedDbTransaction transaction = new IndexedDbTransaction(backend, true);
+        transaction.log(out -> {
+            for (final IndexedDbDatabase database : backend.getDatabases()) {
+                out.writeByte(OP_SET_VERSION);
+                writeDatabase(out, database);
+                out.writeLong(database.getVersion());
+
+                for (final IndexedDbObjectStore store : database.getObjectStores().values()) {
+                    out.writeByte(OP_CREATE_STORE);
+                    writeDatabase(out, database);
+                    IndexedDbKeys.writeString(out, store.getName());
+                    writeKeyPath(out, store.getKeyPath());
+                    out.writeBoolean(store.isAutoIncrement());
+
+                    out.writeByte(OP_KEY_GENERATOR);
+                    writeStore(out, store);
+                    out.writeLong(store.getKeyGenerator());
+
+                    for (final IndexedDbIndex index : store.getIndexes().values()) {
+                        out.writeByte(OP_CREATE_INDEX);
+                        writeStore(out, store);
+                        IndexedDbKeys.writeString(out, index.getName());
+                        writeKeyPath(out, index.getKeyPath());
+                        out.writeBoolean(index.isUnique());
+                        out.writeBoolean(index.isMultiEntry());
+                    }
+
+                    for (final Map.Entry<Object, String> record : store.getRecords().entrySet()) {
+                        out.writeByte(OP_PUT);
+                        writeStore(out, store);
+                        IndexedDbKeys.write(out, record.getKey());
+                        IndexedDbKeys.writeString(out, record.getValue());
+                        out.writeInt(store.getIndexes().size());
+                        for (final IndexedDbIndex index : store.getIndexes().values()) {
+                            IndexedDbKeys.writeString(out, index.getName());
+                            writeKeys(out, index.getKeys(record.getKey()));
+                        }
+                    }
+                }
+            }
+        });
+        return transaction.redoBytes_.toByteArray();
+    }
+
+    private interface LogWriter {
+        void write(DataOutput out) throws IOException;
+    }
+}
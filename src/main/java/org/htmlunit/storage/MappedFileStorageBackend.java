@@ -0,0 +1,808 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A persistent {@link StorageBackend} using a memory-mapped append-log file.
+ * <p>
+ * Every modification is appended as a record to the log file. Only the keys are kept on the heap,
+ * the values stay in the mapped file: the store remembers the position of the current value of
+ * every key and decodes the value on every read. When opening the file the log is replayed.
+ * A record is written completely before it gets marked as valid, therefore a crash of the process
+ * never leaves a partial record behind. The log is compacted as soon as more than half of the file
+ * is garbage (overwritten or removed entries); use {@link #compact()} to trigger this manually.
+ * </p>
+ * <p>
+ * Every origin has a quota (number of characters of all the keys and values of the origin);
+ * if this quota is exceeded the put operation fails with a {@link StorageQuotaExceededException}.
+ * </p>
+ * <p>
+ * Backends are shared inside the JVM. Opening the same file a second time returns the already
+ * open backend; this way many {@link org.htmlunit.WebClient}s can work with the same
+ * local storage. The file itself is locked and can't be used by another process at the same time.
+ * Every {@link #open(Path)} has to be balanced by a call to {@link #close()}.
+ * </p>
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author Ronald Brill
+ */
+public final class MappedFileStorageBackend implements StorageBackend, Closeable {
+
+    private static final Log LOG = LogFactory.getLog(MappedFileStorageBackend.class);
+
+    /** The default quota per origin (in characters). */
+    public static final long DEFAULT_QUOTA = 5_200_000;
+
+    private static final int MAGIC = 0x48554C53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int MIN_FILE_SIZE = 64 * 1024;
+    private static final int MIN_COMPACTION_GARBAGE = 1024 * 1024;
+
+    private static final byte OP_END = 0;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_CLEAR = 3;
+
+    private static final Map<Path, MappedFileStorageBackend> OPEN_BACKENDS = new HashMap<>();
+
+    private final String file_;
+    private final long quota_;
+
+    private transient Path path_;
+    private transient FileChannel channel_;
+    private transient FileLock fileLock_;
+    private transient MappedByteBuffer buffer_;
+    private transient int writePosition_;
+    private transient long liveBytes_;
+    private transient Map<String, OriginStore> stores_;
+    private transient int references_;
+
+    private MappedFileStorageBackend(final Path path, final long quota) throws IOException {
+        path_ = path;
+        file_ = path.toString();
+        quota_ = quota;
+
+        channel_ = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            fileLock_ = channel_.tryLock();
+            if (fileLock_ == null) {
+                throw new IOException("The storage file '" + path + "' is used by another process");
+            }
+            load();
+        }
+        catch (final IOException | RuntimeException e) {
+            channel_.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the backend for the given file using the {@link #DEFAULT_QUOTA}.
+     * If the file does not exist, a new one is created.
+     *
+     * @param file the file
+     * @return the backend
+     * @throws IOException in case of error
+     */
+    public static MappedFileStorageBackend open(final Path file) throws IOException {
+        return open(file, DEFAULT_QUOTA);
+    }
+
+    /**
+     * Opens the backend for the given file. If the file does not exist, a new one is created.
+     * If the file is already opened inside this JVM, the already open backend is returned
+     * (and the quota parameter is ignored).
+     *
+     * @param file the file
+     * @param quotaPerOrigin the maximum number of characters (keys and values) per origin
+     * @return the backend
+     * @throws IOException in case of error
+     */
+    public static MappedFileStorageBackend open(final Path file, final long quotaPerOrigin) throws IOException {
+        final Path path = file.toAbsolutePath().normalize();
+        synchronized (OPEN_BACKENDS) {
+            MappedFileStorageBackend backend = OPEN_BACKENDS.get(path);
+            if (backend == null) {
+                backend = new MappedFileStorageBackend(path, quotaPerOrigin);
+                OPEN_BACKENDS.put(path, backend);
+            }
+            backend.references_++;
+            return backend;
+        }
+    }
+
+    /**
+     * @return the file of this backend
+     */
+    public Path getFile() {
+        return path_;
+    }
+
+    /**
+     * @return the quota per origin
+     */
+    public long getQuota() {
+        return quota_;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Map<String, String> getStore(final String origin) {
+        ensureOpen();
+        return stores_.computeIfAbsent(origin, OriginStore::new);
+    }
+
+    /**
+     * Rewrites the log file; afterwards the file contains only one record per entry.
+     * @throws IOException in case of error
+     */
+    public synchronized void compact() throws IOException {
+        ensureOpen();
+
+        final Path tmp = path_.resolveSibling(path_.getFileName() + ".compact");
+        final Map<OriginStore, long[]> newLocations = new HashMap<>();
+        final int writePosition;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(HEADER_SIZE + liveBytes_));
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            int pos = HEADER_SIZE;
+            for (final OriginStore store : stores_.values()) {
+                final long[] locations = new long[store.values_.size()];
+                int i = 0;
+                for (final Map.Entry<String, Long> entry : store.values_.entrySet()) {
+                    final long location = entry.getValue();
+                    pos = writeRecord(buffer, pos, OP_PUT, store.originBytes_,
+                            utf8(entry.getKey()), readBytes(position(location), length(location)));
+                    locations[i++] = location(pos - length(location), length(location));
+                }
+                newLocations.put(store, locations);
+            }
+            buffer.force();
+            unmap(buffer);
+            writePosition = pos;
+        }
+        catch (final IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        // the file can't be replaced as long as it is mapped (at least on windows)
+        closeFile();
+
+        IOException failure = null;
+        try {
+            Files.move(tmp, path_, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writePosition_ = writePosition;
+            for (final Map.Entry<OriginStore, long[]> entry : newLocations.entrySet()) {
+                int i = 0;
+                for (final Map.Entry<String, Long> value : entry.getKey().values_.entrySet()) {
+                    value.setValue(entry.getValue()[i++]);
+                }
+            }
+        }
+        catch (final IOException e) {
+            // the old file and the old positions are still valid
+            failure = e;
+            Files.deleteIfExists(tmp);
+        }
+
+        openFile();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Releases this backend. The file is closed if this was the last user.
+     * @throws IOException in case of error
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (OPEN_BACKENDS) {
+            if (references_ == 0) {
+                return;
+            }
+            references_--;
+            if (references_ > 0) {
+                return;
+            }
+            OPEN_BACKENDS.remove(path_);
+        }
+
+        synchronized (this) {
+            try {
+                closeFile();
+            }
+            finally {
+                stores_ = null;
+            }
+        }
+    }
+
+    /**
+     * Flushes and unmaps the buffer, releases the lock and closes the file.
+     */
+    private void closeFile() throws IOException {
+        final MappedByteBuffer buffer = buffer_;
+        if (buffer == null) {
+            // reopening after a compaction failed, the file is already closed
+            return;
+        }
+        buffer_ = null;
+        try {
+            buffer.force();
+            fileLock_.release();
+        }
+        finally {
+            channel_.close();
+            unmap(buffer);
+        }
+    }
+
+    /**
+     * Opens, locks and maps the (already initialized) file again.
+     */
+    private void openFile() throws IOException {
+        channel_ = FileChannel.open(path_, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            fileLock_ = channel_.tryLock();
+            if (fileLock_ == null) {
+                throw new IOException("The storage file '" + path_ + "' is used by another process");
+            }
+            buffer_ = channel_.map(FileChannel.MapMode.READ_WRITE, 0, channel_.size());
+        }
+        catch (final IOException | RuntimeException e) {
+            channel_.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the mapping immediately instead of waiting for the garbage collector;
+     * the buffer must not be used afterwards. Falls back to the garbage collector if
+     * the JVM does not allow this.
+     */
+    private static void unmap(final MappedByteBuffer buffer) {
+        try {
+            try {
+                // java 9+
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            }
+            catch (final NoSuchMethodException e) {
+                // java 8
+                final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                final Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        }
+        catch (final ReflectiveOperationException | RuntimeException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Unmapping the storage file is not supported, the garbage collector will do it", e);
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (buffer_ == null) {
+            throw new IllegalStateException("The storage file '" + path_ + "' is already closed");
+        }
+    }
+
+    private void load() throws IOException {
+        stores_ = new HashMap<>();
+
+        final long size = channel_.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The storage file '" + path_ + "' is too large");
+        }
+
+        if (size == 0) {
+            buffer_ = channel_.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(size));
+            buffer_.putInt(0, MAGIC);
+            buffer_.putInt(4, VERSION);
+            writePosition_ = HEADER_SIZE;
+            return;
+        }
+
+        // check the header first; mapping would grow the file
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel_.read(header, header.position()) > 0) {
+            // read the rest
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("The file '" + path_ + "' is not a storage file");
+        }
+        buffer_ = channel_.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(size));
+
+        int pos = HEADER_SIZE;
+        try {
+            while (pos < buffer_.capacity() && buffer_.get(pos) != OP_END) {
+                pos = replay(pos);
+            }
+        }
+        catch (final IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            LOG.warn("The storage file '" + path_ + "' is corrupt at position " + pos
+                        + "; ignoring the rest of the file.", e);
+        }
+        writePosition_ = pos;
+
+        // the remaining part of the file might contain the leftovers of an unfinished record
+        for (int i = pos; i < buffer_.capacity(); i++) {
+            buffer_.put(i, OP_END);
+        }
+    }
+
+    private int replay(final int start) {
+        final byte op = buffer_.get(start);
+        int pos = start + 1;
+
+        final int originLength = buffer_.getInt(pos);
+        pos += 4;
+        final String origin = readString(pos, originLength);
+        pos += originLength;
+        final OriginStore store = stores_.computeIfAbsent(origin, OriginStore::new);
+
+        if (op == OP_CLEAR) {
+            store.clearValues();
+            return pos;
+        }
+
+        final int keyLength = buffer_.getInt(pos);
+        pos += 4;
+        final String key = readString(pos, keyLength);
+        pos += keyLength;
+
+        if (op == OP_REMOVE) {
+            store.removeValue(key);
+            return pos;
+        }
+
+        if (op == OP_PUT) {
+            final int valueLength = buffer_.getInt(pos);
+            pos += 4;
+            checkLength(pos, valueLength);
+            store.putValue(key, location(pos, valueLength));
+            pos += valueLength;
+            return pos;
+        }
+
+        throw new IllegalArgumentException("Unknown record type " + op);
+    }
+
+    private String readString(final int pos, final int length) {
+        return new String(readBytes(pos, length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(final int pos, final int length) {
+        checkLength(pos, length);
+        final byte[] bytes = new byte[length];
+        final ByteBuffer buffer = buffer_.duplicate();
+        ((Buffer) buffer).position(pos);
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private void checkLength(final int pos, final int length) {
+        if (length < 0 || (long) pos + length > buffer_.capacity()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+    }
+
+    /**
+     * Reads the value at the given location.
+     */
+    private String readValue(final long location) {
+        return readString(position(location), length(location));
+    }
+
+    /**
+     * The number of UTF-16 chars of the value at the given location; does not decode the value.
+     */
+    private int valueChars(final long location) {
+        final int end = position(location) + length(location);
+        int chars = 0;
+        for (int i = position(location); i < end; i++) {
+            final int b = buffer_.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                // four byte sequences are decoded into a surrogate pair
+                chars += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * Packs the position and the length of a value into one long.
+     */
+    private static long location(final int position, final int length) {
+        return (long) position << 32 | length;
+    }
+
+    private static int position(final long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int length(final long location) {
+        return (int) location;
+    }
+
+    /**
+     * Appends the record.
+     * @return the position after the record
+     */
+    private int append(final byte op, final byte[] origin, final byte[] key, final byte[] value) {
+        final int recordSize = recordSize(origin, key, value);
+        try {
+            ensureCapacity(recordSize);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        writePosition_ = writeRecord(buffer_, writePosition_, op, origin, key, value);
+        return writePosition_;
+    }
+
+    /**
+     * Has to be called after the in memory stores are updated.
+     */
+    private void compactIfNeeded() {
+        final long garbage = writePosition_ - HEADER_SIZE - liveBytes_;
+        if (garbage > MIN_COMPACTION_GARBAGE && garbage > liveBytes_) {
+            try {
+                compact();
+            }
+            catch (final IOException e) {
+                LOG.warn("Compaction of the storage file '" + path_ + "' failed", e);
+            }
+        }
+    }
+
+    private void ensureCapacity(final int recordSize) throws IOException {
+        final long required = (long) writePosition_ + recordSize + 1;
+        if (required <= buffer_.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException("The storage file '" + path_ + "' is too large");
+        }
+        final MappedByteBuffer old = buffer_;
+        buffer_ = channel_.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(required, Math.min(2L * buffer_.capacity(), Integer.MAX_VALUE)));
+        unmap(old);
+    }
+
+    /**
+     * Writes the record; the type of the record is written last, this marks the record as valid.
+     */
+    private static int writeRecord(final ByteBuffer target, final int start, final byte op,
+            final byte[] origin, final byte[] key, final byte[] value) {
+        final ByteBuffer buffer = target.duplicate();
+        ((Buffer) buffer).position(start + 1);
+
+        buffer.putInt(origin.length);
+        buffer.put(origin);
+        if (key != null) {
+            buffer.putInt(key.length);
+            buffer.put(key);
+        }
+        if (value != null) {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+
+        target.put(start, op);
+        return buffer.position();
+    }
+
+    private static int recordSize(final byte[] origin, final byte[] key, final byte[] value) {
+        int size = 1 + 4 + origin.length;
+        if (key != null) {
+            size += 4 + key.length;
+        }
+        if (value != null) {
+            size += 4 + value.length;
+        }
+        return size;
+    }
+
+    private static long fileSize(final long required) {
+        long size = MIN_FILE_SIZE;
+        while (size < required + 1) {
+            size *= 2;
+        }
+        return Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A deserialized backend is replaced by the backend already open for the file, without taking
+     * an additional reference (the reference belongs to the one that opened it).
+     * If the file is not open in this JVM, it is opened; like after {@link #open(Path, long)}
+     * the deserialized backend has to be closed by calling {@link #close()}.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        final Path path = Paths.get(file_).toAbsolutePath().normalize();
+        try {
+            synchronized (OPEN_BACKENDS) {
+                final MappedFileStorageBackend backend = OPEN_BACKENDS.get(path);
+                if (backend != null) {
+                    return backend;
+                }
+                return open(path, quota_);
+            }
+        }
+        catch (final IOException e) {
+            final InvalidObjectException ex = new InvalidObjectException(e.getMessage());
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    /**
+     * The store of one origin. Maps the keys to the location of the current value
+     * in the file, all modifications are written to the log.
+     */
+    private final class OriginStore extends AbstractMap<String, String> {
+        private final byte[] originBytes_;
+        private final Map<String, Long> values_ = new LinkedHashMap<>();
+        private long usedChars_;
+
+        OriginStore(final String origin) {
+            originBytes_ = utf8(origin);
+        }
+
+        @Override
+        public int size() {
+            synchronized (MappedFileStorageBackend.this) {
+                return values_.size();
+            }
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            synchronized (MappedFileStorageBackend.this) {
+                return values_.containsKey(key);
+            }
+        }
+
+        @Override
+        public String get(final Object key) {
+            synchronized (MappedFileStorageBackend.this) {
+                final Long location = values_.get(key);
+                if (location == null) {
+                    return null;
+                }
+                ensureOpen();
+                return readValue(location);
+            }
+        }
+
+        @Override
+        public String put(final String key, final String value) {
+            synchronized (MappedFileStorageBackend.this) {
+                ensureOpen();
+
+                final Long oldLocation = values_.get(key);
+                final String old = oldLocation == null ? null : readValue(oldLocation);
+                final long used = usedChars_ + key.length() + value.length()
+                                    - (old == null ? 0 : key.length() + old.length());
+                if (used > quota_) {
+                    throw new StorageQuotaExceededException("Setting the value of '" + key
+                                + "' exceeded the quota of " + quota_ + " characters.");
+                }
+
+                final byte[] keyBytes = utf8(key);
+                final byte[] valueBytes = utf8(value);
+                final int end = append(OP_PUT, originBytes_, keyBytes, valueBytes);
+                putValue(key, location(end - valueBytes.length, valueBytes.length));
+                compactIfNeeded();
+                return old;
+            }
+        }
+
+        @Override
+        public String remove(final Object key) {
+            synchronized (MappedFileStorageBackend.this) {
+                ensureOpen();
+
+                if (!values_.containsKey(key)) {
+                    return null;
+                }
+                final String keyString = (String) key;
+                append(OP_REMOVE, originBytes_, utf8(keyString), null);
+                final String old = removeValue(keyString);
+                compactIfNeeded();
+                return old;
+            }
+        }
+
+        @Override
+        public void clear() {
+            synchronized (MappedFileStorageBackend.this) {
+                ensureOpen();
+
+                if (values_.isEmpty()) {
+                    return;
+                }
+                append(OP_CLEAR, originBytes_, null, null);
+                clearValues();
+                compactIfNeeded();
+            }
+        }
+
+        /**
+         * The returned set is backed by the store; like for a {@link LinkedHashMap}
+         * iterating is not synchronized.
+         */
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    final Iterator<Entry<String, Long>> iterator = values_.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        private String current_;
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            final Entry<String, Long> entry = iterator.next();
+                            current_ = entry.getKey();
+                            synchronized (MappedFileStorageBackend.this) {
+                                ensureOpen();
+                                return new SimpleImmutableEntry<>(current_, readValue(entry.getValue()));
+                            }
+                        }
+
+                        @Override
+                        public void remove() {
+                            synchronized (MappedFileStorageBackend.this) {
+                                ensureOpen();
+
+                                append(OP_REMOVE, originBytes_, utf8(current_), null);
+                                final long old = values_.get(current_);
+                                usedChars_ -= current_.length() + valueChars(old);
+                                liveBytes_ -= putRecordSize(current_, old);
+                                iterator.remove();
+                                compactIfNeeded();
+                            }
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return OriginStore.this.size();
+                }
+            };
+        }
+
+        void putValue(final String key, final long location) {
+            final Long old = values_.put(key, location);
+            if (old != null) {
+                usedChars_ -= key.length() + valueChars(old);
+                liveBytes_ -= putRecordSize(key, old);
+            }
+            usedChars_ += key.length() + valueChars(location);
+            liveBytes_ += putRecordSize(key, location);
+        }
+
+        String removeValue(final String key) {
+            final Long old = values_.remove(key);
+            if (old == null) {
+                return null;
+            }
+            final String value = readValue(old);
+            usedChars_ -= key.length() + value.length();
+            liveBytes_ -= putRecordSize(key, old);
+            return value;
+        }
+
+        void clearValues() {
+            for (final Entry<String, Long> entry : values_.entrySet()) {
+                liveBytes_ -= putRecordSize(entry.getKey(), entry.getValue());
+            }
+            values_.clear();
+            usedChars_ = 0;
+        }
+
+        private long putRecordSize(final String key, final long location) {
+            return 1 + 4 + originBytes_.length + 4 + utf8Length(key) + 4 + length(location);
+        }
+    }
+
+    /**
+     * The number of bytes of the UTF-8 encoded string (same as {@code getBytes(UTF_8).length}).
+     */
+    private static int utf8Length(final String value) {
+        final int length = value.length();
+        int bytes = 0;
+        int i = 0;
+        while (i < length) {
+            final char c = value.charAt(i);
+            i++;
+            if (c < 0x80) {
+                bytes++;
+            }
+            else if (c < 0x800) {
+                bytes += 2;
+            }
+            else if (!Character.isSurrogate(c)) {
+                bytes += 3;
+            }
+            else if (Character.isHighSurrogate(c) && i < length && Character.isLowSurrogate(value.charAt(i))) {
+                bytes += 4;
+                i++;
+            }
+            else {
+                // unpaired surrogates are replaced by '?'
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * The backend of the {@code window.localStorage}.
+ * A backend maps the origin to the (live) store of this origin. Backends have to be serializable
+ * because the {@link org.htmlunit.StorageHolder} is serializable.
+ * <p><span style="color:red">Experimental API: May be changed in next release!</span></p>
+ *
+ * @author Ronald Brill
+ * @see InMemoryStorageBackend
+ * @see MappedFileStorageBackend
+ */
+public interface StorageBackend extends Serializable {
+
+    /**
+     * Returns the store for the given origin. The returned map is live; all modifications
+     * are directly reflected by the backend.
+     *
+     * @param origin the origin
+     * @return the store
+     * @throws StorageQuotaExceededException from {@link Map#put(Object, Object)} if the
+     *         quota of this origin is exceeded
+     */
+    Map<String, String> getStore(String origin);
+}
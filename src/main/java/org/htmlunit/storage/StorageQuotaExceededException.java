@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+/**
+ * Thrown by the stores of a {@link StorageBackend} if the quota of an origin is exceeded.
+ *
+ * @author Ronald Brill
+ */
+public class StorageQuotaExceededException extends RuntimeException {
+
+    /**
+     * Ctor.
+     * @param message the message
+     */
+    public StorageQuotaExceededException(final String message) {
+        super(message);
+    }
+}
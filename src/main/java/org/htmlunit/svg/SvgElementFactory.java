@@ -22,6 +22,7 @@ import org.htmlunit.SgmlPage;
 import org.htmlunit.html.DomAttr;
 import org.htmlunit.html.DomElement;
 import org.htmlunit.html.ElementFactory;
+import org.htmlunit.util.StringInterner;
 import org.htmlunit.util.StringUtils;
 import org.xml.sax.Attributes;
 
@@ -110,6 +111,7 @@ public class SvgElementFactory implements ElementFactory {
         Map<String, DomAttr> attributeMap = null;
         if (attributes != null) {
             attributeMap = new LinkedHashMap<>(attributes.getLength());
+            final StringInterner interner = page.getWebClient().getStringInterner();
             for (int i = 0; i < attributes.getLength(); i++) {
                 final String qName = attributes.getQName(i);
                 // browsers consider only first attribute (ex: <div id='foo' id='something'>...</div>)
@@ -118,7 +120,11 @@ public class SvgElementFactory implements ElementFactory {
                     if (namespaceURI != null && namespaceURI.isEmpty()) {
                         namespaceURI = null;
                     }
-                    final DomAttr newAttr = new DomAttr(page, namespaceURI, qName, attributes.getValue(i), true);
+                    String value = attributes.getValue(i);
+                    if (interner != null) {
+                        value = interner.intern(value);
+                    }
+                    final DomAttr newAttr = new DomAttr(page, namespaceURI, qName, value, true);
                     attributeMap.put(qName, newAttr);
                 }
             }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <span style="color:red">INTERNAL API - SUBJECT TO CHANGE AT ANY TIME - USE AT YOUR OWN RISK.</span><br>
+ *
+ * A bounded table used to share the strings created by the parser.
+ * <p>
+ * Real pages are full of repeated short strings - the whitespace between the tags,
+ * class names, types and other attribute values. Every page keeps its own copies;
+ * with many pages in memory (e.g. in the history or the cache) the duplicates add up.
+ * The interner returns the same instance for equal strings, the duplicates can be
+ * collected immediately.
+ * </p>
+ * <p>
+ * The table is a lossy direct mapped cache: every slot holds the last string stored for
+ * this hash, a colliding string simply replaces it. Therefore the memory is bounded, no
+ * locking is needed and the lookup of a {@link CharSequence} does not allocate anything;
+ * only strings not found in the table are created. Strings longer than the max length
+ * are never stored.
+ * </p>
+ *
+ * @author Ronald Brill
+ */
+public class StringInterner {
+
+    /** The default number of slots. */
+    public static final int DEFAULT_CAPACITY = 4_096;
+
+    /** The default max length of the stored strings. */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private final String[] table_;
+    private final int mask_;
+    private final int maxLength_;
+
+    private final LongAdder hits_ = new LongAdder();
+    private final LongAdder misses_ = new LongAdder();
+    private final LongAdder savedChars_ = new LongAdder();
+
+    /**
+     * Ctor using the default capacity and max length.
+     */
+    public StringInterner() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Ctor.
+     * @param capacity the number of slots, rounded up to the next power of two
+     * @param maxLength the max length of the strings to be stored
+     */
+    public StringInterner(final int capacity, final int maxLength) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        final int size = Integer.highestOneBit(capacity) == capacity
+                ? capacity
+                : Integer.highestOneBit(capacity) << 1;
+        table_ = new String[size];
+        mask_ = size - 1;
+        maxLength_ = maxLength;
+    }
+
+    /**
+     * Returns a string with the content of the given characters; if the table already
+     * contains an equal string this one is returned without creating a new one.
+     * @param chars the characters
+     * @return the string
+     */
+    public String intern(final CharSequence chars) {
+        final int length = chars.length();
+        if (length == 0) {
+            return "";
+        }
+        if (length > maxLength_) {
+            return chars.toString();
+        }
+
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+
+        final int index = index(hash);
+        final String existing = table_[index];
+        if (existing != null && contentEquals(existing, chars, length)) {
+            hit(length);
+            return existing;
+        }
+
+        misses_.increment();
+        final String value = chars.toString();
+        table_[index] = value;
+        return value;
+    }
+
+    /**
+     * Returns the string from the table that is equal to the given one; if there is no
+     * such string the given one is stored and returned.
+     * @param value the string
+     * @return the shared string
+     */
+    public String intern(final String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        final int length = value.length();
+        if (length > maxLength_) {
+            return value;
+        }
+
+        // String caches the hash code, this is the same hash as calculated for the CharSequence
+        final int index = index(value.hashCode());
+        final String existing = table_[index];
+        if (existing != null) {
+            if (existing == value) {
+                return value;
+            }
+            if (existing.equals(value)) {
+                hit(length);
+                return existing;
+            }
+        }
+
+        misses_.increment();
+        table_[index] = value;
+        return value;
+    }
+
+    private int index(final int hash) {
+        return (hash ^ (hash >>> 16)) & mask_;
+    }
+
+    private static boolean contentEquals(final String existing, final CharSequence chars, final int length) {
+        if (existing.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (existing.charAt(i) != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void hit(final int length) {
+        hits_.increment();
+        savedChars_.add(length);
+    }
+
+    /**
+     * @return the number of strings taken from the table
+     */
+    public long getHitCount() {
+        return hits_.sum();
+    }
+
+    /**
+     * @return the number of strings not found in the table
+     */
+    public long getMissCount() {
+        return misses_.sum();
+    }
+
+    /**
+     * @return the number of characters of all the strings taken from the table
+     *         instead of keeping a copy
+     */
+    public long getSavedChars() {
+        return savedChars_.sum();
+    }
+
+    /**
+     * Returns a rough estimate of the memory saved so far. Every string taken from the table
+     * saves the string object and the backing array (object headers, the hash field and
+     * two bytes per character, ignoring compact strings).
+     * @return the estimated number of saved bytes
+     */
+    public long getSavedBytesEstimate() {
+        return getHitCount() * 40 + getSavedChars() * 2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "StringInterner[hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", savedChars=" + getSavedChars() + ", savedBytes~" + getSavedBytesEstimate() + "]";
+    }
+}
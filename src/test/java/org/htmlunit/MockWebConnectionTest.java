@@ -16,6 +16,10 @@ package org.htmlunit;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.htmlunit.html.HtmlPage;
 import org.htmlunit.junit.BrowserRunner;
 import org.htmlunit.util.MimeType;
@@ -51,4 +55,88 @@ public class MockWebConnectionTest extends SimpleWebTestCase {
         final HtmlPage page = client.getPage(URL_FIRST);
         assertEquals("\u00A3", page.getBody().asNormalizedText());
     }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void prefixResponses() throws Exception {
+        final MockWebConnection webConnection = new MockWebConnection();
+        webConnection.setResponse(new URL("http://localhost/api/special"), "special", MimeType.TEXT_PLAIN);
+        webConnection.setPrefixResponse("http://localhost/api/", "api", MimeType.TEXT_PLAIN);
+        webConnection.setPrefixResponse("http://localhost/api/users/*/details", "details", MimeType.TEXT_PLAIN);
+        webConnection.setDefaultResponse("default", MimeType.TEXT_PLAIN);
+
+        assertEquals("special", content(webConnection, "http://localhost/api/special"));
+        assertEquals("api", content(webConnection, "http://localhost/api"));
+        assertEquals("api", content(webConnection, "http://localhost/api/special/more"));
+        assertEquals("api", content(webConnection, "http://localhost/api/users?id=7"));
+        assertEquals("details", content(webConnection, "http://localhost/api/users/7/details"));
+        assertEquals("details", content(webConnection, "http://localhost/api/users/7/details/more?x=y"));
+        assertEquals("api", content(webConnection, "http://localhost/api/users/7/other"));
+        assertEquals("default", content(webConnection, "http://localhost/apis"));
+        assertEquals(8, webConnection.getRequestCount());
+
+        webConnection.clear();
+        assertEquals(0, webConnection.getRequestCount());
+        assertTrue(webConnection.getRequestedUrls().isEmpty());
+    }
+
+    /**
+     * The longest prefix wins, even if it is reached through a wildcard segment.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void prefixResponsesLongestWildcard() throws Exception {
+        final MockWebConnection webConnection = new MockWebConnection();
+        webConnection.setPrefixResponse("http://h/a", "a", MimeType.TEXT_PLAIN);
+        webConnection.setPrefixResponse("http://h/*/b/c", "wildcard", MimeType.TEXT_PLAIN);
+        webConnection.setDefaultResponse("default", MimeType.TEXT_PLAIN);
+
+        assertEquals("wildcard", content(webConnection, "http://h/a/b/c"));
+        assertEquals("wildcard", content(webConnection, "http://h/x/b/c/d"));
+        assertEquals("a", content(webConnection, "http://h/a/b"));
+        assertEquals("default", content(webConnection, "http://h/x/b"));
+
+        // same length, the exact segment wins
+        webConnection.setPrefixResponse("http://h/a/b/c", "exact", MimeType.TEXT_PLAIN);
+        assertEquals("exact", content(webConnection, "http://h/a/b/c"));
+        assertEquals("wildcard", content(webConnection, "http://h/x/b/c"));
+    }
+
+    private static String content(final MockWebConnection webConnection, final String url) throws Exception {
+        return webConnection.getResponse(new WebRequest(new URL(url))).getContentAsString();
+    }
+
+    /**
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void concurrentRequests() throws Exception {
+        final MockWebConnection webConnection = new MockWebConnection();
+        webConnection.setDefaultResponse("default", MimeType.TEXT_PLAIN);
+        final URL url = new URL("http://localhost/");
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 1000; j++) {
+                        webConnection.getResponse(new WebRequest(url));
+                    }
+                }
+                catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4000, webConnection.getRequestCount());
+        assertEquals(4000, webConnection.getRequestedUrls().size());
+    }
 }
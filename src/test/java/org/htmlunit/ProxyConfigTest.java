@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ProxyConfig}.
+ *
+ * @author Ronald Brill
+ */
+public class ProxyConfigTest extends SimpleWebTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void shouldBypassProxy() throws Exception {
+        final ProxyConfig config = new ProxyConfig("proxy.example.com", 8080, null);
+        assertFalse(config.shouldBypassProxy("localhost"));
+
+        config.addHostsToProxyBypass("^intra\\.example\\.com$");
+        config.addHostsToProxyBypass("\\.corp\\.local$");
+        config.addHostsToProxyBypass("(^|\\.)example\\.org$");
+        config.addHostsToProxyBypass("192\\.168\\..*");
+        config.addHostsToProxyBypass("localhost");
+        config.addHostsToProxyBypass("(x)\\1y");
+
+        assertTrue(config.shouldBypassProxy("intra.example.com"));
+        assertFalse(config.shouldBypassProxy("www.intra.example.com"));
+        assertTrue(config.shouldBypassProxy("www.corp.local"));
+        assertFalse(config.shouldBypassProxy("corp.local"));
+        assertTrue(config.shouldBypassProxy("example.org"));
+        assertTrue(config.shouldBypassProxy("www.example.org"));
+        assertFalse(config.shouldBypassProxy("myexample.org"));
+        assertTrue(config.shouldBypassProxy("192.168.0.1"));
+        assertFalse(config.shouldBypassProxy("10.0.0.1"));
+        assertTrue(config.shouldBypassProxy("localhost"));
+        assertTrue(config.shouldBypassProxy("xxy"));
+        assertFalse(config.shouldBypassProxy("htmlunit.org"));
+
+        // the cached decisions are dropped when the patterns are changed
+        config.removeHostsFromProxyBypass("localhost");
+        assertFalse(config.shouldBypassProxy("localhost"));
+        config.removeHostsFromProxyBypass("(^|\\.)example\\.org$");
+        assertFalse(config.shouldBypassProxy("www.example.org"));
+        config.addHostsToProxyBypass("htmlunit");
+        assertTrue(config.shouldBypassProxy("htmlunit.org"));
+    }
+}
@@ -14,11 +14,15 @@
  */
 package org.htmlunit;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 import org.htmlunit.html.HtmlPage;
 import org.htmlunit.junit.BrowserRunner;
+import org.htmlunit.storage.MappedFileStorageBackend;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 /**
@@ -29,6 +33,13 @@ import org.junit.runner.RunWith;
 @RunWith(BrowserRunner.class)
 public class StorageHolderTest extends SimpleWebTestCase {
 
+    /**
+     * Utility for temporary folders.
+     * Has to be public due to JUnit's constraints for @Rule.
+     */
+    @Rule
+    public final TemporaryFolder tmpFolderProvider_ = new TemporaryFolder();
+
     /**
      * @throws Exception in case of error
      */
@@ -142,4 +153,40 @@ public class StorageHolderTest extends SimpleWebTestCase {
         assertEquals(1, sessionStorage.size());
         assertEquals("Tom", page.getTitleText());
     }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void localStorageMappedFile() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("local.storage");
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            getWebClient().getStorageHolder().setLocalStorageBackend(backend);
+
+            final String html = DOCTYPE_HTML
+                + "<html><body>\n"
+                + "<script>\n"
+                + "  localStorage.setItem('myCat', 'Tom');"
+                + "</script>\n"
+                + "</body></html>";
+
+            loadPage(html);
+        }
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file);
+                WebClient webClient = new WebClient(getBrowserVersion())) {
+            webClient.getStorageHolder().setLocalStorageBackend(backend);
+
+            final String html = DOCTYPE_HTML
+                + "<html><body>\n"
+                + "<script>\n"
+                + "  document.title = localStorage.getItem('myCat');"
+                + "</script>\n"
+                + "</body></html>";
+
+            final HtmlPage page = loadPage(webClient, html, null);
+            assertEquals("Tom", page.getTitleText());
+        }
+    }
 }
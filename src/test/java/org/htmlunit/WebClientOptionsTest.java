@@ -62,8 +62,12 @@ public class WebClientOptionsTest extends SimpleWebTestCase {
         assertEquals(original.getWebSocketMaxTextMessageBufferSize(), deserialized.getWebSocketMaxTextMessageBufferSize());
         assertEquals(original.getWebSocketMaxBinaryMessageSize(), deserialized.getWebSocketMaxBinaryMessageSize());
         assertEquals(original.getWebSocketMaxBinaryMessageBufferSize(), deserialized.getWebSocketMaxBinaryMessageBufferSize());
+        assertEquals(original.getWebSocketMaxQueuedMessages(), deserialized.getWebSocketMaxQueuedMessages());
+        assertEquals(original.isWebSocketCoalesceMessages(), deserialized.isWebSocketCoalesceMessages());
 
         assertEquals(original.isFetchPolyfillEnabled(), deserialized.isFetchPolyfillEnabled());
+        assertEquals(original.isParserStringInterningEnabled(), deserialized.isParserStringInterningEnabled());
+        assertEquals(original.isSharedStyleSheetCacheEnabled(), deserialized.isSharedStyleSheetCacheEnabled());
     }
 
     /**
@@ -91,8 +95,12 @@ public class WebClientOptionsTest extends SimpleWebTestCase {
         original.setWebSocketMaxTextMessageBufferSize(771);
         original.setWebSocketMaxBinaryMessageSize(44);
         original.setWebSocketMaxBinaryMessageBufferSize(441);
+        original.setWebSocketMaxQueuedMessages(12);
+        original.setWebSocketCoalesceMessages(true);
 
         original.setFetchPolyfillEnabled(true);
+        original.setParserStringInterningEnabled(true);
+        original.setSharedStyleSheetCacheEnabled(true);
 
         final byte[] bytes = SerializationUtils.serialize(original);
         final WebClientOptions deserialized = (WebClientOptions) SerializationUtils.deserialize(bytes);
@@ -126,6 +134,8 @@ public class WebClientOptionsTest extends SimpleWebTestCase {
         assertEquals(original.getWebSocketMaxBinaryMessageBufferSize(), deserialized.getWebSocketMaxBinaryMessageBufferSize());
 
         assertEquals(original.isFetchPolyfillEnabled(), deserialized.isFetchPolyfillEnabled());
+        assertEquals(original.isParserStringInterningEnabled(), deserialized.isParserStringInterningEnabled());
+        assertEquals(original.isSharedStyleSheetCacheEnabled(), deserialized.isSharedStyleSheetCacheEnabled());
     }
 
     /**
@@ -74,6 +74,37 @@ public class WebResponseDataTest extends WebServerTestCase {
         assertEquals(body, response.getContentAsString(UTF_8));
     }
 
+    /**
+     * The decompressed content is memoized; the content has to be the same for every access,
+     * also if the content is larger than the memory limit.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void gZippedContentDecompressedOnce() throws Exception {
+        final InputStream stream = getClass().getClassLoader().getResourceAsStream(GZIPPED_FILE);
+        final byte[] zippedContent = IOUtils.toByteArray(stream);
+
+        final List<NameValuePair> headers = new ArrayList<>();
+        headers.add(new NameValuePair("Content-Encoding", "gzip"));
+
+        WebResponseData data = new WebResponseData(zippedContent,
+                HttpStatus.OK_200, HttpStatus.OK_200_MSG, headers);
+        final String body = new String(data.getBody(), UTF_8);
+        assertEquals(body, new String(data.getBody(), UTF_8));
+
+        final WebResponse response = new WebResponse(data, new URL("http://test.com"), HttpMethod.GET, 1000);
+        final String content = response.getContentAsString(UTF_8);
+        assertEquals(body, content);
+        assertSame(content, response.getContentAsString(UTF_8));
+        assertSame(response.getContentCharset(), response.getContentCharset());
+
+        // too large for the memory limit
+        data = new WebResponseData(zippedContent, HttpStatus.OK_200, HttpStatus.OK_200_MSG, headers);
+        data.setMaxInMemory(10);
+        assertEquals(body, new String(data.getBody(), UTF_8));
+        assertEquals(body, new String(data.getBody(), UTF_8));
+    }
+
     /**
      * Tests that empty gzipped content is handled correctly (bug 3566999).
      * @throws Exception if the test fails
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.css;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.htmlunit.SimpleWebTestCase;
+import org.htmlunit.css.StyleAttributes.Definition;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.junit.BrowserRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for the storage of the local modifications of {@link ComputedCssStyleDeclaration}.
+ *
+ * @author Ronald Brill
+ */
+@RunWith(BrowserRunner.class)
+public class ComputedCssStyleDeclarationTest extends SimpleWebTestCase {
+
+    /**
+     * Every attribute of the definitions can be stored and read back,
+     * independent of the page of slots it is stored in.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void allSlots() throws Exception {
+        final HtmlPage page = loadPage(DOCTYPE_HTML + "<html><body><div id='d'></div></body></html>");
+        final ComputedCssStyleDeclaration style =
+                new ComputedCssStyleDeclaration(new ElementCssStyleDeclaration(page.getElementById("d")));
+
+        final Set<String> names = new LinkedHashSet<>();
+        for (final Definition definition : Definition.values()) {
+            names.add(definition.getAttributeName());
+        }
+        assertEquals(StyleAttributes.getAttributeSlotCount(), names.size());
+
+        int i = 0;
+        for (final String name : names) {
+            assertNull(name, style.getStyleElement(name));
+            style.setDefaultLocalStyleAttribute(name, "v" + i++);
+        }
+
+        i = 0;
+        for (final String name : names) {
+            assertEquals(name, "v" + i++, style.getStyleElement(name).getValue());
+        }
+    }
+
+    /**
+     * Names without a definition are stored separately.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void nameWithoutDefinition() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><style>\n"
+            + "  div { foo-bar: 7px; color: red }\n"
+            + "</style></head><body>\n"
+            + "<div id='d1'></div>\n"
+            + "<div id='d2' style='foo-bar: 3px'></div>\n"
+            + "</body></html>";
+        final HtmlPage page = loadPage(html);
+        assertEquals(-1, StyleAttributes.getAttributeSlot("foo-bar"));
+
+        final ComputedCssStyleDeclaration style1 =
+                page.getEnclosingWindow().getComputedStyle(page.getElementById("d1"), null);
+        assertEquals("7px", style1.getStyleAttribute("foo-bar"));
+        assertEquals("red", style1.getStyleAttribute("color"));
+        assertEquals("", style1.getStyleAttribute("bar-foo"));
+
+        // the style attribute wins
+        final ComputedCssStyleDeclaration style2 =
+                page.getEnclosingWindow().getComputedStyle(page.getElementById("d2"), null);
+        assertEquals("3px", style2.getStyleAttribute("foo-bar"));
+
+        style1.setDefaultLocalStyleAttribute("bar-foo", "x");
+        assertEquals("x", style1.getStyleAttribute("bar-foo"));
+        assertEquals("7px", style1.getStyleAttribute("foo-bar"));
+    }
+
+    /**
+     * The priority and the specificity decide which value of the rules
+     * and the style attribute is used.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void priority() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><style>\n"
+            + "  .imp { color: red !important; z-index: 1 !important }\n"
+            + "  #d1 { color: blue; z-index: 2 }\n"
+            + "  #d2 { color: blue !important }\n"
+            + "  .imp2 { color: green !important }\n"
+            + "  #d5 { color: red }\n"
+            + "  #d6 { color: blue }\n"
+            + "  div { color: green }\n"
+            + "</style></head><body>\n"
+            // important wins over a higher specificity
+            + "<div id='d1' class='imp'></div>\n"
+            // both important, the higher specificity wins
+            + "<div id='d2' class='imp2'></div>\n"
+            // important wins over the style attribute
+            + "<div id='d3' class='imp' style='color: green; z-index: 3'></div>\n"
+            // important in the style attribute wins
+            + "<div id='d4' class='imp' style='color: green !important'></div>\n"
+            // the style attribute wins over normal rules
+            + "<div id='d5' style='color: green'></div>\n"
+            // the higher specificity wins, even if defined first
+            + "<div id='d6'></div>\n"
+            + "</body></html>";
+        final HtmlPage page = loadPage(html);
+
+        assertEquals("red", color(page, "d1"));
+        assertEquals("1", computedStyle(page, "d1").getStyleAttribute("z-index"));
+        assertEquals("blue", color(page, "d2"));
+        assertEquals("red", color(page, "d3"));
+        assertEquals("1", computedStyle(page, "d3").getStyleAttribute("z-index"));
+        assertEquals("green", color(page, "d4"));
+        assertEquals("green", color(page, "d5"));
+        assertEquals("blue", color(page, "d6"));
+    }
+
+    private static ComputedCssStyleDeclaration computedStyle(final HtmlPage page, final String id) {
+        return page.getEnclosingWindow().getComputedStyle(page.getElementById(id), null);
+    }
+
+    private static String color(final HtmlPage page, final String id) {
+        return computedStyle(page, id).getStyleAttribute("color");
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.css;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CssPixelValueConverter}.
+ *
+ * @author Ronald Brill
+ */
+public class CssPixelValueConverterTest {
+
+    /**
+     * The fast path handles only plain integer px values.
+     */
+    @Test
+    public void simplePixelValue() {
+        assertEquals(0, CssPixelValueConverter.simplePixelValue("0px"));
+        assertEquals(5, CssPixelValueConverter.simplePixelValue("5px"));
+        assertEquals(7, CssPixelValueConverter.simplePixelValue("007px"));
+        assertEquals(9999999, CssPixelValueConverter.simplePixelValue("9999999px"));
+
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("-5px"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("+5px"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("1.5px"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("px"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue(""));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue(" 5px"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("5px "));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("5PX"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("5em"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("5"));
+        // too many digits for the fast path
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("99999999px"));
+        assertEquals(-1, CssPixelValueConverter.simplePixelValue("99999999999px"));
+    }
+
+    /**
+     * The fast path and the general parsing have to produce the same results.
+     */
+    @Test
+    public void sameAsParsing() {
+        final String[] values = {"0px", "5px", "12px", "007px", "-5px", "1.5px", "2.5px", "px", "", "p", " 5px",
+            "5px ", "9999999px", "99999999px", "99999999999px", "123456789012345678901234567890px",
+            "5em", "5", "auto", "50%"};
+        for (final String value : values) {
+            final int simple = CssPixelValueConverter.simplePixelValue(value);
+            if (simple >= 0) {
+                assertEquals(value, CssPixelValueConverter.parsePixelValue(value), simple);
+            }
+            assertEquals(value, CssPixelValueConverter.parsePixelValue(value),
+                    CssPixelValueConverter.pixelValue(value));
+        }
+
+        assertEquals(-5, CssPixelValueConverter.pixelValue("-5px"));
+        assertEquals(7, CssPixelValueConverter.pixelValue("007px"));
+        assertEquals(2, CssPixelValueConverter.pixelValue("1.5px"));
+        assertEquals(0, CssPixelValueConverter.pixelValue("px"));
+        assertEquals(5, CssPixelValueConverter.pixelValue(" 5px"));
+        assertEquals(100000000, CssPixelValueConverter.pixelValue("99999999px"));
+    }
+}
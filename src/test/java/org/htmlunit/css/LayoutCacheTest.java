@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.css;
+
+import org.htmlunit.SimpleWebTestCase;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.HtmlElement;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.junit.BrowserRunner;
+import org.htmlunit.junit.annotation.Alerts;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link LayoutCache}.
+ *
+ * @author Ronald Brill
+ */
+@RunWith(BrowserRunner.class)
+public class LayoutCacheTest extends SimpleWebTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"20", "20", "30", "30", "50", "10", "20"})
+    public void domChanges() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body style='margin: 0'>\n"
+            + "<div id='d1' style='height: 10px'></div>\n"
+            + "<div id='d2' style='height: 10px'></div>\n"
+            + "<div id='d3' style='height: 10px'></div>\n"
+            + "<script>\n"
+            + "  var d1 = document.getElementById('d1');\n"
+            + "  var d3 = document.getElementById('d3');\n"
+            + "  alert(d3.offsetTop);\n"
+            + "  alert(d3.offsetTop);\n"
+
+            + "  var div = document.createElement('div');\n"
+            + "  div.style.height = '10px';\n"
+            + "  document.body.insertBefore(div, d3);\n"
+            + "  alert(d3.offsetTop);\n"
+
+            // appending after d3 does not change the position
+            + "  document.body.appendChild(document.createElement('div'));\n"
+            + "  alert(d3.offsetTop);\n"
+
+            + "  d1.style.height = '30px';\n"
+            + "  alert(d3.offsetTop);\n"
+
+            + "  document.body.removeChild(div);\n"
+            + "  d1.style.height = '10px';\n"
+            + "  alert(d3.offsetHeight);\n"
+            + "  alert(d3.offsetTop);\n"
+            + "</script>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts(html);
+    }
+
+    /**
+     * Appending a sibling changes the style of the former last child.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"0", "0", "true"})
+    public void lastChildRule() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><style>li:last-child { display: none }</style></head>\n"
+            + "<body><ul id='list'><li id='first'>first</li></ul>\n"
+            + "<script>\n"
+            + "  var first = document.getElementById('first');\n"
+            + "  alert(first.offsetHeight);\n"
+            + "  alert(first.offsetHeight);\n"
+
+            + "  var li = document.createElement('li');\n"
+            + "  li.textContent = 'second';\n"
+            + "  document.getElementById('list').appendChild(li);\n"
+            + "  alert(first.offsetHeight > 0);\n"
+            + "</script>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts(html);
+    }
+
+    /**
+     * Modifying the rules of a sheet (CSSOM) outdates the layout.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"50", "50", "80", "50", "50", "20", "50"})
+    public void insertRule() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><style>\n"
+            + "  #d1 { width: 50px }\n"
+            + "  @media all { #d2 { width: 50px } }\n"
+            + "</style></head><body>\n"
+            + "<div id='d1'></div>\n"
+            + "<div id='d2'></div>\n"
+            + "<script>\n"
+            + "  var sheet = document.styleSheets[0];\n"
+            + "  var d1 = document.getElementById('d1');\n"
+            + "  var d2 = document.getElementById('d2');\n"
+            + "  alert(d1.offsetWidth);\n"
+            + "  alert(d1.offsetWidth);\n"
+
+            + "  sheet.insertRule('#d1 { width: 80px }', 2);\n"
+            + "  alert(d1.offsetWidth);\n"
+
+            + "  sheet.deleteRule(2);\n"
+            + "  alert(d1.offsetWidth);\n"
+
+            + "  alert(d2.offsetWidth);\n"
+            + "  sheet.cssRules[1].insertRule('#d2 { width: 20px }', 1);\n"
+            + "  alert(d2.offsetWidth);\n"
+            + "  sheet.cssRules[1].deleteRule(1);\n"
+            + "  alert(d2.offsetWidth);\n"
+            + "</script>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void repeatedQueries() throws Exception {
+        final StringBuilder html = new StringBuilder();
+        html.append(DOCTYPE_HTML).append("<html><body>\n<div id='list'>\n");
+        for (int i = 0; i < 50; i++) {
+            html.append("<div>").append(i).append("</div>\n");
+        }
+        html.append("</div>\n<div id='tail'></div>\n</body></html>");
+
+        final HtmlPage page = loadPage(html.toString());
+        final LayoutCache cache = page.getLayoutCache();
+
+        final HtmlElement list = page.getHtmlElementById("list");
+        final HtmlElement last = (HtmlElement) list.getLastElementChild();
+        final int posY = last.getPosY();
+        final long misses = cache.getMissCount();
+        final long hits = cache.getHitCount();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(posY, last.getPosY());
+        }
+        assertEquals(misses, cache.getMissCount());
+        assertEquals(hits + 10, cache.getHitCount());
+
+        // a new element after the list does not move the last item
+        page.getHtmlElementById("tail").appendChild(page.createElement("div"));
+        assertEquals(posY, last.getPosY());
+        assertEquals(misses, cache.getMissCount());
+
+        // a new element at the start does
+        final DomElement first = page.createElement("div");
+        first.appendChild(page.createTextNode("first"));
+        list.insertBefore(first, list.getFirstChild());
+        assertTrue(last.getPosY() > posY);
+    }
+}
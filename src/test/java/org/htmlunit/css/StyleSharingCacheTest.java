@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.css;
+
+import java.net.URL;
+
+import org.htmlunit.SimpleWebTestCase;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.junit.BrowserRunner;
+import org.htmlunit.junit.annotation.Alerts;
+import org.htmlunit.util.UrlUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link StyleSharingCache}.
+ *
+ * @author Ronald Brill
+ */
+@RunWith(BrowserRunner.class)
+public class StyleSharingCacheTest extends SimpleWebTestCase {
+
+    private static final String STYLE = "<style>\n"
+            + "  .a span { color: red; }\n"
+            + "  td:nth-child(2) { color: blue; }\n"
+            + "  span[data-x='1'] { color: green; }\n"
+            + "</style>\n";
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"rgb(255, 0, 0)", "rgb(0, 0, 0)", "rgb(255, 0, 0)", "rgb(0, 128, 0)",
+             "rgb(0, 0, 0)", "rgb(0, 0, 255)", "rgb(0, 0, 0)", "rgb(0, 0, 255)",
+             "rgb(0, 0, 0)", "rgb(255, 0, 0)"})
+    public void sharedResults() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head>" + STYLE + "</head><body style='color: black'>\n"
+            + "<div class='a'><span id='s1'>1</span></div>\n"
+            + "<div class='b'><span id='s2'>2</span></div>\n"
+            + "<div class='a'><span id='s3'>3</span><span id='s4' data-x='1'>4</span></div>\n"
+            + "<table><tr><td id='c11'>a</td><td id='c12'>b</td></tr>"
+            + "<tr><td id='c21'>c</td><td id='c22'>d</td></tr></table>\n"
+            + "<script>\n"
+            + "  function color(id) {\n"
+            + "    alert(window.getComputedStyle(document.getElementById(id)).color);\n"
+            + "  }\n"
+            + "  color('s1');\n"
+            + "  color('s2');\n"
+            + "  color('s3');\n"
+            + "  color('s4');\n"
+            + "  color('c11');\n"
+            + "  color('c12');\n"
+            + "  color('c21');\n"
+            + "  color('c22');\n"
+            + "  document.getElementById('s1').parentNode.className = 'b';\n"
+            + "  document.getElementById('s2').parentNode.className = 'a';\n"
+            + "  color('s1');\n"
+            + "  color('s2');\n"
+            + "</script>\n"
+            + "</body></html>";
+
+        loadPageWithAlerts(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void hitRate() throws Exception {
+        final StringBuilder html = new StringBuilder();
+        html.append(DOCTYPE_HTML)
+            .append("<html><head>").append(STYLE).append("</head><body>\n<div class='a'>");
+        for (int i = 0; i < 50; i++) {
+            html.append("<span>").append(i).append("</span>");
+        }
+        html.append("</div>\n</body></html>");
+
+        final HtmlPage page = loadPage(html.toString());
+        final StyleSharingCache cache = page.getStyleSharingCache();
+        final long hits = cache.getHitCount();
+
+        for (final Object span : page.getByXPath("//span")) {
+            page.getEnclosingWindow().getComputedStyle((DomElement) span, null);
+        }
+
+        assertTrue(cache.getHitCount() - hits >= 49);
+        assertTrue(cache.getHitRate() > 0.5);
+    }
+
+    /**
+     * {@code :target} depends on the url of the page, therefore these sheets are not shared.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void targetNotShared() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><style>\n"
+            + "  span:target { color: red; }\n"
+            + "</style></head><body style='color: black'>\n"
+            + "<span id='s1'>1</span><span id='s2'>2</span><span id='s3'>3</span>\n"
+            + "</body></html>";
+
+        final URL url = UrlUtils.getUrlWithNewRef(URL_FIRST, "s2");
+        getMockWebConnection().setResponse(url, html);
+        final HtmlPage page = getWebClientWithMockWebConnection().getPage(url);
+        final StyleSharingCache cache = page.getStyleSharingCache();
+        final long hits = cache.getHitCount();
+
+        assertEquals("rgb(0, 0, 0)", color(page, "s1"));
+        assertEquals("rgb(255, 0, 0)", color(page, "s2"));
+        assertEquals("rgb(0, 0, 0)", color(page, "s3"));
+        assertEquals(hits, cache.getHitCount());
+    }
+
+    /**
+     * If the state is part of the key, the number of keys is bounded.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void keysBounded() throws Exception {
+        final StringBuilder html = new StringBuilder();
+        html.append(DOCTYPE_HTML)
+            .append("<html><head><style>\n  span:hover { color: red; }\n</style></head><body>\n");
+        for (int i = 0; i < StyleSharingCache.MAX_KEYS + 100; i++) {
+            html.append("<span id='s").append(i).append("'></span>");
+        }
+        html.append("\n</body></html>");
+
+        final HtmlPage page = loadPage(html.toString());
+        final StyleSharingCache cache = page.getStyleSharingCache();
+        for (int i = 0; i < StyleSharingCache.MAX_KEYS + 100; i++) {
+            color(page, "s" + i);
+            assertTrue(cache.getKeyCount() <= StyleSharingCache.MAX_KEYS);
+        }
+        assertTrue(cache.getKeyCount() > 0);
+    }
+
+    private static String color(final HtmlPage page, final String id) {
+        return page.getEnclosingWindow().getComputedStyle(page.getElementById(id), null).getColor();
+    }
+}
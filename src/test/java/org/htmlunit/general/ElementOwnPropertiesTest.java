@@ -966,7 +966,8 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
     @HtmlUnitNYI(CHROME = "alert(),atob(),blur(),btoa(),cancelAnimationFrame(),captureEvents(),clearInterval(),"
                 + "clearTimeout(),clientInformation[GSCE],close(),closed[GCE],confirm(),constructor(),crypto[GCE],"
                 + "devicePixelRatio[GCE],document[GCE],event[GCE],external[GCE],find(),focus(),frameElement[GCE],"
-                + "frames[GCE],getComputedStyle(),getSelection(),history[GCE],innerHeight[GSCE],innerWidth[GSCE],"
+                + "frames[GCE],getComputedStyle(),getSelection(),history[GCE],indexedDB[GCE],"
+                + "innerHeight[GSCE],innerWidth[GSCE],"
                 + "isSecureContext[GCE],length[GCE],localStorage[GCE],location[GSCE],matchMedia(),moveBy(),"
                 + "moveTo(),name[GSCE],navigator[GCE],offscreenBuffering[GCE],onabort[GSCE],onanimationend[GSCE],"
                 + "onanimationiteration[GSCE],onanimationstart[GSCE],onauxclick[GSCE],onbeforeunload[GSCE],"
@@ -997,7 +998,8 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
             EDGE = "alert(),atob(),blur(),btoa(),cancelAnimationFrame(),captureEvents(),clearInterval(),"
                 + "clearTimeout(),clientInformation[GSCE],close(),closed[GCE],confirm(),constructor(),crypto[GCE],"
                 + "devicePixelRatio[GCE],document[GCE],event[GCE],external[GCE],find(),focus(),frameElement[GCE],"
-                + "frames[GCE],getComputedStyle(),getSelection(),history[GCE],innerHeight[GSCE],innerWidth[GSCE],"
+                + "frames[GCE],getComputedStyle(),getSelection(),history[GCE],indexedDB[GCE],"
+                + "innerHeight[GSCE],innerWidth[GSCE],"
                 + "isSecureContext[GCE],length[GCE],localStorage[GCE],location[GSCE],matchMedia(),moveBy(),"
                 + "moveTo(),name[GSCE],navigator[GCE],offscreenBuffering[GCE],onabort[GSCE],onanimationend[GSCE],"
                 + "onanimationiteration[GSCE],onanimationstart[GSCE],onauxclick[GSCE],onbeforeunload[GSCE],"
@@ -1030,6 +1032,7 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
                 + "controllers[GSCE],"
                 + "crypto[GCE],devicePixelRatio[GCE],document[GCE],dump(),event[GCE],external[GCE],"
                 + "find(),focus(),frameElement[GCE],frames[GCE],getComputedStyle(),getSelection(),history[GCE],"
+                + "indexedDB[GCE],"
                 + "innerHeight[GSCE],innerWidth[GSCE],isSecureContext[GCE],length[GCE],localStorage[GCE],"
                 + "location[GSCE],matchMedia(),moveBy(),moveTo(),mozInnerScreenX[GCE],mozInnerScreenY[GCE],"
                 + "name[GSCE],navigator[GCE],netscape[GCE],onabort[GSCE],onafterprint[GSCE],onanimationend[GSCE],"
@@ -1057,6 +1060,7 @@ public class ElementOwnPropertiesTest extends WebDriverTestCase {
                 + "controllers[GSCE],"
                 + "crypto[GCE],devicePixelRatio[GCE],document[GCE],dump(),event[GCE],external[GCE],"
                 + "find(),focus(),frameElement[GCE],frames[GCE],getComputedStyle(),getSelection(),history[GCE],"
+                + "indexedDB[GCE],"
                 + "innerHeight[GSCE],innerWidth[GSCE],isSecureContext[GCE],length[GCE],localStorage[GCE],"
                 + "location[GSCE],matchMedia(),moveBy(),moveTo(),mozInnerScreenX[GCE],mozInnerScreenY[GCE],"
                 + "name[GSCE],navigator[GCE],netscape[GCE],onabort[GSCE],onafterprint[GSCE],onanimationend[GSCE],"
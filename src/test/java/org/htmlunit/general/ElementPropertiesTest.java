@@ -1154,7 +1154,7 @@ public class ElementPropertiesTest extends WebDriverTestCase {
     @HtmlUnitNYI(CHROME = "addEventListener(),alert(),atob(),blur(),btoa(),cancelAnimationFrame(),"
                 + "captureEvents(),clearInterval(),clearTimeout(),clientInformation,close(),closed,confirm(),"
                 + "crypto,devicePixelRatio,dispatchEvent(),document,event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,"
                 + "innerHeight,innerWidth,isSecureContext,"
                 + "length,localStorage,location,log(),logEx(),"
                 + "matchMedia(),moveBy(),moveTo(),name,navigator,offscreenBuffering,"
@@ -1181,7 +1181,7 @@ public class ElementPropertiesTest extends WebDriverTestCase {
             EDGE = "addEventListener(),alert(),atob(),blur(),btoa(),cancelAnimationFrame(),"
                 + "captureEvents(),clearInterval(),clearTimeout(),clientInformation,close(),closed,confirm(),"
                 + "crypto,devicePixelRatio,dispatchEvent(),document,event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,"
                 + "innerHeight,innerWidth,isSecureContext,"
                 + "length,localStorage,location,log(),logEx(),"
                 + "matchMedia(),moveBy(),moveTo(),name,navigator,offscreenBuffering,"
@@ -1209,7 +1209,7 @@ public class ElementPropertiesTest extends WebDriverTestCase {
                 + "captureEvents(),clearInterval(),clearTimeout(),clientInformation,"
                 + "close(),closed,confirm(),controllers,"
                 + "crypto,devicePixelRatio,dispatchEvent(),document,dump(),event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,"
                 + "innerHeight,innerWidth,InstallTrigger,isSecureContext,"
                 + "length,localStorage,location,log(),logEx(),"
                 + "matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,"
@@ -1233,7 +1233,7 @@ public class ElementPropertiesTest extends WebDriverTestCase {
                 + "captureEvents(),clearInterval(),clearTimeout(),clientInformation,"
                 + "close(),closed,confirm(),controllers,"
                 + "crypto,devicePixelRatio,dispatchEvent(),document,dump(),event,external,find(),focus(),"
-                + "frameElement,frames,getComputedStyle(),getSelection(),history,"
+                + "frameElement,frames,getComputedStyle(),getSelection(),history,indexedDB,"
                 + "innerHeight,innerWidth,InstallTrigger,isSecureContext,"
                 + "length,localStorage,location,log(),logEx(),"
                 + "matchMedia(),moveBy(),moveTo(),mozInnerScreenX,mozInnerScreenY,"
@@ -673,6 +673,92 @@ public class DomNodeTest extends SimpleWebTestCase {
         assertEquals(expectedValues2, l);
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void domChangeListenerRemove() throws Exception {
+        final String htmlContent = DOCTYPE_HTML
+            + "<html><head><title>foo</title></head>\n"
+            + "<body>\n"
+            + "<p id='p1' title='myTitle'></p>\n"
+            + "</body></html>";
+
+        final HtmlPage page = loadPage(htmlContent);
+        final HtmlElement p1 = page.getHtmlElementById("p1");
+
+        final DomChangeListenerTestImpl listenerImpl = new DomChangeListenerTestImpl();
+        p1.addDomChangeListener(listenerImpl);
+        assertTrue(page.isDomChangeListenerInUse());
+
+        p1.appendChild(page.createElement("div"));
+        p1.removeDomChangeListener(listenerImpl);
+        p1.appendChild(page.createElement("span"));
+
+        final String[] expectedValues = {"nodeAdded: p,div"};
+        assertEquals(expectedValues, listenerImpl.getCollectedValues());
+    }
+
+    /**
+     * Removing the listener from a clone does not remove it from the original.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void domChangeListenerClone() throws Exception {
+        final String htmlContent = DOCTYPE_HTML
+            + "<html><head><title>foo</title></head>\n"
+            + "<body>\n"
+            + "<p id='p1' title='myTitle'></p>\n"
+            + "</body></html>";
+
+        final HtmlPage page = loadPage(htmlContent);
+        final HtmlElement p1 = page.getHtmlElementById("p1");
+
+        final DomChangeListenerTestImpl listenerImpl = new DomChangeListenerTestImpl();
+        p1.addDomChangeListener(listenerImpl);
+
+        final DomNode clone = p1.cloneNode(false);
+        clone.removeDomChangeListener(listenerImpl);
+        assertTrue(page.isDomChangeListenerInUse());
+
+        p1.appendChild(page.createElement("div"));
+        clone.appendChild(page.createElement("span"));
+
+        final String[] expectedValues = {"nodeAdded: p,div"};
+        assertEquals(expectedValues, listenerImpl.getCollectedValues());
+    }
+
+    /**
+     * A node moved to another page keeps its listener.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void domChangeListenerMovedToOtherPage() throws Exception {
+        final String htmlContent = DOCTYPE_HTML
+            + "<html><head><title>foo</title></head>\n"
+            + "<body>\n"
+            + "<p id='p1' title='myTitle'></p>\n"
+            + "</body></html>";
+
+        final HtmlPage page1 = loadPage(htmlContent);
+        final HtmlPage page2 = loadPage(htmlContent);
+        final HtmlElement p1 = page1.getHtmlElementById("p1");
+
+        final DomChangeListenerTestImpl listenerImpl = new DomChangeListenerTestImpl();
+        p1.addDomChangeListener(listenerImpl);
+
+        page2.getBody().appendChild(p1);
+        assertSame(page2, p1.getPage());
+        assertTrue(page2.isDomChangeListenerInUse());
+
+        p1.appendChild(page2.createElement("div"));
+        p1.removeDomChangeListener(listenerImpl);
+        p1.appendChild(page2.createElement("span"));
+
+        final String[] expectedValues = {"nodeAdded: p,div"};
+        assertEquals(expectedValues, listenerImpl.getCollectedValues());
+    }
+
     /**
      * @throws Exception if the test fails
      */
@@ -949,6 +949,55 @@ public class HtmlElementTest extends SimpleWebTestCase {
         assertEquals(expectedAlerts, collectedAlerts);
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void typeListenerAddedLater() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head></head><body>\n"
+            + "  <input id='myInput'>\n"
+            + "</body></html>";
+        final List<String> collectedAlerts = new ArrayList<>();
+        final HtmlPage page = loadPage(html, collectedAlerts);
+        assertFalse(page.getEventListenerCounter().hasListeners("keydown"));
+
+        final HtmlTextInput input = page.getHtmlElementById("myInput");
+        input.type("ab");
+        assertEquals(0, collectedAlerts.size());
+
+        page.executeJavaScript("function onDown(e) { alert(e.key) }\n"
+                + "window.addEventListener('keydown', onDown)");
+        assertTrue(page.getEventListenerCounter().hasListeners("keydown"));
+        input.type("c");
+        assertEquals(new String[] {"c"}, collectedAlerts);
+
+        page.executeJavaScript("window.removeEventListener('keydown', onDown)");
+        assertFalse(page.getEventListenerCounter().hasListeners("keydown"));
+        input.type("d");
+        assertEquals(new String[] {"c"}, collectedAlerts);
+        assertEquals("abcd", input.getValue());
+    }
+
+    /**
+     * Event handler attributes have to be honored even if the element
+     * was never used from JavaScript.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void typeEventHandlerAttribute() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head></head><body>\n"
+            + "  <input id='myInput' onkeypress='return event.key != \"b\"'>\n"
+            + "</body></html>";
+        final HtmlPage page = loadPage(html);
+        assertTrue(page.getEventListenerCounter().hasListeners("keypress"));
+
+        final HtmlTextInput input = page.getHtmlElementById("myInput");
+        input.type("abc");
+        assertEquals("ac", input.getValue());
+    }
+
     /**
      * @throws Exception on test failure
      */
@@ -2103,4 +2103,76 @@ public class HtmlPageTest extends SimpleWebTestCase {
         page = loadPage(getBrowserVersion(), html, null, new URL(URL_FIRST.toString() + path));
         assertEquals(URL_FIRST.toExternalForm() + path, page.getBaseURL().toExternalForm());
     }
+
+    /**
+     * The style sheet list is maintained when style and link elements are added or removed.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void getStyleSheets() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head>\n"
+            + "  <style id='s1'>.a { color: red }</style>\n"
+            + "  <link id='l1' rel='alternate' href='x.css'>\n"
+            + "</head><body>\n"
+            + "  <div id='d'><style id='s2'>.b { color: blue }</style></div>\n"
+            + "</body></html>";
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "x.css"), ".c { color: green }", MimeType.TEXT_CSS);
+
+        final HtmlPage page = loadPage(html);
+        final HtmlStyle s1 = page.getHtmlElementById("s1");
+        final HtmlStyle s2 = page.getHtmlElementById("s2");
+        assertEquals(Arrays.asList(s1.getSheet(), s2.getSheet()), page.getStyleSheets());
+
+        // insert before all others
+        int version = page.getStyleSheetsVersion();
+        final HtmlStyle s0 = (HtmlStyle) page.createElement("style");
+        s1.insertBefore(s0);
+        assertTrue(version != page.getStyleSheetsVersion());
+        assertEquals(Arrays.asList(s0.getSheet(), s1.getSheet(), s2.getSheet()), page.getStyleSheets());
+
+        // remove a subtree
+        version = page.getStyleSheetsVersion();
+        page.getHtmlElementById("d").remove();
+        assertTrue(version != page.getStyleSheetsVersion());
+        assertEquals(Arrays.asList(s0.getSheet(), s1.getSheet()), page.getStyleSheets());
+
+        // the rel attribute decides
+        final HtmlLink l1 = page.getHtmlElementById("l1");
+        l1.setAttribute("rel", "stylesheet");
+        assertEquals(Arrays.asList(s0.getSheet(), s1.getSheet(), l1.getSheet()), page.getStyleSheets());
+
+        // unchanged; same snapshot
+        assertSame(page.getStyleSheets(), page.getStyleSheets());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void precomputeComputedStyles() throws Exception {
+        final StringBuilder html = new StringBuilder();
+        html.append(DOCTYPE_HTML)
+            .append("<html><head><style>.odd { color: red } div > p { color: green }</style></head><body>\n");
+        for (int i = 0; i < 100; i++) {
+            html.append("<div class='").append(i % 2 == 0 ? "even" : "odd").append("'><p>")
+                .append(i).append("</p><span>x</span></div>\n");
+        }
+        html.append("</body></html>");
+
+        final HtmlPage page = loadPage(html.toString());
+        page.precomputeComputedStyles();
+
+        int count = 0;
+        for (final DomElement element : page.getDocumentElement().getDomElementDescendants()) {
+            assertNotNull(element.toString(), page.getStyleFromCache(element, null));
+            count++;
+        }
+        assertTrue(count > 300);
+
+        final HtmlDivision div = (HtmlDivision) page.getBody().getFirstElementChild().getNextElementSibling();
+        assertEquals("rgb(255, 0, 0)", page.getEnclosingWindow().getComputedStyle(div, null).getColor());
+        assertEquals("rgb(0, 128, 0)",
+                page.getEnclosingWindow().getComputedStyle(div.getFirstElementChild(), null).getColor());
+    }
 }
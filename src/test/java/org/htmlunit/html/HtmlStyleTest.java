@@ -14,7 +14,15 @@
  */
 package org.htmlunit.html;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.MockWebConnection;
 import org.htmlunit.SimpleWebTestCase;
+import org.htmlunit.WebClient;
+import org.htmlunit.css.SharedStyleSheetCache;
+import org.htmlunit.cssparser.parser.CSSErrorHandler;
+import org.htmlunit.cssparser.parser.CSSParseException;
 import org.htmlunit.junit.BrowserRunner;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -98,4 +106,109 @@ public class HtmlStyleTest extends SimpleWebTestCase {
         final String xmlWithoutSpace = xml.replaceAll("\\s", "");
         assertTrue(xml, xmlWithoutSpace.contains("<styletype=\"text/css\"><!--body>p{color:red}--></style>"));
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sheetSharedBetweenPages() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head>\n"
+            + "<style id='testStyle'>.sheetSharedBetweenPages { color: green; }</style>\n"
+            + "</head><body></body></html>";
+
+        final HtmlPage page1 = loadPage(html);
+        final HtmlPage page2 = loadPage(html);
+        final HtmlStyle style1 = page1.getHtmlElementById("testStyle");
+        final HtmlStyle style2 = page2.getHtmlElementById("testStyle");
+        assertSame(style1.getSheet().getWrappedSheet(), style2.getSheet().getWrappedSheet());
+
+        // modifications are done on a private copy
+        page2.executeJavaScript("document.styleSheets[0].insertRule('div { color: red; }', 0);");
+        assertNotSame(style1.getSheet().getWrappedSheet(), style2.getSheet().getWrappedSheet());
+        assertEquals(1, style1.getSheet().getWrappedSheet().getCssRules().getLength());
+        assertEquals(2, style2.getSheet().getWrappedSheet().getCssRules().getLength());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sheetSharedBetweenClients() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head>\n"
+            + "<style id='testStyle'>.sheetSharedBetweenClients { color: green; }</style>\n"
+            + "</head><body></body></html>";
+
+        try {
+            final HtmlStyle style1 = loadStyle(html, true, new ArrayList<>());
+            final HtmlStyle style2 = loadStyle(html, true, new ArrayList<>());
+            assertSame(style1.getSheet().getWrappedSheet(), style2.getSheet().getWrappedSheet());
+
+            // disabled by default
+            final HtmlStyle style3 = loadStyle(html, false, new ArrayList<>());
+            assertNotSame(style1.getSheet().getWrappedSheet(), style3.getSheet().getWrappedSheet());
+        }
+        finally {
+            SharedStyleSheetCache.clear();
+        }
+    }
+
+    /**
+     * Sheets with errors are not shared, every client has to see the errors.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void sheetWithErrorsNotShared() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head>\n"
+            + "<style id='testStyle'>.sheetWithErrorsNotShared { color: green; } }{ div</style>\n"
+            + "</head><body></body></html>";
+
+        try {
+            final List<String> errors1 = new ArrayList<>();
+            final HtmlStyle style1 = loadStyle(html, true, errors1);
+            final List<String> errors2 = new ArrayList<>();
+            final HtmlStyle style2 = loadStyle(html, true, errors2);
+
+            assertFalse(errors1.isEmpty());
+            assertEquals(errors1, errors2);
+            assertNotSame(style1.getSheet().getWrappedSheet(), style2.getSheet().getWrappedSheet());
+        }
+        finally {
+            SharedStyleSheetCache.clear();
+        }
+    }
+
+    private HtmlStyle loadStyle(final String html, final boolean shared, final List<String> errors)
+            throws Exception {
+        try (WebClient webClient = new WebClient(getBrowserVersion())) {
+            webClient.getOptions().setSharedStyleSheetCacheEnabled(shared);
+            webClient.setCssErrorHandler(new CSSErrorHandler() {
+                @Override
+                public void warning(final CSSParseException exception) {
+                    errors.add(exception.getMessage());
+                }
+
+                @Override
+                public void error(final CSSParseException exception) {
+                    errors.add(exception.getMessage());
+                }
+
+                @Override
+                public void fatalError(final CSSParseException exception) {
+                    errors.add(exception.getMessage());
+                }
+            });
+
+            final MockWebConnection webConnection = new MockWebConnection();
+            webConnection.setResponse(URL_FIRST, html);
+            webClient.setWebConnection(webConnection);
+
+            final HtmlPage page = webClient.getPage(URL_FIRST);
+            final HtmlStyle style = page.getHtmlElementById("testStyle");
+            style.getSheet();
+            return style;
+        }
+    }
 }
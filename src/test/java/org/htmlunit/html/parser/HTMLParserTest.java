@@ -15,6 +15,8 @@
 package org.htmlunit.html.parser;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.htmlunit.SimpleWebTestCase;
 import org.htmlunit.StringWebResponse;
@@ -28,6 +30,7 @@ import org.htmlunit.html.HtmlPageTest;
 import org.htmlunit.html.HtmlTableColumnGroup;
 import org.htmlunit.html.XHtmlPage;
 import org.htmlunit.junit.BrowserRunner;
+import org.htmlunit.junit.annotation.Alerts;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -147,4 +150,80 @@ public class HTMLParserTest extends SimpleWebTestCase {
         final DomElement col = page.getElementsByTagName("col").get(0);
         assertEquals(col.getParentNode().getNodeName(), HtmlTableColumnGroup.TAG_NAME);
     }
+
+    /**
+     * The parser maps the ids and names of the parsed elements in bulk; scripts and
+     * the page have to see all the elements parsed so far.
+     * @throws Exception failure
+     */
+    @Test
+    @Alerts({"DIV", "1", "null", "DIV", "2"})
+    public void idsAndNamesWhileParsing() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head></head>\n"
+            + "<body>\n"
+            + "  <div id='d1'><input name='n1'></div>\n"
+            + "  <script>\n"
+            + "    alert(document.getElementById('d1').tagName);\n"
+            + "    alert(document.getElementsByName('n1').length);\n"
+            + "    alert(document.getElementById('d2'));\n"
+            + "  </script>\n"
+            + "  <div id='d2'><input name='n1'></div>\n"
+            + "  <script>\n"
+            + "    alert(document.getElementById('d2').tagName);\n"
+            + "    alert(document.getElementsByName('n1').length);\n"
+            + "    document.getElementById('d1').id = 'd3';\n"
+            + "  </script>\n"
+            + "  <p id='d1'></p>\n"
+            + "</body></html>";
+
+        final HtmlPage page = loadPageWithAlerts(html);
+
+        assertEquals("p", page.getElementById("d1").getTagName());
+        assertEquals("div", page.getElementById("d3").getTagName());
+        assertEquals(1, page.getElementsById("d1").size());
+        assertEquals(2, page.getElementsByName("n1").size());
+    }
+
+    /**
+     * Sharing the strings created by the parser does not change the result of any lookup.
+     * @throws Exception failure
+     */
+    @Test
+    public void stringInterningSameLookupResults() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head></head>\n"
+            + "<body>\n"
+            + "  <div id='d1' class='item'><span>one</span></div>\n"
+            + "  <div id='d2' class='item'><input name='n1'>two</div>\n"
+            + "  <div id='d3' class='item other'><input name='n1'>one</div>\n"
+            + "</body></html>";
+
+        final WebClient webClient = getWebClient();
+        webClient.getOptions().setJavaScriptEnabled(false);
+
+        final List<String> expected = lookup(loadPage(html));
+
+        webClient.getOptions().setParserStringInterningEnabled(true);
+        final HtmlPage page = loadPage(html);
+        assertEquals(expected, lookup(page));
+        assertTrue(webClient.getStringInterner().getHitCount() > 0);
+
+        final DomElement d1 = page.getElementById("d1");
+        final DomElement d2 = page.getElementById("d2");
+        assertSame(d1.getAttribute("class"), d2.getAttribute("class"));
+    }
+
+    private static List<String> lookup(final HtmlPage page) {
+        final List<String> result = new ArrayList<>();
+        result.add(page.getElementById("d2").getTagName());
+        result.add(Integer.toString(page.getElementById("d3").getStartLineNumber()));
+        result.add(Integer.toString(page.getElementsByName("n1").size()));
+        result.add(Integer.toString(page.querySelectorAll("div.item").size()));
+        result.add(Integer.toString(page.querySelectorAll("div.other").size()));
+        result.add(Integer.toString(page.getByXPath("//div[@class='item']/span").size()));
+        result.add(Integer.toString(page.getByXPath("//div[text()='one']").size()));
+        result.add(page.getBody().asNormalizedText());
+        return result;
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html.performance;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.CollectingAlertHandler;
+import org.htmlunit.MockWebConnection;
+import org.htmlunit.WebClient;
+import org.htmlunit.util.MimeType;
+
+/**
+ * Runs a page with a CPU heavy script bundle and some small inline scripts - once with all
+ * scripts interpreted and once with the bundle compiled into java byte code
+ * (see {@link org.htmlunit.javascript.HtmlUnitContextFactory#setCompileThreshold(int)}).
+ * Reports the runtime of both modes.
+ *
+ * @author Ronald Brill
+ */
+public final class CompiledScriptPerformanceTest {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 20;
+    private static final int COMPILE_THRESHOLD = 2_048;
+
+    private CompiledScriptPerformanceTest() {
+    }
+
+    /**
+     * Simple main for the moment.
+     * @param args ignored
+     * @throws IOException in case of error
+     */
+    public static void main(final String[] args) throws IOException {
+        final StringBuilder bundle = new StringBuilder();
+        bundle.append("var lib = {};\n");
+        // some cold code to make the bundle look like a real one
+        for (int i = 0; i < 50; i++) {
+            bundle.append("lib.helper").append(i).append(" = function(a, b) {\n")
+                .append("  return (a || 0) + (b || 0) + ").append(i).append(";\n")
+                .append("};\n");
+        }
+        bundle.append("lib.fib = function(n) { return n < 2 ? n : lib.fib(n - 1) + lib.fib(n - 2); };\n")
+            .append("lib.work = function() {\n")
+            .append("  var sum = 0;\n")
+            .append("  for (var i = 0; i < 200000; i++) {\n")
+            .append("    sum += (i * 7) % 13;\n")
+            .append("  }\n")
+            .append("  var parts = [];\n")
+            .append("  for (var j = 0; j < 5000; j++) {\n")
+            .append("    parts.push('item' + j);\n")
+            .append("  }\n")
+            .append("  return sum + lib.fib(22) + parts.join(',').length;\n")
+            .append("};\n");
+        System.out.println("## bundle size " + bundle.length() + " chars");
+
+        final String html = "<!DOCTYPE html>\n"
+                + "<html><head>\n"
+                + "<script src='bundle.js'></script>\n"
+                + "<script>var start = Date.now();</script>\n"
+                + "</head><body>\n"
+                + "<script>alert(lib.work() + ' ' + (Date.now() - start) + 'ms');</script>\n"
+                + "</body></html>";
+
+        run(html, bundle.toString(), 0);
+        run(html, bundle.toString(), COMPILE_THRESHOLD);
+    }
+
+    private static void run(final String html, final String bundle, final int compileThreshold)
+            throws IOException {
+        try (WebClient webClient = new WebClient(BrowserVersion.CHROME, false, null, -1)) {
+            webClient.getOptions().setCssEnabled(false);
+            webClient.getOptions().setHistoryPageCacheLimit(0);
+            webClient.getOptions().setHistorySizeLimit(0);
+            webClient.getOptions().setWebSocketEnabled(false);
+            webClient.getJavaScriptEngine().getContextFactory().setCompileThreshold(compileThreshold);
+
+            final MockWebConnection webConnection = new MockWebConnection();
+            webConnection.setDefaultResponse(html);
+            webConnection.setResponse(new URL("http://localhost/bundle.js"), bundle, MimeType.TEXT_JAVASCRIPT);
+            webClient.setWebConnection(webConnection);
+
+            final List<String> alerts = new ArrayList<>();
+            webClient.setAlertHandler(new CollectingAlertHandler(alerts));
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                webClient.getPage("http://localhost/warmup" + i + ".html");
+            }
+
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < ROUNDS; i++) {
+                webClient.getPage("http://localhost/page" + i + ".html");
+            }
+            final long time = System.currentTimeMillis() - start;
+
+            System.out.println("## " + (compileThreshold > 0 ? "compiled" : "interpreted"));
+            System.out.println("##   " + time + "ms (" + time / ROUNDS + "ms per page)");
+            System.out.println("##   last round: " + alerts.get(alerts.size() - 1));
+        }
+    }
+}
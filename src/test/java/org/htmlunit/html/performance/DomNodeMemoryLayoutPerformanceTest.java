@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html.performance;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.html.DomAttr;
+import org.htmlunit.html.DomComment;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.DomText;
+import org.htmlunit.html.HtmlAnchor;
+import org.htmlunit.html.HtmlDivision;
+import org.htmlunit.html.HtmlSpan;
+import org.htmlunit.html.HtmlTableDataCell;
+
+/**
+ * Prints a JOL like report of the shallow instance layout of the most
+ * common dom node types. The numbers are estimates for a 64bit VM
+ * with compressed oops (12 byte header, 4 byte references, 8 byte alignment).
+ *
+ * @author Ronald Brill
+ */
+public final class DomNodeMemoryLayoutPerformanceTest {
+
+    private static final int HEADER_SIZE = 12;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int ALIGNMENT = 8;
+
+    private DomNodeMemoryLayoutPerformanceTest() {
+    }
+
+    /**
+     * Simple main for the moment.
+     * @param args ignored
+     */
+    public static void main(final String[] args) {
+        final Class<?>[] types = {DomText.class, DomComment.class, DomAttr.class, DomElement.class,
+            HtmlDivision.class, HtmlSpan.class, HtmlAnchor.class, HtmlTableDataCell.class};
+
+        for (final Class<?> type : types) {
+            report(type);
+        }
+    }
+
+    private static void report(final Class<?> type) {
+        final List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (final Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    fields.add(field);
+                }
+            }
+        }
+
+        System.out.println(type.getName() + " object internals:");
+        System.out.println(String.format("%6s %6s %-20s %s", "OFF", "SZ", "TYPE", "DESCRIPTION"));
+        System.out.println(String.format("%6d %6d %-20s %s", 0, HEADER_SIZE, "", "(object header)"));
+
+        int offset = HEADER_SIZE;
+        for (final Field field : fields) {
+            final int size = sizeOf(field.getType());
+            System.out.println(String.format("%6d %6d %-20s %s.%s", offset, size,
+                    field.getType().getSimpleName(), field.getDeclaringClass().getSimpleName(), field.getName()));
+            offset += size;
+        }
+
+        final int total = (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        System.out.println("Instance size: " + total + " bytes (" + (total - offset) + " bytes alignment loss)");
+        System.out.println();
+    }
+
+    private static int sizeOf(final Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == boolean.class || type == byte.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+}
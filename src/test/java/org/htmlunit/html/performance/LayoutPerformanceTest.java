@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html.performance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.CollectingAlertHandler;
+import org.htmlunit.MockWebConnection;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.HtmlPage;
+
+/**
+ * Runs a script reading the geometry ({@code offsetTop}, {@code offsetHeight} and
+ * {@code getBoundingClientRect()}) of all the items of a long list - first only reading,
+ * then interleaved with appending new items - and reports the runtime together with
+ * the statistics of the layout cache.
+ *
+ * @author Ronald Brill
+ */
+public final class LayoutPerformanceTest {
+
+    private static final int ROUNDS = 5;
+    private static final int ITEMS = 1_000;
+    private static final int READS = 5;
+
+    private LayoutPerformanceTest() {
+    }
+
+    /**
+     * Simple main for the moment.
+     * @param args ignored
+     * @throws IOException in case of error
+     */
+    public static void main(final String[] args) throws IOException {
+        final String html = "<!DOCTYPE html>\n"
+                + "<html><head><script>\n"
+                + "function test() {\n"
+                + "  var list = document.getElementById('list');\n"
+                + "  for (var i = 0; i < " + ITEMS + "; i++) {\n"
+                + "    var li = document.createElement('li');\n"
+                + "    li.textContent = 'item ' + i;\n"
+                + "    list.appendChild(li);\n"
+                + "  }\n"
+                + "  var items = list.getElementsByTagName('li');\n"
+                + "  var sum = 0;\n"
+                + "  var start = Date.now();\n"
+                + "  for (var r = 0; r < " + READS + "; r++) {\n"
+                + "    for (var i = 0; i < items.length; i++) {\n"
+                + "      sum += items[i].offsetTop + items[i].offsetHeight;\n"
+                + "      sum += items[i].getBoundingClientRect().top;\n"
+                + "    }\n"
+                + "  }\n"
+                + "  var read = Date.now() - start;\n"
+                + "  start = Date.now();\n"
+                + "  for (var i = 0; i < " + (ITEMS / 10) + "; i++) {\n"
+                + "    var li = document.createElement('li');\n"
+                + "    li.textContent = 'new ' + i;\n"
+                + "    list.appendChild(li);\n"
+                + "    sum += li.offsetTop + items[i].offsetTop;\n"
+                + "  }\n"
+                + "  alert('read: ' + read + 'ms append: ' + (Date.now() - start) + 'ms (' + sum + ')');\n"
+                + "}\n"
+                + "</script></head>\n"
+                + "<body onload='test()'><ul id='list'></ul></body></html>";
+
+        try (WebClient webClient = new WebClient(BrowserVersion.CHROME, false, null, -1)) {
+            webClient.getOptions().setWebSocketEnabled(false);
+
+            final MockWebConnection webConnection = new MockWebConnection();
+            webConnection.setDefaultResponse(html);
+            webClient.setWebConnection(webConnection);
+
+            final List<String> alerts = new ArrayList<>();
+            webClient.setAlertHandler(new CollectingAlertHandler(alerts));
+
+            HtmlPage page = null;
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < ROUNDS; i++) {
+                page = webClient.getPage("http://localhost/layout" + i + ".html");
+            }
+            System.out.println("## " + (System.currentTimeMillis() - start));
+            System.out.println("## last round: " + alerts.get(alerts.size() - 1));
+            System.out.println("## " + page.getLayoutCache());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html.performance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.CollectingAlertHandler;
+import org.htmlunit.MockWebConnection;
+import org.htmlunit.WebClient;
+
+/**
+ * Runs a script doing 10k DOM mutations (attributes, child list and character data)
+ * observed by a {@code MutationObserver} and reports the runtime together with
+ * the number of callback invocations.
+ *
+ * @author Ronald Brill
+ */
+public final class MutationObserverPerformanceTest {
+
+    private static final int ROUNDS = 20;
+    private static final int MUTATIONS = 10_000;
+
+    private MutationObserverPerformanceTest() {
+    }
+
+    /**
+     * Simple main for the moment.
+     * @param args ignored
+     * @throws IOException in case of error
+     */
+    public static void main(final String[] args) throws IOException {
+        final String html = "<!DOCTYPE html>\n"
+                + "<html><head><script>\n"
+                + "function test() {\n"
+                + "  var container = document.getElementById('container');\n"
+                + "  var callbacks = 0;\n"
+                + "  var records = 0;\n"
+                + "  var observer = new MutationObserver(function(mutations) {\n"
+                + "    callbacks++;\n"
+                + "    records += mutations.length;\n"
+                + "  });\n"
+                + "  observer.observe(container,"
+                + " { attributes: true, childList: true, characterData: true, subtree: true });\n"
+                + "  var start = Date.now();\n"
+                + "  for (var i = 0; i < " + (MUTATIONS / 4) + "; i++) {\n"
+                + "    var span = document.createElement('span');\n"
+                + "    container.appendChild(span);\n"
+                + "    span.setAttribute('data-i', i);\n"
+                + "    var text = document.createTextNode('');\n"
+                + "    span.appendChild(text);\n"
+                + "    text.data = 'x' + i;\n"
+                + "  }\n"
+                + "  setTimeout(function() {\n"
+                + "    alert((Date.now() - start) + 'ms ' + callbacks + ' callbacks ' + records + ' records');\n"
+                + "  }, 0);\n"
+                + "}\n"
+                + "</script></head>\n"
+                + "<body onload='test()'><div id='container'></div></body></html>";
+
+        try (WebClient webClient = new WebClient(BrowserVersion.CHROME, false, null, -1)) {
+            webClient.getOptions().setCssEnabled(false);
+            webClient.getOptions().setWebSocketEnabled(false);
+
+            final MockWebConnection webConnection = new MockWebConnection();
+            webConnection.setDefaultResponse(html);
+            webClient.setWebConnection(webConnection);
+
+            final List<String> alerts = new ArrayList<>();
+            webClient.setAlertHandler(new CollectingAlertHandler(alerts));
+
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < ROUNDS; i++) {
+                webClient.getPage("http://localhost/mutations" + i + ".html");
+                webClient.waitForBackgroundJavaScript(10_000);
+            }
+            System.out.println("## " + (System.currentTimeMillis() - start));
+            System.out.println("## last round: " + alerts.get(alerts.size() - 1));
+        }
+    }
+}
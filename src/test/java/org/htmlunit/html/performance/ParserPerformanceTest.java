@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html.performance;
+
+import java.io.IOException;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.MockWebConnection;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.HtmlPage;
+
+/**
+ * Parses a generated, deeply nested server side rendered page (about 5MB, most of the
+ * elements with id and name) again and again and reports the runtime.
+ * A few inline scripts force the parser to make the id and name maps complete in between.
+ *
+ * @author Ronald Brill
+ */
+public final class ParserPerformanceTest {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 20;
+    private static final int ROWS = 20_000;
+
+    private ParserPerformanceTest() {
+    }
+
+    /**
+     * Simple main for the moment.
+     * @param args ignored
+     * @throws IOException in case of error
+     */
+    public static void main(final String[] args) throws IOException {
+        final StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><title>parser</title></head><body>\n");
+        for (int i = 0; i < ROWS; i++) {
+            html.append("<div id='row").append(i).append("' class='row'><div><div><span class='label'>")
+                .append("Item number ").append(i)
+                .append("</span><!-- item --><input name='field").append(i)
+                .append("' value='").append(i).append("'><a href='#item").append(i).append("'>link</a>")
+                .append("</div></div></div>\n");
+            if (i % 5_000 == 0) {
+                html.append("<script>document.getElementById('row").append(i).append("');</script>\n");
+            }
+        }
+        html.append("</body></html>");
+        System.out.println("## page size " + html.length() / 1024 + "kB");
+
+        try (WebClient webClient = new WebClient(BrowserVersion.CHROME, false, null, -1)) {
+            webClient.getOptions().setCssEnabled(false);
+            webClient.getOptions().setHistoryPageCacheLimit(0);
+            webClient.getOptions().setHistorySizeLimit(0);
+            webClient.getOptions().setWebSocketEnabled(false);
+
+            final MockWebConnection webConnection = new MockWebConnection();
+            webConnection.setDefaultResponse(html.toString());
+            webClient.setWebConnection(webConnection);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                webClient.getPage("http://localhost/warmup" + i + ".html");
+            }
+
+            HtmlPage page = null;
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < ROUNDS; i++) {
+                page = webClient.getPage("http://localhost/parse" + i + ".html");
+            }
+            final long time = System.currentTimeMillis() - start;
+
+            System.out.println("## " + time + "ms (" + time / ROUNDS + "ms per page)");
+            System.out.println("## " + page.getElementById("row" + (ROWS - 1)).getId());
+        }
+    }
+}
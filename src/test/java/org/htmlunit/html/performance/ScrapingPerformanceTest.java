@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html.performance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.MockWebConnection;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.HtmlPage;
+
+/**
+ * Parses a typical list page with JavaScript disabled, queries it using XPath and CSS selectors,
+ * extracts the text and keeps the pages in memory - once as usual and once with the parser
+ * string interning enabled. Reports the runtime and the heap used by the retained pages for both.
+ *
+ * @author Ronald Brill
+ */
+public final class ScrapingPerformanceTest {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int PAGES = 200;
+    private static final int ROWS = 500;
+
+    private ScrapingPerformanceTest() {
+    }
+
+    /**
+     * Simple main for the moment.
+     * @param args ignored
+     * @throws IOException in case of error
+     */
+    public static void main(final String[] args) throws IOException {
+        final StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><title>scraping</title></head><body>\n")
+            .append("  <table class='results'>\n");
+        for (int i = 0; i < ROWS; i++) {
+            html.append("    <tr class='row'>\n")
+                .append("      <td class='cell name'><a href='/item/").append(i).append("'>Item ").append(i)
+                .append("</a></td>\n")
+                .append("      <td class='cell price' data-currency='EUR'>").append(i % 100).append(".99</td>\n")
+                .append("      <td class='cell state'><span class='badge available'>available</span></td>\n")
+                .append("    </tr>\n");
+        }
+        html.append("  </table>\n</body></html>");
+        System.out.println("## page size " + html.length() / 1024 + "kB");
+
+        run(html.toString(), false);
+        run(html.toString(), true);
+    }
+
+    private static void run(final String html, final boolean interning) throws IOException {
+        try (WebClient webClient = new WebClient(BrowserVersion.CHROME, false, null, -1)) {
+            webClient.getOptions().setJavaScriptEnabled(false);
+            webClient.getOptions().setCssEnabled(false);
+            webClient.getOptions().setHistoryPageCacheLimit(0);
+            webClient.getOptions().setHistorySizeLimit(0);
+            webClient.getOptions().setWebSocketEnabled(false);
+            webClient.getOptions().setParserStringInterningEnabled(interning);
+
+            final MockWebConnection webConnection = new MockWebConnection();
+            webConnection.setDefaultResponse(html);
+            webClient.setWebConnection(webConnection);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                scrape(webClient.getPage("http://localhost/warmup" + i + ".html"));
+            }
+
+            final long heapBefore = usedHeap();
+            final List<HtmlPage> pages = new ArrayList<>(PAGES);
+            long sum = 0;
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < PAGES; i++) {
+                final HtmlPage page = webClient.getPage("http://localhost/page" + i + ".html");
+                sum += scrape(page);
+                pages.add(page);
+            }
+            final long time = System.currentTimeMillis() - start;
+            final long heap = usedHeap() - heapBefore;
+
+            System.out.println("## " + (interning ? "string interning" : "no string interning"));
+            System.out.println("##   " + time + "ms (" + time / PAGES + "ms per page) (" + sum + ")");
+            System.out.println("##   " + heap / 1024 / pages.size() + "kB per page");
+            if (interning) {
+                System.out.println("##   " + webClient.getStringInterner());
+            }
+        }
+    }
+
+    private static long scrape(final HtmlPage page) {
+        long sum = page.querySelectorAll("td.price").size();
+        sum += page.getByXPath("//a[starts-with(@href, '/item/')]").size();
+        sum += page.getBody().asNormalizedText().length();
+        return sum;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.html.performance;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+
+import org.apache.commons.io.output.NullWriter;
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.HtmlPage;
+
+/**
+ * Compares the string based serializers ({@code asXml()}, {@code asNormalizedText()},
+ * {@code getVisibleText()}) with the streaming variants writing to a {@link Writer}.
+ * The output is written to a null writer; the interesting numbers are the runtime
+ * and the peak heap usage.
+ *
+ * @author Ronald Brill
+ */
+public final class SerializerStreamingPerformanceTest {
+
+    private static final int ROUNDS = 20;
+
+    private SerializerStreamingPerformanceTest() {
+    }
+
+    /**
+     * Simple main for the moment.
+     * @param args ignored
+     * @throws IOException in case of error
+     */
+    public static void main(final String[] args) throws IOException {
+        final URL htmlStandardfileURL = WebClient.class.getClassLoader()
+                .getResource("testfiles/huge-pages/html-standard-2024-10-17.html");
+
+        try (WebClient webClient = new WebClient(BrowserVersion.CHROME, false, null, -1)) {
+            webClient.getOptions().setThrowExceptionOnFailingStatusCode(false);
+            webClient.getOptions().setJavaScriptEnabled(false);
+            webClient.getOptions().setCssEnabled(false);
+            webClient.getOptions().setWebSocketEnabled(false);
+            webClient.setFrameContentHandler(baseFrameElement -> false);
+
+            final HtmlPage page = webClient.getPage(htmlStandardfileURL);
+
+            for (int warmup = 0; warmup < 2; warmup++) {
+                final boolean report = warmup == 1;
+
+                run("asXml()", report, writer -> writer.write(page.asXml()));
+                run("asXml(Writer)", report, page::asXml);
+
+                run("asNormalizedText()", report, writer -> writer.write(page.asNormalizedText()));
+                run("asNormalizedText(Appendable)", report, page::asNormalizedText);
+
+                run("getVisibleText()", report, writer -> writer.write(page.getVisibleText()));
+                run("getVisibleText(Appendable)", report, page::getVisibleText);
+            }
+        }
+    }
+
+    private static void run(final String name, final boolean report, final Serialization serialization)
+            throws IOException {
+        final Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        final long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        long peak = 0;
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < ROUNDS; i++) {
+            serialization.serialize(NullWriter.INSTANCE);
+            peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory() - usedBefore);
+        }
+
+        if (report) {
+            System.out.println(String.format("%-30s %6d ms   peak heap ~%6d kB",
+                    name, System.currentTimeMillis() - start, peak / 1024));
+        }
+    }
+
+    private interface Serialization {
+        void serialize(Writer writer) throws IOException;
+    }
+}
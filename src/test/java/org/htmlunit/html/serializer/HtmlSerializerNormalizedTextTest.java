@@ -271,6 +271,48 @@ public class HtmlSerializerNormalizedTextTest {
         assertTrue("cleanUp() took too much time", runTime < 200);
     }
 
+    /**
+     * Test {@link HtmlSerializerTextBuilder} writing to an {@link Appendable}.
+     * @throws IOException in case of errors
+     */
+    @Test
+    public void streaming() throws IOException {
+        final HtmlSerializerTextBuilder expected = new HtmlSerializerTextBuilder();
+        final StringBuilder out = new StringBuilder();
+        final HtmlSerializerTextBuilder serializer = new HtmlSerializerTextBuilder(out);
+
+        for (final HtmlSerializerTextBuilder builder : Arrays.asList(expected, serializer)) {
+            for (int i = 0; i < 100_000; i++) {
+                builder.append(" x ", Mode.NORMALIZE);
+                builder.appendBlockSeparator();
+                builder.append("y  z", Mode.PRESERVE_BLANK_NEWLINE);
+                builder.appendNewLine();
+            }
+        }
+        serializer.writeText();
+
+        assertTrue(out.length() > 100_000);
+        assertEquals(expected.getText(), out.toString());
+    }
+
+    /**
+     * @throws IOException in case of errors
+     */
+    @Test
+    public void streamingPage() throws IOException {
+        final String html = "<div>\r\n"
+                + StringUtils.repeat("<p>para  graph <b>bold</b>\r\n<br>br</p>\r\n<pre> pre\n  \n</pre>", 2_000)
+                + "</div>";
+
+        try (WebClient webClient = new WebClient()) {
+            final HtmlPage page = webClient.loadHtmlCodeIntoCurrentWindow(html);
+
+            final StringBuilder out = new StringBuilder();
+            page.asNormalizedText(out);
+            assertEquals(page.asNormalizedText(), out.toString());
+        }
+    }
+
     /**
      * Test {@link HtmlSerializerTextBuilder} special spaces.
      */
@@ -17,6 +17,7 @@ package org.htmlunit.html.serializer;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 import org.apache.commons.lang3.StringUtils;
@@ -297,4 +298,29 @@ public class HtmlSerializerVisibleTextTest {
         serializer.append("  A B  C\t \t  D \r\nEF\nG \n H  ", Mode.WHITE_SPACE_PRE_LINE);
         assertEquals("A B C D \nEF\nG \n H", serializer.getText());
     }
+
+    /**
+     * Test {@link HtmlSerializerTextBuilder} writing to an {@link Appendable}.
+     * @throws IOException in case of errors
+     */
+    @Test
+    public void streaming() throws IOException {
+        final HtmlSerializerTextBuilder expected = new HtmlSerializerTextBuilder();
+        final StringBuilder out = new StringBuilder();
+        final HtmlSerializerTextBuilder serializer = new HtmlSerializerTextBuilder(out);
+
+        for (final HtmlSerializerTextBuilder builder : Arrays.asList(expected, serializer)) {
+            for (int i = 0; i < 100_000; i++) {
+                builder.append(" x ", Mode.WHITE_SPACE_NORMAL);
+                builder.appendBreak(Mode.WHITE_SPACE_NORMAL);
+                builder.append("y  ", Mode.WHITE_SPACE_NORMAL);
+                builder.appendBlockSeparator();
+            }
+            builder.trimRight(Mode.WHITE_SPACE_NORMAL);
+        }
+        serializer.writeText();
+
+        assertTrue(out.length() > 100_000);
+        assertEquals(expected.getText(), out.toString());
+    }
 }
@@ -18,9 +18,11 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.htmlunit.SimpleWebTestCase;
+import org.htmlunit.html.DomElement;
 import org.htmlunit.html.DomNode;
 import org.htmlunit.html.DomText;
 import org.htmlunit.html.HtmlAnchor;
@@ -351,4 +353,111 @@ public class HtmlUnitXPathTest extends SimpleWebTestCase {
         assertNull(page.getFirstByXPath("//td[text()='[x]']"));
         assertSame(cell, page.getFirstByXPath("//td[text()='[X]']"));
     }
+
+    /**
+     * The xpath context is reused as long as the dom is not changed.
+     * @throws Exception if test fails
+     */
+    @Test
+    public void domChangesBetweenEvaluations() throws Exception {
+        final String content = DOCTYPE_HTML
+            + "<html><head></head>\n"
+            + "<body><div id='d1'>one</div><div id='d2'>two</div></body>\n"
+            + "</html>";
+
+        final HtmlPage page = loadPage(content);
+        assertEquals(2, page.getByXPath("//div").size());
+        assertEquals(2, page.getByXPath("//div").size());
+
+        final DomElement div = page.createElement("div");
+        div.setAttribute("id", "d3");
+        page.getBody().insertBefore(div, page.getHtmlElementById("d1"));
+        assertEquals(3, page.getByXPath("//div").size());
+        assertSame(div, page.getFirstByXPath("//div"));
+
+        div.setAttribute("class", "new");
+        assertSame(div, page.getFirstByXPath("//div[@class='new']"));
+
+        ((DomText) page.getHtmlElementById("d2").getFirstChild()).setData("changed");
+        assertEquals("changed", page.getFirstByXPath("string(//div[@id='d2'])"));
+
+        div.remove();
+        assertEquals(2, page.getByXPath("//div").size());
+        assertEquals(page.getHtmlElementById("d1"), page.getFirstByXPath("//div"));
+    }
+
+    /**
+     * The first match of an union is the first in document order.
+     * @throws Exception if test fails
+     */
+    @Test
+    public void firstByXPathDocumentOrder() throws Exception {
+        final String content = DOCTYPE_HTML
+            + "<html><head></head>\n"
+            + "<body><span id='s1'></span><div id='d1'></div><span id='s2'></span></body>\n"
+            + "</html>";
+
+        final HtmlPage page = loadPage(content);
+        assertEquals(page.getHtmlElementById("s1"), page.getFirstByXPath("//div | //span"));
+        assertEquals(page.getHtmlElementById("d1"), page.getFirstByXPath("//span/following-sibling::div"));
+        assertEquals(page.getHtmlElementById("d1"), page.getFirstByXPath("//span[2]/preceding-sibling::*[1]"));
+        assertEquals(Double.valueOf(3), page.getFirstByXPath("count(//body/*)"));
+        assertNull(page.getFirstByXPath("//p"));
+    }
+
+    /**
+     * The cached xpath context (and the dtm) is released by the next change of the dom.
+     * @throws Exception if test fails
+     */
+    @Test
+    public void cachedContextReleasedOnDomChange() throws Exception {
+        final String content = DOCTYPE_HTML
+            + "<html><head></head>\n"
+            + "<body><div id='d1'>one</div></body>\n"
+            + "</html>";
+
+        final HtmlPage page = loadPage(content);
+        assertEquals(1, page.getByXPath("//div").size());
+
+        page.getBody().appendChild(page.createElement("div"));
+        assertNull(page.takeCachedXPathContext());
+        assertEquals(2, page.getByXPath("//div").size());
+    }
+
+    /**
+     * The compiled expressions are not shared between threads.
+     * @throws Exception if test fails
+     */
+    @Test
+    public void concurrentEvaluation() throws Exception {
+        final StringBuilder content = new StringBuilder(DOCTYPE_HTML).append("<html><head></head><body>\n");
+        for (int i = 0; i < 100; i++) {
+            content.append("<div class='c").append(i % 3).append("'><span>").append(i).append("</span></div>\n");
+        }
+        content.append("</body></html>");
+
+        final HtmlPage page = loadPage(content.toString());
+
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        final DomNode node = page.getBody();
+                        assertEquals(34, node.getByXPath(".//div[@class='c0']/span").size());
+                        assertEquals(33, node.getByXPath(".//div[@class='c1']/span").size());
+                    }
+                }
+                catch (final Throwable e) {
+                    errors.add(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+    }
 }
@@ -14,9 +14,14 @@
  */
 package org.htmlunit.javascript;
 
+import static org.junit.Assert.fail;
+
 import org.htmlunit.BrowserVersion;
+import org.htmlunit.MockWebConnection;
 import org.htmlunit.SimpleWebTestCase;
+import org.htmlunit.WebClient;
 import org.htmlunit.junit.BrowserRunner;
+import org.htmlunit.junit.annotation.Alerts;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -24,6 +29,7 @@ import org.junit.runner.RunWith;
  * Tests for {@link HtmlUnitContextFactory}.
  *
  * @author Ahmed Ashour
+ * @author Ronald Brill
  */
 @RunWith(BrowserRunner.class)
 public class HtmlUnitContextFactoryTest extends SimpleWebTestCase {
@@ -44,4 +50,67 @@ public class HtmlUnitContextFactoryTest extends SimpleWebTestCase {
 
         loadPage(browserVersion, html, null, URL_FIRST);
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"4950", "3", "1,2,3", "caught", "done"})
+    public void compiledMode() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var sum = 0;\n"
+            + "  for (var i = 0; i < 100; i++) { sum += i; }\n"
+            + "  alert(sum);\n"
+            + "  function counter() { var c = 0; return function() { return ++c; }; }\n"
+            + "  var next = counter(); next(); next();\n"
+            + "  alert(next());\n"
+            + "  function* gen() { yield 1; yield 2; yield 3; }\n"
+            + "  alert(Array.from(gen()).join());\n"
+            + "  try { undefined.foo; } catch (e) { alert('caught'); }\n"
+            + "  setTimeout(function() { alert('done'); }, 0);\n"
+            + "</script></body></html>";
+
+        getWebClient().getJavaScriptEngine().getContextFactory().setCompileThreshold(1);
+        loadPageWithAlerts(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void compiledModeTimeout() throws Exception {
+        final WebClient client = getWebClient();
+        final long timeout = 2000;
+        client.setJavaScriptTimeout(timeout);
+        client.getJavaScriptEngine().getContextFactory().setCompileThreshold(1);
+        client.getOptions().setThrowExceptionOnScriptError(false);
+
+        final String content = DOCTYPE_HTML + "<html><body><script>while(1) {}</script></body></html>";
+        final MockWebConnection webConnection = new MockWebConnection();
+        webConnection.setDefaultResponse(content);
+        client.setWebConnection(webConnection);
+
+        final Exception[] exceptions = {null};
+        final Thread runner = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    client.getPage(URL_FIRST);
+                }
+                catch (final Exception e) {
+                    exceptions[0] = e;
+                }
+            }
+        };
+
+        runner.start();
+
+        runner.join(timeout * 2);
+        if (runner.isAlive()) {
+            runner.interrupt();
+            fail("Script was still running after timeout");
+        }
+        assertNull(exceptions[0]);
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.javascript.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.htmlunit.javascript.host.event.Event;
+import org.htmlunit.javascript.host.html.HTMLDivElement;
+import org.junit.Test;
+
+/**
+ * Tests for {@link HostClassFactory}.
+ *
+ * @author Ronald Brill
+ */
+public class HostClassFactoryTest {
+
+    /**
+     * @throws Exception on error
+     */
+    @Test
+    public void newInstance() throws Exception {
+        final HTMLDivElement div1 = HostClassFactory.newInstance(HTMLDivElement.class);
+        final HTMLDivElement div2 = HostClassFactory.newInstance(HTMLDivElement.class);
+        assertEquals(HTMLDivElement.class, div1.getClass());
+        assertNotSame(div1, div2);
+
+        assertEquals(Event.class, HostClassFactory.newInstance(Event.class).getClass());
+
+        // classes of other class loaders are created using reflection
+        assertTrue(HostClassFactory.newInstance(StringBuilder.class) instanceof StringBuilder);
+    }
+
+    /**
+     * @throws Exception on error
+     */
+    @Test(expected = RuntimeException.class)
+    public void noDefaultConstructor() throws Exception {
+        HostClassFactory.newInstance(Integer.class);
+    }
+}
@@ -20,8 +20,11 @@ import static org.htmlunit.junit.annotation.TestedBrowser.FF_ESR;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
@@ -32,16 +35,20 @@ import org.eclipse.jetty.websocket.servlet.WebSocketCreator;
 import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
 import org.htmlunit.HttpHeader;
 import org.htmlunit.WebDriverTestCase;
+import org.htmlunit.corejs.javascript.ScriptableObject;
+import org.htmlunit.javascript.JavaScriptEngine;
 import org.htmlunit.junit.BrowserRunner;
 import org.htmlunit.junit.annotation.Alerts;
 import org.htmlunit.junit.annotation.HtmlUnitNYI;
 import org.htmlunit.junit.annotation.NotYetImplemented;
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 
 /**
  * Tests for {@link WebSocket}.
@@ -656,6 +663,208 @@ public class WebSocketTest extends WebDriverTestCase {
         }
     }
 
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts("received 500 ordered true")
+    public void messageOrder() throws Exception {
+        startWebServer("src/test/resources/org/htmlunit/javascript/host",
+            null, null, new BurstWebSocketHandler());
+        try {
+            final WebDriver driver = getWebDriver();
+            driver.get(URL_FIRST + "WebSocketTest_burst.html?count=500");
+
+            final String expected = String.join("\n", getExpectedAlerts());
+            assertEquals(expected, waitForLog(driver, expected));
+        }
+        finally {
+            stopWebServers();
+        }
+    }
+
+    /**
+     * The events are not delivered while the page is running other js code
+     * but later by the thread running all the js code of the page.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts("received 20 ordered true")
+    public void eventsOnJobThread() throws Exception {
+        startWebServer("src/test/resources/org/htmlunit/javascript/host",
+            null, null, new BurstWebSocketHandler());
+        try {
+            final WebDriver driver = getWebDriver();
+
+            final List<String> states = new CopyOnWriteArrayList<>();
+            final Set<String> threads = new CopyOnWriteArraySet<>();
+            if (driver instanceof HtmlUnitDriver) {
+                getWebClient().setStatusHandler((page, message) -> {
+                    states.add(message);
+                    threads.add(Thread.currentThread().getName());
+                });
+            }
+
+            driver.get(URL_FIRST + "WebSocketTest_burst.html?count=20&block=500");
+
+            final String expected = String.join("\n", getExpectedAlerts());
+            assertEquals(expected, waitForLog(driver, expected));
+
+            if (driver instanceof HtmlUnitDriver) {
+                assertEquals(21, states.size());
+                // the ready state is changed together with the delivery of the event
+                assertEquals("open 1", states.get(0));
+
+                assertEquals(threads.toString(), 1, threads.size());
+                assertTrue(threads.toString(), threads.iterator().next().startsWith("JS executor for "));
+            }
+        }
+        finally {
+            stopWebServers();
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void maxQueuedMessages() throws Exception {
+        // the limit is a HtmlUnit option
+        Assume.assumeFalse(useRealBrowser());
+
+        startWebServer("src/test/resources/org/htmlunit/javascript/host",
+            null, null, new BurstWebSocketHandler());
+        try {
+            getWebDriver();
+            getWebClient().getOptions().setWebSocketMaxQueuedMessages(10);
+
+            // all the messages are arriving while the page is blocked
+            getWebDriver().get(URL_FIRST + "WebSocketTest_burst.html?count=100&block=2000");
+
+            final WebSocket ws = getWebSocket();
+            waitFor(() -> ws.getDeliveredMessageCount() + ws.getDroppedMessageCount() == 100);
+
+            assertEquals(10L, ws.getDeliveredMessageCount());
+            assertEquals(90L, ws.getDroppedMessageCount());
+            assertEquals(0, ws.getQueuedMessageCount());
+
+            // the first messages are delivered, the later ones dropped
+            final Object received = ScriptableObject.getProperty(getWindow(), "received");
+            assertEquals("message 0,message 1,message 2,message 3,message 4,"
+                    + "message 5,message 6,message 7,message 8,message 9", JavaScriptEngine.toString(received));
+            assertEquals("", waitForLog(getWebDriver(), ""));
+        }
+        finally {
+            stopWebServers();
+        }
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void coalesceMessages() throws Exception {
+        // coalescing is a HtmlUnit option
+        Assume.assumeFalse(useRealBrowser());
+
+        startWebServer("src/test/resources/org/htmlunit/javascript/host",
+            null, null, new BurstWebSocketHandler());
+        try {
+            getWebDriver();
+            getWebClient().getOptions().setWebSocketCoalesceMessages(true);
+
+            getWebDriver().get(URL_FIRST + "WebSocketTest_burst.html?count=100&block=2000");
+
+            final WebSocket ws = getWebSocket();
+            waitFor(() -> ws.getQueuedMessageCount() == 100);
+
+            // still blocked; the running open handler and a single job for all the messages
+            assertEquals(0L, ws.getDeliveredMessageCount());
+            assertEquals(2, getWebWindow().getJobManager().getJobCount());
+
+            final String expected = "received 100 ordered true";
+            assertEquals(expected, waitForLog(getWebDriver(), expected));
+            assertEquals(100L, ws.getDeliveredMessageCount());
+            assertEquals(0L, ws.getDroppedMessageCount());
+            assertEquals(0, ws.getQueuedMessageCount());
+        }
+        finally {
+            stopWebServers();
+        }
+    }
+
+    private Window getWindow() {
+        return getWebWindow().getScriptableObject();
+    }
+
+    private WebSocket getWebSocket() throws InterruptedException {
+        waitFor(() -> ScriptableObject.getProperty(getWindow(), "ws") instanceof WebSocket);
+        return (WebSocket) ScriptableObject.getProperty(getWindow(), "ws");
+    }
+
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long maxWait = System.currentTimeMillis() + 10 * DEFAULT_WAIT_TIME.toMillis();
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < maxWait) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static String waitForLog(final WebDriver driver, final String expected) throws InterruptedException {
+        final WebElement logElement = driver.findElement(By.id("log"));
+        final long maxWait = System.currentTimeMillis() + 10 * DEFAULT_WAIT_TIME.toMillis();
+
+        String text;
+        do {
+            Thread.sleep(100);
+
+            text = logElement.getDomProperty("value").trim().replaceAll("\r", "");
+        }
+        while (text.length() < expected.length() && System.currentTimeMillis() < maxWait);
+        return text;
+    }
+
+    private static class BurstWebSocketHandler extends WebSocketHandler {
+
+        BurstWebSocketHandler() {
+        }
+
+        @Override
+        public void configure(final WebSocketServletFactory factory) {
+            factory.register(BurstWebSocket.class);
+            factory.setCreator(new WebSocketCreator() {
+                @Override
+                public BurstWebSocket createWebSocket(final ServletUpgradeRequest servletUpgradeRequest,
+                        final ServletUpgradeResponse servletUpgradeResponse) {
+                    return new BurstWebSocket();
+                }
+            });
+        }
+
+        private static class BurstWebSocket extends WebSocketAdapter {
+
+            BurstWebSocket() {
+            }
+
+            @Override
+            public void onWebSocketText(final String data) {
+                if (!data.startsWith("burst ")) {
+                    throw new IllegalArgumentException("Unknown request: " + data);
+                }
+
+                final int count = Integer.parseInt(data.substring("burst ".length()));
+                try {
+                    for (int i = 0; i < count; i++) {
+                        getRemote().sendString("message " + i);
+                    }
+                }
+                catch (final IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
     /**
      * @throws Exception if the test fails
      */
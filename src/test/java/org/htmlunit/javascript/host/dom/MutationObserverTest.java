@@ -543,4 +543,160 @@ public class MutationObserverTest extends WebDriverTestCase {
 
         loadPageVerifyTitle2(html);
     }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"done", "callback 3 true", "a", "b", "c"})
+    public void batchedDelivery() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations, obs) {\n"
+            + "    log('callback ' + mutations.length + ' ' + (obs === observer));\n"
+            + "    mutations.forEach(function(mutation) {\n"
+            + "      log(mutation.attributeName);\n"
+            + "    });\n"
+            + "  });\n"
+            + "  observer.observe(div, { attributes: true });\n"
+            + "  div.setAttribute('a', '1');\n"
+            + "  div.setAttribute('b', '1');\n"
+            + "  div.setAttribute('c', '1');\n"
+            + "  log('done');\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv'></div>\n"
+            + "</body></html>";
+
+        loadPageVerifyTitle2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"2", "a", "b", "0", "done"})
+    public void takeRecords() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    log('callback ' + mutations.length);\n"
+            + "  });\n"
+            + "  observer.observe(div, { attributes: true });\n"
+            + "  div.setAttribute('a', '1');\n"
+            + "  div.setAttribute('b', '1');\n"
+            + "  var records = observer.takeRecords();\n"
+            + "  log(records.length);\n"
+            + "  log(records[0].attributeName);\n"
+            + "  log(records[1].attributeName);\n"
+            + "  log(observer.takeRecords().length);\n"
+            + "  log('done');\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv'></div>\n"
+            + "</body></html>";
+
+        loadPageVerifyTitle2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"1", "title"})
+    public void attributeFilterImpliesAttributes() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    log(mutations.length);\n"
+            + "    log(mutations[0].attributeName);\n"
+            + "  });\n"
+            + "  observer.observe(div, { attributeFilter: ['title'] });\n"
+            + "  div.setAttribute('lang', 'en');\n"
+            + "  div.setAttribute('title', 'x');\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv'></div>\n"
+            + "</body></html>";
+
+        loadPageVerifyTitle2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"2",
+             "childList", "[object HTMLDivElement]", "1", "0", "[object HTMLParagraphElement]", "null",
+             "childList", "[object HTMLDivElement]", "0", "1", "null", "[object HTMLSpanElement]"})
+    public void childList() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    log(mutations.length);\n"
+            + "    mutations.forEach(function(mutation) {\n"
+            + "      log(mutation.type);\n"
+            + "      log(mutation.target);\n"
+            + "      log(mutation.addedNodes.length);\n"
+            + "      log(mutation.removedNodes.length);\n"
+            + "      log(mutation.previousSibling);\n"
+            + "      log(mutation.nextSibling);\n"
+            + "    });\n"
+            + "  });\n"
+            + "  observer.observe(div, { childList: true });\n"
+            + "  div.appendChild(document.createElement('span'));\n"
+            + "  div.removeChild(document.getElementById('p1'));\n"
+            + "  document.getElementById('inner').appendChild(document.createElement('b'));\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv'><p id='p1'><i id='inner'></i></p></div>\n"
+            + "</body></html>";
+
+        loadPageVerifyTitle2(html);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"2", "[object HTMLElement]", "[object HTMLSpanElement]"})
+    public void childListSubtree() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "function test() {\n"
+            + "  var div = document.getElementById('myDiv');\n"
+            + "  var observer = new MutationObserver(function(mutations) {\n"
+            + "    log(mutations.length);\n"
+            + "    mutations.forEach(function(mutation) {\n"
+            + "      log(mutation.addedNodes[0]);\n"
+            + "    });\n"
+            + "  });\n"
+            + "  observer.observe(div, { childList: true, subtree: true });\n"
+            + "  document.getElementById('inner').appendChild(document.createElement('b'));\n"
+            + "  div.appendChild(document.createElement('span'));\n"
+            + "}\n"
+            + "</script></head>\n"
+            + "<body onload='test()'>\n"
+            + "  <div id='myDiv'><p><i id='inner'></i></p></div>\n"
+            + "</body></html>";
+
+        loadPageVerifyTitle2(html);
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.javascript.host.idb;
+
+import org.htmlunit.WebDriverTestCase;
+import org.htmlunit.junit.BrowserRunner;
+import org.htmlunit.junit.annotation.Alerts;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link IDBFactory} and the other IndexedDB classes.
+ *
+ * @author Ronald Brill
+ */
+@RunWith(BrowserRunner.class)
+public class IDBFactoryTest extends WebDriverTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"upgradeneeded 0 1", "success 1 1", "key 2", "1 Tom"})
+    public void openAddGet() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "  indexedDB.deleteDatabase('openAddGet');\n"
+            + "  var req = indexedDB.open('openAddGet', 1);\n"
+            + "  req.onupgradeneeded = function(e) {\n"
+            + "    log('upgradeneeded ' + e.oldVersion + ' ' + e.newVersion);\n"
+            + "    var store = req.result.createObjectStore('cats', { keyPath: 'id', autoIncrement: true });\n"
+            + "    store.createIndex('byName', 'name', { unique: true });\n"
+            + "  };\n"
+            + "  req.onsuccess = function() {\n"
+            + "    var db = req.result;\n"
+            + "    log('success ' + db.version + ' ' + db.objectStoreNames.length);\n"
+            + "    var tx = db.transaction('cats', 'readwrite');\n"
+            + "    var store = tx.objectStore('cats');\n"
+            + "    store.add({ name: 'Tom' });\n"
+            + "    store.add({ name: 'Garfield' }).onsuccess = function(e) { log('key ' + e.target.result); };\n"
+            + "    tx.oncomplete = function() {\n"
+            + "      db.transaction('cats').objectStore('cats').index('byName').get('Tom').onsuccess = function(e) {\n"
+            + "        log(e.target.result.id + ' ' + e.target.result.name);\n"
+            + "      };\n"
+            + "    };\n"
+            + "  };\n"
+            + "</script></head><body></body></html>";
+
+        loadPage2(html);
+        verifyTitle2(DEFAULT_WAIT_TIME, getWebDriver(), getExpectedAlerts());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"4 four", "3 three", "2 two", "done"})
+    public void cursor() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "  indexedDB.deleteDatabase('cursor');\n"
+            + "  var req = indexedDB.open('cursor', 1);\n"
+            + "  req.onupgradeneeded = function(e) {\n"
+            + "    var store = req.result.createObjectStore('numbers');\n"
+            + "    var names = ['one', 'two', 'three', 'four', 'five'];\n"
+            + "    for (var i = 0; i < names.length; i++) {\n"
+            + "      store.put(names[i], i + 1);\n"
+            + "    }\n"
+            + "  };\n"
+            + "  req.onsuccess = function() {\n"
+            + "    var store = req.result.transaction('numbers').objectStore('numbers');\n"
+            + "    store.openCursor(IDBKeyRange.bound(2, 4), 'prev').onsuccess = function(e) {\n"
+            + "      var cursor = e.target.result;\n"
+            + "      if (cursor) {\n"
+            + "        log(cursor.key + ' ' + cursor.value);\n"
+            + "        cursor.continue();\n"
+            + "      } else {\n"
+            + "        log('done');\n"
+            + "      }\n"
+            + "    };\n"
+            + "  };\n"
+            + "</script></head><body></body></html>";
+
+        loadPage2(html);
+        verifyTitle2(DEFAULT_WAIT_TIME, getWebDriver(), getExpectedAlerts());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"error ConstraintError", "abort ConstraintError", "count 0"})
+    public void constraintErrorAborts() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "  indexedDB.deleteDatabase('constraintErrorAborts');\n"
+            + "  var req = indexedDB.open('constraintErrorAborts', 1);\n"
+            + "  req.onupgradeneeded = function(e) {\n"
+            + "    req.result.createObjectStore('store');\n"
+            + "  };\n"
+            + "  req.onsuccess = function() {\n"
+            + "    var db = req.result;\n"
+            + "    var tx = db.transaction('store', 'readwrite');\n"
+            + "    var store = tx.objectStore('store');\n"
+            + "    store.add('first', 1);\n"
+            + "    store.add('second', 1).onerror = function(e) { log('error ' + e.target.error.name); };\n"
+            + "    tx.onabort = function() {\n"
+            + "      log('abort ' + tx.error.name);\n"
+            + "      db.transaction('store').objectStore('store').count().onsuccess = function(e) {\n"
+            + "        log('count ' + e.target.result);\n"
+            + "      };\n"
+            + "    };\n"
+            + "  };\n"
+            + "</script></head><body></body></html>";
+
+        loadPage2(html);
+        verifyTitle2(DEFAULT_WAIT_TIME, getWebDriver(), getExpectedAlerts());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"abort AbortError", "count 0"})
+    public void callbackExceptionAborts() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "  indexedDB.deleteDatabase('callbackExceptionAborts');\n"
+            + "  var req = indexedDB.open('callbackExceptionAborts', 1);\n"
+            + "  req.onupgradeneeded = function(e) {\n"
+            + "    req.result.createObjectStore('store');\n"
+            + "  };\n"
+            + "  req.onsuccess = function() {\n"
+            + "    var db = req.result;\n"
+            + "    var tx = db.transaction('store', 'readwrite');\n"
+            + "    var store = tx.objectStore('store');\n"
+            + "    store.add('first', 1).onsuccess = function() { throw new Error('callback'); };\n"
+            + "    tx.oncomplete = function() { log('complete'); };\n"
+            + "    tx.onabort = function() {\n"
+            + "      log('abort ' + tx.error.name);\n"
+            + "      db.transaction('store').objectStore('store').count().onsuccess = function(e) {\n"
+            + "        log('count ' + e.target.result);\n"
+            + "      };\n"
+            + "    };\n"
+            + "  };\n"
+            + "</script></head><body></body></html>";
+
+        loadPage2(html);
+        verifyTitle2(DEFAULT_WAIT_TIME, getWebDriver(), getExpectedAlerts());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"-1", "0", "1", "1", "DataError"})
+    public void cmp() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><head><script>\n"
+            + LOG_TITLE_FUNCTION
+            + "  log(indexedDB.cmp(1, 2));\n"
+            + "  log(indexedDB.cmp('a', 'a'));\n"
+            + "  log(indexedDB.cmp('a', 1));\n"
+            + "  log(indexedDB.cmp([1], 'z'));\n"
+            + "  try { indexedDB.cmp({}, 1); } catch(e) { log(e.name); }\n"
+            + "</script></head><body></body></html>";
+
+        loadPageVerifyTitle2(html);
+    }
+}
@@ -451,4 +451,37 @@ public class WorkerTest extends WebDriverTestCase {
         loadPage2(html);
         verifyTitle2(DEFAULT_WAIT_TIME, getWebDriver(), getExpectedAlerts());
     }
+
+    /**
+     * Terminating the worker stops the timers of the worker and the message delivery.
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"Received:tick", "done 1"})
+    public void terminate() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body>\n"
+            + "<script async>\n"
+            + LOG_TITLE_FUNCTION
+            + "try {\n"
+            + "  var count = 0;\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    count++;\n"
+            + "    log('Received:' + e.data);\n"
+            + "    myWorker.terminate();\n"
+            + "    myWorker.postMessage('ping');\n"
+            + "    setTimeout(function() { log('done ' + count); }, 300);\n"
+            + "  };\n"
+            + "} catch(e) { logEx(e); }\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "onmessage = function(e) { postMessage('pong'); };\n"
+                + "setInterval(function() { postMessage('tick'); }, 50);\n";
+
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "worker.js"), workerJs, MimeType.TEXT_JAVASCRIPT);
+
+        loadPage2(html);
+        verifyTitle2(DEFAULT_WAIT_TIME, getWebDriver(), getExpectedAlerts());
+    }
 }
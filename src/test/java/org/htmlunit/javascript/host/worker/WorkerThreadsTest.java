@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.javascript.host.worker;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.htmlunit.CollectingAlertHandler;
+import org.htmlunit.SimpleWebTestCase;
+import org.htmlunit.WebClient;
+import org.htmlunit.junit.BrowserRunner;
+import org.htmlunit.junit.annotation.Alerts;
+import org.htmlunit.util.MimeType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link Worker}s running on dedicated threads.
+ *
+ * @author Ronald Brill
+ */
+@RunWith(BrowserRunner.class)
+public class WorkerThreadsTest extends SimpleWebTestCase {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"Received: Result = 15", "1"})
+    public void postMessageToWorker() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  var data = [5, 3];\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert('Received: ' + e.data);\n"
+            + "    alert(data.length);\n"
+            + "  };\n"
+            + "  myWorker.postMessage(data);\n"
+            + "  data.length = 1;\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "onmessage = function(e) {\n"
+                + "  var workerResult = 'Result = ' + (e.data[0] * e.data[1]);\n"
+                + "  e.data.push(7);\n"
+                + "  postMessage(workerResult);\n"
+                + "}\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"object", "1", "true"})
+    public void messagesAreCopies() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(typeof e.data);\n"
+            + "    alert(e.data.items.length);\n"
+            + "    alert(e.data.nested.flag);\n"
+            + "  };\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "var msg = { items: ['a'], nested: { flag: true } };\n"
+                + "postMessage(msg);\n"
+                + "msg.items.push('b');\n"
+                + "msg.nested.flag = false;\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"true undefined", "true", "true 1000", "true 4 4", "true true 2 1", "true true", "true false",
+             "a+ true true false", "3 false 3", "true", "true"})
+    public void structuredClone() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    var d = e.data;\n"
+            + "    alert(('u' in d) + ' ' + typeof d.u);\n"
+            + "    alert(isNaN(d.n));\n"
+            + "    alert((d.d instanceof Date) + ' ' + d.d.getTime());\n"
+            + "    alert((d.buf instanceof ArrayBuffer) + ' ' + d.buf.byteLength + ' ' + new Uint8Array(d.buf)[3]);\n"
+            + "    alert((d.bytes instanceof Uint16Array) + ' ' + (d.bytes.buffer === d.buf)\n"
+            + "        + ' ' + d.bytes.byteOffset + ' ' + d.bytes.length);\n"
+            + "    alert((d.m instanceof Map) + ' ' + (d.m.get('k') instanceof Date));\n"
+            + "    alert(d.s.has(2) + ' ' + d.s.has(3));\n"
+            + "    alert(d.r.source + ' ' + d.r.global + ' ' + d.r.ignoreCase + ' ' + d.r.multiline);\n"
+            + "    alert(d.sparse.length + ' ' + (1 in d.sparse) + ' ' + d.sparse[2]);\n"
+            + "    alert(d.self === d);\n"
+            + "    alert(d.m.get('k') === d.d);\n"
+            + "  };\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "var buf = new ArrayBuffer(4);\n"
+                + "new Uint8Array(buf)[3] = 4;\n"
+                + "var date = new Date(1000);\n"
+                + "var m = new Map();\n"
+                + "m.set('k', date);\n"
+                + "var o = { u: undefined, n: NaN, d: date, buf: buf, bytes: new Uint16Array(buf, 2, 1),\n"
+                + "  m: m, s: new Set([1, 2]), r: /a+/gi, sparse: [1, , 3] };\n"
+                + "o.self = o;\n"
+                + "postMessage(o);\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"DataCloneError", "DataCloneError", "8"})
+    public void notCloneable() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "  try {\n"
+            + "    myWorker.postMessage(function() {});\n"
+            + "  } catch(e) { alert(e.name); }\n"
+            + "  try {\n"
+            + "    myWorker.postMessage({ node: document.body });\n"
+            + "  } catch(e) { alert(e.name); }\n"
+            + "  myWorker.postMessage(new Float64Array(1));\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "onmessage = function(e) {\n"
+                + "  postMessage(e.data.byteLength);\n"
+                + "}\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"page not blocked", "worker done"})
+    public void parallelToPage() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "  var start = Date.now();\n"
+            + "  setTimeout(function() {\n"
+            + "    alert(Date.now() - start < 400 ? 'page not blocked' : 'page blocked');\n"
+            + "  }, 10);\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "var start = Date.now();\n"
+                + "while (Date.now() - start < 800) {}\n"
+                + "postMessage('worker done');\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"timeout 1", "interval", "interval"})
+    public void timers() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "setTimeout(function(p) { postMessage('timeout ' + p); }, 10, 1);\n"
+                + "var count = 0;\n"
+                + "setInterval(function() {\n"
+                + "  if (count++ < 2) { postMessage('interval'); }\n"
+                + "}, 50);\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts({"tick", "tick", "done 2"})
+    public void clearInterval() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "  };\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "var count = 0;\n"
+                + "var id = setInterval(function() {\n"
+                + "  postMessage('tick');\n"
+                + "  if (++count == 2) {\n"
+                + "    clearInterval(id);\n"
+                + "    setTimeout(function() { postMessage('done ' + count); }, 200);\n"
+                + "  }\n"
+                + "}, 20);\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    @Alerts("tick")
+    public void terminate() throws Exception {
+        final String html = DOCTYPE_HTML
+            + "<html><body><script>\n"
+            + "  var myWorker = new Worker('worker.js');\n"
+            + "  myWorker.onmessage = function(e) {\n"
+            + "    alert(e.data);\n"
+            + "    myWorker.terminate();\n"
+            + "  };\n"
+            + "</script></body></html>\n";
+
+        final String workerJs = "setInterval(function() { postMessage('tick'); }, 50);\n";
+
+        loadPageAndWait(html, workerJs);
+    }
+
+    private void loadPageAndWait(final String html, final String workerJs) throws Exception {
+        getMockWebConnection().setResponse(new URL(URL_FIRST, "worker.js"), workerJs, MimeType.TEXT_JAVASCRIPT);
+        getMockWebConnection().setResponse(URL_FIRST, html);
+
+        final WebClient client = getWebClientWithMockWebConnection();
+        client.getOptions().setWorkerThreadsEnabled(true);
+        final List<String> collectedAlerts = new ArrayList<>();
+        client.setAlertHandler(new CollectingAlertHandler(collectedAlerts));
+
+        client.getPage(URL_FIRST);
+
+        final long maxWait = System.currentTimeMillis() + 5 * DEFAULT_WAIT_TIME.toMillis();
+        while (collectedAlerts.size() < getExpectedAlerts().length && System.currentTimeMillis() < maxWait) {
+            Thread.sleep(10);
+            client.waitForBackgroundJavaScript(50);
+        }
+        // give unexpected messages a chance to arrive
+        Thread.sleep(200);
+        client.waitForBackgroundJavaScript(50);
+
+        assertEquals(getExpectedAlerts(), collectedAlerts);
+    }
+}
@@ -14,6 +14,8 @@
  */
 package org.htmlunit.javascript.proxyautoconfig;
 
+import static org.junit.Assert.assertNotEquals;
+
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.DateFormat;
@@ -135,6 +137,119 @@ public class ProxyAutoConfigTest extends SimpleWebTestCase {
         assertEquals("PROXY proxy.example.com:8000; DIRECT", value);
     }
 
+    /**
+     * The compiled script and the results are cached; results depending on the url
+     * must not be shared between urls of the same host.
+     * @throws MalformedURLException in case of error
+     */
+    @Test
+    public void urlDependentResults() throws MalformedURLException {
+        final String content = "function FindProxyForURL(u, host) {\n"
+                + "  if (shExpMatch(u, '*/direct/*')) {\n"
+                + "    return 'DIRECT';\n"
+                + "  }\n"
+                + "  return 'PROXY proxy.example.com:8000';\n"
+                + "}";
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("DIRECT", JavaScriptEngine.evaluateProxyAutoConfig(BrowserVersion.CHROME,
+                    content, new URL("http://www.example.com/direct/index.html")));
+            assertEquals("PROXY proxy.example.com:8000", JavaScriptEngine.evaluateProxyAutoConfig(
+                    BrowserVersion.CHROME, content, new URL("http://www.example.com/other/index.html")));
+        }
+    }
+
+    /**
+     * Results of scripts using the Date object depend on the time and are never cached.
+     * @throws Exception in case of error
+     */
+    @Test
+    public void dateDependentResultsNotCached() throws Exception {
+        final URL url = new URL("http://www.example.com/index.html");
+        for (final String date : new String[] {"new Date().getTime()", "Date.now()"}) {
+            final String content = "function FindProxyForURL(url, host) {\n"
+                    + "  return 'PROXY proxy' + " + date + " + '.example.com:8000';\n"
+                    + "}";
+
+            final String first = JavaScriptEngine.evaluateProxyAutoConfig(BrowserVersion.CHROME, content, url);
+            String value = first;
+            for (int i = 0; i < 100 && first.equals(value); i++) {
+                Thread.sleep(2);
+                value = JavaScriptEngine.evaluateProxyAutoConfig(BrowserVersion.CHROME, content, url);
+            }
+            assertNotEquals(first, value);
+        }
+    }
+
+    /**
+     * The script may modify the standard objects.
+     * @throws MalformedURLException in case of error
+     */
+    @Test
+    public void modifyStandardObjects() throws MalformedURLException {
+        final String content = "String.prototype.isSecure = function() { return this.indexOf('https:') == 0; };\n"
+                + "Array.prototype.indexOf = function() { return 7; };\n"
+                + "function FindProxyForURL(url, host) {\n"
+                + "  if (url.isSecure() && [].indexOf(host) == 7) {\n"
+                + "    return 'DIRECT';\n"
+                + "  }\n"
+                + "  return 'PROXY proxy.example.com:8000';\n"
+                + "}";
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("DIRECT", JavaScriptEngine.evaluateProxyAutoConfig(BrowserVersion.CHROME,
+                    content, new URL("https://www.example.com/index.html")));
+            assertEquals("PROXY proxy.example.com:8000", JavaScriptEngine.evaluateProxyAutoConfig(
+                    BrowserVersion.CHROME, content, new URL("http://www.example.com/index.html")));
+        }
+    }
+
+    /**
+     * Every call starts with a fresh scope; global variables are not carried over.
+     * @throws MalformedURLException in case of error
+     */
+    @Test
+    public void noStateBetweenCalls() throws MalformedURLException {
+        final String content = "var count = 0;\n"
+                + "function FindProxyForURL(url, host) {\n"
+                + "  count++;\n"
+                + "  return 'PROXY proxy' + count + '.example.com:8000';\n"
+                + "}";
+
+        assertEquals("PROXY proxy1.example.com:8000", JavaScriptEngine.evaluateProxyAutoConfig(
+                BrowserVersion.CHROME, content, new URL("http://www.example.com/")));
+        assertEquals("PROXY proxy1.example.com:8000", JavaScriptEngine.evaluateProxyAutoConfig(
+                BrowserVersion.CHROME, content, new URL("http://www.example.org/")));
+    }
+
+    /**
+     * Scripts reading the url without the parameter name are cached per url.
+     * @throws MalformedURLException in case of error
+     */
+    @Test
+    public void indirectUrlAccess() throws MalformedURLException {
+        final String[] contents = {
+            "function FindProxyForURL(url, host) {\n"
+                + "  return shExpMatch(arguments[0], '*/direct/*') ? 'DIRECT' : 'PROXY proxy.example.com:8000';\n"
+                + "}",
+            "function FindProxyForURL(url, host) {\n"
+                + "  return 'PROXY proxy.example.com:8000';\n"
+                + "}\n"
+                + "FindProxyForURL = function(u, h) {\n"
+                + "  return shExpMatch(u, '*/direct/*') ? 'DIRECT' : 'PROXY proxy.example.com:8000';\n"
+                + "};"
+        };
+
+        for (final String content : contents) {
+            for (int i = 0; i < 2; i++) {
+                assertEquals("DIRECT", JavaScriptEngine.evaluateProxyAutoConfig(BrowserVersion.CHROME,
+                        content, new URL("http://www.example.com/direct/index.html")));
+                assertEquals("PROXY proxy.example.com:8000", JavaScriptEngine.evaluateProxyAutoConfig(
+                        BrowserVersion.CHROME, content, new URL("http://www.example.com/other/index.html")));
+            }
+        }
+    }
+
     /**
      * Test case.
      */
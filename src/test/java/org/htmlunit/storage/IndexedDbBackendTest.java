@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link IndexedDbBackend}.
+ *
+ * @author Ronald Brill
+ */
+public class IndexedDbBackendTest {
+
+    private static final String ORIGIN = "http://localhost";
+
+    /**
+     * Utility for temporary folders.
+     * Has to be public due to JUnit's constraints for @Rule.
+     */
+    @Rule
+    public final TemporaryFolder tmpFolderProvider_ = new TemporaryFolder();
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void abort() throws Exception {
+        try (IndexedDbBackend backend = new IndexedDbBackend()) {
+            final IndexedDbObjectStore store = fill(backend);
+            final IndexedDbIndex index = store.getIndex("byName");
+
+            final IndexedDbTransaction transaction = backend.beginTransaction();
+            try {
+                transaction.put(store, 100d, "{}", indexKeys("n3"), false);
+                fail("ConstraintError expected");
+            }
+            catch (final IndexedDbException e) {
+                assertEquals(IndexedDbException.CONSTRAINT_ERROR, e.getName());
+            }
+            transaction.delete(store, new IndexedDbKeyRange(2d, 4d, false, false));
+            assertEquals(7, store.count(IndexedDbKeyRange.ALL));
+            assertEquals(7, index.count(IndexedDbKeyRange.ALL));
+
+            transaction.abort();
+            assertEquals(10, store.count(IndexedDbKeyRange.ALL));
+            assertEquals(10, index.count(IndexedDbKeyRange.ALL));
+        }
+    }
+
+    /**
+     * A transaction of another thread with an overlapping scope has to wait;
+     * it never sees uncommitted changes.
+     * @throws Exception in case of error
+     */
+    @Test
+    public void overlappingScopes() throws Exception {
+        try (IndexedDbBackend backend = new IndexedDbBackend()) {
+            final IndexedDbObjectStore store = fill(backend);
+
+            final IndexedDbTransaction writer
+                    = backend.beginTransaction(ORIGIN, "db", Collections.singletonList("s"), false);
+            writer.delete(store, IndexedDbKeyRange.ALL);
+
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                final Future<Integer> reader = executor.submit(() -> {
+                    final IndexedDbTransaction transaction
+                            = backend.beginTransaction(ORIGIN, "db", Collections.singletonList("s"), true);
+                    try {
+                        return store.count(IndexedDbKeyRange.ALL);
+                    }
+                    finally {
+                        transaction.commit();
+                    }
+                });
+
+                try {
+                    reader.get(200, TimeUnit.MILLISECONDS);
+                    fail("TimeoutException expected");
+                }
+                catch (final TimeoutException e) {
+                    // expected, the reader waits for the writer
+                }
+
+                writer.abort();
+                assertEquals(10, reader.get(10, TimeUnit.SECONDS).intValue());
+            }
+            finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void disjointScopes() throws Exception {
+        try (IndexedDbBackend backend = new IndexedDbBackend()) {
+            fill(backend);
+
+            final IndexedDbTransaction writer
+                    = backend.beginTransaction(ORIGIN, "db", Collections.singletonList("s"), false);
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                final Future<Boolean> other = executor.submit(() -> {
+                    backend.beginTransaction(ORIGIN, "db", Collections.singletonList("other"), false).commit();
+                    backend.beginTransaction(ORIGIN, "db2", null, false).commit();
+                    return Boolean.TRUE;
+                });
+                assertEquals(Boolean.TRUE, other.get(10, TimeUnit.SECONDS));
+            }
+            finally {
+                executor.shutdownNow();
+                writer.commit();
+            }
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void readOnly() throws Exception {
+        try (IndexedDbBackend backend = new IndexedDbBackend()) {
+            final IndexedDbObjectStore store = fill(backend);
+
+            final IndexedDbTransaction transaction
+                    = backend.beginTransaction(ORIGIN, "db", Collections.singletonList("s"), true);
+            try {
+                transaction.clear(store);
+                fail("IllegalStateException expected");
+            }
+            catch (final IllegalStateException e) {
+                // expected
+            }
+            transaction.commit();
+            assertEquals(10, store.count(IndexedDbKeyRange.ALL));
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void cursor() throws Exception {
+        try (IndexedDbBackend backend = new IndexedDbBackend()) {
+            final IndexedDbObjectStore store = fill(backend);
+            final IndexedDbIndex index = store.getIndex("byName");
+
+            IndexedDbRecord record = index.find(IndexedDbKeyRange.ALL, null, null, false, true, false);
+            assertEquals("n9", record.getKey());
+            assertEquals(1d, record.getPrimaryKey());
+
+            record = index.find(IndexedDbKeyRange.ALL, record.getKey(), record.getPrimaryKey(), false, true, false);
+            assertEquals("n8", record.getKey());
+
+            record = store.find(new IndexedDbKeyRange(3d, null, true, false), null, false, false);
+            assertEquals(4d, record.getKey());
+            record = store.find(IndexedDbKeyRange.ALL, 10d, false, false);
+            assertNull(record);
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void persistent() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("indexed.db");
+
+        try (IndexedDbBackend backend = IndexedDbBackend.open(file)) {
+            final IndexedDbObjectStore store = fill(backend);
+            final IndexedDbTransaction transaction = backend.beginTransaction();
+            transaction.delete(store, IndexedDbKeyRange.only(5d));
+            transaction.commit();
+        }
+
+        try (IndexedDbBackend backend = IndexedDbBackend.open(file)) {
+            final IndexedDbDatabase database = backend.getDatabase(ORIGIN, "db");
+            assertEquals(1, database.getVersion());
+
+            final IndexedDbObjectStore store = database.getObjectStore("s");
+            assertEquals(9, store.count(IndexedDbKeyRange.ALL));
+            assertEquals(10d, store.getIndex("byName").get(IndexedDbKeyRange.only("n0")).getPrimaryKey());
+
+            final IndexedDbTransaction transaction = backend.beginTransaction();
+            assertEquals(Double.valueOf(11d), transaction.nextKey(store));
+            transaction.abort();
+
+            backend.compact();
+        }
+
+        try (IndexedDbBackend backend = IndexedDbBackend.open(file)) {
+            final IndexedDbObjectStore store = backend.getDatabase(ORIGIN, "db").getObjectStore("s");
+            assertEquals(9, store.count(IndexedDbKeyRange.ALL));
+
+            backend.deleteDatabase(ORIGIN, "db");
+        }
+
+        try (IndexedDbBackend backend = IndexedDbBackend.open(file)) {
+            assertNull(backend.getDatabase(ORIGIN, "db"));
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void incompleteTail() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("indexed.db");
+
+        try (IndexedDbBackend backend = IndexedDbBackend.open(file)) {
+            fill(backend);
+        }
+
+        final byte[] bytes = Files.readAllBytes(file);
+        final byte[] broken = Arrays.copyOf(bytes, bytes.length + 7);
+        broken[bytes.length + 3] = 50;
+        Files.write(file, broken);
+
+        try (IndexedDbBackend backend = IndexedDbBackend.open(file)) {
+            final IndexedDbObjectStore store = backend.getDatabase(ORIGIN, "db").getObjectStore("s");
+            assertEquals(10, store.count(IndexedDbKeyRange.ALL));
+            assertEquals(bytes.length, Files.size(file));
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void locked() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("indexed.db");
+
+        try (IndexedDbBackend backend = IndexedDbBackend.open(file)) {
+            try (IndexedDbBackend second = IndexedDbBackend.open(file)) {
+                fail("IOException expected");
+            }
+            catch (final IOException e) {
+                // expected
+            }
+        }
+    }
+
+    private static IndexedDbObjectStore fill(final IndexedDbBackend backend) {
+        final IndexedDbTransaction transaction = backend.beginTransaction();
+        final IndexedDbDatabase database = transaction.setVersion(ORIGIN, "db", 1);
+        final IndexedDbObjectStore store = transaction.createObjectStore(database, "s", "id", true);
+        transaction.createIndex(store, "byName", "name", true, false);
+        for (int i = 0; i < 10; i++) {
+            final Double key = transaction.nextKey(store);
+            transaction.put(store, key, "{\"v\":" + i + "}", indexKeys("n" + (9 - i)), true);
+        }
+        transaction.commit();
+        return store;
+    }
+
+    private static Map<String, List<Object>> indexKeys(final String name) {
+        return Collections.singletonMap("byName", Collections.<Object>singletonList(name));
+    }
+}
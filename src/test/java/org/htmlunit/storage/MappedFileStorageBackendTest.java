@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link MappedFileStorageBackend}.
+ *
+ * @author Ronald Brill
+ */
+public class MappedFileStorageBackendTest {
+
+    /**
+     * Utility for temporary folders.
+     * Has to be public due to JUnit's constraints for @Rule.
+     */
+    @Rule
+    public final TemporaryFolder tmpFolderProvider_ = new TemporaryFolder();
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void persistent() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("local.storage");
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            final Map<String, String> store = backend.getStore("http://localhost");
+            store.put("myCat", "Tom");
+            store.put("myDog", "Rex");
+            store.put("myCat", "Garfield");
+            store.put("ä😀", "ü");
+            store.remove("myDog");
+
+            final Map<String, String> other = backend.getStore("https://htmlunit.org");
+            other.put("key", "value");
+            other.clear();
+            other.put("key2", "value2");
+        }
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            final Map<String, String> store = backend.getStore("http://localhost");
+            assertEquals(2, store.size());
+            assertEquals("Garfield", store.get("myCat"));
+            assertEquals("ü", store.get("ä😀"));
+            assertNull(store.get("myDog"));
+
+            final Iterator<String> keys = store.keySet().iterator();
+            assertEquals("myCat", keys.next());
+            keys.next();
+            keys.remove();
+
+            final Map<String, String> other = backend.getStore("https://htmlunit.org");
+            assertEquals(1, other.size());
+            assertEquals("value2", other.get("key2"));
+        }
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            assertEquals(1, backend.getStore("http://localhost").size());
+        }
+    }
+
+    /**
+     * Opening a file that is not a storage file must not modify it.
+     * @throws Exception in case of error
+     */
+    @Test
+    public void notAStorageFile() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("some.txt");
+        final byte[] content = "some text, not a storage file".getBytes(StandardCharsets.US_ASCII);
+        Files.write(file, content);
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            fail("IOException expected");
+        }
+        catch (final IOException e) {
+            // expected
+        }
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void shared() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("local.storage");
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            try (MappedFileStorageBackend backend2 = MappedFileStorageBackend.open(file)) {
+                assertSame(backend, backend2);
+            }
+
+            // still open
+            backend.getStore("http://localhost").put("myCat", "Tom");
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void quota() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("local.storage");
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file, 10)) {
+            final Map<String, String> store = backend.getStore("http://localhost");
+            store.put("key", "1234567");
+            try {
+                store.put("k", "1");
+                fail("StorageQuotaExceededException expected");
+            }
+            catch (final StorageQuotaExceededException e) {
+                // expected
+            }
+
+            // replacing is fine
+            store.put("key", "7654321");
+
+            // the quota is per origin
+            backend.getStore("http://htmlunit.org").put("key", "1234567");
+        }
+    }
+
+    /**
+     * @throws Exception in case of error
+     */
+    @Test
+    public void compaction() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("local.storage");
+        final String value = StringUtils.repeat('x', 1000);
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            final Map<String, String> store = backend.getStore("http://localhost");
+            for (int i = 0; i < 20_000; i++) {
+                store.put("key" + (i % 50), value + i);
+            }
+            // 20MB were written, the compaction keeps the file small
+            assertTrue(Files.size(file) < 4 * 1024 * 1024);
+
+            backend.compact();
+            assertTrue(Files.size(file) < 128 * 1024);
+        }
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            final Map<String, String> store = backend.getStore("http://localhost");
+            assertEquals(50, store.size());
+            assertEquals(value + "19999", store.get("key49"));
+        }
+    }
+
+    /**
+     * Deserializing does not take an additional reference of an open backend.
+     * @throws Exception in case of error
+     */
+    @Test
+    public void serialization() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("local.storage");
+
+        final MappedFileStorageBackend backend = MappedFileStorageBackend.open(file, 100);
+        backend.getStore("http://localhost").put("myCat", "Tom");
+
+        final MappedFileStorageBackend copy = SerializationUtils.clone(backend);
+        assertSame(backend, copy);
+
+        // the only reference is released, the file is closed
+        backend.close();
+        try (MappedFileStorageBackend reopened = MappedFileStorageBackend.open(file, 200)) {
+            assertNotSame(backend, reopened);
+            assertEquals(200, reopened.getQuota());
+            assertEquals("Tom", reopened.getStore("http://localhost").get("myCat"));
+        }
+    }
+
+    /**
+     * The file is replaced by the compaction; the backend works with the new one afterwards.
+     * @throws Exception in case of error
+     */
+    @Test
+    public void modifyAfterCompaction() throws Exception {
+        final Path file = tmpFolderProvider_.newFolder("hu").toPath().resolve("local.storage");
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            final Map<String, String> store = backend.getStore("http://localhost");
+            store.put("myCat", "Tom");
+            backend.compact();
+            store.put("myDog", "Rex");
+            backend.compact();
+            store.put("myBird", "Tweety");
+            assertTrue(Files.notExists(file.resolveSibling(file.getFileName() + ".compact")));
+        }
+
+        try (MappedFileStorageBackend backend = MappedFileStorageBackend.open(file)) {
+            final Map<String, String> store = backend.getStore("http://localhost");
+            assertEquals(3, store.size());
+            assertEquals("Tweety", store.get("myBird"));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2025 Gargoyle Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.htmlunit.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.htmlunit.MockWebConnection;
+import org.htmlunit.WebClient;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.HtmlPage;
+import org.junit.Test;
+
+/**
+ * Tests for {@link StringInterner}.
+ *
+ * @author Ronald Brill
+ */
+public class StringInternerTest {
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void internCharSequence() throws Exception {
+        final StringInterner interner = new StringInterner();
+
+        final String first = interner.intern(new StringBuilder("\n    "));
+        assertEquals("\n    ", first);
+        assertEquals(0, interner.getHitCount());
+        assertEquals(1, interner.getMissCount());
+
+        assertSame(first, interner.intern(new StringBuilder("\n    ")));
+        assertSame(first, interner.intern(new String("\n    ")));
+        assertEquals(2, interner.getHitCount());
+        assertEquals(1, interner.getMissCount());
+        assertEquals(10, interner.getSavedChars());
+
+        assertEquals("", interner.intern(new StringBuilder()));
+        assertEquals(2, interner.getHitCount());
+        assertEquals(1, interner.getMissCount());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void internString() throws Exception {
+        final StringInterner interner = new StringInterner();
+
+        assertNull(interner.intern((String) null));
+
+        final String value = new String("button primary");
+        assertSame(value, interner.intern(value));
+        assertSame(value, interner.intern(new String("button primary")));
+        assertSame(value, interner.intern(new StringBuilder("button primary")));
+        assertEquals(2, interner.getHitCount());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void tooLong() throws Exception {
+        final StringInterner interner = new StringInterner(16, 4);
+
+        final String value = new String("abcde");
+        assertSame(value, interner.intern(value));
+        assertNotSame(value, interner.intern(new String("abcde")));
+        assertEquals(0, interner.getHitCount());
+        assertEquals(0, interner.getMissCount());
+    }
+
+    /**
+     * The table is bounded, colliding strings are replacing each other.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void bounded() throws Exception {
+        final StringInterner interner = new StringInterner(1, 64);
+
+        final String a = interner.intern(new StringBuilder("a"));
+        final String b = interner.intern(new StringBuilder("b"));
+        assertEquals("b", b);
+
+        // a was replaced by b
+        assertNotSame(a, interner.intern(new StringBuilder("a")));
+        assertEquals(0, interner.getHitCount());
+        assertEquals(3, interner.getMissCount());
+    }
+
+    /**
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void parser() throws Exception {
+        final String html = "<!DOCTYPE html>\n"
+                + "<html><body>\n"
+                + "  <div class='item'>one</div>\n"
+                + "  <div class='item'>two</div>\n"
+                + "  <div class='item'>three</div>\n"
+                + "</body></html>";
+
+        try (WebClient webClient = new WebClient()) {
+            assertNull(webClient.getStringInterner());
+            webClient.getOptions().setParserStringInterningEnabled(true);
+
+            final MockWebConnection webConnection = new MockWebConnection();
+            webConnection.setDefaultResponse(html);
+            webClient.setWebConnection(webConnection);
+
+            final HtmlPage page1 = webClient.getPage("http://localhost/page1.html");
+            final HtmlPage page2 = webClient.getPage("http://localhost/page2.html");
+
+            final List<DomElement> divs1 = page1.getElementsByTagName("div");
+            final List<DomElement> divs2 = page2.getElementsByTagName("div");
+            final String cls = divs1.get(0).getAttribute("class");
+            assertSame(cls, divs1.get(1).getAttribute("class"));
+            assertSame(cls, divs2.get(2).getAttribute("class"));
+
+            // the whitespace between the divs
+            assertSame(divs1.get(0).getPreviousSibling().getNodeValue(),
+                    divs2.get(1).getPreviousSibling().getNodeValue());
+
+            final StringInterner interner = webClient.getStringInterner();
+            assertTrue(interner.getHitCount() > 0);
+            assertTrue(interner.getSavedBytesEstimate() > 0);
+        }
+    }
+}
@@ -124,6 +124,29 @@ public class XmlPageTest extends WebServerTestCase {
         assertEquals(expected, msg.asNormalizedText());
     }
 
+    /**
+     * The compiled xpath expressions are cached; the same prefix
+     * has to be resolved for every document.
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void xpathSamePrefixDifferentNamespace() throws Exception {
+        final WebClient client = getWebClient();
+        final MockWebConnection webConnection = new MockWebConnection();
+        webConnection.setResponse(URL_FIRST,
+                "<root xmlns:x='urn:a'><x:item>a</x:item></root>", MimeType.TEXT_XML);
+        webConnection.setResponse(URL_SECOND,
+                "<root xmlns:x='urn:b' xmlns:y='urn:a'><y:item>c</y:item><x:item>b</x:item></root>",
+                MimeType.TEXT_XML);
+        client.setWebConnection(webConnection);
+
+        XmlPage xmlPage = client.getPage(URL_FIRST);
+        assertEquals("a", ((DomElement) xmlPage.getFirstByXPath("//x:item")).getTextContent());
+
+        xmlPage = client.getPage(URL_SECOND);
+        assertEquals("b", ((DomElement) xmlPage.getFirstByXPath("//x:item")).getTextContent());
+    }
+
     /**
      * Tests namespace.
      * @throws Exception if the test fails